@@ -0,0 +1,124 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Admission control for analyses running concurrently.
+ * <p>
+ * Every analysis is admitted with an estimate of the memory it requires. An analysis is admitted when the
+ * number of running analyses is below the maximum and the memory estimates of the running analyses, including
+ * the new one, fit in the memory budget. An analysis is always admitted when no other analysis is running,
+ * such that analyses exceeding the budget on their own can still be performed.
+ * </p>
+ */
+public class AnalysisAdmission {
+
+	/**
+	 * Initializes a new instance of <code>AnalysisAdmission</code>.
+	 * 
+	 * @param aMaxRunning
+	 *            Maximum number of analyses running at the same time.
+	 * @param aMemoryBudget
+	 *            Memory, in bytes, available to the running analyses.
+	 */
+	public AnalysisAdmission(int aMaxRunning, long aMemoryBudget) {
+		maxRunning = Math.max(1, aMaxRunning);
+		memoryBudget = aMemoryBudget;
+		running = 0;
+		admittedMemory = 0;
+	}
+
+	/**
+	 * Waits until an analysis with the given memory estimate can be admitted and admits it.
+	 * 
+	 * @param aMemory
+	 *            Estimated memory, in bytes, required by the analysis.
+	 * @throws InterruptedException
+	 *             If the current thread is interrupted while waiting.
+	 * @see #release(long)
+	 */
+	public synchronized void admit(long aMemory) throws InterruptedException {
+		while (running > 0 && (running >= maxRunning || admittedMemory + aMemory > memoryBudget)) {
+			wait();
+		}
+		running++;
+		admittedMemory += aMemory;
+	}
+
+	/**
+	 * Releases the resources of an admitted analysis that has finished.
+	 * 
+	 * @param aMemory
+	 *            Estimated memory, in bytes, the analysis was admitted with.
+	 */
+	public synchronized void release(long aMemory) {
+		running--;
+		admittedMemory -= aMemory;
+		notifyAll();
+	}
+
+	/**
+	 * Waits until all admitted analyses have finished.
+	 * 
+	 * @throws InterruptedException
+	 *             If the current thread is interrupted while waiting.
+	 */
+	public synchronized void awaitIdle() throws InterruptedException {
+		while (running > 0) {
+			wait();
+		}
+	}
+
+	/**
+	 * Gets the number of analyses currently running.
+	 * 
+	 * @return Number of admitted analyses that have not been released.
+	 */
+	public synchronized int getRunning() {
+		return running;
+	}
+
+	/**
+	 * Maximum number of analyses running at the same time.
+	 */
+	private final int maxRunning;
+
+	/**
+	 * Memory, in bytes, available to the running analyses.
+	 */
+	private final long memoryBudget;
+
+	/**
+	 * Number of analyses currently running.
+	 */
+	private int running;
+
+	/**
+	 * Sum of the memory estimates, in bytes, of the running analyses.
+	 */
+	private long admittedMemory;
+}
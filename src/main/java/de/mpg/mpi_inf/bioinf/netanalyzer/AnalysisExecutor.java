@@ -27,6 +27,7 @@ package de.mpg.mpi_inf.bioinf.netanalyzer;
  */
 
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.AnalysisResultPanel;
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.ResultPanelFactory;
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.VisualStyleBuilder;
@@ -59,13 +60,14 @@ import java.util.Properties;
  * the dialog;</li>
  * <li>(optionally) creates an
  * {@link de.mpg.mpi_inf.bioinf.netanalyzer.ui.AnalysisResultPanel} to display
- * results once the analysis completes successfully.</li>
+ * partial results while the analysis is running and the final results once
+ * the analysis completes successfully.</li>
  * </ul>
  * </p>
  * 
  * @author Yassen Assenov
  */
-public class AnalysisExecutor extends SwingWorker implements ActionListener {
+public class AnalysisExecutor extends SwingWorker implements ActionListener, PartialResultListener {
 
 	private static final Logger logger = LoggerFactory.getLogger(AnalysisExecutor.class);
 
@@ -113,6 +115,7 @@ public class AnalysisExecutor extends SwingWorker implements ActionListener {
 		monitor = new ProgressMonitor(owner, Messages.DT_ANALYZING, null, 0, maxProgress);
 		monitor.setMillisToDecideToPopup(1500);
 		timer = new Timer(1000, this);
+		analyzer.addPartialResultListener(this);
 	}
 
 	/*
@@ -128,6 +131,7 @@ public class AnalysisExecutor extends SwingWorker implements ActionListener {
 			timer.stop();
 			timer = null;
 			monitor.close();
+			analyzer.removePartialResultListener(this);
 			analyzer.cancel();
 			interrupt();
 			for (final AnalysisListener listener : listeners) {
@@ -138,15 +142,9 @@ public class AnalysisExecutor extends SwingWorker implements ActionListener {
 			timer.stop();
 			timer = null;
 			monitor.close();
+			analyzer.removePartialResultListener(this);
 			if (showDialog) {
-				try {
-					AnalysisResultPanel d = new AnalysisResultPanel(swingApplication, owner, resultPanelFactory, analyzer.getStats(), analyzer, viewManager, vsBuilder, vmm);
-					registrar.registerService(d,CytoPanelStateChangedListener.class,new Properties());
-					d.setVisible(true);
-				} catch (InnerException ex) {
-					// NetworkAnalyzer internal error
-					logger.error(Messages.SM_LOGERROR, ex);
-				}
+				showResults(analyzer.getStats());
 			}
 			for (final AnalysisListener listener : listeners) {
 				listener.analysisCompleted(analyzer);
@@ -154,6 +152,28 @@ public class AnalysisExecutor extends SwingWorker implements ActionListener {
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.mpg.mpi_inf.bioinf.netanalyzer.PartialResultListener#partialResultAvailable
+	 * (de.mpg.mpi_inf.bioinf.netanalyzer.NetworkAnalyzer,
+	 * de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats)
+	 */
+	public void partialResultAvailable(NetworkAnalyzer aAnalyzer, final NetworkStats aSnapshot) {
+		if (!showDialog) {
+			return;
+		}
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				// Ignore snapshots arriving after the analysis was completed or cancelled
+				if (timer != null && !monitor.isCanceled()) {
+					showResults(aSnapshot);
+				}
+			}
+		});
+	}
+
 	/**
 	 * Adds an <code>AnalysisListener</code> to this executor.
 	 * 
@@ -182,6 +202,35 @@ public class AnalysisExecutor extends SwingWorker implements ActionListener {
 		return null;
 	}
 
+	/**
+	 * Displays the given network statistics in the analysis results panel.
+	 * <p>
+	 * The panel is created when this method is called for the first time; subsequent calls update the
+	 * statistics displayed in it, unless the user has closed the panel in the meantime. This method must be
+	 * called on the event dispatch thread.
+	 * </p>
+	 * 
+	 * @param aStats
+	 *            Network statistics (partial or final) to be displayed.
+	 */
+	private void showResults(NetworkStats aStats) {
+		try {
+			if (resultPanel == null) {
+				resultPanel = new AnalysisResultPanel(swingApplication, owner, resultPanelFactory, aStats, analyzer, viewManager, vsBuilder, vmm);
+				registrar.registerService(resultPanel,CytoPanelStateChangedListener.class,new Properties());
+				resultPanel.setVisible(true);
+			} else if (resultPanel.isClosed()) {
+				// The panel was closed by the user while the analysis was running
+				analyzer.removePartialResultListener(this);
+			} else {
+				resultPanel.updateStats(aStats);
+			}
+		} catch (InnerException ex) {
+			// NetworkAnalyzer internal error
+			logger.error(Messages.SM_LOGERROR, ex);
+		}
+	}
+
 	/**
 	 * Enables or disables the display of analysis results dialog.
 	 * 
@@ -219,4 +268,10 @@ public class AnalysisExecutor extends SwingWorker implements ActionListener {
 	 */
 	private boolean showDialog;
 
+	/**
+	 * Panel displaying the (partial) analysis results; <code>null</code> if no results have been
+	 * displayed yet.
+	 */
+	private AnalysisResultPanel resultPanel;
+
 }
@@ -0,0 +1,307 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JMX view of a running {@link NetworkAnalyzer}.
+ * <p>
+ * Analyzers register themselves through {@link #register(NetworkAnalyzer)} when the analysis starts and
+ * unregister when it finishes or is cancelled. Failures to register are logged and otherwise ignored, such
+ * that monitoring never affects the analysis.
+ * </p>
+ */
+public class AnalysisMonitor implements AnalysisMonitorMBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(AnalysisMonitor.class);
+
+	/**
+	 * Domain of the object names of all NetworkAnalyzer MBeans.
+	 */
+	public static final String DOMAIN = "de.mpg.mpi_inf.bioinf.netanalyzer";
+
+	/**
+	 * Registers an MBean for the given analyzer in the platform MBean server.
+	 * 
+	 * @param aAnalyzer
+	 *            Analyzer to be monitored.
+	 */
+	public static void register(NetworkAnalyzer aAnalyzer) {
+		final ObjectName name = register(new AnalysisMonitor(aAnalyzer), "NetworkAnalyzer", aAnalyzer
+				.getNetworkTitle());
+		if (name != null) {
+			registered.put(aAnalyzer, name);
+		}
+	}
+
+	/**
+	 * Unregisters the MBean of the given analyzer, if one is registered.
+	 * 
+	 * @param aAnalyzer
+	 *            Analyzer whose MBean is to be removed.
+	 */
+	public static void unregister(NetworkAnalyzer aAnalyzer) {
+		unregister(registered.remove(aAnalyzer));
+	}
+
+	/**
+	 * Registers an MBean in the platform MBean server.
+	 * 
+	 * @param aBean
+	 *            MBean to be registered.
+	 * @param aType
+	 *            Value of the <code>type</code> key of the object name.
+	 * @param aName
+	 *            Value of the <code>name</code> key of the object name; may be <code>null</code>.
+	 * @return Object name of the registered MBean; <code>null</code> if the MBean could not be registered.
+	 */
+	static ObjectName register(Object aBean, String aType, String aName) {
+		try {
+			final String name = ObjectName.quote(aName != null ? aName : "");
+			final ObjectName objectName = new ObjectName(DOMAIN + ":type=" + aType + ",name=" + name + ",id="
+					+ nextID.incrementAndGet());
+			getServer().registerMBean(aBean, objectName);
+			return objectName;
+		} catch (JMException ex) {
+			logger.warn("Could not register MBean for " + aName, ex);
+		} catch (SecurityException ex) {
+			logger.warn("Could not register MBean for " + aName, ex);
+		}
+		return null;
+	}
+
+	/**
+	 * Unregisters an MBean from the platform MBean server.
+	 * 
+	 * @param aName
+	 *            Object name of the MBean; if this is <code>null</code>, calling this method has no effect.
+	 */
+	static void unregister(ObjectName aName) {
+		if (aName == null) {
+			return;
+		}
+		try {
+			getServer().unregisterMBean(aName);
+		} catch (JMException ex) {
+			// MBean already removed; ignore
+		} catch (SecurityException ex) {
+			logger.warn("Could not unregister MBean " + aName, ex);
+		}
+	}
+
+	/**
+	 * Estimates the time left until a process completes, assuming a constant rate of progress.
+	 * 
+	 * @param aElapsed
+	 *            Time elapsed since the start of the process, in milliseconds.
+	 * @param aProgress
+	 *            Current progress of the process.
+	 * @param aMaxProgress
+	 *            Maximum progress of the process.
+	 * @return Estimated time left, in seconds; <code>-1</code> if no progress has been made yet.
+	 */
+	static long estimateTimeLeft(long aElapsed, int aProgress, int aMaxProgress) {
+		if (aProgress <= 0 || aElapsed <= 0) {
+			return -1;
+		}
+		final double left = (double) aElapsed * (aMaxProgress - aProgress) / aProgress;
+		return Math.max(0, Math.round(left / 1000));
+	}
+
+	/**
+	 * Gets the heap memory currently used by the virtual machine.
+	 * 
+	 * @return Used heap memory, in bytes.
+	 */
+	static long getUsedHeap() {
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * Initializes a new instance of <code>AnalysisMonitor</code>.
+	 * 
+	 * @param aAnalyzer
+	 *            Analyzer to be monitored.
+	 */
+	public AnalysisMonitor(NetworkAnalyzer aAnalyzer) {
+		analyzer = aAnalyzer;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#getNetworkTitle()
+	 */
+	public String getNetworkTitle() {
+		return analyzer.getNetworkTitle();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#getPhase()
+	 */
+	public String getPhase() {
+		return analyzer.getPhase();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#getProgress()
+	 */
+	public int getProgress() {
+		return analyzer.getCurrentProgress();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#getMaxProgress()
+	 */
+	public int getMaxProgress() {
+		return analyzer.getMaxProgress();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#getSourcesProcessed()
+	 */
+	public int getSourcesProcessed() {
+		return analyzer.getSourcesProcessed();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#getThroughput()
+	 */
+	public double getThroughput() {
+		final long elapsed = getElapsedMillis();
+		return elapsed > 0 ? analyzer.getSourcesProcessed() * 1000.0 / elapsed : 0.0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#getElapsedTime()
+	 */
+	public long getElapsedTime() {
+		return getElapsedMillis() / 1000;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#getEstimatedTimeLeft()
+	 */
+	public long getEstimatedTimeLeft() {
+		return estimateTimeLeft(getElapsedMillis(), getProgress(), getMaxProgress());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#getWorkerCount()
+	 */
+	public int getWorkerCount() {
+		return analyzer.getWorkerCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#getAccumulatorBytes()
+	 */
+	public long getAccumulatorBytes() {
+		return analyzer.getAccumulatorBytes();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#getHeapUsed()
+	 */
+	public long getHeapUsed() {
+		return getUsedHeap();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisMonitorMBean#cancel()
+	 */
+	public void cancel() {
+		analyzer.cancel();
+	}
+
+	/**
+	 * Gets the time elapsed since the start of the analysis.
+	 * 
+	 * @return Elapsed time, in milliseconds; <code>0</code> if the analysis has not started.
+	 */
+	private long getElapsedMillis() {
+		final long start = analyzer.getStartTime();
+		return start > 0 ? System.currentTimeMillis() - start : 0;
+	}
+
+	/**
+	 * Gets the MBean server in which the monitors are registered.
+	 * 
+	 * @return The platform MBean server.
+	 */
+	private static MBeanServer getServer() {
+		return ManagementFactory.getPlatformMBeanServer();
+	}
+
+	/**
+	 * Counter used to make the object names of the MBeans unique.
+	 */
+	private static final AtomicInteger nextID = new AtomicInteger();
+
+	/**
+	 * Object names of the MBeans of the currently running analyzers.
+	 */
+	private static final Map<NetworkAnalyzer, ObjectName> registered = new ConcurrentHashMap<NetworkAnalyzer, ObjectName>();
+
+	/**
+	 * Analyzer monitored by this instance.
+	 */
+	private final NetworkAnalyzer analyzer;
+}
@@ -0,0 +1,120 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Management interface for monitoring a running network analysis.
+ * <p>
+ * An instance of this interface is registered in the platform MBean server for every running
+ * {@link NetworkAnalyzer}, such that the analysis can be observed and cancelled from JConsole or any other
+ * JMX client.
+ * </p>
+ */
+public interface AnalysisMonitorMBean {
+
+	/**
+	 * Gets the title of the analyzed network.
+	 * 
+	 * @return Title of the network, including the interpretation applied.
+	 */
+	public String getNetworkTitle();
+
+	/**
+	 * Gets the phase of the analysis currently running.
+	 * 
+	 * @return Name of the current phase; <code>null</code> if the analysis is not running.
+	 */
+	public String getPhase();
+
+	/**
+	 * Gets the current progress of the analysis.
+	 * 
+	 * @return Number of steps completed in the analysis process.
+	 */
+	public int getProgress();
+
+	/**
+	 * Gets the maximum progress of the analysis.
+	 * 
+	 * @return Total number of steps required for the analysis to finish.
+	 */
+	public int getMaxProgress();
+
+	/**
+	 * Gets the number of source nodes, from which shortest paths have been computed so far.
+	 * 
+	 * @return Number of source nodes processed.
+	 */
+	public int getSourcesProcessed();
+
+	/**
+	 * Gets the average throughput of the analysis.
+	 * 
+	 * @return Number of source nodes processed per second.
+	 */
+	public double getThroughput();
+
+	/**
+	 * Gets the elapsed time of the analysis.
+	 * 
+	 * @return Time, in seconds, since the analysis started.
+	 */
+	public long getElapsedTime();
+
+	/**
+	 * Estimates the time left until the analysis completes.
+	 * 
+	 * @return Estimated time left, in seconds; <code>-1</code> if no estimate is available yet.
+	 */
+	public long getEstimatedTimeLeft();
+
+	/**
+	 * Gets the number of worker threads used by the analysis.
+	 * 
+	 * @return Number of worker threads.
+	 */
+	public int getWorkerCount();
+
+	/**
+	 * Estimates the heap memory occupied by the accumulators of the analysis.
+	 * 
+	 * @return Estimated size of the accumulators, in bytes.
+	 */
+	public long getAccumulatorBytes();
+
+	/**
+	 * Gets the heap memory currently used by the virtual machine.
+	 * 
+	 * @return Used heap memory, in bytes.
+	 */
+	public long getHeapUsed();
+
+	/**
+	 * Cancels the analysis.
+	 */
+	public void cancel();
+}
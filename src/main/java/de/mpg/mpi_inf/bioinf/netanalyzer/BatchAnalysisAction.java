@@ -96,6 +96,7 @@ public class BatchAnalysisAction extends NetAnalyzerAction {
 					final Interpretations ins = d1.getInterpretations();
 					final BatchNetworkAnalyzer analyzer =
 							new BatchNetworkAnalyzer(inOutDirs[1], files, ins,netMgr, cyNetworkViewReaderMgr );
+					analyzer.setResume(d1.isResume());
 					final BatchAnalysisDialog d2 = new BatchAnalysisDialog(desktop, analyzer);
 					d2.setVisible(true);
 					
@@ -0,0 +1,182 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.File;
+
+/**
+ * JMX view of a running {@link BatchNetworkAnalyzer}.
+ */
+public class BatchAnalysisMonitor implements BatchAnalysisMonitorMBean {
+
+	/**
+	 * Initializes a new instance of <code>BatchAnalysisMonitor</code>.
+	 * 
+	 * @param aBatchAnalyzer
+	 *            Batch analyzer to be monitored.
+	 */
+	public BatchAnalysisMonitor(BatchNetworkAnalyzer aBatchAnalyzer) {
+		batchAnalyzer = aBatchAnalyzer;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getCurrentNetwork()
+	 */
+	public String getCurrentNetwork() {
+		final File file = batchAnalyzer.getCurrentFile();
+		return file != null ? file.getName() : null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getPhase()
+	 */
+	public String getPhase() {
+		final NetworkAnalyzer analyzer = batchAnalyzer.getCurrentAnalyzer();
+		return analyzer != null ? analyzer.getPhase() : null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getNetworksProcessed()
+	 */
+	public int getNetworksProcessed() {
+		return batchAnalyzer.getProcessedCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getNetworkCount()
+	 */
+	public int getNetworkCount() {
+		return batchAnalyzer.getInputFilesCount();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getProgress()
+	 */
+	public int getProgress() {
+		return batchAnalyzer.getCurrentProgress();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getMaxProgress()
+	 */
+	public int getMaxProgress() {
+		return batchAnalyzer.getMaxProgress();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getThroughput()
+	 */
+	public double getThroughput() {
+		final long elapsed = getElapsedMillis();
+		return elapsed > 0 ? batchAnalyzer.getProcessedCount() * 3600000.0 / elapsed : 0.0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getElapsedTime()
+	 */
+	public long getElapsedTime() {
+		return getElapsedMillis() / 1000;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getEstimatedTimeLeft()
+	 */
+	public long getEstimatedTimeLeft() {
+		return AnalysisMonitor.estimateTimeLeft(getElapsedMillis(), getProgress(), getMaxProgress());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getWorkerCount()
+	 */
+	public int getWorkerCount() {
+		final NetworkAnalyzer analyzer = batchAnalyzer.getCurrentAnalyzer();
+		return analyzer != null ? analyzer.getWorkerCount() : 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getAccumulatorBytes()
+	 */
+	public long getAccumulatorBytes() {
+		final NetworkAnalyzer analyzer = batchAnalyzer.getCurrentAnalyzer();
+		return analyzer != null ? analyzer.getAccumulatorBytes() : 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#getHeapUsed()
+	 */
+	public long getHeapUsed() {
+		return AnalysisMonitor.getUsedHeap();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.BatchAnalysisMonitorMBean#cancel()
+	 */
+	public void cancel() {
+		batchAnalyzer.cancel();
+	}
+
+	/**
+	 * Gets the time elapsed since the start of the batch analysis.
+	 * 
+	 * @return Elapsed time, in milliseconds; <code>0</code> if the batch analysis has not started.
+	 */
+	private long getElapsedMillis() {
+		final long start = batchAnalyzer.getStartTime();
+		return start > 0 ? System.currentTimeMillis() - start : 0;
+	}
+
+	/**
+	 * Batch analyzer monitored by this instance.
+	 */
+	private final BatchNetworkAnalyzer batchAnalyzer;
+}
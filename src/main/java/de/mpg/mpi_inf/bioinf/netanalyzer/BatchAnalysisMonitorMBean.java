@@ -0,0 +1,127 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Management interface for monitoring a running batch analysis.
+ * <p>
+ * While a {@link BatchNetworkAnalyzer} is running, an instance of this interface is registered in the
+ * platform MBean server. The analyzer of the current network is registered separately as
+ * {@link AnalysisMonitorMBean}.
+ * </p>
+ */
+public interface BatchAnalysisMonitorMBean {
+
+	/**
+	 * Gets the name of the network file currently analyzed.
+	 * 
+	 * @return Name of the current input file; <code>null</code> if the batch analysis is not running.
+	 */
+	public String getCurrentNetwork();
+
+	/**
+	 * Gets the phase of the analysis of the current network.
+	 * 
+	 * @return Name of the current phase; <code>null</code> if no network is being analyzed.
+	 */
+	public String getPhase();
+
+	/**
+	 * Gets the number of networks whose analysis is complete.
+	 * 
+	 * @return Number of networks processed.
+	 */
+	public int getNetworksProcessed();
+
+	/**
+	 * Gets the number of networks in the batch.
+	 * 
+	 * @return Number of input files.
+	 */
+	public int getNetworkCount();
+
+	/**
+	 * Gets the current progress of the batch analysis.
+	 * 
+	 * @return Number of steps completed in the batch analysis.
+	 */
+	public int getProgress();
+
+	/**
+	 * Gets the maximum progress of the batch analysis.
+	 * 
+	 * @return Total number of steps required for the batch analysis to finish.
+	 */
+	public int getMaxProgress();
+
+	/**
+	 * Gets the average throughput of the batch analysis.
+	 * 
+	 * @return Number of networks processed per hour.
+	 */
+	public double getThroughput();
+
+	/**
+	 * Gets the elapsed time of the batch analysis.
+	 * 
+	 * @return Time, in seconds, since the batch analysis started.
+	 */
+	public long getElapsedTime();
+
+	/**
+	 * Estimates the time left until the batch analysis completes.
+	 * 
+	 * @return Estimated time left, in seconds; <code>-1</code> if no estimate is available yet.
+	 */
+	public long getEstimatedTimeLeft();
+
+	/**
+	 * Gets the number of worker threads used by the analysis of the current network.
+	 * 
+	 * @return Number of worker threads; <code>0</code> if no network is being analyzed.
+	 */
+	public int getWorkerCount();
+
+	/**
+	 * Estimates the heap memory occupied by the accumulators of the analysis of the current network.
+	 * 
+	 * @return Estimated size of the accumulators, in bytes.
+	 */
+	public long getAccumulatorBytes();
+
+	/**
+	 * Gets the heap memory currently used by the virtual machine.
+	 * 
+	 * @return Used heap memory, in bytes.
+	 */
+	public long getHeapUsed();
+
+	/**
+	 * Cancels the batch analysis.
+	 */
+	public void cancel();
+}
@@ -28,19 +28,35 @@ package de.mpg.mpi_inf.bioinf.netanalyzer;
 
 
 import java.io.File;
+import java.io.FileFilter;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.management.ObjectName;
 
 import org.cytoscape.io.read.CyNetworkReader;
 import org.cytoscape.io.read.CyNetworkReaderManager;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkManager;
 import org.cytoscape.model.CyNode;
+import org.jfree.chart.ChartPanel;
 
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.AnalysisError;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Interpretations;
@@ -50,9 +66,17 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInspection;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStatus;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NodeResults;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.BatchManifest;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.BatchResultsIndex;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.BinaryStatsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.IOUtils;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.NodeResultsSerializer;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.StatsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.PluginSettings;
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.BatchAnalysisDialog;
+import de.mpg.mpi_inf.bioinf.netanalyzer.ui.ChartExporter;
 
 /**
  * Class for batch analysis of networks.
@@ -84,9 +108,18 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 		inputFiles = aInputFiles;
 		interpretations = aInterpr;
 		reports = new ArrayList<NetworkAnalysisReport>();
-		scale = 0.0;
-		analyzing = false;
-		subProgress = 0;
+		running = new HashMap<NetworkAnalyzer, Double>();
+		currentFile = null;
+		startedCount = 0;
+		startTime = 0;
+		resume = false;
+		shardIndex = 0;
+		shardCount = 1;
+		manifest = null;
+		index = null;
+		saver = null;
+		chartExporter = null;
+		pendingSaves = new Semaphore(MAX_PENDING_SAVES);
 		this.netMgr = netMgr;
 		this.cyNetworkViewReaderMgr = cyNetworkViewReaderMgr;
 	}
@@ -101,8 +134,8 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	public void cancel() {
 		cancelled = true;
 		synchronized (this) {
-			if (analyzer != null) {
-				analyzer.cancel();
+			for (final NetworkAnalyzer runningAnalyzer : running.keySet()) {
+				runningAnalyzer.cancel();
 			}
 		}
 	}
@@ -114,124 +147,418 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	 */
 	@Override
 	public Object construct() {
+		final ObjectName monitorName = AnalysisMonitor.register(new BatchAnalysisMonitor(this),
+				"BatchNetworkAnalyzer", outputDir.getName());
+		try {
+			return analyzeFiles();
+		} finally {
+			currentFile = null;
+			AnalysisMonitor.unregister(monitorName);
+		}
+	}
+
+	/**
+	 * Loads and analyzes all input networks, saving the results in the output directory.
+	 * <p>
+	 * The networks are processed in a pipeline: the next network is loaded by a separate thread while the
+	 * current one is analyzed, and the results are saved by another thread. At most one network is loaded in
+	 * advance and at most {@link #MAX_PENDING_SAVES} results wait to be saved, which bounds the memory used by
+	 * the pipeline.
+	 * </p>
+	 * <p>
+	 * Small networks are analyzed concurrently, each with a single worker thread, as long as their estimated
+	 * memory footprint fits in the memory budget of the batch analysis. Large networks are analyzed one at a
+	 * time using all available processors, after all running analyses of small networks have finished.
+	 * </p>
+	 * 
+	 * @return Always <code>null</code>.
+	 */
+	private Object analyzeFiles() {
 		progress = 0;
-		for (final File inputFile : inputFiles) {
+		startTime = System.currentTimeMillis();
+		final int processors = Runtime.getRuntime().availableProcessors();
+		final ExecutorService loader = Executors.newSingleThreadExecutor();
+		final ExecutorService jobs = Executors.newFixedThreadPool(processors);
+		final AnalysisAdmission admission = new AnalysisAdmission(processors, Runtime.getRuntime().maxMemory()
+				/ 2);
+		saver = Executors.newSingleThreadExecutor();
+		final PluginSettings settings = SettingsSerializer.getPluginSettings();
+		if (!ChartExporter.FORMAT_NONE.equals(settings.getChartFormat())) {
+			chartExporter = new ChartExporter(settings.getChartFormat(), ChartPanel.DEFAULT_WIDTH,
+					ChartPanel.DEFAULT_HEIGHT, processors);
+		}
+		manifest = new BatchManifest(outputDir, interpretations.name(), describeSettings(settings));
+		index = new BatchResultsIndex(outputDir);
+		if (!initShard(settings.getShard())) {
+			writeLine(Messages.SM_BADSHARD);
+		}
+		NetworkLoader nextLoader = null;
+		Future<CyNetwork> nextNetwork = null;
+		try {
+			if (!inputFiles.isEmpty()) {
+				nextLoader = new NetworkLoader(inputFiles.get(0));
+				nextNetwork = loader.submit(nextLoader);
+			}
+			for (int i = 0; i < inputFiles.size(); i++) {
+				final File inputFile = inputFiles.get(i);
+				currentFile = inputFile;
+				startedCount++;
 
-			// Make a new network in cytoscape from a filename in
-			// the network-directory
-			CyNetwork network = null;
-			try {
-				write(Messages.SM_LOADING + inputFile.getName() + " ... ");
-				if (!inputFile.isFile()) {
-					throw new RuntimeException();
+				// Wait for the network to be loaded and start loading the next one
+				final NetworkLoader currentLoader = nextLoader;
+				CyNetwork network = null;
+				// The line is written once the network is loaded, as running jobs write messages meanwhile
+				final String loading = Messages.SM_LOADING + inputFile.getName() + " ... ";
+				try {
+					network = nextNetwork.get();
+				} catch (InterruptedException e) {
+					return null;
+				} catch (ExecutionException e) {
+					if (!(e.getCause() instanceof RuntimeException)) {
+						// Reader failed
+						return null;
+					}
+				}
+				nextNetwork = null;
+				if (i + 1 < inputFiles.size() && !cancelled) {
+					nextLoader = new NetworkLoader(inputFiles.get(i + 1));
+					nextNetwork = loader.submit(nextLoader);
+				}
+				final List<NetworkAnalysisReport> keptReports = currentLoader.getKeptReports();
+				if (keptReports != null) {
+					// Input file has not changed since the previous analysis
+					writeLine(loading + Messages.SM_UNCHANGED);
+					for (final NetworkAnalysisReport report : keptReports) {
+						addReport(report);
+					}
+					addProgress(PROGRESS_PER_NET);
+					continue;
+				}
+				if (network == null) {
+					writeLine(loading + Messages.SM_READERROR);
+					addReport(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_NOT_OPENED));
+					addProgress(PROGRESS_PER_NET);
+					continue;
 				}
-				CyNetworkReader reader = cyNetworkViewReaderMgr.getReader(inputFile.toURI(), inputFile.getName());
+				writeLine(loading + Messages.SM_DONE);
+
+				// Admit the analysis of the network
 				try {
-					// TODO Use the Task's task monitor 
-					reader.run(new SampleTaskMonitor());
-				} catch (Exception ex) {
+					if (isSmall(network)) {
+						final long footprint = estimateFootprint(network);
+						admission.admit(footprint);
+						jobs.execute(new NetworkJob(currentLoader, network, admission, footprint));
+					} else {
+						admission.awaitIdle();
+						if (!analyzeNetwork(currentLoader, network, 0)) {
+							return null;
+						}
+					}
+				} catch (InterruptedException e) {
+					return null;
+				}
+				if (cancelled) {
+					writeLine(Messages.SM_ANALYSISC);
 					return null;
 				}
-				network = reader.getNetworks()[0];
-				network.getRow(network).set(CyNetwork.NAME, inputFile.getName());
-			} catch (RuntimeException e) {
-				writeLine(Messages.SM_READERROR);
-				reports.add(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_NOT_OPENED));
-				progress += PROGRESS_PER_NET;
-				continue;
 			}
-
-			// Get all possible interpretations for the network
-			NetworkInspection inspection = null;
+			return null;
+		} finally {
+			loader.shutdown();
+			if (nextNetwork != null) {
+				discardNetwork(nextNetwork);
+			}
+			// Running jobs still pass their results to the saver, so it is shut down after them
+			jobs.shutdown();
 			try {
-				inspection = CyNetworkUtils.inspectNetwork(network);
-			} catch (IllegalArgumentException e) {
-				writeLine(Messages.SM_DONE);
-				reports.add(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_EMPTY));
-				unloadNetwork(inputFile, network);
-				continue;
-			} catch (NullPointerException e) {
-				reports.add(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_FILE_INVALID));
-				progress += PROGRESS_PER_NET;
-				continue;
+				jobs.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			saver.shutdown();
+			try {
+				saver.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			saver = null;
+			if (chartExporter != null) {
+				chartExporter.shutdown();
+				chartExporter = null;
 			}
+			saveIndex();
+		}
+	}
 
-			final NetworkInterpretation[] interprs = filterInterpretations(getInterpretations(inspection));
-			final int intCount = interprs.length;
-			final int advance = PROGRESS_PER_NET / intCount;
+	/**
+	 * Analyzes all accepted interpretations of a loaded network and unloads it.
+	 * <p>
+	 * This method can be called by several threads at the same time.
+	 * </p>
+	 * 
+	 * @param aLoader
+	 *            Loader of the network.
+	 * @param network
+	 *            Network to be analyzed.
+	 * @param aThreadCount
+	 *            Number of worker threads of the analyses; <code>0</code> to use all available processors.
+	 * @return <code>true</code> if the analysis of the network is complete, <code>false</code> if the batch
+	 *         analysis was cancelled.
+	 */
+	private boolean analyzeNetwork(final NetworkLoader aLoader, CyNetwork network, int aThreadCount) {
+		final File inputFile = aLoader.getInputFile();
+		final boolean resumeNetwork = aLoader.isResumable();
+		// Get all possible interpretations for the network
+		NetworkInspection inspection = null;
+		try {
+			inspection = CyNetworkUtils.inspectNetwork(network);
+		} catch (IllegalArgumentException e) {
+			addReport(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_EMPTY));
+			unloadNetwork(inputFile, network);
+			return true;
+		} catch (NullPointerException e) {
+			addReport(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_FILE_INVALID));
+			addProgress(PROGRESS_PER_NET);
+			return true;
+		}
+
+		final NetworkInterpretation[] interprs = filterInterpretations(getInterpretations(inspection));
+		final int intCount = interprs.length;
+		final int advance = PROGRESS_PER_NET / intCount;
+
+		// Run NetworkAnalyzer on all accepted interpretations; they share one snapshot of the network
+		NetworkSnapshot snapshot = null;
+		for (int j = 0; j < intCount; addProgress(advance), ++j) {
+			if (cancelled) {
+				writeLine(inputFile, Messages.SM_ANALYSISC);
+				return false;
+			}
 
-			// Run NetworkAnalyzer on all accepted interpretations
-			writeLine(Messages.SM_DONE);
-			for (int j = 0; j < intCount; progress += advance, ++j) {
+			// Run the analysis for an interpretation
+			final NetworkInterpretation interpretation = interprs[j];
+			final String networkName = network.getRow(network).get("name",String.class);
+			final String extendedName = networkName + createID(interpretation);
+			final File netstatFile = new File(outputDir, extendedName + ".netstats");
+			if (resumeNetwork && netstatFile.isFile()) {
+				// Results of a previous run are kept
+				writeLine(inputFile, Messages.DI_ANALYZINGINTERP1 + (j + 1) + Messages.DI_ANALYZINGINTERP2
+						+ intCount);
+				writeLine(inputFile, Messages.SM_RESULTSEXIST);
+				addReport(new NetworkAnalysisReport(inputFile, interpretation, netstatFile));
+				continue;
+			}
+			NetworkAnalyzer interprAnalyzer = null;
+			try {
+				if (interpretation.isDirected()) {
+					interprAnalyzer = new DirNetworkAnalyzer(network, null, interpretation);
+				} else {
+					interprAnalyzer = new UndirNetworkAnalyzer(network, null, interpretation);
+				}
+				if (snapshot == null) {
+					snapshot = new NetworkSnapshot(network);
+				}
+				interprAnalyzer.setSnapshot(snapshot);
+				File[] shardFiles = null;
+				if (shardCount > 1) {
+					// Only the sources of this shard are analyzed; the checkpoint file is kept for merging
+					interprAnalyzer.setCheckpointFile(new File(outputDir, createShardName(extendedName,
+							shardIndex, shardCount)), resumeNetwork);
+					interprAnalyzer.setShard(shardIndex, shardCount);
+					interprAnalyzer.setTimeBudget(0);
+				} else {
+					interprAnalyzer.setCheckpointFile(new File(outputDir, extendedName + ".checkpoint"),
+							resumeNetwork);
+					shardFiles = findShards(extendedName);
+					if (shardFiles.length != 0) {
+						interprAnalyzer.setMergedShards(shardFiles);
+						interprAnalyzer.setTimeBudget(0);
+					}
+				}
+				interprAnalyzer.setThreadCount(aThreadCount);
+				interprAnalyzer.setKeepNodeResults(isNodeResultsSaved());
+				writeLine(inputFile, Messages.DI_ANALYZINGINTERP1 + (j + 1) + Messages.DI_ANALYZINGINTERP2
+						+ intCount);
+				final int maxProgress = interprAnalyzer.getMaxProgress();
+				synchronized (this) {
+					analyzer = interprAnalyzer;
+					running.put(interprAnalyzer, Double.valueOf((double) advance / (double) maxProgress));
+				}
 				if (cancelled) {
-					writeLine(Messages.SM_ANALYSISC);
-					return null;
+					interprAnalyzer.cancel();
+				}
+				interprAnalyzer.computeAll();
+				if (cancelled) {
+					writeLine(inputFile, Messages.SM_ANALYSISC);
+					return false;
 				}
+				if (shardCount > 1) {
+					writeLine(inputFile, Messages.SM_SHARDSAVED);
+					continue;
+				}
+				if (shardFiles != null) {
+					// The shards are merged in the results and would be stale after the network changes
+					for (final File shardFile : shardFiles) {
+						shardFile.delete();
+					}
+				}
+				final NetworkStats stats = interprAnalyzer.getStats();
 
-				// Run the analysis for an interpretation
-				final NetworkInterpretation interpretation = interprs[j];
+				stats.setTitle(networkName + interpretation.getInterpretSuffix());
+				// Node attributes are overwritten by the analysis of the next interpretation
+				List<String> attributes = null;
+				if (SettingsSerializer.getPluginSettings().getUseNodeAttributes()) {
+					attributes = formatNodeAttributes(network, interpretation.isDirected());
+				}
+				pendingSaves.acquireUninterruptibly();
 				try {
-					if (interpretation.isDirected()) {
-						analyzer = new DirNetworkAnalyzer(network, null, interpretation);
-					} else {
-						analyzer = new UndirNetworkAnalyzer(network, null, interpretation);
-					}
-					writeLine(Messages.DI_ANALYZINGINTERP1 + (j + 1) + Messages.DI_ANALYZINGINTERP2 + intCount);
-					final int maxProgress = analyzer.getMaxProgress();
-					scale = (double) advance / (double) maxProgress;
-					analyzing = true;
-					subProgress = 0;
-					analyzer.computeAll();
-					analyzing = false;
-					if (cancelled) {
-						writeLine(Messages.SM_ANALYSISC);
-						return null;
-					}
-					final NetworkStats stats = analyzer.getStats();
-					synchronized (this) {
+					saver.execute(new ResultsSaver(inputFile, interpretation, stats, netstatFile, attributes,
+							interprAnalyzer.getNodeResults(), extendedName));
+				} catch (RejectedExecutionException ex) {
+					pendingSaves.release();
+					throw ex;
+				}
+
+				if (cancelled) {
+					writeLine(inputFile, Messages.SM_ANALYSISC);
+					return false;
+				}
+			} catch (Exception e) {
+				addReport(new NetworkAnalysisReport(inputFile, interpretation, AnalysisError.INTERNAL_ERROR));
+			} finally {
+				synchronized (this) {
+					running.remove(interprAnalyzer);
+					if (analyzer == interprAnalyzer) {
 						analyzer = null;
 					}
+				}
+			}
+		}
 
-					final String networkName = network.getRow(network).get("name",String.class);
-					stats.setTitle(networkName + interpretation.getInterpretSuffix());
-					final String extendedName = networkName + createID(interpretation);
-					try {
-						if (SettingsSerializer.getPluginSettings().getUseNodeAttributes()) {
-							if (!saveNodeAttributes(network, interpretation.isDirected(), outputDir,
-									extendedName)) {
-								writeLine(Messages.SM_ATTRIBUTESNOTSAVED);
-							}
-						}
-						File netstatFile = new File(outputDir, extendedName + ".netstats");
-						StatsSerializer.save(stats, netstatFile);
-						writeLine(Messages.SM_RESULTSSAVED);
-						reports.add(new NetworkAnalysisReport(inputFile, interpretation, netstatFile));
-					} catch (SecurityException ex) {
-						writeError(Messages.SM_SAVEERROR);
-						reports.add(new NetworkAnalysisReport(inputFile, interpretation,
-								AnalysisError.OUTPUT_NOT_CREATED));
-					} catch (FileNotFoundException ex) {
-						writeError(Messages.SM_SAVEERROR);
-						reports.add(new NetworkAnalysisReport(inputFile, interpretation,
-								AnalysisError.OUTPUT_NOT_CREATED));
-					} catch (IOException e) {
-						writeError(Messages.SM_SAVEERROR);
-						reports
-								.add(new NetworkAnalysisReport(inputFile, interpretation, AnalysisError.OUTPUT_IO_ERROR));
-					}
+		unloadNetwork(inputFile, network);
+		if (shardCount > 1) {
+			// Shards are not results; the network is analyzed again when the shards are merged
+			return true;
+		}
+		saver.execute(new Runnable() {
+			@Override
+			public void run() {
+				updateManifest(aLoader, intCount);
+			}
+		});
+		return true;
+	}
 
-					if (cancelled) {
-						writeLine(Messages.SM_ANALYSISC);
-						return null;
-					}
-				} catch (Exception e) {
-					reports.add(new NetworkAnalysisReport(inputFile, interpretation, AnalysisError.INTERNAL_ERROR));
+	/**
+	 * Records the results of a network in the manifest of the output directory, provided that all
+	 * interpretations of the network have been analyzed and saved successfully.
+	 * <p>
+	 * This method is called by the saver thread, after the results of the network have been saved.
+	 * </p>
+	 * 
+	 * @param aLoader
+	 *            Loader of the network.
+	 * @param aCount
+	 *            Number of interpretations of the network.
+	 */
+	private void updateManifest(NetworkLoader aLoader, int aCount) {
+		final File inputFile = aLoader.getInputFile();
+		final List<NetworkAnalysisReport> saved = new ArrayList<NetworkAnalysisReport>(aCount);
+		for (final NetworkAnalysisReport report : reports) {
+			if (inputFile.equals(report.getNetwork())) {
+				if (report.getResultFile() == null) {
+					return;
 				}
+				saved.add(report);
+			}
+		}
+		if (saved.size() == aCount && aLoader.getHash() != null) {
+			manifest.put(inputFile, aLoader.getHash(), saved);
+			try {
+				manifest.save();
+			} catch (IOException ex) {
+				// Manifest could not be written; the network will be analyzed again in the next run
 			}
+		}
+	}
 
-			unloadNetwork(inputFile, network);
+	/**
+	 * Completes the index of the results in the output directory and saves it.
+	 * <p>
+	 * Results kept from previous analyses that are missing from the index are added by loading their network
+	 * statistics files. This method is called after all results have been saved.
+	 * </p>
+	 */
+	private void saveIndex() {
+		for (final NetworkAnalysisReport report : reports) {
+			final File netstatFile = report.getResultFile();
+			if (netstatFile == null || index.contains(netstatFile)) {
+				continue;
+			}
+			try {
+				final NetworkStats stats = StatsSerializer.load(netstatFile);
+				if (stats != null) {
+					index.put(report, stats);
+				}
+			} catch (IOException ex) {
+				// Results are not indexed
+			} catch (UncheckedIOException ex) {
+				// Complex parameter of a binary file could not be loaded; results are not indexed
+			} catch (NullPointerException ex) {
+				// Invalid network statistics file; results are not indexed
+			}
+		}
+		try {
+			index.save();
+		} catch (IOException ex) {
+			// Index could not be written; the results can still be opened one by one
 		}
-		return null;
+	}
+
+	/**
+	 * Describes the settings that affect the results saved by the batch analysis.
+	 * <p>
+	 * Every setting that changes the computed results or the saved files must be included in the
+	 * description, such that results saved with other settings are not reused.
+	 * </p>
+	 * 
+	 * @param aSettings
+	 *            Current settings of the plugin.
+	 * @return Description of the settings to be recorded in the manifest.
+	 * @see BatchManifest#BatchManifest(File, String, String)
+	 */
+	private static String describeSettings(PluginSettings aSettings) {
+		final StringBuilder description = new StringBuilder();
+		description.append("nodeAttributes=").append(aSettings.getUseNodeAttributes());
+		description.append(";timeBudget=").append(aSettings.getTimeBudget());
+		description.append(";binaryNetstats=").append(aSettings.getBinaryNetstats());
+		description.append(";compression=").append(aSettings.getCompression());
+		description.append(";nodeResults=").append(aSettings.getNodeResults());
+		description.append(";quantiles=").append(aSettings.getQuantiles());
+		description.append(";chartFormat=").append(aSettings.getChartFormat());
+		return description.toString();
+	}
+
+	/**
+	 * Checks if the given network is small enough to be analyzed concurrently with other networks.
+	 * 
+	 * @param aNetwork
+	 *            Loaded network.
+	 * @return <code>true</code> if the network is analyzed using a single worker thread, <code>false</code>
+	 *         if it is analyzed using all available processors.
+	 */
+	private static boolean isSmall(CyNetwork aNetwork) {
+		return aNetwork.getNodeCount() + aNetwork.getEdgeCount() <= SMALL_NETWORK_SIZE;
+	}
+
+	/**
+	 * Estimates the memory required by a loaded network and its analysis.
+	 * 
+	 * @param aNetwork
+	 *            Loaded network.
+	 * @return Estimated memory footprint in bytes.
+	 */
+	private static long estimateFootprint(CyNetwork aNetwork) {
+		return NODE_FOOTPRINT * aNetwork.getNodeCount() + EDGE_FOOTPRINT * aNetwork.getEdgeCount();
 	}
 
 	/**
@@ -268,23 +595,17 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	}
 
 	/**
-	 * Save node attributes computed by NetworkAnalyzer for this network into a tab-delimited file with extension
-	 * "nattributes" (1st column corresponds to the node ids, each subsequent column contains the values of a node
-	 * attribute).
+	 * Formats the node attributes computed by NetworkAnalyzer for this network as lines of a tab-delimited file
+	 * (1st column corresponds to the node ids, each subsequent column contains the values of a node attribute).
 	 * 
 	 * @param aNetwork
 	 *            Target network.
 	 * @param aDir
 	 *            Flag indicating if the network interpretation is directed.
-	 * @param aOutputDir
-	 *            Output directory for writing files as chosen by the user.
-	 * @param aExtendedName
-	 *            Name of the analyzed network including the current interpretation.
-	 * @return <code>true</code> if any node attributes where present and have been saved, and <code>false</code>
-	 *         otherwise.
+	 * @return Lines of the node attributes file, starting with the header; an empty list if no node attributes
+	 *         are present.
 	 */
-	private boolean saveNodeAttributes(CyNetwork aNetwork, boolean aDir, File aOutputDir,
-			String aExtendedName) {
+	private static List<String> formatNodeAttributes(CyNetwork aNetwork, boolean aDir) {
 		// get node attributes computed in the last analysis run
 		Set<String> netAnayzerAttr = new HashSet<String>();
 		if (aDir) {
@@ -292,31 +613,59 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 		} else {
 			netAnayzerAttr = Messages.getUndirNodeAttributes();
 		}
+		final List<String> lines = new ArrayList<String>();
 		if (netAnayzerAttr.size() == 0) {
-			return false;
+			return lines;
+		}
+		final StringBuilder line = new StringBuilder("Node ID");
+		for (final String attr : netAnayzerAttr) {
+			line.append("\t").append(attr);
+		}
+		lines.add(line.toString());
+		for ( CyNode n : aNetwork.getNodeList()) {
+			line.setLength(0);
+			line.append(aNetwork.getRow(n).get("name", String.class));
+			for (final String attr : netAnayzerAttr) {
+				final Object attrValue = aNetwork.getRow(n).getRaw(attr);
+				if (attrValue != null) {
+					line.append("\t").append(attrValue.toString());
+				}
+			}
+			lines.add(line.toString());
+		}
+		return lines;
+	}
 
+	/**
+	 * Save node attributes computed by NetworkAnalyzer for a network into a tab-delimited file with extension
+	 * "nattributes".
+	 * 
+	 * @param aLines
+	 *            Lines of the file, as created by {@link #formatNodeAttributes(CyNetwork, boolean)}.
+	 * @param aOutputDir
+	 *            Output directory for writing files as chosen by the user.
+	 * @param aExtendedName
+	 *            Name of the analyzed network including the current interpretation.
+	 * @return <code>true</code> if any node attributes where present and have been saved, and <code>false</code>
+	 *         otherwise.
+	 */
+	private static boolean saveNodeAttributes(List<String> aLines, File aOutputDir, String aExtendedName) {
+		if (aLines.size() == 0) {
+			return false;
 		}
 		// save chosen node attributes in a file, 1st column corresponds to the node ids, each subsequent column
 		// contains the values of a node attribute
 		try {
-			final FileWriter writer = new FileWriter(new File(outputDir, aExtendedName + ".nattributes"));
-			writer.write("Node ID");
-			for (final String attr : netAnayzerAttr) {
-				writer.write("\t" + attr);
-			}
-			writer.write("\n");
-			for ( CyNode n : aNetwork.getNodeList()) {
-				final String id = aNetwork.getRow(n).get("name", String.class);
-				writer.write(id);
-				for (final String attr : netAnayzerAttr) {
-					final Object attrValue = aNetwork.getRow(n).getRaw(attr);
-					if (attrValue != null) {
-						writer.write("\t" + attrValue.toString());
-					}
+			final Writer writer = IOUtils.openWriter(new File(aOutputDir, aExtendedName + ".nattributes"),
+					SettingsSerializer.getPluginSettings().getCompression());
+			try {
+				for (final String line : aLines) {
+					writer.write(line);
+					writer.write('\n');
 				}
-				writer.write("\n");
+			} finally {
+				writer.close();
 			}
-			writer.close();
 		} catch (IOException ex) {
 			// attributes file could not be written
 			return false;
@@ -324,6 +673,62 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 		return true;
 	}
 
+	/**
+	 * Checks if per-node results are saved in files of their own.
+	 * 
+	 * @return <code>true</code> if the node results format in the plugin settings is binary or CSV;
+	 *         <code>false</code> otherwise.
+	 */
+	private static boolean isNodeResultsSaved() {
+		final String format = SettingsSerializer.getPluginSettings().getNodeResults();
+		return NodeResultsSerializer.FORMAT_BINARY.equals(format)
+				|| NodeResultsSerializer.FORMAT_CSV.equals(format);
+	}
+
+	/**
+	 * Saves the per-node results of an analysis in the format set in the plugin settings. Binary files have
+	 * the extension &quot;nresults&quot;; CSV files have the extension &quot;nresults.csv&quot; and are
+	 * compressed like the other text files.
+	 * 
+	 * @param aResults
+	 *            Per-node results of the analysis.
+	 * @param aOutputDir
+	 *            Output directory for writing files as chosen by the user.
+	 * @param aExtendedName
+	 *            Name of the analyzed network including the current interpretation.
+	 * @return <code>true</code> if the results have been saved, and <code>false</code> otherwise.
+	 */
+	private static boolean saveNodeResults(NodeResults aResults, File aOutputDir, String aExtendedName) {
+		final PluginSettings settings = SettingsSerializer.getPluginSettings();
+		try {
+			if (NodeResultsSerializer.FORMAT_CSV.equals(settings.getNodeResults())) {
+				NodeResultsSerializer.saveCsv(aResults, new File(aOutputDir, aExtendedName
+						+ NodeResultsSerializer.CSV_EXTENSION), settings.getCompression());
+			} else {
+				NodeResultsSerializer.save(aResults, new File(aOutputDir, aExtendedName
+						+ NodeResultsSerializer.BINARY_EXTENSION));
+			}
+		} catch (IOException ex) {
+			// results file could not be written
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Waits for a network loaded in advance and unloads it.
+	 * 
+	 * @param aNetwork
+	 *            Result of the loading of the network.
+	 */
+	private void discardNetwork(Future<CyNetwork> aNetwork) {
+		try {
+			netMgr.destroyNetwork(aNetwork.get());
+		} catch (Exception ex) {
+			// Network not loaded or already removed; ignore
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -344,12 +749,22 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	 * 
 	 * @return Number of steps completed in the analysis process.
 	 */
-	public int getCurrentProgress() {
-		if (analyzing) {
-			subProgress = +analyzer.getCurrentProgress();
-			return (progress + (int) (subProgress * scale));
+	public synchronized int getCurrentProgress() {
+		double subProgress = 0;
+		for (final Map.Entry<NetworkAnalyzer, Double> entry : running.entrySet()) {
+			subProgress += entry.getKey().getCurrentProgress() * entry.getValue().doubleValue();
 		}
-		return progress;
+		return progress + (int) subProgress;
+	}
+
+	/**
+	 * Advances the progress of the batch analysis.
+	 * 
+	 * @param aSteps
+	 *            Number of steps completed.
+	 */
+	private synchronized void addProgress(int aSteps) {
+		progress += aSteps;
 	}
 
 	/**
@@ -361,6 +776,44 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 		return inputFiles.size() * PROGRESS_PER_NET + 1;
 	}
 
+	/**
+	 * Gets the input file of the network currently analyzed.
+	 * 
+	 * @return Input file of the current network; <code>null</code> if the batch analysis is not running.
+	 */
+	public File getCurrentFile() {
+		return currentFile;
+	}
+
+	/**
+	 * Gets the number of networks whose analysis is complete.
+	 * 
+	 * @return Number of input files processed so far.
+	 */
+	public int getProcessedCount() {
+		return currentFile != null ? startedCount - 1 : startedCount;
+	}
+
+	/**
+	 * Gets the analyzer of the network interpretation currently analyzed. If several networks are analyzed
+	 * concurrently, this is the analyzer started last.
+	 * 
+	 * @return Analyzer currently running; <code>null</code> if no analyzer is running.
+	 */
+	public synchronized NetworkAnalyzer getCurrentAnalyzer() {
+		return analyzer;
+	}
+
+	/**
+	 * Gets the time at which the batch analysis started.
+	 * 
+	 * @return Start time of the batch analysis in milliseconds; <code>0</code> if the analysis has not
+	 *         started yet.
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
 	/**
 	 * Gets the number of input files, i.e. the number of networks to be analyzed.
 	 * 
@@ -389,6 +842,93 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 		dialog = aDialog;
 	}
 
+	/**
+	 * Sets the flag indicating if an interrupted batch analysis is resumed.
+	 * <p>
+	 * When resuming, interpretations whose network statistics file is present in the output directory are not
+	 * analyzed again, and analyses are continued from their checkpoints, if available.
+	 * </p>
+	 * 
+	 * @param aResume
+	 *            Flag indicating if a previous batch analysis in the same output directory is resumed.
+	 */
+	public void setResume(boolean aResume) {
+		resume = aResume;
+	}
+
+	/**
+	 * Sets the shard of the sources analyzed by this batch analysis.
+	 * <p>
+	 * In a sharded batch analysis, only every <code>N</code>-th source of each network interpretation is
+	 * analyzed and the accumulated values are saved in a shard checkpoint file instead of a network
+	 * statistics file. Running the shards of an output directory as separate processes, possibly on
+	 * different machines sharing the directory, and then running a batch analysis without a shard merges
+	 * the shards into the final results, analyzing only the sources of missing shards.
+	 * </p>
+	 * 
+	 * @param aShard
+	 *            Shard in the form <code>i/N</code>, where <code>i</code> is between <code>1</code> and
+	 *            <code>N</code>; <code>none</code> or <code>null</code> to analyze all sources.
+	 * @return <code>true</code> if the shard was set, <code>false</code> if <code>aShard</code> is not a
+	 *         valid shard and all sources are analyzed.
+	 * @see PluginSettings#getShard()
+	 */
+	private boolean initShard(String aShard) {
+		shardIndex = 0;
+		shardCount = 1;
+		if (aShard == null || aShard.trim().length() == 0 || "none".equals(aShard.trim())) {
+			return true;
+		}
+		final String[] parts = aShard.trim().split("/");
+		try {
+			if (parts.length == 2) {
+				final int number = Integer.parseInt(parts[0].trim());
+				final int count = Integer.parseInt(parts[1].trim());
+				if (number >= 1 && number <= count) {
+					shardIndex = number - 1;
+					shardCount = count;
+					return true;
+				}
+			}
+		} catch (NumberFormatException ex) {
+			// Fall through
+		}
+		return false;
+	}
+
+	/**
+	 * Creates the name of the checkpoint file of a shard of an analysis.
+	 * 
+	 * @param aName
+	 *            Name of the network followed by the identifier of its interpretation.
+	 * @param aIndex
+	 *            Index of the shard, between <code>0</code> and <code>aCount - 1</code>.
+	 * @param aCount
+	 *            Number of shards.
+	 * @return Name of the shard checkpoint file.
+	 */
+	private static String createShardName(String aName, int aIndex, int aCount) {
+		return aName + ".shard" + (aIndex + 1) + "of" + aCount + ".checkpoint";
+	}
+
+	/**
+	 * Finds the checkpoint files of the shards of an analysis in the output directory.
+	 * 
+	 * @param aName
+	 *            Name of the network followed by the identifier of its interpretation.
+	 * @return Shard checkpoint files of the analysis; an empty array if there are none.
+	 */
+	private File[] findShards(String aName) {
+		final Pattern pattern = Pattern.compile(Pattern.quote(aName) + "\\.shard\\d+of\\d+\\.checkpoint");
+		final File[] files = outputDir.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File aFile) {
+				return aFile.isFile() && pattern.matcher(aFile.getName()).matches();
+			}
+		});
+		return files != null ? files : new File[0];
+	}
+
 	/**
 	 * Creates an integer identifier of the network interpretation, where 1 means directed network and 0 - undirected.
 	 * 
@@ -431,6 +971,27 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	 */
 	private static final int PROGRESS_PER_NET = 12;
 
+	/**
+	 * Maximum number of analysis results waiting to be saved before the analysis of the next network
+	 * interpretation is blocked.
+	 */
+	private static final int MAX_PENDING_SAVES = 2;
+
+	/**
+	 * Maximum total number of nodes and edges of a network analyzed concurrently with other networks.
+	 */
+	private static final int SMALL_NETWORK_SIZE = 100000;
+
+	/**
+	 * Estimated memory, in bytes, required per node of a loaded network and its analysis.
+	 */
+	private static final long NODE_FOOTPRINT = 1024;
+
+	/**
+	 * Estimated memory, in bytes, required per edge of a loaded network and its analysis.
+	 */
+	private static final long EDGE_FOOTPRINT = 512;
+
 	/**
 	 * Unloads the network from Cytoscape and writes a message in the batch analysis dialog.
 	 * 
@@ -441,27 +1002,82 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	 */
 	private void unloadNetwork(final File inputFile, CyNetwork network) {
 		// Unload the network
-		write(Messages.SM_UNLOADING + inputFile.getName() + " ... ");
 		try {
 			netMgr.destroyNetwork(network);
 		} catch (Exception ex) {
 			// Network already removed (by another plugin); ignore
 		}
-		writeLine(Messages.SM_DONE + "\n");
+		writeLine(Messages.SM_UNLOADING + inputFile.getName() + " ... " + Messages.SM_DONE + "\n");
 	}
 
 	/**
 	 * Writes a message to the user in the batch analysis dialog.
+	 * <p>
+	 * While the batch analysis is running, the message is passed to the thread saving the results, such that
+	 * the messages appear in the order of the analysis steps.
+	 * </p>
 	 * 
 	 * @param aMessage
 	 *            Message to be written (showed) to the user.
 	 */
-	private void write(String aMessage) {
+	private void write(final String aMessage) {
+		if (saver != null) {
+			saver.execute(new Runnable() {
+				@Override
+				public void run() {
+					print(aMessage);
+				}
+			});
+		} else {
+			print(aMessage);
+		}
+	}
+
+	/**
+	 * Writes a message to the user in the batch analysis dialog immediately.
+	 * 
+	 * @param aMessage
+	 *            Message to be written (showed) to the user.
+	 */
+	private void print(String aMessage) {
 		if (dialog != null) {
 			dialog.write(aMessage);
 		}
 	}
 
+	/**
+	 * Writes a message about a network, followed by a new line, to the user in the batch analysis dialog
+	 * immediately.
+	 * 
+	 * @param aInputFile
+	 *            File from which the network was loaded.
+	 * @param aMessage
+	 *            Message to be written to the user.
+	 * @see #writeLine(File, String)
+	 */
+	private void printLine(File aInputFile, String aMessage) {
+		print(aInputFile.getName() + ": " + aMessage.trim() + "\n");
+	}
+
+	/**
+	 * Adds a report to the list of analysis reports, after the reports of all results waiting to be saved.
+	 * 
+	 * @param aReport
+	 *            Report on the analysis of a network interpretation.
+	 */
+	private void addReport(final NetworkAnalysisReport aReport) {
+		if (saver != null) {
+			saver.execute(new Runnable() {
+				@Override
+				public void run() {
+					reports.add(aReport);
+				}
+			});
+		} else {
+			reports.add(aReport);
+		}
+	}
+
 	/**
 	 * Writes a message, followed by a new line, to the user in the batch analysis dialog.
 	 * 
@@ -472,6 +1088,22 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 		write(aMessage + "\n");
 	}
 
+	/**
+	 * Writes a message about a network, followed by a new line, to the user in the batch analysis dialog.
+	 * <p>
+	 * The message is prefixed with the name of the input file, such that the messages of networks analyzed
+	 * concurrently can be told apart.
+	 * </p>
+	 * 
+	 * @param aInputFile
+	 *            File from which the network was loaded.
+	 * @param aMessage
+	 *            Message to be written to the user.
+	 */
+	private void writeLine(File aInputFile, String aMessage) {
+		writeLine(aInputFile.getName() + ": " + aMessage.trim());
+	}
+
 	/**
 	 * Writes an error message, followed by a new line, to the user in the batch analysis dialog.
 	 * 
@@ -479,9 +1111,311 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	 *            An error message to be written to the user.
 	 */
 	private void writeError(String aMessage) {
-		if (dialog != null) {
-			dialog.write(aMessage + "\n");
+		write(aMessage + "\n");
+	}
+
+	/**
+	 * Task loading a network from a file, run by the loader thread of the pipeline.
+	 * <p>
+	 * If the file cannot be opened, the task fails with a <code>RuntimeException</code>; if the reader fails,
+	 * it fails with an <code>IOException</code>.
+	 * </p>
+	 */
+	private class NetworkLoader implements Callable<CyNetwork> {
+
+		/**
+		 * Initializes a new instance of <code>NetworkLoader</code>.
+		 * 
+		 * @param aInputFile
+		 *            File to load the network from.
+		 */
+		public NetworkLoader(File aInputFile) {
+			inputFile = aInputFile;
+			hash = null;
+			keptReports = null;
+			resumable = false;
+		}
+
+		/**
+		 * Gets the file to load the network from.
+		 * 
+		 * @return Input file of the batch analysis.
+		 */
+		public File getInputFile() {
+			return inputFile;
+		}
+
+		/**
+		 * Gets the content hash of the input file.
+		 * 
+		 * @return Hash of the input file; <code>null</code> if it could not be computed.
+		 */
+		public String getHash() {
+			return hash;
+		}
+
+		/**
+		 * Gets the reports of the previous analysis of the input file, if it has not changed since.
+		 * 
+		 * @return Reports recorded in the manifest of the output directory; <code>null</code> if the network
+		 *         must be analyzed.
+		 */
+		public List<NetworkAnalysisReport> getKeptReports() {
+			return keptReports;
+		}
+
+		/**
+		 * Checks if the analysis of the network can continue from the results of a previous run.
+		 * 
+		 * @return <code>true</code> if existing network statistics files and checkpoints of the network are
+		 *         used, <code>false</code> otherwise.
+		 */
+		public boolean isResumable() {
+			return resumable;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public CyNetwork call() throws Exception {
+			// Make a new network in cytoscape from a filename in
+			// the network-directory
+			if (!inputFile.isFile()) {
+				throw new RuntimeException();
+			}
+			try {
+				hash = BatchManifest.computeHash(inputFile);
+			} catch (IOException ex) {
+				throw new RuntimeException(ex);
+			}
+			if (resume) {
+				keptReports = manifest.getReports(inputFile, hash);
+				if (keptReports != null) {
+					return null;
+				}
+				// Results of a changed input file are not reused
+				resumable = !manifest.contains(inputFile);
+			}
+			CyNetworkReader reader = cyNetworkViewReaderMgr.getReader(inputFile.toURI(), inputFile.getName());
+			try {
+				// TODO Use the Task's task monitor 
+				reader.run(new SampleTaskMonitor());
+			} catch (Exception ex) {
+				throw new IOException(ex);
+			}
+			final CyNetwork network = reader.getNetworks()[0];
+			network.getRow(network).set(CyNetwork.NAME, inputFile.getName());
+			return network;
 		}
+
+		/**
+		 * File to load the network from.
+		 */
+		private final File inputFile;
+
+		/**
+		 * Content hash of the input file.
+		 */
+		private String hash;
+
+		/**
+		 * Reports of the previous analysis of the unchanged input file.
+		 */
+		private List<NetworkAnalysisReport> keptReports;
+
+		/**
+		 * Flag indicating if the analysis of the network can continue from the results of a previous run.
+		 */
+		private boolean resumable;
+	}
+
+	/**
+	 * Task analyzing a small network concurrently with other networks, run by the thread pool of the batch
+	 * analysis.
+	 */
+	private class NetworkJob implements Runnable {
+
+		/**
+		 * Initializes a new instance of <code>NetworkJob</code>.
+		 * 
+		 * @param aLoader
+		 *            Loader of the network.
+		 * @param aNetwork
+		 *            Network to be analyzed.
+		 * @param aAdmission
+		 *            Admission control the analysis was admitted by.
+		 * @param aFootprint
+		 *            Estimated memory footprint the analysis was admitted with.
+		 */
+		public NetworkJob(NetworkLoader aLoader, CyNetwork aNetwork, AnalysisAdmission aAdmission,
+				long aFootprint) {
+			loader = aLoader;
+			network = aNetwork;
+			admission = aAdmission;
+			footprint = aFootprint;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			try {
+				analyzeNetwork(loader, network, 1);
+			} finally {
+				admission.release(footprint);
+			}
+		}
+
+		/**
+		 * Loader of the network.
+		 */
+		private final NetworkLoader loader;
+
+		/**
+		 * Network to be analyzed.
+		 */
+		private final CyNetwork network;
+
+		/**
+		 * Admission control the analysis was admitted by.
+		 */
+		private final AnalysisAdmission admission;
+
+		/**
+		 * Estimated memory footprint, in bytes, the analysis was admitted with.
+		 */
+		private final long footprint;
+	}
+
+	/**
+	 * Task saving the results of the analysis of a network interpretation, run by the saver thread of the
+	 * pipeline.
+	 */
+	private class ResultsSaver implements Runnable {
+
+		/**
+		 * Initializes a new instance of <code>ResultsSaver</code>.
+		 * 
+		 * @param aInputFile
+		 *            File from which the network was loaded.
+		 * @param aInterpretation
+		 *            Interpretation of the network analyzed.
+		 * @param aStats
+		 *            Results of the analysis.
+		 * @param aNetstatFile
+		 *            File to save the results to.
+		 * @param aAttributes
+		 *            Lines of the node attributes file; <code>null</code> if node attributes are not saved.
+		 * @param aNodeResults
+		 *            Per-node results of the analysis; <code>null</code> if they are not saved.
+		 * @param aExtendedName
+		 *            Name of the analyzed network including the interpretation.
+		 */
+		public ResultsSaver(File aInputFile, NetworkInterpretation aInterpretation, NetworkStats aStats,
+				File aNetstatFile, List<String> aAttributes, NodeResults aNodeResults, String aExtendedName) {
+			inputFile = aInputFile;
+			interpretation = aInterpretation;
+			stats = aStats;
+			netstatFile = aNetstatFile;
+			attributes = aAttributes;
+			nodeResults = aNodeResults;
+			extendedName = aExtendedName;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			try {
+				if (attributes != null) {
+					if (!saveNodeAttributes(attributes, outputDir, extendedName)) {
+						printLine(inputFile, Messages.SM_ATTRIBUTESNOTSAVED);
+					}
+				}
+				if (nodeResults != null) {
+					if (!saveNodeResults(nodeResults, outputDir, extendedName)) {
+						printLine(inputFile, Messages.SM_ATTRIBUTESNOTSAVED);
+					}
+				}
+				if (SettingsSerializer.getPluginSettings().getBinaryNetstats()) {
+					BinaryStatsSerializer.save(stats, netstatFile);
+				} else {
+					StatsSerializer.save(stats, netstatFile, SettingsSerializer.getPluginSettings()
+							.getCompression());
+				}
+				printLine(inputFile, Messages.SM_RESULTSSAVED);
+				if (chartExporter != null) {
+					try {
+						chartExporter.export(stats, outputDir, extendedName);
+					} catch (IOException ex) {
+						printLine(inputFile, Messages.SM_CHARTSNOTSAVED);
+					}
+				}
+				final NetworkAnalysisReport report =
+						new NetworkAnalysisReport(inputFile, interpretation, netstatFile);
+				reports.add(report);
+				index.put(report, stats);
+			} catch (SecurityException ex) {
+				printLine(inputFile, Messages.SM_SAVEERROR);
+				reports.add(new NetworkAnalysisReport(inputFile, interpretation,
+						AnalysisError.OUTPUT_NOT_CREATED));
+			} catch (FileNotFoundException ex) {
+				printLine(inputFile, Messages.SM_SAVEERROR);
+				reports.add(new NetworkAnalysisReport(inputFile, interpretation,
+						AnalysisError.OUTPUT_NOT_CREATED));
+			} catch (IOException e) {
+				printLine(inputFile, Messages.SM_SAVEERROR);
+				reports.add(new NetworkAnalysisReport(inputFile, interpretation, AnalysisError.OUTPUT_IO_ERROR));
+			} catch (Exception e) {
+				reports.add(new NetworkAnalysisReport(inputFile, interpretation, AnalysisError.INTERNAL_ERROR));
+			} finally {
+				pendingSaves.release();
+			}
+		}
+
+		/**
+		 * File from which the network was loaded.
+		 */
+		private final File inputFile;
+
+		/**
+		 * Interpretation of the network analyzed.
+		 */
+		private final NetworkInterpretation interpretation;
+
+		/**
+		 * Results of the analysis.
+		 */
+		private final NetworkStats stats;
+
+		/**
+		 * File to save the results to.
+		 */
+		private final File netstatFile;
+
+		/**
+		 * Lines of the node attributes file; <code>null</code> if node attributes are not saved.
+		 */
+		private final List<String> attributes;
+
+		/**
+		 * Per-node results of the analysis; <code>null</code> if they are not saved.
+		 */
+		private final NodeResults nodeResults;
+
+		/**
+		 * Name of the analyzed network including the interpretation.
+		 */
+		private final String extendedName;
 	}
 
 	/**
@@ -493,7 +1427,7 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	/**
 	 * Flag indicating if the analysis has been canceled.
 	 */
-	private boolean cancelled;
+	private volatile boolean cancelled;
 
 	/**
 	 * Dialog showing the progress of the batch analysis.
@@ -526,18 +1460,65 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	private List<NetworkAnalysisReport> reports;
 
 	/**
-	 * Scaling factor needed for showing the analysis progress.
+	 * Analyzers currently running, mapped to the scaling factors needed for showing their progress.
+	 */
+	private Map<NetworkAnalyzer, Double> running;
+
+	/**
+	 * Input file of the network currently analyzed; <code>null</code> if the batch analysis is not running.
+	 */
+	private volatile File currentFile;
+
+	/**
+	 * Number of input files whose processing has started.
+	 */
+	private int startedCount;
+
+	/**
+	 * Time, in milliseconds, at which the batch analysis started.
+	 */
+	private long startTime;
+
+	/**
+	 * Flag indicating if a previous batch analysis in the output directory is resumed.
+	 */
+	private boolean resume;
+
+	/**
+	 * Index of the shard of the sources analyzed, between <code>0</code> and <code>shardCount - 1</code>.
+	 */
+	private int shardIndex;
+
+	/**
+	 * Number of shards the sources are split into; <code>1</code> if all sources are analyzed.
+	 */
+	private int shardCount;
+
+	/**
+	 * Manifest of the results in the output directory.
+	 */
+	private BatchManifest manifest;
+
+	/**
+	 * Index of the results in the output directory; <code>null</code> if the batch analysis has not started.
+	 */
+	private BatchResultsIndex index;
+
+	/**
+	 * Thread saving the results of the analysis and writing messages to the user; <code>null</code> if the
+	 * batch analysis is not running.
 	 */
-	private double scale;
+	private ExecutorService saver;
 
 	/**
-	 * Flag indicating if parameters are computed by <code>NetworkAnalyzer</code>.
+	 * Exporter of the charts of the analyzed networks; <code>null</code> if charts are not saved or if the
+	 * batch analysis is not running.
 	 */
-	private boolean analyzing;
+	private ChartExporter chartExporter;
 
 	/**
-	 * Progress of <code>NetworkAnalyzer</code> analysis for a single network interpretation.
+	 * Permits for results waiting to be saved.
 	 */
-	private double subProgress;
+	private final Semaphore pendingSaves;
 
 }
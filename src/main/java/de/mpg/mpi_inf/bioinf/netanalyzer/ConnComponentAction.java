@@ -32,6 +32,7 @@ import java.util.Set;
 
 import org.cytoscape.application.CyApplicationManager;
 import org.cytoscape.application.swing.CySwingApplication;
+import org.cytoscape.event.CyEventHelper;
 import org.cytoscape.task.create.NewNetworkSelectedNodesAndEdgesTaskFactory;
 import org.cytoscape.work.TaskManager;
 import org.slf4j.Logger;
@@ -53,14 +54,16 @@ public class ConnComponentAction extends NetAnalyzerAction {
 
 	private final NewNetworkSelectedNodesAndEdgesTaskFactory tf;
 	private final TaskManager<?, ?> tm;
+	private final CyEventHelper eventHelper;
 	
 	/**
 	 * Initializes a new instance of <code>ConnComponentAction</code>.
 	 */
-	public ConnComponentAction(CyApplicationManager appMgr,CySwingApplication swingApp, final NewNetworkSelectedNodesAndEdgesTaskFactory tf, final TaskManager<?, ?> tm) {
+	public ConnComponentAction(CyApplicationManager appMgr,CySwingApplication swingApp, final NewNetworkSelectedNodesAndEdgesTaskFactory tf, final TaskManager<?, ?> tm, final CyEventHelper eventHelper) {
 		super(Messages.AC_CONNCOMP,appMgr,swingApp);
 		this.tf = tf;
 		this.tm = tm;
+		this.eventHelper = eventHelper;
 		
 		setPreferredMenu(NetworkAnalyzer.PARENT_MENU + Messages.AC_MENU_MODIFICATION);
 	}
@@ -89,7 +92,7 @@ public class ConnComponentAction extends NetAnalyzerAction {
 				Utils.showInfoBox(swingApp.getJFrame(),Messages.DT_CONNCOMP, msg);
 			} else {
 				Arrays.sort(comps, new CCInfoInvComparator());
-				ConnComponentsDialog d = new ConnComponentsDialog(swingApp.getJFrame(), network, comps, tf, tm);
+				ConnComponentsDialog d = new ConnComponentsDialog(swingApp.getJFrame(), network, comps, tf, tm, eventHelper);
 				d.setVisible(true);
 			}
 		} catch (InnerException ex) {
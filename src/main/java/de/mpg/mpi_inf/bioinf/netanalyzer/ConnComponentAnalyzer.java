@@ -27,11 +27,14 @@ package de.mpg.mpi_inf.bioinf.netanalyzer;
  */
 
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Set;
 
+import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.CCInfo;
@@ -70,6 +73,73 @@ public class ConnComponentAnalyzer {
 		return nodes;
 	}
 
+	/**
+	 * Gets all nodes in the given connected components.
+	 * <p>
+	 * The components are identified by a single scan over the edges of the network, merging the sets of
+	 * their end nodes. This method takes time practically linear in the number of nodes and edges, regardless
+	 * of the number and the sizes of the components.
+	 * </p>
+	 * 
+	 * @param aNetwork Network in which the given connected components are contained.
+	 * @param aComponents Connected components of interest.
+	 * @return Set of all nodes in <code>aComponents</code>; components not contained in <code>aNetwork</code>
+	 *         contribute no nodes to the set.
+	 */
+	public static Set<CyNode> getNodesOf(CyNetwork aNetwork, CCInfo[] aComponents) {
+		// Index the nodes by their position in the array sorted by SUID
+		final CyNode[] nodes = aNetwork.getNodeList().toArray(new CyNode[0]);
+		Arrays.sort(nodes, new Comparator<CyNode>() {
+			public int compare(CyNode aNode1, CyNode aNode2) {
+				return aNode1.getSUID().compareTo(aNode2.getSUID());
+			}
+		});
+		final int nodeCount = nodes.length;
+		final long[] suids = new long[nodeCount];
+		final int[] parents = new int[nodeCount];
+		final int[] sizes = new int[nodeCount];
+		for (int i = 0; i < nodeCount; ++i) {
+			suids[i] = nodes[i].getSUID().longValue();
+			parents[i] = i;
+			sizes[i] = 1;
+		}
+
+		// Merge the end nodes of every edge, attaching the smaller set to the larger one
+		for (final CyEdge edge : aNetwork.getEdgeList()) {
+			int root1 = findRoot(parents, Arrays.binarySearch(suids, edge.getSource().getSUID().longValue()));
+			int root2 = findRoot(parents, Arrays.binarySearch(suids, edge.getTarget().getSUID().longValue()));
+			if (root1 != root2) {
+				if (sizes[root1] < sizes[root2]) {
+					final int root = root1;
+					root1 = root2;
+					root2 = root;
+				}
+				parents[root2] = root1;
+				sizes[root1] += sizes[root2];
+			}
+		}
+
+		final boolean[] selectedRoots = new boolean[nodeCount];
+		int selectedCount = 0;
+		for (final CCInfo component : aComponents) {
+			final int index = Arrays.binarySearch(suids, component.getNode().getSUID().longValue());
+			if (index >= 0 && nodes[index] == component.getNode()) {
+				final int root = findRoot(parents, index);
+				if (!selectedRoots[root]) {
+					selectedRoots[root] = true;
+					selectedCount += sizes[root];
+				}
+			}
+		}
+		final Set<CyNode> members = new HashSet<CyNode>(selectedCount * 4 / 3 + 1);
+		for (int i = 0; i < nodeCount; ++i) {
+			if (selectedRoots[findRoot(parents, i)]) {
+				members.add(nodes[i]);
+			}
+		}
+		return members;
+	}
+
 	/**
 	 * Initializes a new instance of <code>ConnComponentAnalyzer</code>.
 	 * 
@@ -147,6 +217,22 @@ public class ConnComponentAnalyzer {
 		return getNodesOf(network, aCompInfo);
 	}
 
+	/**
+	 * Finds the representative of the set that contains the given node, halving the path to it.
+	 * 
+	 * @param aParents Array storing the parent of every node in the forest of node sets.
+	 * @param aIndex Index of the node of interest.
+	 * @return Index of the root of the tree that contains <code>aIndex</code>.
+	 */
+	private static int findRoot(int[] aParents, int aIndex) {
+		int index = aIndex;
+		while (aParents[index] != index) {
+			aParents[index] = aParents[aParents[index]];
+			index = aParents[index];
+		}
+		return index;
+	}
+
 	/**
 	 * Traverses all nodes that are reachable from the given node.
 	 * 
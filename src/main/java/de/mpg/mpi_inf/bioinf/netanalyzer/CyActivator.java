@@ -38,6 +38,7 @@ import java.util.Properties;
 import org.cytoscape.application.CyApplicationManager;
 import org.cytoscape.application.swing.CyAction;
 import org.cytoscape.application.swing.CySwingApplication;
+import org.cytoscape.event.CyEventHelper;
 import org.cytoscape.io.read.CyNetworkReaderManager;
 import org.cytoscape.model.CyNetworkManager;
 import org.cytoscape.service.util.AbstractCyActivator;
@@ -52,6 +53,7 @@ import org.osgi.framework.BundleContext;
 
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.task.AnalyzeNetworkByNetworkAnalyzerTaskFactory;
+import de.mpg.mpi_inf.bioinf.netanalyzer.ui.LazyChartPanel;
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.ResultPanelFactory;
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.VisualStyleBuilder;
 
@@ -70,6 +72,7 @@ public class CyActivator extends AbstractCyActivator {
 		CySwingApplication cySwingApplicationServiceRef = getService(bc,CySwingApplication.class);
 		CyNetworkManager cyNetworkManagerServiceRef = getService(bc,CyNetworkManager.class);
 		CyNetworkReaderManager cyNetworkViewReaderManagerServiceRef = getService(bc,CyNetworkReaderManager.class);
+		CyEventHelper cyEventHelperServiceRef = getService(bc,CyEventHelper.class);
 		
 		CyNetworkViewManager viewManagerServiceRef = getService(bc,CyNetworkViewManager.class);
 		VisualMappingManager vmmServiceRef = getService(bc,VisualMappingManager.class);
@@ -114,7 +117,7 @@ public class CyActivator extends AbstractCyActivator {
 		
 		// Disabled because similar function is available from Network Merge
 		//CompareAction compareAction = new CompareAction(cyApplicationManagerServiceRef,cySwingApplicationServiceRef,cyNetworkManagerServiceRef);
-		ConnComponentAction connComponentAction = new ConnComponentAction(cyApplicationManagerServiceRef,cySwingApplicationServiceRef, newNetworkSelectedNodesEdgesTaskFactoryServiceRef, taskManager);
+		ConnComponentAction connComponentAction = new ConnComponentAction(cyApplicationManagerServiceRef,cySwingApplicationServiceRef, newNetworkSelectedNodesEdgesTaskFactoryServiceRef, taskManager, cyEventHelperServiceRef);
 		
 		PlotParameterAction plotParameterAction = new PlotParameterAction(cyApplicationManagerServiceRef,cySwingApplicationServiceRef, analyzeNetworkAction);
 		RemDupEdgesAction remDupEdgesAction = new RemDupEdgesAction(cyApplicationManagerServiceRef,cySwingApplicationServiceRef,cyNetworkManagerServiceRef);
@@ -134,4 +137,11 @@ public class CyActivator extends AbstractCyActivator {
 		registerService(bc,removeSelfLoopsAction,CyAction.class, new Properties());
 		registerService(bc,aboutAction,CyAction.class, new Properties());
 	}
+
+	@Override
+	public void stop(BundleContext bc) {
+		// Charts waiting to be created are discarded, as the panels displaying them are gone
+		LazyChartPanel.shutdown();
+		super.stop(bc);
+	}
 }
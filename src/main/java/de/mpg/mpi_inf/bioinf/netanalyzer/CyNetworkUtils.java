@@ -43,9 +43,9 @@ import org.cytoscape.model.CyColumn;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyEdge;
-import org.cytoscape.model.CyTable;
-import org.cytoscape.model.CyTableUtil;
+import org.cytoscape.model.CyIdentifiable;
 
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AttributeCatalog;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.MutInteger;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInspection;
@@ -60,34 +60,20 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInspection;
  */
 public abstract class CyNetworkUtils {
 	/**
-	 * Keeps attributes that are computed by NetworkAnalyzer in this network and can be visualized.
+	 * Sorts the names of the numeric attributes that are set in all nodes or edges of a network.
 	 *
-	 * @param aNetwork
-	 *            The selected network.
 	 * @param computedAttr
-	 *            Set of the names of all attributes computed in the network.
-	 * @param cyAttr
-	 *            Set of node/edge attributes in Cytoscape.
+	 *            Set of the names of all numeric attributes that are set in the network.
 	 * @param netAnalyzerAttr
 	 *            Set of all node/edge attributes computed by NetworkAnalyzer
 	 *
 	 * @return The computed attribute names in the form of two arrays. The names are placed in the returned
 	 *         array in alphabetical order.
 	 */
-	private static String[][] keepAvailableAttributes(CyNetwork aNetwork, Set<String> computedAttr,
-							  CyTable table, Set<String> netAnalyzerAttr)
+	private static String[][] keepAvailableAttributes(Set<String> computedAttr, Set<String> netAnalyzerAttr)
 	{
-		final List<String> visualizeAttr = new ArrayList<String>(computedAttr.size() + 1);
-		for (final String colName : computedAttr) {
-			CyColumn column = table.getColumn(colName);
-			
-			if (column == null) continue;
-			
-			if (column.getType() == Double.class || column.getType() == Integer.class)
-				visualizeAttr.add(column.getName());
-		}
-		final List<String> resultNetAnalyzer = new ArrayList<String>(visualizeAttr);
-		final List<String> resultOther = new ArrayList<String>(visualizeAttr);
+		final List<String> resultNetAnalyzer = new ArrayList<String>(computedAttr);
+		final List<String> resultOther = new ArrayList<String>(computedAttr);
 		resultNetAnalyzer.retainAll(netAnalyzerAttr);
 		resultOther.removeAll(netAnalyzerAttr);
 		Collections.sort(resultNetAnalyzer);
@@ -98,8 +84,45 @@ public abstract class CyNetworkUtils {
 		return result;
 	}
 
+	/**
+	 * Checks if the given column can be visualized.
+	 *
+	 * @param aColumn
+	 *            Column of a node or edge table.
+	 * @return <code>true</code> if the column stores <code>Double</code> or <code>Integer</code> values;
+	 *         <code>false</code> otherwise.
+	 */
+	private static boolean isVisualizable(CyColumn aColumn) {
+		return aColumn.getType() == Double.class || aColumn.getType() == Integer.class;
+	}
+
+	/**
+	 * Checks if the given attribute is set in all of the specified nodes or edges.
+	 *
+	 * @param aNetwork
+	 *            Network of interest.
+	 * @param aElements
+	 *            Nodes or edges of <code>aNetwork</code>.
+	 * @param aColumn
+	 *            Name of the attribute.
+	 * @return <code>true</code> if every element in <code>aElements</code> has a value for
+	 *         <code>aColumn</code>; <code>false</code> otherwise.
+	 */
+	private static boolean isSetInAll(CyNetwork aNetwork, List<? extends CyIdentifiable> aElements,
+			String aColumn) {
+		for (final CyIdentifiable element : aElements) {
+			if (!aNetwork.getRow(element).isSet(aColumn))
+				return false;
+		}
+		return true;
+	}
+
 	/**
 	 * Checks the specified network has values for the given edge attributes.
+	 * <p>
+	 * The attributes recorded in the {@link AttributeCatalog} are accepted without accessing the edge table.
+	 * Each of the remaining numeric attributes is checked until an edge without value is found.
+	 * </p>
 	 *
 	 * @param aNetwork
 	 *            Network of interest.
@@ -107,20 +130,23 @@ public abstract class CyNetworkUtils {
 	 *         set if no such attributes are found.
 	 */
 	public static String[][] getComputedEdgeAttributes(CyNetwork aNetwork) {
-		final CyTable table = aNetwork.getDefaultEdgeTable();
-		final Collection<CyColumn> columns = table.getColumns();
-		final Set<String> computedAttr = CyTableUtil.getColumnNames(table);
-		for (final CyEdge n : aNetwork.getEdgeList()) {
-			for (final CyColumn column : columns) {
-				if (!aNetwork.getRow(n).isSet(column.getName()))
-					computedAttr.remove(column.getName());
-			}
+		final List<CyEdge> edges = aNetwork.getEdgeList();
+		final Set<String> computedAttr = new HashSet<String>();
+		for (final CyColumn column : aNetwork.getDefaultEdgeTable().getColumns()) {
+			final String name = column.getName();
+			if (isVisualizable(column) && (AttributeCatalog.getEdgeSummary(aNetwork, name) != null
+					|| isSetInAll(aNetwork, edges, name)))
+				computedAttr.add(name);
 		}
-		return keepAvailableAttributes(aNetwork, computedAttr, table, Messages.getEdgeAttributes());
+		return keepAvailableAttributes(computedAttr, Messages.getEdgeAttributes());
 	}
 
 	/**
 	 * Checks the specified network has values for the given node attributes.
+	 * <p>
+	 * The attributes recorded in the {@link AttributeCatalog} are accepted without accessing the node table.
+	 * Each of the remaining numeric attributes is checked until a node without value is found.
+	 * </p>
 	 *
 	 * @param aNetwork
 	 *            Network of interest.
@@ -128,16 +154,15 @@ public abstract class CyNetworkUtils {
 	 *         set if no such attributes are found.
 	 */
 	public static String[][] getComputedNodeAttributes(CyNetwork aNetwork) {
-		final CyTable table = aNetwork.getDefaultNodeTable();
-		final Collection<CyColumn> columns = table.getColumns();
-		final Set<String> computedAttr = CyTableUtil.getColumnNames(table);
-		for (final CyNode n : aNetwork.getNodeList()) {
-			for (final CyColumn column : columns) {
-				if (!aNetwork.getRow(n).isSet(column.getName()))
-					computedAttr.remove(column.getName());
-			}
+		final List<CyNode> nodes = aNetwork.getNodeList();
+		final Set<String> computedAttr = new HashSet<String>();
+		for (final CyColumn column : aNetwork.getDefaultNodeTable().getColumns()) {
+			final String name = column.getName();
+			if (isVisualizable(column) && (AttributeCatalog.getNodeSummary(aNetwork, name) != null
+					|| isSetInAll(aNetwork, nodes, name)))
+				computedAttr.add(name);
 		}
-		return keepAvailableAttributes(aNetwork, computedAttr, table, Messages.getNodeAttributes());
+		return keepAvailableAttributes(computedAttr, Messages.getNodeAttributes());
 	}
 
 	public static Set<CyEdge> getAllConnectingEdges(CyNetwork aNetwork, Collection<CyNode> nodes) {
@@ -29,8 +29,10 @@ package de.mpg.mpi_inf.bioinf.netanalyzer;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -39,13 +41,15 @@ import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyEdge;
-import org.cytoscape.model.CyRow;
 
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AnalysisCheckpoint;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AnalysisTiming;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AttributeCatalog;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AttributeSummary;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.CCInfo;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.DegreeDistribution;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.LogBinDistribution;
@@ -53,9 +57,12 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.data.LongHistogram;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.MutInteger;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NodeBetweenInfo;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.PathLengthData;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.PathSampling;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Points2D;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.QuantileSketch;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.SumCountPair;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Utils;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
@@ -90,7 +97,6 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 		nodeCount = stats.getInt("nodeCount");
 		this.sPathLengths = new long[nodeCount];
 		this.visited = new HashSet<CyNode>();
-		this.useNodeAttributes = SettingsSerializer.getPluginSettings().getUseNodeAttributes();
 		this.useEdgeAttributes = SettingsSerializer.getPluginSettings().getUseEdgeAttributes();
 		this.roundingDigits = 8;
 		this.numberOfIsolatedNodes = 0;
@@ -112,398 +118,805 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 	@Override
 	public void computeAll() {
 		long time = System.currentTimeMillis();
-		analysisStarting();
-		
-		inDegreeDist = new DegreeDistribution(nodeCount);
-		outDegreeDist = new DegreeDistribution(nodeCount);
-		neighborsAccum = null;
-		ioNCps = new HashMap<Integer, SumCountPair>();
-		inNCps = new HashMap<Integer, SumCountPair>();
-		outNCps = new HashMap<Integer, SumCountPair>();
-		CCps = new HashMap<Integer, SumCountPair>();
-		closenessCent = new ArrayList<Point2D.Double>(nodeCount);
-		nodeBetweennessArray = new ArrayList<Point2D.Double>(nodeCount);
-		aplMap = new HashMap<CyNode, Double>();
-		stressDist = new LogBinDistribution();
-		outNeighbors = 0;
-		diameter = 0;
-		radius = Integer.MAX_VALUE;
-
-		// Compute number of connected components
-		final ConnComponentAnalyzer cca = new ConnComponentAnalyzer(network);
-		Set<CCInfo> components = cca.findComponents();
-		final int connectedComponentsCount = components.size();
-
-		// Compute node and edge betweenness
-		for (CCInfo aCompInfo : components) {
-
-			// Get nodes of connected component
-			final Set<CyNode> connNodes = cca.getNodesOf(aCompInfo);
-			final Set<CyEdge> connEdges = new HashSet<CyEdge>();
-			if (nodeSet != null)
-				connNodes.retainAll(nodeSet);
-			
-			// Convert the graph into an array representation to accelerate traversal
-			final int numNodes = connNodes.size();
-			final int[] edgeOffsets = new int[numNodes + 1];
-			final int[] outEdgeOffsets = new int[numNodes + 1];
-			final int[] inEdgeOffsets = new int[numNodes + 1];
-			final int[] inoutEdgeOffsets = new int[numNodes + 1];
-			final HashMap<CyNode, Integer> node2Int = new HashMap<>();
-			int numEdgesLocal = 0, numOutEdgesLocal = 0, numInEdgesLocal = 0, numInoutEdgesLocal = 0;
-			final HashMap<Long, Integer> edgeHash2Int = new HashMap<>();
-			{
-				int e = 0;
-				for (CyNode node : connNodes)
+		try {
+			analysisStarting();
+
+			inDegreeDist = new DegreeDistribution(nodeCount);
+			outDegreeDist = new DegreeDistribution(nodeCount);
+			neighborsAccum = null;
+			ioNCps = new HashMap<Integer, SumCountPair>();
+			inNCps = new HashMap<Integer, SumCountPair>();
+			outNCps = new HashMap<Integer, SumCountPair>();
+			CCps = new HashMap<Integer, SumCountPair>();
+			closenessCent = new ArrayList<Point2D.Double>(nodeCount);
+			nodeBetweennessArray = new ArrayList<Point2D.Double>(nodeCount);
+			aplMap = new HashMap<CyNode, Double>();
+			stressDist = new LogBinDistribution();
+			closenessSketch = createQuantileSketch();
+			betweennessSketch = createQuantileSketch();
+			stressSketch = createQuantileSketch();
+			clusteringSketch = createQuantileSketch();
+			sampling = new PathSampling();
+			outNeighbors = 0;
+			diameter = 0;
+			radius = Integer.MAX_VALUE;
+			if (checkpoint != null)
+				AnalysisCheckpoint.restore(checkpoint.getPathLengths(), sPathLengths);
+
+			// Compute number of connected components
+			AnalysisTiming.Probe probe = startPhase("components");
+			Set<CCInfo> components = findComponents();
+			connectedComponentsCount = components.size();
+			probe.stop();
+
+			final int numThreads = getThreadCount();
+			final ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+			workerCount = numThreads;
+
+			// Summary of the edge betweenness values written to the edge table
+			final AttributeSummary ebSummary = new AttributeSummary(network.getEdgeCount());
+			// Compute node and edge betweenness
+			for (CCInfo aCompInfo : components) {
+
+				// Get nodes of connected component
+				probe = startPhase("snapshot");
+				final Set<CyNode> connNodes = getNodesOf(aCompInfo);
+				final Set<CyEdge> connEdges = new HashSet<CyEdge>();
+				if (nodeSet != null)
+					connNodes.retainAll(nodeSet);
+
+				// Convert the graph into an array representation to accelerate traversal
+				final int numNodes = connNodes.size();
+				final int[] edgeOffsets = new int[numNodes + 1];
+				final int[] outEdgeOffsets = new int[numNodes + 1];
+				final int[] inEdgeOffsets = new int[numNodes + 1];
+				final int[] inoutEdgeOffsets = new int[numNodes + 1];
+				final HashMap<CyNode, Integer> node2Int = new HashMap<>();
+				int numEdgesLocal = 0, numOutEdgesLocal = 0, numInEdgesLocal = 0, numInoutEdgesLocal = 0;
+				final HashMap<Long, Integer> edgeHash2Int = new HashMap<>();
 				{
-					edgeOffsets[node2Int.size()] = numEdgesLocal;
-					outEdgeOffsets[node2Int.size()] = numOutEdgesLocal;
-					inEdgeOffsets[node2Int.size()] = numInEdgesLocal;
-					inoutEdgeOffsets[node2Int.size()] = numInoutEdgesLocal;
-					node2Int.put(node, node2Int.size());
-					numEdgesLocal += getNeighbors(node).size();
-					numOutEdgesLocal += getOutNeighbors(node).size();
-					numInEdgesLocal += getInNeighbors(node).size();
-					numInoutEdgesLocal += getOutNeighbors(node).size() + getInNeighbors(node).size();
+					int e = 0;
+					for (CyNode node : connNodes)
+					{
+						edgeOffsets[node2Int.size()] = numEdgesLocal;
+						outEdgeOffsets[node2Int.size()] = numOutEdgesLocal;
+						inEdgeOffsets[node2Int.size()] = numInEdgesLocal;
+						inoutEdgeOffsets[node2Int.size()] = numInoutEdgesLocal;
+						node2Int.put(node, node2Int.size());
+						numEdgesLocal += getNeighbors(node).size();
+						numOutEdgesLocal += getOutNeighbors(node).size();
+						numInEdgesLocal += getInNeighbors(node).size();
+						numInoutEdgesLocal += getOutNeighbors(node).size() + getInNeighbors(node).size();
+					}
+					for (CyNode node : connNodes)
+					{
+						for (CyEdge edge : getOutEdges(node))
+						{
+							connEdges.add(edge);
+							int sourceID = node2Int.get(edge.getSource());
+							int targetID = node2Int.get(edge.getTarget());
+							long edgeHash = computeEdgeHash(sourceID, targetID);
+							if (!edgeHash2Int.containsKey(edgeHash))
+								edgeHash2Int.put(edgeHash, e++);
+						}
+					}
 				}
+				final int numEdges = numEdgesLocal;
+				edgeOffsets[numNodes] = numEdges;
+				outEdgeOffsets[numNodes] = numOutEdgesLocal;
+				inEdgeOffsets[numNodes] = numInEdgesLocal;
+				inoutEdgeOffsets[numNodes] = numInoutEdgesLocal;
+				final int[] edges = new int[numEdges];
+				final int[] outEdges = new int[numOutEdgesLocal];
+				final int[] inEdges = new int[numInEdgesLocal];
+				final int[] inoutEdges = new int[numInoutEdgesLocal];
+				final int[] inoutEdgeIDs = new int[numInoutEdgesLocal];
+				final boolean[] inoutIsOutEdge = new boolean[numInoutEdgesLocal];
 				for (CyNode node : connNodes)
 				{
-					for (CyEdge edge : getOutEdges(node))
+					int nodeID = node2Int.get(node);
+					int offset = edgeOffsets[nodeID];
+					for (CyNode neighbor : getNeighbors(node))
+						edges[offset++] = node2Int.get(neighbor);
+
+					offset = outEdgeOffsets[nodeID];
+					int inoutOffset = inoutEdgeOffsets[nodeID];
+					for (CyNode outNeighbor : getOutNeighbors(node))
 					{
-						connEdges.add(edge);
-						int sourceID = node2Int.get(edge.getSource());
-						int targetID = node2Int.get(edge.getTarget());
-						long edgeHash = computeEdgeHash(sourceID, targetID);
-						if (!edgeHash2Int.containsKey(edgeHash))
-							edgeHash2Int.put(edgeHash, e++);
+						int outNeighborID = node2Int.get(outNeighbor);
+						long edgeHash = computeEdgeHash(nodeID, outNeighborID);
+						int edgeID = edgeHash2Int.get(edgeHash);
+						inoutEdgeIDs[inoutOffset] = edgeID;
+						inoutEdges[inoutOffset] = outNeighborID;
+						inoutIsOutEdge[inoutOffset++] = true;
+						outEdges[offset++] = outNeighborID;
+					}
+
+					offset = inEdgeOffsets[nodeID];
+					for (CyNode inNeighbor : getInNeighbors(node))
+					{
+						int inNeighborID = node2Int.get(inNeighbor);
+						long edgeHash = computeEdgeHash(inNeighborID, nodeID);
+						int edgeID = edgeHash2Int.get(edgeHash);
+						inoutEdgeIDs[inoutOffset] = edgeID;
+						inoutEdges[inoutOffset] = inNeighborID;
+						inoutIsOutEdge[inoutOffset++] = false;
+						inEdges[offset++] = inNeighborID;
 					}
 				}
-			}
-			final int numEdges = numEdgesLocal;
-			edgeOffsets[numNodes] = numEdges;
-			outEdgeOffsets[numNodes] = numOutEdgesLocal;
-			inEdgeOffsets[numNodes] = numInEdgesLocal;
-			inoutEdgeOffsets[numNodes] = numInoutEdgesLocal;
-			final int[] edges = new int[numEdges];
-			final int[] outEdges = new int[numOutEdgesLocal];
-			final int[] inEdges = new int[numInEdgesLocal];
-			final int[] inoutEdges = new int[numInoutEdgesLocal];
-			final int[] inoutEdgeIDs = new int[numInoutEdgesLocal];
-			final boolean[] inoutIsOutEdge = new boolean[numInoutEdgesLocal];
-			for (CyNode node : connNodes)
-			{
-				int nodeID = node2Int.get(node);
-				int offset = edgeOffsets[nodeID];
-				for (CyNode neighbor : getNeighbors(node))
-					edges[offset++] = node2Int.get(neighbor);
-				
-				offset = outEdgeOffsets[nodeID];
-				int inoutOffset = inoutEdgeOffsets[nodeID];
-				for (CyNode outNeighbor : getOutNeighbors(node))
-				{
-					int outNeighborID = node2Int.get(outNeighbor);
-					long edgeHash = computeEdgeHash(nodeID, outNeighborID);
-					int edgeID = edgeHash2Int.get(edgeHash);
-					inoutEdgeIDs[inoutOffset] = edgeID;
-					inoutEdges[inoutOffset] = outNeighborID;
-					inoutIsOutEdge[inoutOffset++] = true;
-					outEdges[offset++] = outNeighborID;
-				}
-				
-				offset = inEdgeOffsets[nodeID];
-				for (CyNode inNeighbor : getInNeighbors(node))
-				{
-					int inNeighborID = node2Int.get(inNeighbor);
-					long edgeHash = computeEdgeHash(inNeighborID, nodeID);
-					int edgeID = edgeHash2Int.get(edgeHash);
-					inoutEdgeIDs[inoutOffset] = edgeID;
-					inoutEdges[inoutOffset] = inNeighborID;
-					inoutIsOutEdge[inoutOffset++] = false;
-					inEdges[offset++] = inNeighborID;
-				}
-			}
-			
-			nodeBetweennessLean = new double[numNodes];
-			edgeBetweennessLean = new double[connEdges.size()];
-			stressLean = new long[numNodes];
 
-			final Queue<CyNode> nodesLeft = new LinkedList<>();
-			for (CyNode node : connNodes)
-				nodesLeft.add(node);
-			
-			class NodeTask implements Runnable
-			{
-				DirNetworkAnalyzer parent;
-				int threadID;
-				
-				public NodeTask(DirNetworkAnalyzer p, int id)	{ parent = p; threadID = id; }
-				
-				@Override
-				public void run() 
+				nodeBetweennessLean = new double[numNodes];
+				edgeBetweennessLean = new double[connEdges.size()];
+				stressLean = new long[numNodes];
+				componentSources = 0;
+				probe.stop();
+
+				final Queue<CyNode> nodesLeft = new LinkedList<>();
+				for (CyNode node : connNodes)
+					nodesLeft.add(node);
+
+				// Sources for path-based parameters; in time-limited mode they are processed in random order,
+				// such that the sources processed before the budget expires are a uniform sample
+				final LinkedList<CyNode> sourcesLeft = new LinkedList<>();
+				if (nodeSet == null)
+					sourcesLeft.addAll(connNodes);
+				if (timeBudget > 0)
+					Collections.shuffle(sourcesLeft);
+				if (checkpoint != null)
+					resumeComponent(connNodes, connEdges, node2Int, edgeHash2Int, edgeOffsets, sourcesLeft);
+
+				class NodeTask implements Runnable
 				{
-					int localDiameter = 0;	
-					int localRadius = Integer.MAX_VALUE;
-					long[] localSPathLengths = new long[parent.sPathLengths.length];
-					double[] localNodeBetweenness = new double[parent.nodeBetweennessLean.length];
-					double[] localEdgeBetweenness = new double[parent.edgeBetweennessLean.length];
-					long[] localStress = new long[parent.stressLean.length];
-			
-					while (nodesLeft.size() > 0)
+					DirNetworkAnalyzer parent;
+					int threadID;
+					boolean pathPhase;
+					long[] localSPathLengths;
+					double[] localNodeBetweenness;
+					double[] localEdgeBetweenness;
+					long[] localStress;
+
+					public NodeTask(DirNetworkAnalyzer p, int id, boolean phase)	{ parent = p; threadID = id; pathPhase = phase; }
+
+					@Override
+					public void run() 
 					{
-						CyNode node = null;
-						synchronized (parent)
-						{
-							if (nodesLeft.size() == 0)
-								break;
-							node = nodesLeft.remove();
-							parent.progress++;
-						}
-						
-						int nodeID = node2Int.get(node);
-						final List<CyEdge> inCyEdges = getInEdges(node);
-						final List<CyEdge> outCyEdges = getOutEdges(node);
-						CyRow nodeRow = parent.network.getRow(node);
-						int firstEdge = edgeOffsets[nodeID], lastEdge = edgeOffsets[nodeID + 1];
-						int outFirstEdge = outEdgeOffsets[nodeID], outLastEdge = outEdgeOffsets[nodeID + 1];
-						int inFirstEdge = inEdgeOffsets[nodeID], inLastEdge = inEdgeOffsets[nodeID + 1];
-						
-						synchronized (parent.inDegreeDist)
+						if (pathPhase)
+							runPaths();
+						else
+							runLocal();
+					}
+
+					/**
+					 * Computes the parameters that depend on the neighborhood of a node only. These are always
+					 * computed for all nodes. The task stops when a snapshot of partial results is due and
+					 * continues with the nodes left when it is run again.
+					 */
+					private void runLocal()
+					{
+						final AnalysisTiming.Probe workerProbe = timing.startWorker("local");
+						final DegreeDistribution localInDegreeDist = new DegreeDistribution(0);
+						final DegreeDistribution localOutDegreeDist = new DegreeDistribution(0);
+						final QuantileSketch localClusteringSketch = createQuantileSketch();
+						while (nodesLeft.size() > 0)
 						{
-							inDegreeDist.addObservation(inCyEdges.size());
-							outDegreeDist.addObservation(outCyEdges.size());
-						}
-		
-						Set<CyNode> neighbors = getNeighbors(node, inCyEdges, outCyEdges);
-						int neighborCount = lastEdge - firstEdge;
-						int outNeighborCount = outLastEdge - outFirstEdge;
-						int inNeighborCount = inLastEdge - inFirstEdge;
-						
-						int[] neighborsArray = new int[lastEdge - firstEdge];
-						for (int ei = firstEdge; ei < lastEdge; ei++)
-							neighborsArray[ei - firstEdge] = edges[ei];
-						int[] outNeighborsArray = new int[outLastEdge - outFirstEdge];
-						for (int ei = outFirstEdge; ei < outLastEdge; ei++)
-							outNeighborsArray[ei - outFirstEdge] = outEdges[ei];
-						int[] inNeighborsArray = new int[inLastEdge - inFirstEdge];
-						for (int ei = inFirstEdge; ei < inLastEdge; ei++)
-							inNeighborsArray[ei - inFirstEdge] = inEdges[ei];
-						
-						// Number of self-loops calculation
-						int selfloops = 0;
-						for (int j = 0; j < inCyEdges.size(); j++) {
-							CyEdge e = inCyEdges.get(j);
-							if (e.getSource() == node) {
-								selfloops++;
+							CyNode node = null;
+							synchronized (parent)
+							{
+								if (nodesLeft.size() == 0)
+									break;
+								node = nodesLeft.remove();
+								if (parent.nodeSet != null)
+									parent.progress++;
 							}
-						}
-						// Multi-edge node pair computation. Currently edge direction is ignored.
-						int partnerOfMultiEdgeNodePairs = 0;
-						for (final MutInteger freq : CyNetworkUtils.getNeighborMap(network, node).values()) {
-							if (freq.value > 1) {
-								partnerOfMultiEdgeNodePairs++;
+
+							int nodeID = node2Int.get(node);
+							final List<CyEdge> inCyEdges = getInEdges(node);
+							final List<CyEdge> outCyEdges = getOutEdges(node);
+							int firstEdge = edgeOffsets[nodeID], lastEdge = edgeOffsets[nodeID + 1];
+							int outFirstEdge = outEdgeOffsets[nodeID], outLastEdge = outEdgeOffsets[nodeID + 1];
+							int inFirstEdge = inEdgeOffsets[nodeID], inLastEdge = inEdgeOffsets[nodeID + 1];
+
+							localInDegreeDist.addObservation(inCyEdges.size());
+							localOutDegreeDist.addObservation(outCyEdges.size());
+
+							Set<CyNode> neighbors = getNeighbors(node, inCyEdges, outCyEdges);
+							int neighborCount = lastEdge - firstEdge;
+							int outNeighborCount = outLastEdge - outFirstEdge;
+							int inNeighborCount = inLastEdge - inFirstEdge;
+
+							int[] neighborsArray = new int[lastEdge - firstEdge];
+							for (int ei = firstEdge; ei < lastEdge; ei++)
+								neighborsArray[ei - firstEdge] = edges[ei];
+							int[] outNeighborsArray = new int[outLastEdge - outFirstEdge];
+							for (int ei = outFirstEdge; ei < outLastEdge; ei++)
+								outNeighborsArray[ei - outFirstEdge] = outEdges[ei];
+							int[] inNeighborsArray = new int[inLastEdge - inFirstEdge];
+							for (int ei = inFirstEdge; ei < inLastEdge; ei++)
+								inNeighborsArray[ei - inFirstEdge] = inEdges[ei];
+
+							// Number of self-loops calculation
+							int selfloops = 0;
+							for (int j = 0; j < inCyEdges.size(); j++) {
+								CyEdge e = inCyEdges.get(j);
+								if (e.getSource() == node) {
+									selfloops++;
+								}
 							}
-						}
-						// Atomic addition of neighborCount, numberOfIsolatedNodes, numberOfSelfLoops and multiEdgePartners
-						synchronized (parent)
-						{
-							if (parent.neighborsAccum == null)
-								parent.neighborsAccum = new SumCountPair(neighborCount);
-							else
-								parent.neighborsAccum.add(neighborCount);
-							
-							// Number of unconnected nodes calculation
-							if (neighborCount == 0)
-								parent.numberOfIsolatedNodes++;
-		
-							parent.numberOfSelfLoops += selfloops;
-		
-							parent.multiEdgePartners += partnerOfMultiEdgeNodePairs;
-						}
-		
-						if (useNodeAttributes) 
-						{
-							nodeRow.set(Messages.getAttr("cco"), 0.0);
-							nodeRow.set(Messages.getAttr("din"), inCyEdges.size());
-							nodeRow.set(Messages.getAttr("dou"), outCyEdges.size());
-							nodeRow.set(Messages.getAttr("dal"), inCyEdges.size() + outCyEdges.size());
-							nodeRow.set(Messages.getAttr("isn"), (neighborCount == 0));
-							nodeRow.set(Messages.getAttr("slo"), selfloops);
-							nodeRow.set(Messages.getAttr("pmn"), partnerOfMultiEdgeNodePairs);
-						}
-		
-						if (neighborCount > 1) 
-						{
-							// Clustering coefficients calculation
-							final double nodeCCp = computeCC(neighborsArray, numNodes, outEdges, outEdgeOffsets);
-							synchronized (parent.CCps)
+							// Multi-edge node pair computation. Currently edge direction is ignored.
+							int partnerOfMultiEdgeNodePairs = 0;
+							for (final MutInteger freq : CyNetworkUtils.getNeighborMap(network, node,
+									getAdjacentEdges(node, CyEdge.Type.ANY)).values()) {
+								if (freq.value > 1) {
+									partnerOfMultiEdgeNodePairs++;
+								}
+							}
+							// Atomic addition of neighborCount, numberOfIsolatedNodes, numberOfSelfLoops and multiEdgePartners
+							synchronized (parent)
 							{
-								accumulate(CCps, neighborCount, nodeCCp);
+								if (parent.neighborsAccum == null)
+									parent.neighborsAccum = new SumCountPair(neighborCount);
+								else
+									parent.neighborsAccum.add(neighborCount);
+
+								// Number of unconnected nodes calculation
+								if (neighborCount == 0)
+									parent.numberOfIsolatedNodes++;
+
+								parent.numberOfSelfLoops += selfloops;
+
+								parent.multiEdgePartners += partnerOfMultiEdgeNodePairs;
 							}
-							if (useNodeAttributes)
-								nodeRow.set(Messages.getAttr("cco"), Utils.roundTo(nodeCCp, roundingDigits));
-						} 
-						else if (useNodeAttributes) 
-						{
-							nodeRow.set(Messages.getAttr("cco"), 0.0);
-						}
-		
-						// Neighborhood connectivity calculation
-						// -------------------------------------
-						final double nco = averageNeighbors(neighborsArray, edgeOffsets);
-						if (neighborCount > 0) 
-						{
-							synchronized (parent.ioNCps)
+
+							if (isRecordingNodeValues()) 
+							{
+								setNodeValue(node, "cco", 0.0);
+								setNodeValue(node, "din", inCyEdges.size());
+								setNodeValue(node, "dou", outCyEdges.size());
+								setNodeValue(node, "dal", inCyEdges.size() + outCyEdges.size());
+								setNodeValue(node, "isn", (neighborCount == 0));
+								setNodeValue(node, "slo", selfloops);
+								setNodeValue(node, "pmn", partnerOfMultiEdgeNodePairs);
+							}
+
+							if (neighborCount > 1) 
 							{
-								accumulate(parent.ioNCps, neighborCount, nco);
+								// Clustering coefficients calculation
+								final double nodeCCp = computeCC(neighborsArray, numNodes, outEdges, outEdgeOffsets);
+								synchronized (parent.CCps)
+								{
+									accumulate(CCps, neighborCount, nodeCCp);
+								}
+								if (localClusteringSketch != null)
+									localClusteringSketch.add(nodeCCp);
+								if (isRecordingNodeValues())
+									setNodeValue(node, "cco", Utils.roundTo(nodeCCp, roundingDigits));
+							} 
+							else if (isRecordingNodeValues()) 
+							{
+								setNodeValue(node, "cco", 0.0);
 							}
+
+							// Neighborhood connectivity calculation
+							// -------------------------------------
+							final double nco = averageNeighbors(neighborsArray, edgeOffsets);
+							if (neighborCount > 0) 
+							{
+								synchronized (parent.ioNCps)
+								{
+									accumulate(parent.ioNCps, neighborCount, nco);
+								}
+							}
+							if (outNeighborCount > 0) 
+							{
+								double outNC = averageNeighbors(outNeighborsArray, outEdgeOffsets);
+								synchronized (parent.outNCps)
+								{
+									parent.outNeighbors += outNeighborCount;
+									accumulate(parent.outNCps, outNeighborCount, outNC);
+								}
+							}
+							if (inNeighborCount > 0) 
+							{
+								double inNC = averageNeighbors(inNeighborsArray, inEdgeOffsets);
+								synchronized (parent.inNCps)
+								{
+									accumulate(parent.inNCps, inNeighborCount, inNC);
+								}
+							}
+
+							if (isRecordingNodeValues()) {
+								setNodeValue(node, "nco", nco);
+							}
+
+							if (parent.cancelled || parent.isPublishDue())
+								break;
 						}
-						if (outNeighborCount > 0) 
+
+						// Merge the degree distributions of this worker into the global ones
+						synchronized (parent.inDegreeDist)
 						{
-							double outNC = averageNeighbors(outNeighborsArray, outEdgeOffsets);
-							synchronized (parent.outNCps)
+							parent.inDegreeDist.merge(localInDegreeDist);
+							parent.outDegreeDist.merge(localOutDegreeDist);
+						}
+						if (localClusteringSketch != null)
+							synchronized (parent.clusteringSketch)
 							{
-								parent.outNeighbors += outNeighborCount;
-								accumulate(parent.outNCps, outNeighborCount, outNC);
+								parent.clusteringSketch.merge(localClusteringSketch);
 							}
+						workerProbe.stop();
+					}
+
+					/**
+					 * Computes the path-based parameters from the sources left in the component. In
+					 * time-limited mode, this stops when the time budget is exceeded. The task also stops when
+					 * a checkpoint or a snapshot of partial results is due; the values accumulated so far are
+					 * kept until they are reduced.
+					 */
+					private void runPaths()
+					{
+						final AnalysisTiming.Probe workerProbe = timing.startWorker("paths");
+						long bfsTime = 0, brandesTime = 0;
+						int sources = 0;
+						int localDiameter = 0;	
+						int localRadius = Integer.MAX_VALUE;
+						if (localSPathLengths == null)
+						{
+							localSPathLengths = new long[parent.sPathLengths.length];
+							localNodeBetweenness = new double[parent.nodeBetweennessLean.length];
+							localEdgeBetweenness = new double[parent.edgeBetweennessLean.length];
+							localStress = new long[parent.stressLean.length];
 						}
-						if (inNeighborCount > 0) 
+
+						while (sourcesLeft.size() > 0)
 						{
-							double inNC = averageNeighbors(inNeighborsArray, inEdgeOffsets);
-							synchronized (parent.inNCps)
+							CyNode node = null;
+							synchronized (parent)
 							{
-								accumulate(parent.inNCps, inNeighborCount, inNC);
+								if (sourcesLeft.size() == 0)
+									break;
+								if (parent.componentSources >= MIN_SOURCES && parent.isTimeBudgetExceeded())
+									break;
+								if (sources >= MIN_ROUND_SOURCES && parent.isCheckpointDue())
+									break;
+								if (sources > 0 && parent.isPublishDue())
+									break;
+								node = sourcesLeft.remove();
+								parent.componentSources++;
+								parent.sourcesProcessed++;
+								parent.progress++;
 							}
-						}
-		
-						if (useNodeAttributes) {
-							nodeRow.set(Messages.getAttr("nco"), nco);
-						}
-		
-						if (nodeSet == null) {
+
+							int nodeID = node2Int.get(node);
+							int neighborCount = edgeOffsets[nodeID + 1] - edgeOffsets[nodeID];
+
 							// Compute shortest path lengths
+							long kernelStart = System.nanoTime();
 							PathLengthData pathLengths = computeSP(nodeID, numNodes, outEdges, outEdgeOffsets, localSPathLengths);
-							
+							bfsTime += System.nanoTime() - kernelStart;
+							sources++;
+							parent.sampling.addSource(pathLengths);
+
 							final int eccentricity = pathLengths.getMaxLength();
 							localDiameter = Math.max(localDiameter, eccentricity);
 							if (0 < eccentricity)
 								localRadius = Math.min(localRadius, eccentricity);
-							
+
 							final double apl = (pathLengths.getCount() > 0) ? pathLengths.getAverageLength() : 0;
-							synchronized (parent.aplMap)
-							{
-								parent.aplMap.put(node, Double.valueOf(apl));
-							}
-							
-							final double closeness = (apl > 0.0) ? 1 / apl : 0.0;
-							synchronized (parent.closenessCent)
-							{
-								parent.closenessCent.add(new Point2D.Double(neighborCount, closeness));
-							}
-		
-							if (useNodeAttributes) {
-								nodeRow.set(Messages.getAttr("spl"), eccentricity);
-								nodeRow.set(Messages.getAttr("apl"), Utils.roundTo(apl, roundingDigits));
-								nodeRow.set(Messages.getAttr("clc"), Utils.roundTo(closeness, roundingDigits));
-							}
-		
+							parent.recordSource(node, neighborCount, eccentricity, apl);
+
 							// CyNode and edge betweenness calculation
 							if (computeNB)
+							{
+								kernelStart = System.nanoTime();
 								computeNBandEB(nodeID, numNodes, inoutEdges, inoutEdgeOffsets, inoutEdgeIDs, inEdgeOffsets,
 											   localNodeBetweenness, localStress, localEdgeBetweenness);
+								brandesTime += System.nanoTime() - kernelStart;
+							}
+
+							if (parent.cancelled)
+								break;
 						}
-		
-						if (parent.cancelled)
-							break;
+
+						synchronized (parent)
+						{
+							parent.diameter = Math.max(parent.diameter, localDiameter);
+							parent.radius = Math.min(parent.radius, localRadius);
+						}
+						// Every traversal from a source scans the adjacency lists of the whole component
+						final long bfsTraversed = (long) sources * outEdgeOffsets[numNodes];
+						final long brandesTraversed = computeNB ? (long) sources * inoutEdgeOffsets[numNodes] : 0;
+						timing.add("bfs", bfsTime, 0, 0, bfsTraversed);
+						if (computeNB)
+							timing.add("brandes", brandesTime, 0, 0, brandesTraversed);
+						workerProbe.stop(bfsTraversed + brandesTraversed);
 					}
-					
-					// Reduce results into global (parent's) variables
-					synchronized (parent)
+
+					/**
+					 * Adds the path-based results of this task to the global (parent's) variables.
+					 * 
+					 * @param scale Factor to extrapolate the values accumulated from a sample of sources to
+					 *        the whole component; <code>1.0</code> if all nodes were used as sources.
+					 */
+					void addPaths(double scale)
 					{
-						parent.diameter = Math.max(parent.diameter, localDiameter);
-						parent.radius = Math.min(parent.radius, localRadius);
-						for (int i = 0; i < localSPathLengths.length; i++)
-							parent.sPathLengths[i] += localSPathLengths[i];
+						if (localSPathLengths == null)
+							return;
+						addScaled(parent.sPathLengths, localSPathLengths, scale);
 						for (int i = 0; i < localNodeBetweenness.length; i++)
-							parent.nodeBetweennessLean[i] += localNodeBetweenness[i];
+							parent.nodeBetweennessLean[i] += localNodeBetweenness[i] * scale;
 						for (int i = 0; i < localEdgeBetweenness.length; i++)
-							parent.edgeBetweennessLean[i] += localEdgeBetweenness[i];
-						for (int i = 0; i < localStress.length; i++)
-							parent.stressLean[i] += localStress[i];
+							parent.edgeBetweennessLean[i] += localEdgeBetweenness[i] * scale;
+						addScaled(parent.stressLean, localStress, scale);
+					}
+
+					/**
+					 * Reduces the path-based results of this task into the global (parent's) variables and
+					 * resets them.
+					 * 
+					 * @param scale Factor to extrapolate the values accumulated from a sample of sources to
+					 *        the whole component; <code>1.0</code> if all nodes were used as sources.
+					 */
+					void reducePaths(double scale)
+					{
+						addPaths(scale);
+						localSPathLengths = null;
+						localNodeBetweenness = null;
+						localEdgeBetweenness = null;
+						localStress = null;
 					}
 				}
-			}
-			
-			int numThreads = Runtime.getRuntime().availableProcessors();
-			ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
-			List<Future<?>> futures = new LinkedList<Future<?>>();
-			for (int i = 0; i < numThreads; i++)
-				futures.add(threadPool.submit(new NodeTask(this, i)));
-			for (Future<?> future : futures)
-				try {
-					future.get();
-				} catch (Exception e) { } 
-			
-			if (cancelled)
-			{
-				analysisFinished();
-				return;
-			}
-			
-			// Normalize and save betweenness and stress
-			if (nodeSet == null && computeNB) 
-			{
-				for (final CyNode n : connNodes) 
+
+				List<NodeTask> tasks = new ArrayList<NodeTask>(numThreads);
+				for (int i = 0; i < numThreads; i++)
+					tasks.add(new NodeTask(this, i, false));
+				probe = startPhase("local");
+				do
 				{
-					int nodeID = node2Int.get(n);
-					
-					final double nNormFactor = computeNormFactor(numNodes);
-					double nb = nodeBetweennessLean[nodeID] * nNormFactor;
-					if (Double.isNaN(nb))
-						nb = 0.0;
-					final int connectivity = getNeighbors(n).size();
-					nodeBetweennessArray.add(new Point2D.Double(connectivity, nb));
-					
-					final long nodeStress = stressLean[nodeID];
-					stressDist.addObservation(nodeStress);
-					
-					if (useNodeAttributes) {
-						network.getRow(n).set(Messages.getAttr("nbt"), Utils.roundTo(nb, roundingDigits));
-						network.getRow(n).set(Messages.getAttr("stress"), nodeStress);
-					}
+					runTasks(threadPool, tasks);
+					publishPartialResult();
+				} while (!nodesLeft.isEmpty() && !cancelled);
+				probe.stop();
+
+				if (nodeSet == null && !cancelled)
+				{
+					sampling.startComponent(numNodes);
+					probe = startPhase("paths");
+					tasks.clear();
+					for (int i = 0; i < numThreads; i++)
+						tasks.add(new NodeTask(this, i, true));
+					do
+					{
+						runTasks(threadPool, tasks);
+						if (checkpoint != null)
+						{
+							// All sources are processed, so the values can be reduced and saved after every round
+							for (NodeTask task : tasks)
+								task.reducePaths(1.0);
+							if (!sourcesLeft.isEmpty() && isCheckpointDue())
+								saveCheckpoint(connNodes, connEdges, node2Int, edgeHash2Int);
+						}
+						if (!sourcesLeft.isEmpty() && isPublishDue())
+						{
+							// Extrapolate the sources processed so far, keeping the accumulated values intact
+							final long[] pathLengths = sPathLengths;
+							final double[] nodeBetweenness = nodeBetweennessLean;
+							final double[] edgeBetweenness = edgeBetweennessLean;
+							final long[] stress = stressLean;
+							sPathLengths = pathLengths.clone();
+							nodeBetweennessLean = nodeBetweenness.clone();
+							edgeBetweennessLean = edgeBetweenness.clone();
+							stressLean = stress.clone();
+							final double currentScale = sampling.getCurrentScale();
+							for (NodeTask task : tasks)
+								task.addPaths(currentScale);
+							publishComponentResult(connNodes, node2Int, numNodes);
+							sPathLengths = pathLengths;
+							nodeBetweennessLean = nodeBetweenness;
+							edgeBetweennessLean = edgeBetweenness;
+							stressLean = stress;
+						}
+					} while (!sourcesLeft.isEmpty() && !cancelled
+							&& !(componentSources >= MIN_SOURCES && isTimeBudgetExceeded()));
+					probe.stop();
+					// Sources skipped due to the time budget still count as progress
+					progress += sourcesLeft.size();
+					probe = startPhase("reduce");
+					final double scale = sampling.endComponent();
+					if (checkpoint == null)
+						for (NodeTask task : tasks)
+							task.reducePaths(scale);
+					probe.stop();
+					clearNodeAttributes(sourcesLeft, "spl", "apl", "clc");
+				}
+
+				if (cancelled)
+				{
+					threadPool.shutdown();
+					if (checkpoint != null)
+						saveCheckpoint(connNodes, connEdges, node2Int, edgeHash2Int);
+					analysisFinished();
+					return;
 				}
 
-				// Save edge betweenness
-				if (useEdgeAttributes) 
+				// Normalize and save betweenness and stress
+				if (nodeSet == null && computeNB) 
 				{
-					for (CyEdge edge : connEdges)
+					probe = startPhase("writeback");
+					for (final CyNode n : connNodes) 
 					{
-						int sourceID = node2Int.get(edge.getSource());
-						int targetID = node2Int.get(edge.getTarget());
-						long edgeHash = computeEdgeHash(sourceID, targetID);						
-						double eb = Double.NaN;
-						if (edgeHash2Int.containsKey(edgeHash))
-							eb = edgeBetweennessLean[edgeHash2Int.get(edgeHash)];
-						
-						if (Double.isNaN(eb)) {
-							eb = 0.0;
+						int nodeID = node2Int.get(n);
+
+						final double nNormFactor = computeNormFactor(numNodes);
+						double nb = nodeBetweennessLean[nodeID] * nNormFactor;
+						if (Double.isNaN(nb))
+							nb = 0.0;
+						final int connectivity = getNeighbors(n).size();
+						nodeBetweennessArray.add(new Point2D.Double(connectivity, nb));
+
+						final long nodeStress = stressLean[nodeID];
+						stressDist.addObservation(nodeStress);
+						if (betweennessSketch != null) {
+							betweennessSketch.add(nb);
+							stressSketch.add(nodeStress);
+						}
+
+						if (isRecordingNodeValues()) {
+							setNodeValue(n, "nbt", Utils.roundTo(nb, roundingDigits));
+							setNodeValue(n, "stress", nodeStress);
+						}
+					}
+
+					// Save edge betweenness
+					if (useEdgeAttributes) 
+					{
+						for (CyEdge edge : connEdges)
+						{
+							int sourceID = node2Int.get(edge.getSource());
+							int targetID = node2Int.get(edge.getTarget());
+							long edgeHash = computeEdgeHash(sourceID, targetID);						
+							double eb = Double.NaN;
+							if (edgeHash2Int.containsKey(edgeHash))
+								eb = edgeBetweennessLean[edgeHash2Int.get(edgeHash)];
+
+							if (Double.isNaN(eb)) {
+								eb = 0.0;
+							}
+							final double value = Utils.roundTo(eb, roundingDigits);
+							network.getRow(edge).set(Messages.getAttr("ebt"), value);
+							ebSummary.add(value);
 						}
-						network.getRow(edge).set(Messages.getAttr("ebt"), Utils.roundTo(eb, roundingDigits));
 					}
+					probe.stop();
 				}
+				if (checkpoint != null)
+				{
+					// Checkpoints are also due between components, which may each be completed within a round
+					if (isCheckpointDue())
+						saveCheckpoint(connNodes, connEdges, node2Int, edgeHash2Int);
+					else
+						storeComponent(connNodes, connEdges, node2Int, edgeHash2Int);
+				}
+				publishPartialResult();
+			}
+			if (useEdgeAttributes) {
+				AttributeCatalog.putEdgeSummary(network, Messages.getAttr("ebt"), ebSummary);
+			}
+
+			threadPool.shutdown();
+
+			saveStats(stats);
+
+			if (nodeSet == null) {
+				saveSampling(sampling);
+			}
+			saveTiming();
+			if (checkpoint != null) {
+				checkpoint.setPathLengths(sPathLengths);
+				completeCheckpoint();
 			}
+
+			analysisFinished();
+			time = System.currentTimeMillis() - time;
+			stats.set("time", time / 1000.0);
+			progress = nodeCount;
+		} finally {
+			AnalysisMonitor.unregister(this);
 		}
+	}
 
+	/**
+	 * Records the results computed from a source node.
+	 * <p>
+	 * This method is called by the worker threads, as well as when resuming from a checkpoint.
+	 * </p>
+	 * 
+	 * @param aNode Source node.
+	 * @param aNeighborCount Number of neighbors of the source node.
+	 * @param aEccentricity Eccentricity of the source node.
+	 * @param aApl Average shortest path length from the source node.
+	 */
+	private void recordSource(CyNode aNode, int aNeighborCount, int aEccentricity, double aApl) {
+		synchronized (aplMap) {
+			aplMap.put(aNode, Double.valueOf(aApl));
+		}
+		final double closeness = (aApl > 0.0) ? 1 / aApl : 0.0;
+		synchronized (closenessCent) {
+			closenessCent.add(new Point2D.Double(aNeighborCount, closeness));
+			if (closenessSketch != null) {
+				closenessSketch.add(closeness);
+			}
+		}
+
+		if (isRecordingNodeValues()) {
+			setNodeValue(aNode, "spl", aEccentricity);
+			setNodeValue(aNode, "apl", Utils.roundTo(aApl, roundingDigits));
+			setNodeValue(aNode, "clc", Utils.roundTo(closeness, roundingDigits));
+		}
+		if (checkpoint != null) {
+			checkpoint.addSource(getNodeKey(aNode), aEccentricity, aApl);
+		}
+	}
+
+	/**
+	 * Restores the state of a connected component from the checkpoint. The accumulated betweenness and
+	 * stress values are loaded, and the sources processed before the checkpoint, as well as the sources of
+	 * other shards, are removed from the sources left.
+	 * 
+	 * @param aNodes Nodes of the connected component.
+	 * @param aEdges Edges of the connected component.
+	 * @param aNode2Int Mapping of the nodes to their indices in the component.
+	 * @param aEdgeHash2Int Mapping of the edge hashes to their indices in the component.
+	 * @param aEdgeOffsets Offsets of the adjacency lists of the nodes.
+	 * @param aSourcesLeft Sources left to be processed in the component.
+	 */
+	private void resumeComponent(Set<CyNode> aNodes, Set<CyEdge> aEdges, Map<CyNode, Integer> aNode2Int,
+			Map<Long, Integer> aEdgeHash2Int, int[] aEdgeOffsets, List<CyNode> aSourcesLeft) {
+		for (final CyNode node : aNodes) {
+			final String key = getNodeKey(node);
+			final int nodeID = aNode2Int.get(node);
+			nodeBetweennessLean[nodeID] = checkpoint.getNodeBetweenness(key);
+			stressLean[nodeID] = checkpoint.getStress(key);
+		}
+		for (final CyEdge edge : aEdges) {
+			final Integer edgeID = aEdgeHash2Int.get(computeEdgeHash(aNode2Int.get(edge.getSource()), aNode2Int.get(edge.getTarget())));
+			if (edgeID != null) {
+				edgeBetweennessLean[edgeID] = checkpoint.getEdgeBetweenness(getEdgeKey(edge));
+			}
+		}
+		for (final Iterator<CyNode> it = aSourcesLeft.iterator(); it.hasNext();) {
+			final CyNode node = it.next();
+			final String key = getNodeKey(node);
+			if (checkpoint.isSource(key)) {
+				it.remove();
+				final int nodeID = aNode2Int.get(node);
+				final int eccentricity = checkpoint.getEccentricity(key);
+				recordSource(node, aEdgeOffsets[nodeID + 1] - aEdgeOffsets[nodeID], eccentricity, checkpoint.getApl(key));
+				diameter = Math.max(diameter, eccentricity);
+				if (0 < eccentricity) {
+					radius = Math.min(radius, eccentricity);
+				}
+				componentSources++;
+				sourcesProcessed++;
+				progress++;
+			} else if (!isShardSource(node)) {
+				it.remove();
+				progress++;
+			}
+		}
+	}
+
+	/**
+	 * Publishes a snapshot of the partial results, including the estimated betweenness and stress of the nodes
+	 * in the connected component whose shortest paths are being computed.
+	 * 
+	 * @param aNodes Nodes of the current connected component.
+	 * @param aNode2Int Mapping of the nodes to their indices in the component.
+	 * @param aNumNodes Number of nodes in the component.
+	 */
+	private void publishComponentResult(Set<CyNode> aNodes, Map<CyNode, Integer> aNode2Int, int aNumNodes)
+	{
+		final int pointCount = nodeBetweennessArray.size();
+		final LogBinDistribution finishedStressDist = stressDist;
+		if (computeNB)
+		{
+			stressDist = new LogBinDistribution();
+			stressDist.merge(finishedStressDist);
+			final double nNormFactor = computeNormFactor(aNumNodes);
+			for (final CyNode n : aNodes)
+			{
+				final int nodeID = aNode2Int.get(n);
+				double nb = nodeBetweennessLean[nodeID] * nNormFactor;
+				if (Double.isNaN(nb))
+					nb = 0.0;
+				nodeBetweennessArray.add(new Point2D.Double(getNeighbors(n).size(), nb));
+				stressDist.addObservation(stressLean[nodeID]);
+			}
+		}
+		publishPartialResult();
+		nodeBetweennessArray.subList(pointCount, nodeBetweennessArray.size()).clear();
+		stressDist = finishedStressDist;
+	}
+
+	/**
+	 * Stores the accumulated betweenness and stress of the nodes and edges of a connected component in the
+	 * checkpoint.
+	 * 
+	 * @param aNodes Nodes of the connected component.
+	 * @param aEdges Edges of the connected component.
+	 * @param aNode2Int Mapping of the nodes to their indices in the component.
+	 * @param aEdgeHash2Int Mapping of the edge hashes to their indices in the component.
+	 */
+	private void storeComponent(Set<CyNode> aNodes, Set<CyEdge> aEdges, Map<CyNode, Integer> aNode2Int,
+			Map<Long, Integer> aEdgeHash2Int) {
+		for (final CyNode node : aNodes) {
+			final int nodeID = aNode2Int.get(node);
+			checkpoint.setNode(getNodeKey(node), nodeBetweennessLean[nodeID], stressLean[nodeID]);
+		}
+		for (final CyEdge edge : aEdges) {
+			final Integer edgeID = aEdgeHash2Int.get(computeEdgeHash(aNode2Int.get(edge.getSource()), aNode2Int.get(edge.getTarget())));
+			if (edgeID != null) {
+				checkpoint.setEdge(getEdgeKey(edge), edgeBetweennessLean[edgeID]);
+			}
+		}
+	}
+
+	/**
+	 * Stores the state of the current connected component and the accumulated shortest path lengths in the
+	 * checkpoint and saves it.
+	 * 
+	 * @param aNodes Nodes of the current connected component.
+	 * @param aEdges Edges of the current connected component.
+	 * @param aNode2Int Mapping of the nodes to their indices in the component.
+	 * @param aEdgeHash2Int Mapping of the edge hashes to their indices in the component.
+	 */
+	private void saveCheckpoint(Set<CyNode> aNodes, Set<CyEdge> aEdges, Map<CyNode, Integer> aNode2Int,
+			Map<Long, Integer> aEdgeHash2Int) {
+		storeComponent(aNodes, aEdges, aNode2Int, aEdgeHash2Int);
+		checkpoint.setPathLengths(sPathLengths);
+		writeCheckpoint();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.NetworkAnalyzer#getAccumulatorBytes()
+	 */
+	@Override
+	public long getAccumulatorBytes() {
+		long entries = sPathLengths.length;
+		final double[] nodeBetweenness = nodeBetweennessLean;
+		final double[] edgeBetweenness = edgeBetweennessLean;
+		final long[] stress = stressLean;
+		if (nodeBetweenness != null && edgeBetweenness != null && stress != null) {
+			entries += nodeBetweenness.length + edgeBetweenness.length + stress.length;
+		}
+		// Every worker keeps local copies of the accumulators; all entries are 8 bytes long
+		return entries * 8 * (workerCount + 1);
+	}
+
+	/**
+	 * Stores the parameters accumulated so far in the given statistics instance.
+	 * <p>
+	 * This method does not modify the accumulated values. It is used for storing the final results as well
+	 * as for creating snapshots of partial results.
+	 * </p>
+	 * 
+	 * @param aStats
+	 *            Statistics instance to store the parameters in.
+	 */
+	@Override
+	protected void saveStats(NetworkStats aStats) {
 		// Save in and out degree distributions in the statistics instance
-		stats.set("inDegreeDist", inDegreeDist.createHistogram());
-		stats.set("outDegreeDist", outDegreeDist.createHistogram());
+		aStats.set("inDegreeDist", inDegreeDist.createHistogram());
+		aStats.set("outDegreeDist", outDegreeDist.createHistogram());
 
 		// Save C(k) in the statistics instance
 		if (CCps.size() > 0) {
 			Point2D.Double[] averages = new Point2D.Double[CCps.size()];
 			double cc = accumulateCCs(CCps, averages) / nodeCount;
-			stats.set("cc", cc);
+			aStats.set("cc", cc);
 			if (averages.length > 1) {
-				stats.set("cksDist", new Points2D(averages));
+				aStats.set("cksDist", new Points2D(averages));
 			}
 		}
 
@@ -514,58 +927,59 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 				connPairs += sPathLengths[i];
 				totalPathLength += i * sPathLengths[i];
 			}
-			stats.set("connPairs", connPairs);
+			aStats.set("connPairs", connPairs);
 
 			if (diameter > 0) {
 				// Save the diameter and the shortest path lengths distribution
-				stats.set("diameter", diameter);
-				stats.set("radius", radius);
-				stats.set("avSpl", (double) totalPathLength / connPairs);
+				aStats.set("diameter", diameter);
+				aStats.set("radius", radius);
+				aStats.set("avSpl", (double) totalPathLength / connPairs);
 				if (diameter > 1) {
-					stats.set("splDist", new LongHistogram(sPathLengths, 1, diameter));
+					aStats.set("splDist", new LongHistogram(sPathLengths, 1, diameter));
 				}
 			}			
 		}
 
 		if (neighborsAccum != null) {
-			stats.set("avNeighbors", neighborsAccum.getAverage());
+			aStats.set("avNeighbors", neighborsAccum.getAverage());
 		}
-		stats.set("density", (double) (outNeighbors / (nodeCount * (nodeCount - 1))));
-		stats.set("ncc", connectedComponentsCount);
-		stats.set("usn", numberOfIsolatedNodes);
-		stats.set("nsl", numberOfSelfLoops);
-		stats.set("mnp", multiEdgePartners / 2);
+		aStats.set("density", (double) (outNeighbors / (nodeCount * (nodeCount - 1))));
+		aStats.set("ncc", connectedComponentsCount);
+		aStats.set("usn", numberOfIsolatedNodes);
+		aStats.set("nsl", numberOfSelfLoops);
+		aStats.set("mnp", multiEdgePartners / 2);
 
 		// Save the neighborhood connectivities for incoming edges, outgoing edges and both
 		if (inNCps.size() > 1) {
-			stats.set("inNeighborConn", new Points2D(getAverages(inNCps)));
+			aStats.set("inNeighborConn", new Points2D(getAverages(inNCps)));
 		}
 		if (outNCps.size() > 1) {
-			stats.set("outNeighborConn", new Points2D(getAverages(outNCps)));
+			aStats.set("outNeighborConn", new Points2D(getAverages(outNCps)));
 		}
 		if (ioNCps.size() > 1) {
-			stats.set("allNeighborConn", new Points2D(getAverages(ioNCps)));
+			aStats.set("allNeighborConn", new Points2D(getAverages(ioNCps)));
 		}
 
 		// Save closeness centrality in the statistics instance
 		if (closenessCent.size() > 1) {
-			stats.set("closenessCent", new Points2D(closenessCent));
+			aStats.set("closenessCent", new Points2D(closenessCent));
 		}
 
 		// Save node betweenness
 		if (nodeBetweennessArray.size() > 0) {
-			stats.set("nodeBetween", new Points2D(nodeBetweennessArray));
+			aStats.set("nodeBetween", new Points2D(nodeBetweennessArray));
 		}
 
 		// Save stress distribution in the statistics instance
 		if (nodeSet == null && computeNB) {
-			stats.set("stressDist", stressDist.createPoints2D());
+			aStats.set("stressDist", stressDist.createPoints2D());
 		}
 
-		analysisFinished();
-		time = System.currentTimeMillis() - time;
-		stats.set("time", time / 1000.0);
-		progress = nodeCount;
+		// Save quantile sketches of node parameters in the statistics instance
+		saveQuantiles(aStats, "closenessQuantiles", closenessSketch);
+		saveQuantiles(aStats, "betweennessQuantiles", betweennessSketch);
+		saveQuantiles(aStats, "stressQuantiles", stressSketch);
+		saveQuantiles(aStats, "clusteringQuantiles", clusteringSketch);
 	}
 
 	/**
@@ -577,7 +991,7 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 	 *         <code>aNode</code> .
 	 */
 	private List<CyEdge> getInEdges(CyNode aNode) {
-		return network.getAdjacentEdgeList(aNode, CyEdge.Type.INCOMING);
+		return getAdjacentEdges(aNode, CyEdge.Type.INCOMING);
 	}
 
 	/**
@@ -589,7 +1003,7 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 	 *         <code>aNode</code>.
 	 */
 	private List<CyEdge> getOutEdges(CyNode aNode) {
-		return network.getAdjacentEdgeList(aNode, CyEdge.Type.OUTGOING);
+		return getAdjacentEdges(aNode, CyEdge.Type.OUTGOING);
 	}
 
 	/**
@@ -950,11 +1364,6 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 	 */
 	private int nodeCount;
 
-	/**
-	 * Flag, if we want to compute and store node attributes.
-	 */
-	private boolean useNodeAttributes;
-
 	/**
 	 * Flag, if we want to compute and store edge attributes.
 	 */
@@ -1016,8 +1425,15 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 	ArrayList<Point2D.Double> nodeBetweennessArray; // node betweenness
 	Map<CyNode, Double> aplMap; 					// average shortest path length
 	LogBinDistribution stressDist; 					// stress
+	QuantileSketch closenessSketch;					// quantile sketches of node parameters
+	QuantileSketch betweennessSketch;
+	QuantileSketch stressSketch;
+	QuantileSketch clusteringSketch;
 	long outNeighbors; 								// total number of out-neighbors
+	int connectedComponentsCount;					// number of connected components
 	double[] nodeBetweennessLean;
 	double[] edgeBetweennessLean;
 	long[] stressLean;
+	int componentSources;							// number of sources processed in the current component
+	PathSampling sampling;							// sources used for path-based parameters
 }
@@ -28,8 +28,10 @@ package de.mpg.mpi_inf.bioinf.netanalyzer;
 
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.BatchResultsIndex;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.StatsSerializer;
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.AnalysisResultPanel;
+import de.mpg.mpi_inf.bioinf.netanalyzer.ui.BatchIndexDialog;
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.ResultPanelFactory;
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.Utils;
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.VisualStyleBuilder;
@@ -47,6 +49,7 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Properties;
 
 /**
@@ -90,7 +93,12 @@ public class LoadNetstatsAction extends NetAnalyzerAction {
 			final JFileChooser dialog = AnalysisResultPanel.netstatsDialog;
 			final int openIt = dialog.showOpenDialog(desktop);
 			if (openIt == JFileChooser.APPROVE_OPTION) {
-				openNetstats(desktop, dialog.getSelectedFile());
+				final File file = dialog.getSelectedFile();
+				if (BatchResultsIndex.FILE_NAME.equals(file.getName())) {
+					openIndex(desktop, file);
+				} else {
+					openNetstats(desktop, file);
+				}
 				Utils.removeSelectedFile(dialog);
 			}
 			if (openIt == JFileChooser.ERROR_OPTION) {
@@ -121,11 +129,33 @@ public class LoadNetstatsAction extends NetAnalyzerAction {
 		} catch (IOException ex) {
 			// FileNotFoundException, IOException
 			Utils.showErrorBox(owner, Messages.DT_IOERROR, Messages.SM_IERROR);
+		} catch (UncheckedIOException ex) {
+			// Complex parameter of a binary file could not be loaded
+			Utils.showErrorBox(owner, Messages.DT_IOERROR, Messages.SM_IERROR);
 		} catch (NullPointerException ex) {
 			Utils.showErrorBox(owner, Messages.DT_WRONGDATA, Messages.SM_WRONGDATAFILE);
 		}
 	}
 
+	/**
+	 * Opens the given batch results index and displays its entries in a comparison dialog.
+	 * <p>
+	 * The network statistics files listed in the index are not loaded until the user chooses to open them.
+	 * In case the index does not exist or is empty, an informative message box is displayed.
+	 * </p>
+	 * 
+	 * @param aFile
+	 *            Results index file, located in the output directory of a batch analysis.
+	 */
+	public void openIndex(Window owner, File aFile) {
+		final BatchResultsIndex index = aFile.isFile() ? new BatchResultsIndex(aFile.getParentFile()) : null;
+		if (index == null || index.getReports().isEmpty()) {
+			Utils.showInfoBox(owner, Messages.DT_INFO, Messages.SM_NOINDEX);
+			return;
+		}
+		new BatchIndexDialog(owner, index, this).setVisible(true);
+	}
+
 	/**
 	 * Unique ID for this version of this class. It is used in serialization.
 	 */
@@ -27,17 +27,39 @@ package de.mpg.mpi_inf.bioinf.netanalyzer;
  */
 
 import java.awt.geom.Point2D;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyEdge;
-import org.cytoscape.model.subnetwork.CySubNetwork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AnalysisCheckpoint;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AnalysisTiming;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AttributeCatalog;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.CCInfo;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NodeResults;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.PathSampling;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.QuantileSketch;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.SumCountPair;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.CheckpointSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
 
 /**
  * Base class for all control classes that perform analysis on a specific network type.
@@ -47,7 +69,37 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.data.SumCountPair;
  */
 public abstract class NetworkAnalyzer {
 
+	private static final Logger logger = LoggerFactory.getLogger(NetworkAnalyzer.class);
+
 	protected static final String PARENT_MENU = "Tools.NetworkAnalyzer[1.0].";
+
+	/**
+	 * Minimum number of source nodes processed in every connected component of a time-limited analysis,
+	 * even when the time budget is exceeded. Two sources are the least needed for a variance estimate.
+	 */
+	protected static final int MIN_SOURCES = 2;
+
+	/**
+	 * Minimum number of sources every worker thread processes in a round of the path computations before
+	 * it stops for a checkpoint.
+	 */
+	protected static final int MIN_ROUND_SOURCES = 8;
+
+	/**
+	 * Minimum time, in milliseconds, between two consecutive snapshots of partial results.
+	 */
+	protected static final long PUBLISH_INTERVAL = 1000;
+
+	/**
+	 * Version of the analysis. It must be increased whenever the computed results change, such that results of
+	 * previous versions are not reused.
+	 */
+	public static final int ANALYSIS_VERSION = 2;
+
+	/**
+	 * Default time, in milliseconds, between two consecutive checkpoints.
+	 */
+	public static final long DEFAULT_CHECKPOINT_INTERVAL = 10 * 60 * 1000;
 	
 	/**
 	 * Gets the title of the network being analyzed.
@@ -90,11 +142,97 @@ public abstract class NetworkAnalyzer {
 		return stats.getInt("nodeCount") + 1;
 	}
 
+	/**
+	 * Gets the phase of the analysis currently running.
+	 * 
+	 * @return Name of the current phase; <code>null</code> if the analysis is not running.
+	 */
+	public String getPhase() {
+		return phase;
+	}
+
+	/**
+	 * Gets the number of source nodes, from which shortest paths have been computed so far.
+	 * 
+	 * @return Number of source nodes processed.
+	 */
+	public int getSourcesProcessed() {
+		return sourcesProcessed;
+	}
+
+	/**
+	 * Gets the number of worker threads used by the analysis.
+	 * 
+	 * @return Number of worker threads; <code>0</code> if the analysis has not started yet.
+	 */
+	public int getWorkerCount() {
+		return workerCount;
+	}
+
+	/**
+	 * Gets the time at which the analysis started.
+	 * 
+	 * @return Start time of the analysis in milliseconds; <code>0</code> if the analysis has not started
+	 *         yet.
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * Estimates the heap memory occupied by the accumulators of path-based parameters.
+	 * <p>
+	 * This includes the accumulators of the analyzer as well as the local copies kept by every worker
+	 * thread. The default implementation returns <code>0</code>.
+	 * </p>
+	 * 
+	 * @return Estimated size of the accumulators, in bytes.
+	 */
+	public long getAccumulatorBytes() {
+		return 0;
+	}
+
+	/**
+	 * Gets the per-node results of the last analysis.
+	 * <p>
+	 * The results are kept after the analysis only if requested by {@link #setKeepNodeResults(boolean)}.
+	 * </p>
+	 * 
+	 * @return Per-node results of the last analysis; <code>null</code> if the results were not kept or no
+	 *         analysis has finished yet.
+	 */
+	public NodeResults getNodeResults() {
+		return nodeResults;
+	}
+
 	/**
 	 * Computes all the network parameters.
 	 */
 	public abstract void computeAll();
 
+	/**
+	 * Adds a listener to be notified of partial results during the analysis.
+	 * 
+	 * @param aListener
+	 *            Listener to be added. If this parameter is <code>null</code>, calling this method has no
+	 *            effect.
+	 */
+	public void addPartialResultListener(PartialResultListener aListener) {
+		if (aListener != null && (!partialListeners.contains(aListener))) {
+			partialListeners.add(aListener);
+		}
+	}
+
+	/**
+	 * Removes a listener for partial results.
+	 * 
+	 * @param aListener
+	 *            Listener to be removed.
+	 */
+	public void removePartialResultListener(PartialResultListener aListener) {
+		partialListeners.remove(aListener);
+	}
+
 	/**
 	 * Cancels the process of network analysis.
 	 * <p>
@@ -106,6 +244,145 @@ public abstract class NetworkAnalyzer {
 		cancelled = true;
 	}
 
+	/**
+	 * Gets the time budget of the analysis.
+	 * 
+	 * @return Maximum time, in milliseconds, the analyzer spends on path-based parameters before it stops
+	 *         and reports estimates; <code>0</code> if the analysis is not time-limited.
+	 */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * Sets the number of worker threads used by the analysis.
+	 * 
+	 * @param aThreadCount
+	 *            Number of worker threads; <code>0</code> to use one thread per available processor.
+	 */
+	public void setThreadCount(int aThreadCount) {
+		threadCount = Math.max(0, aThreadCount);
+	}
+
+	/**
+	 * Sets the snapshot of the network to be analyzed.
+	 * <p>
+	 * A snapshot can be shared by the analyzers of all interpretations of a network, such that the
+	 * structure of the network is read only once. If no snapshot is set, the analyzer takes its own.
+	 * </p>
+	 * 
+	 * @param aSnapshot
+	 *            Snapshot of the analyzed network, taken after its last modification; <code>null</code> to
+	 *            let the analyzer take its own snapshot.
+	 */
+	public void setSnapshot(NetworkSnapshot aSnapshot) {
+		sharedSnapshot = aSnapshot;
+	}
+
+	/**
+	 * Sets if the per-node results are to be kept after the analysis.
+	 * <p>
+	 * Per-node results are kept in a column store, which can be exported without reading the node
+	 * attributes of the network. If kept, the results are computed even if node attributes are disabled.
+	 * </p>
+	 * 
+	 * @param aKeep
+	 *            Flag indicating if the per-node results are to be kept.
+	 * @see #getNodeResults()
+	 */
+	public void setKeepNodeResults(boolean aKeep) {
+		keepNodeResults = aKeep;
+	}
+
+	/**
+	 * Sets the time budget of the analysis.
+	 * <p>
+	 * When a time budget is set, the analyzer computes all cheap parameters exactly and then refines the
+	 * path-based parameters (shortest paths, closeness, betweenness and stress) from a growing random sample
+	 * of source nodes until the budget expires. The parameters computed from a sample are estimates.
+	 * </p>
+	 * 
+	 * @param aTimeBudget
+	 *            Time budget in milliseconds; <code>0</code> or a negative value means no time limit.
+	 */
+	public void setTimeBudget(long aTimeBudget) {
+		timeBudget = Math.max(0, aTimeBudget);
+	}
+
+	/**
+	 * Enables periodic checkpointing of the analysis to the given file.
+	 * <p>
+	 * While the path-based parameters are computed, the processed source nodes and the accumulated values are
+	 * saved to the checkpoint file at regular intervals, as well as when the analysis is cancelled. The file
+	 * is deleted once the analysis completes. Checkpoints are not created if the analysis is time-limited or
+	 * if it is performed on a subset of nodes only.
+	 * </p>
+	 * 
+	 * @param aFile
+	 *            Checkpoint file; <code>null</code> to disable checkpointing.
+	 * @param aResume
+	 *            Flag indicating if the analysis must continue from the checkpoint saved in
+	 *            <code>aFile</code>, if such exists and matches the analyzed network.
+	 * @see #setCheckpointInterval(long)
+	 */
+	public void setCheckpointFile(File aFile, boolean aResume) {
+		checkpointFile = aFile;
+		resume = aResume;
+	}
+
+	/**
+	 * Sets the time between two consecutive checkpoints.
+	 * 
+	 * @param aInterval
+	 *            Checkpoint interval in milliseconds.
+	 * @see #setCheckpointFile(File, boolean)
+	 */
+	public void setCheckpointInterval(long aInterval) {
+		checkpointInterval = Math.max(0, aInterval);
+	}
+
+	/**
+	 * Restricts the computation of path-based parameters to a shard of the source nodes.
+	 * <p>
+	 * The nodes are sorted by name and every <code>aCount</code>-th node, starting at <code>aIndex</code>,
+	 * is used as a source. The partial results are not complete, but the checkpoint file, which is kept
+	 * when the analysis completes, contains accumulated values that can be merged with those of the other
+	 * shards using {@link #setMergedShards(File[])}. Sharding therefore requires a checkpoint file to be
+	 * set.
+	 * </p>
+	 * 
+	 * @param aIndex
+	 *            Index of the shard, between <code>0</code> and <code>aCount - 1</code>.
+	 * @param aCount
+	 *            Number of shards the sources are split into; <code>1</code> to disable sharding.
+	 * @throws IllegalArgumentException If <code>aIndex</code> is not a valid shard index.
+	 * @see #setCheckpointFile(File, boolean)
+	 */
+	public void setShard(int aIndex, int aCount) {
+		if (aIndex < 0 || aIndex >= aCount) {
+			throw new IllegalArgumentException();
+		}
+		shardIndex = aIndex;
+		shardCount = aCount;
+	}
+
+	/**
+	 * Sets the files of shards of this analysis to be merged.
+	 * <p>
+	 * The sources processed in the given shards are not processed again; the path-based parameters are
+	 * computed from the merged accumulated values instead, such that the results are the same as those of
+	 * an analysis in a single process. Sources of shards that are missing or do not match the analyzed
+	 * network are processed by this analyzer.
+	 * </p>
+	 * 
+	 * @param aShardFiles
+	 *            Checkpoint files of analyses of the shards; <code>null</code> to disable merging.
+	 * @see #setShard(int, int)
+	 */
+	public void setMergedShards(File[] aShardFiles) {
+		mergedShards = aShardFiles;
+	}
+
 	/**
 	 * Checks if this analyzer performs analysis on the whole network.
 	 * 
@@ -138,43 +415,452 @@ public abstract class NetworkAnalyzer {
 		interpr = aInterpr;
 		stats = new NetworkStats(aNetwork, aInterpr.getInterpretSuffix());
 		progress = 0;
+		timeBudget = SettingsSerializer.getPluginSettings().getTimeBudget() * 1000L;
+		useNodeAttributes = SettingsSerializer.getPluginSettings().getUseNodeAttributes();
+		useQuantiles = SettingsSerializer.getPluginSettings().getQuantiles();
+		keepNodeResults = false;
+		threadCount = 0;
+		partialListeners = new CopyOnWriteArrayList<PartialResultListener>();
+		checkpointFile = null;
+		checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+		shardIndex = 0;
+		shardCount = 1;
+		mergedShards = null;
 	}
 
 	/**
-	 * Prepares the network, if necessary, before the analysis starts.
+	 * Prepares the snapshot of the network before the analysis starts.
 	 * <p>
-	 * If stored in the interpretation, this method removes all undirected self-loops from the network.
+	 * If stored in the interpretation, undirected self-loops are filtered out of the snapshot. The network
+	 * itself is never modified.
 	 * </p>
 	 */
 	protected void analysisStarting() {
+		startTime = System.currentTimeMillis();
+		lastPublished = startTime;
+		sourcesProcessed = 0;
+		timing = new AnalysisTiming();
+		AnalysisMonitor.register(this);
+		final AnalysisTiming.Probe probe = startPhase("preparation");
+		snapshot = sharedSnapshot != null ? sharedSnapshot : new NetworkSnapshot(network);
+		ignoreLoops = interpr.isIgnoreUSL();
 		if (interpr.isIgnoreUSL()) {
-			removedEdges = new HashSet<CyEdge>();
-			for ( CyEdge edge : network.getEdgeList() ) {
-				if (!edge.isDirected()) {
-					if (edge.getSource() == edge.getTarget()) {
-						removedEdges.add(edge);
-					}
-				}
-			}
-			network.removeEdges(removedEdges);
 			// Update edge count
-			stats.set("edgeCount", new Integer(network.getEdgeCount()));
+			stats.set("edgeCount", new Integer(snapshot.getEdgeCount(ignoreLoops)));
 		}
+		nodeResults = useNodeAttributes || keepNodeResults ? new NodeResults(network) : null;
+		checkpoint = null;
+		shardSources = null;
+		if ((checkpointFile != null || mergedShards != null) && timeBudget <= 0 && nodeSet == null) {
+			initCheckpoint();
+		}
+		probe.stop();
 	}
 
 	/**
-	 * Returns the network to initial state, if necessary, after the analysis has finished.
+	 * Releases the snapshot of the network after the analysis has finished.
 	 * <p>
-	 * If previously removed, this method puts back all undirected self-loops in the network.
+	 * If node attributes are enabled, the per-node results are copied to the network and their summaries are
+	 * recorded in the {@link AttributeCatalog}.
 	 * </p>
 	 */
 	protected void analysisFinished() {
-		if (interpr.isIgnoreUSL()) {
-			for (final CyEdge e : removedEdges) {
-				// TODO we should consider using CySubNetwork carefully!!!
-				// Perhaps we shouldn't use it at all, or we might actually want to use it 
-				// more pervasively.  I don't know.
-				((CySubNetwork)network).addEdge(e);
+		phase = null;
+		AnalysisMonitor.unregister(this);
+		snapshot = null;
+		if (nodeResults != null) {
+			if (useNodeAttributes) {
+				nodeResults.copyTo(network);
+				AttributeCatalog.putNodeSummaries(network, nodeResults);
+			}
+			if (!keepNodeResults) {
+				nodeResults = null;
+			}
+		}
+	}
+
+	/**
+	 * Checks if per-node values are recorded in the current analysis.
+	 * 
+	 * @return <code>true</code> if node attributes are enabled or the per-node results are kept;
+	 *         <code>false</code> otherwise.
+	 */
+	protected boolean isRecordingNodeValues() {
+		return nodeResults != null;
+	}
+
+	/**
+	 * Records the value of a node attribute.
+	 * <p>
+	 * This method can be called by multiple threads simultaneously for different nodes. The value is stored
+	 * in the per-node results; it is written directly to the node attribute only if no per-node results are
+	 * recorded.
+	 * </p>
+	 * 
+	 * @param aNode
+	 *            Node of the analyzed network.
+	 * @param aAttrID
+	 *            ID of the attribute, as used in {@link Messages#getAttr(String)}.
+	 * @param aValue
+	 *            Value of the attribute.
+	 */
+	protected void setNodeValue(CyNode aNode, String aAttrID, Object aValue) {
+		if (nodeResults != null) {
+			nodeResults.set(aNode, Messages.getAttr(aAttrID), aValue);
+		} else {
+			synchronized (network) {
+				network.getRow(aNode).set(Messages.getAttr(aAttrID), aValue);
+			}
+		}
+	}
+
+	/**
+	 * Gets the edges of the given type incident on a node, as seen by the analysis.
+	 * 
+	 * @param aNode
+	 *            Node of the analyzed network.
+	 * @param aType
+	 *            Type of the edges - {@link CyEdge.Type#ANY}, {@link CyEdge.Type#INCOMING} or
+	 *            {@link CyEdge.Type#OUTGOING}.
+	 * @return List of the edges of type <code>aType</code> incident on <code>aNode</code>, excluding
+	 *         undirected self-loops if they are ignored. The returned list must not be modified.
+	 */
+	protected List<CyEdge> getAdjacentEdges(CyNode aNode, CyEdge.Type aType) {
+		return snapshot.getAdjacentEdges(aNode, aType, ignoreLoops);
+	}
+
+	/**
+	 * Finds all connected components of the analyzed network.
+	 * 
+	 * @return Unmodifiable set of all connected components in the network.
+	 */
+	protected Set<CCInfo> findComponents() {
+		return snapshot.getComponents();
+	}
+
+	/**
+	 * Gets all nodes in the given connected component.
+	 * 
+	 * @param aCompInfo
+	 *            Component returned by {@link #findComponents()}.
+	 * @return New set of all nodes in <code>aCompInfo</code>.
+	 */
+	protected Set<CyNode> getNodesOf(CCInfo aCompInfo) {
+		return snapshot.getNodesOf(aCompInfo);
+	}
+
+	/**
+	 * Marks the start of a new phase of the analysis and starts measuring its timing.
+	 * 
+	 * @param aPhase
+	 *            Name of the phase.
+	 * @return Probe which adds the timing of the phase to {@link #timing} when stopped.
+	 */
+	protected AnalysisTiming.Probe startPhase(String aPhase) {
+		phase = aPhase;
+		return timing.start(aPhase);
+	}
+
+	/**
+	 * Gets the number of worker threads to be used by the analysis.
+	 * 
+	 * @return Number of worker threads as set by {@link #setThreadCount(int)}, or the number of available
+	 *         processors if not set.
+	 */
+	protected int getThreadCount() {
+		return threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Checks if the next checkpoint of the analysis is due.
+	 * 
+	 * @return <code>true</code> if checkpointing is enabled and the checkpoint interval has elapsed since the
+	 *         last checkpoint; <code>false</code> otherwise.
+	 */
+	protected boolean isCheckpointDue() {
+		return checkpoint != null && System.currentTimeMillis() - lastCheckpoint >= checkpointInterval;
+	}
+
+	/**
+	 * Saves {@link #checkpoint} to the checkpoint file.
+	 * <p>
+	 * Extender classes must update the checkpoint with their accumulated values before calling this method.
+	 * Failures to save the checkpoint are logged and do not interrupt the analysis.
+	 * </p>
+	 */
+	protected void writeCheckpoint() {
+		lastCheckpoint = System.currentTimeMillis();
+		if (checkpointFile == null) {
+			return;
+		}
+		try {
+			CheckpointSerializer.save(checkpoint, checkpointFile);
+		} catch (IOException ex) {
+			logger.warn("Could not save checkpoint to " + checkpointFile, ex);
+		}
+	}
+
+	/**
+	 * Finalizes the checkpoint once the analysis has completed successfully.
+	 * <p>
+	 * The checkpoint of a shard is saved, as it contains the partial results of the analysis. Otherwise,
+	 * the checkpoint file is deleted. Extender classes must update the checkpoint with their accumulated
+	 * values before calling this method.
+	 * </p>
+	 */
+	protected void completeCheckpoint() {
+		if (checkpoint == null || checkpointFile == null) {
+			return;
+		}
+		if (shardSources != null) {
+			writeCheckpoint();
+		} else {
+			CheckpointSerializer.delete(checkpointFile);
+		}
+	}
+
+	/**
+	 * Checks if the given node is a source of the shard analyzed.
+	 * 
+	 * @param aNode
+	 *            Node of the analyzed network.
+	 * @return <code>true</code> if shortest paths from <code>aNode</code> are to be computed by this analyzer;
+	 *         <code>false</code> if the node belongs to another shard.
+	 * @see #setShard(int, int)
+	 */
+	protected boolean isShardSource(CyNode aNode) {
+		return shardSources == null || shardSources.contains(aNode);
+	}
+
+	/**
+	 * Gets the key identifying the given node in checkpoints.
+	 * 
+	 * @param aNode
+	 *            Node of the analyzed network.
+	 * @return Key of the node; it does not change when the network is loaded again.
+	 */
+	protected String getNodeKey(CyNode aNode) {
+		return nodeKeys.get(aNode);
+	}
+
+	/**
+	 * Gets the key identifying the given edge in checkpoints.
+	 * 
+	 * @param aEdge
+	 *            Edge of the analyzed network.
+	 * @return Key of the edge, composed of the keys of its source and target.
+	 */
+	protected String getEdgeKey(CyEdge aEdge) {
+		return nodeKeys.get(aEdge.getSource()) + "\t" + nodeKeys.get(aEdge.getTarget());
+	}
+
+	/**
+	 * Initializes the checkpoint of the analysis, loading it from the checkpoint file in resume mode.
+	 * <p>
+	 * Nodes are identified by their names in the checkpoint. If the node names are not unique,
+	 * checkpointing is disabled.
+	 * </p>
+	 */
+	private void initCheckpoint() {
+		final List<CyNode> nodes = network.getNodeList();
+		nodeKeys = new HashMap<CyNode, String>(nodes.size());
+		final Set<String> keys = new HashSet<String>(nodes.size());
+		for (final CyNode node : nodes) {
+			final String name = network.getRow(node).get(CyNetwork.NAME, String.class);
+			if (name == null || !keys.add(name)) {
+				logger.warn("Node names of " + stats.getTitle() + " are not unique; checkpoints disabled");
+				nodeKeys = null;
+				return;
+			}
+			nodeKeys.put(node, name);
+		}
+		final String title = stats.getTitle();
+		final int edgeCount = snapshot.getEdgeCount(ignoreLoops);
+		if (shardCount > 1 && checkpointFile != null) {
+			final String[] names = keys.toArray(new String[keys.size()]);
+			Arrays.sort(names);
+			final Set<String> shardNames = new HashSet<String>();
+			for (int i = shardIndex; i < names.length; i += shardCount) {
+				shardNames.add(names[i]);
+			}
+			shardSources = new HashSet<CyNode>();
+			for (final CyNode node : nodes) {
+				if (shardNames.contains(nodeKeys.get(node))) {
+					shardSources.add(node);
+				}
+			}
+		}
+		if (mergedShards != null) {
+			checkpoint = new AnalysisCheckpoint(title, nodes.size(), edgeCount);
+			for (final File file : mergedShards) {
+				final AnalysisCheckpoint shard = CheckpointSerializer.load(file);
+				if (shard != null && shard.matches(title, nodes.size(), edgeCount)) {
+					checkpoint.merge(shard);
+				} else {
+					logger.warn("Shard " + file + " is missing or does not match " + title
+							+ "; its sources are analyzed again");
+				}
+			}
+		} else if (resume) {
+			checkpoint = CheckpointSerializer.load(checkpointFile);
+			if (checkpoint != null && !checkpoint.matches(title, nodes.size(), edgeCount)) {
+				logger.warn("Checkpoint " + checkpointFile + " does not match " + title + "; analysis restarted");
+				checkpoint = null;
+			}
+		}
+		if (checkpoint == null) {
+			checkpoint = new AnalysisCheckpoint(title, nodes.size(), edgeCount);
+		}
+		lastCheckpoint = System.currentTimeMillis();
+	}
+
+	/**
+	 * Checks if the time budget of the analysis has been used up.
+	 * 
+	 * @return <code>true</code> if a time budget is set and the time elapsed since the start of the analysis
+	 *         exceeds it; <code>false</code> otherwise.
+	 * @see #setTimeBudget(long)
+	 */
+	protected boolean isTimeBudgetExceeded() {
+		return timeBudget > 0 && System.currentTimeMillis() - startTime > timeBudget;
+	}
+
+	/**
+	 * Stores the parameters accumulated so far in the given statistics instance.
+	 * <p>
+	 * Extender classes must not modify their accumulated values in this method, as it is also called for
+	 * creating snapshots of partial results while the analysis is running.
+	 * </p>
+	 * 
+	 * @param aStats
+	 *            Statistics instance to store the parameters in.
+	 */
+	protected abstract void saveStats(NetworkStats aStats);
+
+	/**
+	 * Checks if the next snapshot of partial results is due.
+	 * <p>
+	 * Extender classes process the nodes in rounds that end as soon as this method returns <code>true</code>,
+	 * such that a snapshot can be published between two rounds.
+	 * </p>
+	 * 
+	 * @return <code>true</code> if partial result listeners are registered and {@link #PUBLISH_INTERVAL}
+	 *         milliseconds have elapsed since the last snapshot; <code>false</code> otherwise.
+	 */
+	protected boolean isPublishDue() {
+		return !partialListeners.isEmpty() && !cancelled
+				&& System.currentTimeMillis() - lastPublished >= PUBLISH_INTERVAL;
+	}
+
+	/**
+	 * Publishes a snapshot of the results computed so far to all registered partial result listeners.
+	 * <p>
+	 * This method must only be called when no worker threads are modifying the accumulated values. In order
+	 * not to flood the listeners, snapshots are published at most once per {@link #PUBLISH_INTERVAL}
+	 * milliseconds. A snapshot requested earlier is deferred rather than dropped: once the interval has
+	 * elapsed, {@link #isPublishDue()} ends the current round of the analysis and the snapshot is published
+	 * with the values accumulated until then.
+	 * </p>
+	 */
+	protected void publishPartialResult() {
+		if (!isPublishDue()) {
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		lastPublished = now;
+		final NetworkStats snapshot = new NetworkStats(stats);
+		saveStats(snapshot);
+		snapshot.set("time", (now - startTime) / 1000.0);
+		snapshot.setPartial(true);
+		for (final PartialResultListener listener : partialListeners) {
+			listener.partialResultAvailable(this, snapshot);
+		}
+	}
+
+	/**
+	 * Stores information on the sampling of source nodes in the statistics instance.
+	 * <p>
+	 * This method has effect only if the analysis is time-limited. It stores the fraction of nodes used as
+	 * sources for path-based parameters and, if these are estimated, the confidence of the characteristic
+	 * path length.
+	 * </p>
+	 * 
+	 * @param aSampling
+	 *            Sampling information collected during the analysis.
+	 */
+	protected void saveSampling(PathSampling aSampling) {
+		if (timeBudget <= 0) {
+			return;
+		}
+		stats.set("pathSampling", aSampling.getSampledFraction());
+		if (!aSampling.isExact() && stats.contains("avSpl")) {
+			final double avSpl = ((Double) stats.get("avSpl")).doubleValue();
+			final double error = aSampling.getAvSplError(avSpl, stats.getLong("connPairs"));
+			if (!Double.isNaN(error)) {
+				stats.set("avSplError", error);
+			}
+		}
+	}
+
+	/**
+	 * Creates a new quantile sketch for the distribution of a node parameter.
+	 * 
+	 * @return New empty quantile sketch; <code>null</code> if quantile sketches are disabled in the plugin
+	 *         settings.
+	 */
+	protected QuantileSketch createQuantileSketch() {
+		return useQuantiles ? new QuantileSketch() : null;
+	}
+
+	/**
+	 * Stores the given quantile sketch in the statistics instance.
+	 * <p>
+	 * This method has no effect if <code>aSketch</code> is <code>null</code> or contains no observations.
+	 * </p>
+	 * 
+	 * @param aStats
+	 *            Statistics instance to store the sketch in.
+	 * @param aParam
+	 *            ID of the complex parameter.
+	 * @param aSketch
+	 *            Quantile sketch created by {@link #createQuantileSketch()}.
+	 */
+	protected void saveQuantiles(NetworkStats aStats, String aParam, QuantileSketch aSketch) {
+		if (aSketch != null && aSketch.getCount() != 0) {
+			aStats.set(aParam, aSketch);
+		}
+	}
+
+	/**
+	 * Stores the per-phase timing of the analysis in the statistics instance and logs it.
+	 */
+	protected void saveTiming() {
+		stats.setTiming(timing);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Timing of the analysis of " + stats.getTitle() + ":\n" + timing);
+		}
+	}
+
+	/**
+	 * Removes the values of the given node attributes.
+	 * <p>
+	 * This method is used for nodes whose path-based parameters were not computed in a time-limited
+	 * analysis, so that no values from previous analyses remain. It has no effect if no per-node values are
+	 * recorded.
+	 * </p>
+	 * 
+	 * @param aNodes
+	 *            Nodes whose attribute values are to be removed.
+	 * @param aAttrIDs
+	 *            IDs of the attributes, as used in {@link Messages#getAttr(String)}.
+	 */
+	protected void clearNodeAttributes(Collection<CyNode> aNodes, String... aAttrIDs) {
+		if (nodeResults == null) {
+			return;
+		}
+		for (final CyNode node : aNodes) {
+			for (final String attrID : aAttrIDs) {
+				nodeResults.clear(node, Messages.getAttr(attrID));
 			}
 		}
 	}
@@ -253,6 +939,53 @@ public abstract class NetworkAnalyzer {
 		return total;
 	}
 
+	/**
+	 * Runs the given tasks in a thread pool and waits for all of them to complete.
+	 * 
+	 * @param aThreadPool
+	 *            Thread pool to execute the tasks.
+	 * @param aTasks
+	 *            Tasks to be executed.
+	 */
+	protected static void runTasks(ExecutorService aThreadPool, List<? extends Runnable> aTasks) {
+		final List<Future<?>> futures = new ArrayList<Future<?>>(aTasks.size());
+		for (final Runnable task : aTasks) {
+			futures.add(aThreadPool.submit(task));
+		}
+		for (final Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (Exception ex) {
+				// Tasks do not throw exceptions
+			}
+		}
+	}
+
+	/**
+	 * Adds the values of an array, multiplied by a scaling factor, to another array.
+	 * <p>
+	 * This method is used to extrapolate counts accumulated from a sample of source nodes.
+	 * </p>
+	 * 
+	 * @param aTarget
+	 *            Array to which the scaled values are to be added.
+	 * @param aValues
+	 *            Values to be scaled and added. This array must not be longer than <code>aTarget</code>.
+	 * @param aScale
+	 *            Scaling factor; the values are added without rounding if this is <code>1.0</code>.
+	 */
+	protected static void addScaled(long[] aTarget, long[] aValues, double aScale) {
+		if (aScale == 1.0) {
+			for (int i = 0; i < aValues.length; i++) {
+				aTarget[i] += aValues[i];
+			}
+		} else {
+			for (int i = 0; i < aValues.length; i++) {
+				aTarget[i] += Math.round(aValues[i] * aScale);
+			}
+		}
+	}
+
 	/**
 	 * Gets the averages of the accumulated values and stores them in a set.
 	 * <p>
@@ -319,8 +1052,137 @@ public abstract class NetworkAnalyzer {
 	protected boolean cancelled;
 
 	/**
-	 * Set of all edges that are removed from {@link #network} before the analysis. These edges are added back
-	 * to the network after the analysis completes or is cancelled.
+	 * Time budget of the analysis in milliseconds; <code>0</code> if the analysis is not time-limited.
+	 */
+	protected long timeBudget;
+
+	/**
+	 * Time, in milliseconds, at which the analysis started.
+	 */
+	protected long startTime;
+
+	/**
+	 * Per-phase timing of the current analysis.
+	 */
+	protected AnalysisTiming timing;
+
+	/**
+	 * Name of the phase of the analysis currently running; <code>null</code> if the analysis is not running.
+	 */
+	protected volatile String phase;
+
+	/**
+	 * Number of source nodes, from which shortest paths have been computed so far. Extender classes are
+	 * responsible for maintaining the value of this field up to date.
+	 */
+	protected int sourcesProcessed;
+
+	/**
+	 * Number of worker threads used by the analysis. Extender classes set this field when they create their
+	 * thread pool.
+	 */
+	protected int workerCount;
+
+	/**
+	 * Number of worker threads requested for the analysis; <code>0</code> if one thread per available
+	 * processor is used.
+	 */
+	private int threadCount;
+
+	/**
+	 * State of the analysis to be saved at the next checkpoint; <code>null</code> if checkpointing is
+	 * disabled. In resume mode, this is initially the state loaded from the checkpoint file.
+	 */
+	protected AnalysisCheckpoint checkpoint;
+
+	/**
+	 * File to save checkpoints to; <code>null</code> if checkpointing is disabled.
+	 */
+	private File checkpointFile;
+
+	/**
+	 * Flag indicating if the analysis must continue from the checkpoint saved in {@link #checkpointFile}.
+	 */
+	private boolean resume;
+
+	/**
+	 * Time, in milliseconds, between two consecutive checkpoints.
+	 */
+	private long checkpointInterval;
+
+	/**
+	 * Time, in milliseconds, at which the last checkpoint was saved.
+	 */
+	private long lastCheckpoint;
+
+	/**
+	 * Keys identifying the nodes in checkpoints; <code>null</code> if checkpointing is disabled.
+	 */
+	private Map<CyNode, String> nodeKeys;
+
+	/**
+	 * Index of the shard of source nodes analyzed.
+	 */
+	private int shardIndex;
+
+	/**
+	 * Number of shards the source nodes are split into; <code>1</code> if sharding is disabled.
+	 */
+	private int shardCount;
+
+	/**
+	 * Source nodes of the shard analyzed; <code>null</code> if all nodes are used as sources.
+	 */
+	private Set<CyNode> shardSources;
+
+	/**
+	 * Checkpoint files of shards to be merged; <code>null</code> if no shards are merged.
+	 */
+	private File[] mergedShards;
+
+	/**
+	 * Time, in milliseconds, at which the last snapshot of partial results was published.
+	 */
+	private long lastPublished;
+
+	/**
+	 * Listeners to be notified of partial results.
+	 */
+	private List<PartialResultListener> partialListeners;
+
+	/**
+	 * Snapshot of the network set by {@link #setSnapshot(NetworkSnapshot)}; <code>null</code> if the
+	 * analyzer takes its own snapshot.
+	 */
+	private NetworkSnapshot sharedSnapshot;
+
+	/**
+	 * Snapshot of the network used while the analysis is running.
+	 */
+	private NetworkSnapshot snapshot;
+
+	/**
+	 * Flag indicating if undirected self-loops must be filtered out of {@link #snapshot}.
+	 */
+	private boolean ignoreLoops;
+
+	/**
+	 * Per-node results of the analysis; <code>null</code> if no per-node values are recorded.
+	 */
+	private NodeResults nodeResults;
+
+	/**
+	 * Flag indicating if the computed node attributes are stored in the network.
+	 */
+	private boolean useNodeAttributes;
+
+	/**
+	 * Flag indicating if quantile sketches of the node parameters are computed.
+	 */
+	private boolean useQuantiles;
+
+	/**
+	 * Flag indicating if the per-node results are kept after the analysis.
 	 */
-	private Set<CyEdge> removedEdges;
+	private boolean keepNodeResults;
 }
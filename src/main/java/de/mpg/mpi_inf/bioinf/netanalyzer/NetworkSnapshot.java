@@ -0,0 +1,273 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.CCInfo;
+
+/**
+ * Read-only snapshot of the structure of a Cytoscape network, shared by the analyses of all its
+ * interpretations.
+ * <p>
+ * The snapshot stores the edges incident on every node and the connected components of the network. The
+ * view of an interpretation is derived from it without querying or modifying the network again; in
+ * particular, undirected self-loops are filtered out on request instead of being removed from the network.
+ * </p>
+ * <p>
+ * The snapshot is not updated when the network changes. Once created, it can be used by several analyzers
+ * concurrently.
+ * </p>
+ */
+public class NetworkSnapshot {
+
+	/**
+	 * Initializes a new instance of <code>NetworkSnapshot</code> by reading the structure of the given
+	 * network.
+	 * 
+	 * @param aNetwork
+	 *            Network to take a snapshot of.
+	 */
+	public NetworkSnapshot(CyNetwork aNetwork) {
+		network = aNetwork;
+		final List<CyNode> nodes = aNetwork.getNodeList();
+		final int capacity = nodes.size() * 4 / 3 + 1;
+		anyEdges = new HashMap<CyNode, List<CyEdge>>(capacity);
+		inEdges = new HashMap<CyNode, List<CyEdge>>(capacity);
+		outEdges = new HashMap<CyNode, List<CyEdge>>(capacity);
+		for (final CyNode node : nodes) {
+			anyEdges.put(node, aNetwork.getAdjacentEdgeList(node, CyEdge.Type.ANY));
+			inEdges.put(node, aNetwork.getAdjacentEdgeList(node, CyEdge.Type.INCOMING));
+			outEdges.put(node, aNetwork.getAdjacentEdgeList(node, CyEdge.Type.OUTGOING));
+		}
+
+		edgeCount = aNetwork.getEdgeCount();
+		loopNodes = new HashSet<CyNode>();
+		int loopCount = 0;
+		for (final CyEdge edge : aNetwork.getEdgeList()) {
+			if (isUndirectedLoop(edge)) {
+				loopNodes.add(edge.getSource());
+				loopCount++;
+			}
+		}
+		undirectedLoopCount = loopCount;
+
+		componentNodes = new HashMap<CCInfo, List<CyNode>>();
+		final Set<CyNode> traversed = new HashSet<CyNode>(nodes.size());
+		for (final CyNode node : nodes) {
+			if (!traversed.contains(node)) {
+				final List<CyNode> reachable = traverseReachable(node, traversed);
+				componentNodes.put(new CCInfo(reachable.size(), node), reachable);
+			}
+		}
+		components = Collections.unmodifiableSet(componentNodes.keySet());
+	}
+
+	/**
+	 * Gets the network this is a snapshot of.
+	 * 
+	 * @return Network instance.
+	 */
+	public CyNetwork getNetwork() {
+		return network;
+	}
+
+	/**
+	 * Gets the edges incident on the given node.
+	 * 
+	 * @param aNode
+	 *            Node of the network.
+	 * @param aType
+	 *            Type of the edges to be returned - {@link CyEdge.Type#ANY},
+	 *            {@link CyEdge.Type#INCOMING} or {@link CyEdge.Type#OUTGOING}.
+	 * @param aIgnoreUSL
+	 *            Flag indicating if undirected self-loops must be excluded.
+	 * @return List of the edges of type <code>aType</code> incident on <code>aNode</code>, as returned by
+	 *         {@link CyNetwork#getAdjacentEdgeList(CyNode, CyEdge.Type)} when the snapshot was taken. The
+	 *         returned list must not be modified.
+	 * @throws IllegalArgumentException
+	 *             If <code>aType</code> is not one of the types listed above.
+	 */
+	public List<CyEdge> getAdjacentEdges(CyNode aNode, CyEdge.Type aType, boolean aIgnoreUSL) {
+		final List<CyEdge> edges;
+		switch (aType) {
+		case ANY:
+			edges = anyEdges.get(aNode);
+			break;
+		case INCOMING:
+			edges = inEdges.get(aNode);
+			break;
+		case OUTGOING:
+			edges = outEdges.get(aNode);
+			break;
+		default:
+			throw new IllegalArgumentException();
+		}
+		if (!(aIgnoreUSL && loopNodes.contains(aNode))) {
+			return edges;
+		}
+		final List<CyEdge> filtered = new ArrayList<CyEdge>(edges.size());
+		for (final CyEdge edge : edges) {
+			if (!isUndirectedLoop(edge)) {
+				filtered.add(edge);
+			}
+		}
+		return filtered;
+	}
+
+	/**
+	 * Gets the number of edges in the network.
+	 * 
+	 * @param aIgnoreUSL
+	 *            Flag indicating if undirected self-loops must be excluded.
+	 * @return Number of edges, optionally without the undirected self-loops.
+	 */
+	public int getEdgeCount(boolean aIgnoreUSL) {
+		return aIgnoreUSL ? edgeCount - undirectedLoopCount : edgeCount;
+	}
+
+	/**
+	 * Gets the connected components of the network.
+	 * 
+	 * @return Unmodifiable set of all connected components; empty set if the network is empty.
+	 * @see ConnComponentAnalyzer#findComponents()
+	 */
+	public Set<CCInfo> getComponents() {
+		return components;
+	}
+
+	/**
+	 * Gets all nodes in the given connected component.
+	 * 
+	 * @param aCompInfo
+	 *            One of the components returned by {@link #getComponents()}.
+	 * @return New set of all nodes in <code>aCompInfo</code>; the caller may modify it.
+	 * @see ConnComponentAnalyzer#getNodesOf(CCInfo)
+	 */
+	public Set<CyNode> getNodesOf(CCInfo aCompInfo) {
+		final Set<CyNode> nodes = new HashSet<CyNode>(aCompInfo.getSize());
+		nodes.addAll(componentNodes.get(aCompInfo));
+		return nodes;
+	}
+
+	/**
+	 * Checks if the given edge is an undirected self-loop.
+	 * 
+	 * @param aEdge
+	 *            Edge to be checked.
+	 * @return <code>true</code> if <code>aEdge</code> is undirected and connects a node to itself;
+	 *         <code>false</code> otherwise.
+	 */
+	private static boolean isUndirectedLoop(CyEdge aEdge) {
+		return !aEdge.isDirected() && aEdge.getSource() == aEdge.getTarget();
+	}
+
+	/**
+	 * Traverses all nodes that are reachable from the given node.
+	 * 
+	 * @param aNode
+	 *            Node to start the traversal from.
+	 * @param aTraversed
+	 *            Set of traversed nodes. This method add all visited nodes to this set.
+	 * @return List of the traversed nodes, including <code>aNode</code>, in the order of their traversal.
+	 */
+	private List<CyNode> traverseReachable(CyNode aNode, Set<CyNode> aTraversed) {
+		final List<CyNode> reachable = new ArrayList<CyNode>();
+		final LinkedList<CyNode> toTraverse = new LinkedList<CyNode>();
+		aTraversed.add(aNode);
+		reachable.add(aNode);
+		toTraverse.add(aNode);
+		while (!toTraverse.isEmpty()) {
+			final CyNode currentNode = toTraverse.removeFirst();
+			final Set<CyNode> neighbors = CyNetworkUtils.getNeighbors(network, currentNode,
+					anyEdges.get(currentNode));
+			for (CyNode nb : neighbors) {
+				if (aTraversed.add(nb)) {
+					reachable.add(nb);
+					toTraverse.add(nb);
+				}
+			}
+		}
+		return reachable;
+	}
+
+	/**
+	 * Network this is a snapshot of.
+	 */
+	private final CyNetwork network;
+
+	/**
+	 * Edges of any type incident on every node.
+	 */
+	private final Map<CyNode, List<CyEdge>> anyEdges;
+
+	/**
+	 * Incoming edges of every node.
+	 */
+	private final Map<CyNode, List<CyEdge>> inEdges;
+
+	/**
+	 * Outgoing edges of every node.
+	 */
+	private final Map<CyNode, List<CyEdge>> outEdges;
+
+	/**
+	 * Nodes with at least one undirected self-loop.
+	 */
+	private final Set<CyNode> loopNodes;
+
+	/**
+	 * Number of edges in the network.
+	 */
+	private final int edgeCount;
+
+	/**
+	 * Number of undirected self-loops in the network.
+	 */
+	private final int undirectedLoopCount;
+
+	/**
+	 * Nodes of every connected component, in the order of their traversal.
+	 */
+	private final Map<CCInfo, List<CyNode>> componentNodes;
+
+	/**
+	 * Connected components of the network.
+	 */
+	private final Set<CCInfo> components;
+}
@@ -0,0 +1,51 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+
+/**
+ * Interface for listening for partial results published by a network analyzer while the analysis is
+ * running.
+ * <p>
+ * Note that the listener is notified in the thread performing the analysis. Implementing classes that update
+ * the user interface must delegate this to the event dispatch thread.
+ * </p>
+ */
+public interface PartialResultListener {
+
+	/**
+	 * Invoked when a snapshot of the results computed so far is available.
+	 * 
+	 * @param aAnalyzer
+	 *            Analyzer that published the snapshot.
+	 * @param aSnapshot
+	 *            Partial network statistics. This instance is not modified after publishing, so it can
+	 *            safely be used by the listener.
+	 */
+	public void partialResultAvailable(NetworkAnalyzer aAnalyzer, NetworkStats aSnapshot);
+}
@@ -29,8 +29,10 @@ package de.mpg.mpi_inf.bioinf.netanalyzer;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -39,14 +41,16 @@ import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyEdge;
-import org.cytoscape.model.CyRow;
 
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AnalysisCheckpoint;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AnalysisTiming;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AttributeCatalog;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AttributeSummary;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.CCInfo;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.DegreeDistribution;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.LogBinDistribution;
@@ -54,9 +58,12 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.data.LongHistogram;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.MutInteger;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NodeBetweenInfo;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.PathLengthData;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.PathSampling;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Points2D;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.QuantileSketch;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.SimpleUndirParams;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.SumCountPair;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Utils;
@@ -93,7 +100,6 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 		sPathLengths = new long[nodeCount];
 		sharedNeighborsHist = new long[nodeCount];
 		visited = new HashSet<CyNode>(nodeCount);
-		useNodeAttributes = SettingsSerializer.getPluginSettings().getUseNodeAttributes();
 		useEdgeAttributes = SettingsSerializer.getPluginSettings().getUseEdgeAttributes();
 		nodeBetweenness = new HashMap<CyNode, NodeBetweenInfo>();
 		edgeBetweenness = new HashMap<CyEdge, Double>();
@@ -113,373 +119,780 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 	public void computeAll() 
 	{
 		long time = System.currentTimeMillis();
-		analysisStarting();
-		networkEdgeCount = 0;
-		params = new SimpleUndirParams();
-		maxConnectivity = 0;
-		degreeDist = new DegreeDistribution(nodeCount);
-		// clustering coefficients
-		CCps = new HashMap<Integer, SumCountPair>();
-		// topological coefficients
-		topCoefs = new ArrayList<Point2D.Double>(nodeCount);
-		// closeness centrality
-		closenessCent = new ArrayList<Point2D.Double>(nodeCount);
-		// node betweenness
-		nodeBetweennessArray = new ArrayList<Point2D.Double>(nodeCount);
-		// neighborhood connectivity
-		NCps = new HashMap<Integer, SumCountPair>();
-		// average shortest path length
-		aplMap = new HashMap<CyNode, Double>();
-		// stress
-		stressDist = new LogBinDistribution();
-		// Compute number of connected components
-		cca = new ConnComponentAnalyzer(network);
-		
-		Set<CCInfo> components = cca.findComponents();
-		params.connectedComponentCount = components.size();
-
-		for (CCInfo aCompInfo : components) 
+		try
 		{
-			// Get nodes of connected component
-			final Set<CyNode> connNodes = cca.getNodesOf(aCompInfo);
-			final Set<CyEdge> connEdges = new HashSet<CyEdge>();
-			if (nodeSet != null) {
-				connNodes.retainAll(nodeSet);
-			} 
-			
-			final int numNodes = connNodes.size();
-			final int[] edgeOffsets = new int[numNodes + 1];
-			final HashMap<CyNode, Integer> node2Int = new HashMap<>();
-			int numEdgesLocal = 0;
-			for (CyNode node : connNodes)
+			analysisStarting();
+			networkEdgeCount = 0;
+			params = new SimpleUndirParams();
+			maxConnectivity = 0;
+			degreeDist = new DegreeDistribution(nodeCount);
+			// clustering coefficients
+			CCps = new HashMap<Integer, SumCountPair>();
+			// topological coefficients
+			topCoefs = new ArrayList<Point2D.Double>(nodeCount);
+			// closeness centrality
+			closenessCent = new ArrayList<Point2D.Double>(nodeCount);
+			// node betweenness
+			nodeBetweennessArray = new ArrayList<Point2D.Double>(nodeCount);
+			// neighborhood connectivity
+			NCps = new HashMap<Integer, SumCountPair>();
+			// average shortest path length
+			aplMap = new HashMap<CyNode, Double>();
+			// stress
+			stressDist = new LogBinDistribution();
+			// quantile sketches of node parameters
+			closenessSketch = createQuantileSketch();
+			betweennessSketch = createQuantileSketch();
+			stressSketch = createQuantileSketch();
+			clusteringSketch = createQuantileSketch();
+			// sources of path-based parameters
+			sampling = new PathSampling();
+			if (checkpoint != null)
 			{
-				edgeOffsets[node2Int.size()] = numEdgesLocal;
-				node2Int.put(node, node2Int.size());
-				numEdgesLocal += getNeighbors(node).size();
-				for (CyEdge edge : getIncidentEdges(node))
-					connEdges.add(edge);
+				AnalysisCheckpoint.restore(checkpoint.getPathLengths(), sPathLengths);
+				AnalysisCheckpoint.restore(checkpoint.getSharedNeighbors(), sharedNeighborsHist);
 			}
-			final int numEdges = numEdgesLocal;
-			edgeOffsets[numNodes] = numEdges;
-			final int[] edges = new int[numEdges];
-			final int[] edgeIDs = new int[numEdges];
-			final HashMap<Long, Integer> edgeHash2Int = new HashMap<>();
+			// Compute number of connected components
+			AnalysisTiming.Probe probe = startPhase("components");
+			Set<CCInfo> components = findComponents();
+			params.connectedComponentCount = components.size();
+			probe.stop();
+
+			final int numThreads = getThreadCount();
+			final ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+			workerCount = numThreads;
+
+			// Summary of the edge betweenness values written to the edge table
+			final AttributeSummary ebSummary = new AttributeSummary(network.getEdgeCount());
+			for (CCInfo aCompInfo : components) 
 			{
-				int e = 0;
+				// Get nodes of connected component
+				probe = startPhase("snapshot");
+				final Set<CyNode> connNodes = getNodesOf(aCompInfo);
+				final Set<CyEdge> connEdges = new HashSet<CyEdge>();
+				if (nodeSet != null) {
+					connNodes.retainAll(nodeSet);
+				} 
+
+				final int numNodes = connNodes.size();
+				final int[] edgeOffsets = new int[numNodes + 1];
+				final HashMap<CyNode, Integer> node2Int = new HashMap<>();
+				int numEdgesLocal = 0;
 				for (CyNode node : connNodes)
 				{
-					int nodeID = node2Int.get(node);
-					int offset = edgeOffsets[nodeID];
-					for (CyNode neighbor : getNeighbors(node))
-					{
-						int neighborID = node2Int.get(neighbor);
-						long edgeHash = computeEdgeHash(nodeID, neighborID);
-						if (!edgeHash2Int.containsKey(edgeHash))
-							edgeHash2Int.put(edgeHash, e++);
-						int edgeID = edgeHash2Int.get(edgeHash);
-						edgeIDs[offset] = edgeID;
-						edges[offset++] = neighborID;
-					}
+					edgeOffsets[node2Int.size()] = numEdgesLocal;
+					node2Int.put(node, node2Int.size());
+					numEdgesLocal += getNeighbors(node).size();
+					for (CyEdge edge : getIncidentEdges(node))
+						connEdges.add(edge);
 				}
-			}
-			
-			nodeBetweennessLean = new double[numNodes];
-			edgeBetweennessLean = new double[numEdges];
-			stressLean = new long[numNodes];
-
-			componentDiameter = 0;
-			
-			final Queue<CyNode> nodesLeft = new LinkedList<>();
-			for (CyNode node : connNodes)
-				nodesLeft.add(node);
-			
-			class NodeTask implements Runnable
-			{
-				UndirNetworkAnalyzer parent;
-				int threadID;
-				
-				public NodeTask(UndirNetworkAnalyzer p, int id)	{ parent = p; threadID = id; }
-				
-				@Override
-				public void run() 
+				final int numEdges = numEdgesLocal;
+				edgeOffsets[numNodes] = numEdges;
+				final int[] edges = new int[numEdges];
+				final int[] edgeIDs = new int[numEdges];
+				final HashMap<Long, Integer> edgeHash2Int = new HashMap<>();
 				{
-					int localNetworkEdgeCount = 0;	
-					int localMaxConnectivity = 0;
-					int localComponentDiameter = 0;
-					long[] localSharedNeighborsHist = new long[parent.sharedNeighborsHist.length];
-					long[] localSPathLengths = new long[parent.sPathLengths.length];
-					double[] localNodeBetweenness = new double[parent.nodeBetweennessLean.length];
-					double[] localEdgeBetweenness = new double[parent.edgeBetweennessLean.length];
-					long[] localStress = new long[parent.stressLean.length];
-					
-					while (nodesLeft.size() > 0)
+					int e = 0;
+					for (CyNode node : connNodes)
 					{
-						CyNode node = null;
-						synchronized (parent)
-						{
-							if (nodesLeft.size() == 0)
-								break;
-							node = nodesLeft.remove();
-							parent.progress++;
-						}
-						
-						long timeStart = System.nanoTime();
 						int nodeID = node2Int.get(node);
-						List<CyEdge> incEdges = getIncidentEdges(node);
-						Map<CyNode, MutInteger> neighborMap = CyNetworkUtils.getNeighborMap(parent.network, node, incEdges);
-						CyRow nodeRow = parent.network.getRow(node);
-						int firstEdge = edgeOffsets[nodeID], lastEdge = edgeOffsets[nodeID + 1];
-		
-						// Degree distribution calculation
-						int degree = getDegree(node, incEdges);
-						
-						localNetworkEdgeCount += degree;
-						synchronized (parent.degreeDist)
+						int offset = edgeOffsets[nodeID];
+						for (CyNode neighbor : getNeighbors(node))
 						{
-							parent.degreeDist.addObservation(degree);
-						}
-						if (useNodeAttributes) {
-							nodeRow.set(Messages.getAttr("deg"),degree);
+							int neighborID = node2Int.get(neighbor);
+							long edgeHash = computeEdgeHash(nodeID, neighborID);
+							if (!edgeHash2Int.containsKey(edgeHash))
+								edgeHash2Int.put(edgeHash, e++);
+							int edgeID = edgeHash2Int.get(edgeHash);
+							edgeIDs[offset] = edgeID;
+							edges[offset++] = neighborID;
 						}
-						int neighborCount = calcSimple(node, incEdges, neighborMap, parent.params);
-						localMaxConnectivity = Math.max(localMaxConnectivity, neighborCount);
-						
-		
-						if (neighborCount > 0) 
+					}
+				}
+
+				nodeBetweennessLean = new double[numNodes];
+				edgeBetweennessLean = new double[numEdges];
+				stressLean = new long[numNodes];
+				probe.stop();
+
+				componentDiameter = 0;
+				componentSources = 0;
+
+				final Queue<CyNode> nodesLeft = new LinkedList<>();
+				for (CyNode node : connNodes)
+					nodesLeft.add(node);
+
+				// Sources for path-based parameters; in time-limited mode they are processed in random order,
+				// such that the sources processed before the budget expires are a uniform sample
+				final LinkedList<CyNode> sourcesLeft = new LinkedList<>();
+				if (nodeSet == null)
+					sourcesLeft.addAll(connNodes);
+				if (timeBudget > 0)
+					Collections.shuffle(sourcesLeft);
+				if (checkpoint != null)
+					resumeComponent(connNodes, connEdges, node2Int, edgeHash2Int, edgeOffsets, sourcesLeft);
+
+				class NodeTask implements Runnable
+				{
+					UndirNetworkAnalyzer parent;
+					int threadID;
+					boolean pathPhase;
+					long[] localSharedNeighborsHist;
+					long[] localSPathLengths;
+					double[] localNodeBetweenness;
+					double[] localEdgeBetweenness;
+					long[] localStress;
+
+					public NodeTask(UndirNetworkAnalyzer p, int id, boolean phase)	{ parent = p; threadID = id; pathPhase = phase; }
+
+					@Override
+					public void run() 
+					{
+						if (pathPhase)
+							runPaths();
+						else
+							runLocal();
+					}
+
+					/**
+					 * Computes the parameters that depend on the neighborhood of a node only. These are always
+					 * computed for all nodes. The task stops when a snapshot of partial results is due and
+					 * continues with the nodes left when it is run again.
+					 */
+					private void runLocal()
+					{
+						final AnalysisTiming.Probe workerProbe = timing.startWorker("local");
+						int localNetworkEdgeCount = 0;	
+						int localMaxConnectivity = 0;
+						final DegreeDistribution localDegreeDist = new DegreeDistribution(0);
+						final QuantileSketch localClusteringSketch = createQuantileSketch();
+
+						while (nodesLeft.size() > 0)
 						{
-							int[] neighbors = new int[lastEdge - firstEdge];
-							for (int ei = firstEdge; ei < lastEdge; ei++)
-								neighbors[ei - firstEdge] = edges[ei];
-		
-							// Neighborhood connectivity computation
-							final double neighborConnect = averageNeighbors(neighbors, edgeOffsets);
-							synchronized (parent.NCps)
+							CyNode node = null;
+							synchronized (parent)
 							{
-								accumulate(parent.NCps, neighborCount, neighborConnect);
+								if (nodesLeft.size() == 0)
+									break;
+								node = nodesLeft.remove();
+								if (parent.nodeSet != null)
+									parent.progress++;
 							}
-		
-							if (neighborCount > 1) 
+
+							int nodeID = node2Int.get(node);
+							List<CyEdge> incEdges = getIncidentEdges(node);
+							Map<CyNode, MutInteger> neighborMap = CyNetworkUtils.getNeighborMap(parent.network, node, incEdges);
+							int firstEdge = edgeOffsets[nodeID], lastEdge = edgeOffsets[nodeID + 1];
+
+							// Degree distribution calculation
+							int degree = getDegree(node, incEdges);
+
+							localNetworkEdgeCount += degree;
+							localDegreeDist.addObservation(degree);
+							if (isRecordingNodeValues()) {
+								setNodeValue(node, "deg", degree);
+							}
+							int neighborCount = calcSimple(node, incEdges, neighborMap, parent.params);
+							localMaxConnectivity = Math.max(localMaxConnectivity, neighborCount);
+
+
+							if (neighborCount > 0) 
 							{
-								// Topological coefficients computation
-								double topCoef = computeTC(nodeID, numNodes, edges, edgeOffsets);
-								if (!Double.isNaN(topCoef)) 
-									synchronized (parent.topCoefs)
-									{
-										parent.topCoefs.add(new Point2D.Double(neighborCount, topCoef));
-									}
-								else 
-									topCoef = 0.0;
-		
-								// Clustering coefficients computation
-								final double nodeCCp = computeCC(neighbors, numNodes, edges, edgeOffsets);
-								synchronized (parent.CCps)
+								int[] neighbors = new int[lastEdge - firstEdge];
+								for (int ei = firstEdge; ei < lastEdge; ei++)
+									neighbors[ei - firstEdge] = edges[ei];
+
+								// Neighborhood connectivity computation
+								final double neighborConnect = averageNeighbors(neighbors, edgeOffsets);
+								synchronized (parent.NCps)
 								{
-									accumulate(parent.CCps, neighborCount, nodeCCp);
+									accumulate(parent.NCps, neighborCount, neighborConnect);
 								}
-								if (useNodeAttributes) 
+
+								if (neighborCount > 1) 
 								{
-									synchronized (parent.network)
+									// Topological coefficients computation
+									double topCoef = computeTC(nodeID, numNodes, edges, edgeOffsets);
+									if (!Double.isNaN(topCoef)) 
+										synchronized (parent.topCoefs)
+										{
+											parent.topCoefs.add(new Point2D.Double(neighborCount, topCoef));
+										}
+									else 
+										topCoef = 0.0;
+
+									// Clustering coefficients computation
+									final double nodeCCp = computeCC(neighbors, numNodes, edges, edgeOffsets);
+									synchronized (parent.CCps)
 									{
-										nodeRow.set( Messages.getAttr("cco"), Utils.roundTo(nodeCCp, roundingDigits));
-										nodeRow.set( Messages.getAttr("tco"), Utils.roundTo(topCoef, roundingDigits));
+										accumulate(parent.CCps, neighborCount, nodeCCp);
 									}
-								}
-		
-							} 
-							else if (useNodeAttributes) 
-							{
-								synchronized (parent.network)
+									if (localClusteringSketch != null)
+										localClusteringSketch.add(nodeCCp);
+									if (isRecordingNodeValues()) 
+									{
+										setNodeValue(node, "cco", Utils.roundTo(nodeCCp, roundingDigits));
+										setNodeValue(node, "tco", Utils.roundTo(topCoef, roundingDigits));
+									}
+
+								} 
+								else if (isRecordingNodeValues()) 
 								{
-									nodeRow.set( Messages.getAttr("cco"), 0.0);
-									nodeRow.set( Messages.getAttr("tco"), 0.0);
+									setNodeValue(node, "cco", 0.0);
+									setNodeValue(node, "tco", 0.0);
 								}
-							}
-							synchronized (parent.network)
-							{
-								nodeRow.set( Messages.getAttr("nco"), Utils.roundTo(neighborConnect, roundingDigits));
-							}
-						} 
-						else if (useNodeAttributes) 
-						{
-							synchronized (parent.network)
+								setNodeValue(node, "nco", Utils.roundTo(neighborConnect, roundingDigits));
+							} 
+							else if (isRecordingNodeValues()) 
 							{
-								nodeRow.set( Messages.getAttr("nco"), 0.0);
-								nodeRow.set( Messages.getAttr("cco"), 0.0);
-								nodeRow.set( Messages.getAttr("tco"), 0.0);
+								setNodeValue(node, "nco", 0.0);
+								setNodeValue(node, "cco", 0.0);
+								setNodeValue(node, "tco", 0.0);
 							}
-						}
-						if (parent.cancelled) 
-							break;
-		
-						// Shortest path lengths computation
-						if (parent.nodeSet != null)
-							continue;
-						
-						PathLengthData pathLengths = computeSPandSN(nodeID, numNodes, edges, edgeOffsets, localSharedNeighborsHist, localSPathLengths);
-						
-						int eccentricity = pathLengths.getMaxLength();
-						synchronized (parent.params)
+							if (parent.cancelled || parent.isPublishDue()) 
+								break;
+						} // end node iteration
+
+						// Reduce results into global (parent's) variables
+						synchronized (parent)
 						{
-							if (parent.params.diameter < eccentricity)
-								parent.params.diameter = eccentricity;
-							if (0 < eccentricity && eccentricity < parent.params.radius)
-								parent.params.radius = eccentricity;
+							parent.networkEdgeCount += localNetworkEdgeCount;
+							parent.maxConnectivity = Math.max(parent.maxConnectivity, localMaxConnectivity);
 						}
-						localComponentDiameter = Math.max(localComponentDiameter, eccentricity);
-						
-						double apl = (pathLengths.getCount() > 0) ? pathLengths.getAverageLength() : 0;
-						synchronized (parent.aplMap)
+						synchronized (parent.degreeDist)
 						{
-							parent.aplMap.put(node, Double.valueOf(apl));
+							parent.degreeDist.merge(localDegreeDist);
 						}
-						double closeness = (apl > 0.0) ? 1 / apl : 0.0;
-						synchronized (parent.closenessCent)
+						if (localClusteringSketch != null)
+							synchronized (parent.clusteringSketch)
+							{
+								parent.clusteringSketch.merge(localClusteringSketch);
+							}
+						workerProbe.stop();
+					}
+
+					/**
+					 * Computes the path-based parameters from the sources left in the component. In
+					 * time-limited mode, this stops when the time budget is exceeded. The task also stops when
+					 * a checkpoint or a snapshot of partial results is due; the values accumulated so far are
+					 * kept until they are reduced.
+					 */
+					private void runPaths()
+					{
+						final AnalysisTiming.Probe workerProbe = timing.startWorker("paths");
+						long bfsTime = 0, brandesTime = 0;
+						int sources = 0;
+						int localComponentDiameter = 0;
+						if (localSPathLengths == null)
 						{
-							parent.closenessCent.add(new Point2D.Double(neighborCount, closeness));
+							localSharedNeighborsHist = new long[parent.sharedNeighborsHist.length];
+							localSPathLengths = new long[parent.sPathLengths.length];
+							localNodeBetweenness = new double[parent.nodeBetweennessLean.length];
+							localEdgeBetweenness = new double[parent.edgeBetweennessLean.length];
+							localStress = new long[parent.stressLean.length];
 						}
-		
-						// Store max. and avg. shortest path lengths, and closeness in
-						// node attributes
-						if (useNodeAttributes) 
+
+						while (sourcesLeft.size() > 0)
 						{
-							synchronized (parent.network)
+							CyNode node = null;
+							synchronized (parent)
+							{
+								if (sourcesLeft.size() == 0)
+									break;
+								if (parent.componentSources >= MIN_SOURCES && parent.isTimeBudgetExceeded())
+									break;
+								if (sources >= MIN_ROUND_SOURCES && parent.isCheckpointDue())
+									break;
+								if (sources > 0 && parent.isPublishDue())
+									break;
+								node = sourcesLeft.remove();
+								parent.componentSources++;
+								parent.sourcesProcessed++;
+								parent.progress++;
+							}
+
+							int nodeID = node2Int.get(node);
+							int neighborCount = edgeOffsets[nodeID + 1] - edgeOffsets[nodeID];
+							long kernelStart = System.nanoTime();
+							PathLengthData pathLengths = computeSPandSN(nodeID, numNodes, edges, edgeOffsets, localSharedNeighborsHist, localSPathLengths);
+							bfsTime += System.nanoTime() - kernelStart;
+							sources++;
+							parent.sampling.addSource(pathLengths);
+
+							int eccentricity = pathLengths.getMaxLength();
+							localComponentDiameter = Math.max(localComponentDiameter, eccentricity);
+							double apl = (pathLengths.getCount() > 0) ? pathLengths.getAverageLength() : 0;
+							parent.recordSource(node, neighborCount, eccentricity, apl);
+
+							// CyNode and edge betweenness calculation
+							if (computeNB) 
 							{
-								nodeRow.set( Messages.getAttr("spl"), eccentricity);
-								nodeRow.set( Messages.getAttr("apl"), Utils.roundTo(apl, roundingDigits));
-								nodeRow.set( Messages.getAttr("clc"), Utils.roundTo(closeness, roundingDigits));
+								kernelStart = System.nanoTime();
+								computeNBandEB(nodeID, numNodes, edges, edgeOffsets, edgeIDs, localNodeBetweenness, localStress, localEdgeBetweenness);
+								brandesTime += System.nanoTime() - kernelStart;
 							}
+
+							if (parent.cancelled)
+								break;
+						} // end source iteration
+
+						synchronized (parent)
+						{
+							parent.componentDiameter = Math.max(parent.componentDiameter, localComponentDiameter);
 						}
-		
-						// CyNode and edge betweenness calculation
-						if (computeNB) 
-							computeNBandEB(nodeID, numNodes, edges, edgeOffsets, edgeIDs, localNodeBetweenness, localStress, localEdgeBetweenness);
-		
-						if (parent.cancelled)
-							break;
-					} // end node iteration
+						// Every traversal from a source scans the adjacency lists of the whole component
+						final long traversed = (long) sources * numEdges;
+						timing.add("bfs", bfsTime, 0, 0, traversed);
+						if (computeNB)
+							timing.add("brandes", brandesTime, 0, 0, traversed);
+						workerProbe.stop(computeNB ? 2 * traversed : traversed);
+					}
 
-					// Reduce results into global (parent's) variables
-					synchronized (parent)
+					/**
+					 * Adds the path-based results of this task to the global (parent's) variables.
+					 * 
+					 * @param scale Factor to extrapolate the values accumulated from a sample of sources to
+					 *        the whole component; <code>1.0</code> if all nodes were used as sources.
+					 */
+					void addPaths(double scale)
 					{
-						parent.networkEdgeCount += localNetworkEdgeCount;
-						parent.maxConnectivity = Math.max(parent.maxConnectivity, localMaxConnectivity);
-						parent.componentDiameter = Math.max(parent.componentDiameter, localComponentDiameter);
-						for (int i = 0; i < localSharedNeighborsHist.length; i++)
-							parent.sharedNeighborsHist[i] += localSharedNeighborsHist[i];
-						for (int i = 0; i < localSPathLengths.length; i++)
-							parent.sPathLengths[i] += localSPathLengths[i];
+						if (localSPathLengths == null)
+							return;
+						addScaled(parent.sharedNeighborsHist, localSharedNeighborsHist, scale);
+						addScaled(parent.sPathLengths, localSPathLengths, scale);
 						for (int i = 0; i < localNodeBetweenness.length; i++)
-							parent.nodeBetweennessLean[i] += localNodeBetweenness[i];
+							parent.nodeBetweennessLean[i] += localNodeBetweenness[i] * scale;
 						for (int i = 0; i < localEdgeBetweenness.length; i++)
-							parent.edgeBetweennessLean[i] += localEdgeBetweenness[i];
-						for (int i = 0; i < localStress.length; i++)
-							parent.stressLean[i] += localStress[i];
+							parent.edgeBetweennessLean[i] += localEdgeBetweenness[i] * scale;
+						addScaled(parent.stressLean, localStress, scale);
+					}
+
+					/**
+					 * Reduces the path-based results of this task into the global (parent's) variables and
+					 * resets them.
+					 * 
+					 * @param scale Factor to extrapolate the values accumulated from a sample of sources to
+					 *        the whole component; <code>1.0</code> if all nodes were used as sources.
+					 */
+					void reducePaths(double scale)
+					{
+						addPaths(scale);
+						localSharedNeighborsHist = null;
+						localSPathLengths = null;
+						localNodeBetweenness = null;
+						localEdgeBetweenness = null;
+						localStress = null;
 					}
 				}
-			}
 
-			int numThreads = Runtime.getRuntime().availableProcessors();
-			ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
-			List<Future<?>> futures = new LinkedList<Future<?>>();
-			for (int i = 0; i < numThreads; i++)
-				futures.add(threadPool.submit(new NodeTask(this, i)));
-			for (Future<?> future : futures)
-				try {
-					future.get();
-				} catch (Exception e) { } 
-						
-			if (cancelled)
-			{
-				analysisFinished();
-				return;
-			}
+				List<NodeTask> tasks = new ArrayList<NodeTask>(numThreads);
+				for (int i = 0; i < numThreads; i++)
+					tasks.add(new NodeTask(this, i, false));
+				probe = startPhase("local");
+				do
+				{
+					runTasks(threadPool, tasks);
+					publishPartialResult();
+				} while (!nodesLeft.isEmpty() && !cancelled);
+				probe.stop();
 
-			if (nodeSet == null) {
-				// Normalize and save node betweenness
-				for (final CyNode n : connNodes) 
+				if (nodeSet == null && !cancelled)
 				{
-					int nodeID = node2Int.get(n);
-					// Compute node radiality
-					final double rad = (componentDiameter + 1.0 - aplMap.get(n).doubleValue()) / componentDiameter;
-					if (useNodeAttributes)
-						network.getRow(n).set( Messages.getAttr("rad"), Utils.roundTo(rad, roundingDigits));
-
-					if (computeNB) {
-						final double nNormFactor = computeNormFactor(numNodes);
-						double nb = nodeBetweennessLean[nodeID] * nNormFactor;
-						if (Double.isNaN(nb)) {
-							nb = 0.0;
+					sampling.startComponent(numNodes);
+					probe = startPhase("paths");
+					tasks.clear();
+					for (int i = 0; i < numThreads; i++)
+						tasks.add(new NodeTask(this, i, true));
+					do
+					{
+						runTasks(threadPool, tasks);
+						if (checkpoint != null)
+						{
+							// All sources are processed, so the values can be reduced and saved after every round
+							for (NodeTask task : tasks)
+								task.reducePaths(1.0);
+							if (!sourcesLeft.isEmpty() && isCheckpointDue())
+								saveCheckpoint(connNodes, connEdges, node2Int, edgeHash2Int);
 						}
-						final int degree = getDegree(n, getIncidentEdges(n));
-						nodeBetweennessArray.add(new Point2D.Double(degree, nb));
-						final long nodeStress = stressLean[nodeID];
-						stressDist.addObservation(nodeStress);
-						if (useNodeAttributes) {
-							network.getRow(n).set( Messages.getAttr("nbt"), Utils.roundTo(nb, roundingDigits));
-							network.getRow(n).set( Messages.getAttr("stress"), nodeStress);
+						if (!sourcesLeft.isEmpty() && isPublishDue())
+						{
+							// Extrapolate the sources processed so far, keeping the accumulated values intact
+							final long[] pathLengths = sPathLengths;
+							final long[] sharedNeighbors = sharedNeighborsHist;
+							final double[] nodeBetweenness = nodeBetweennessLean;
+							final double[] edgeBetweenness = edgeBetweennessLean;
+							final long[] stress = stressLean;
+							sPathLengths = pathLengths.clone();
+							sharedNeighborsHist = sharedNeighbors.clone();
+							nodeBetweennessLean = nodeBetweenness.clone();
+							edgeBetweennessLean = edgeBetweenness.clone();
+							stressLean = stress.clone();
+							final double currentScale = sampling.getCurrentScale();
+							for (NodeTask task : tasks)
+								task.addPaths(currentScale);
+							publishComponentResult(connNodes, node2Int, numNodes);
+							sPathLengths = pathLengths;
+							sharedNeighborsHist = sharedNeighbors;
+							nodeBetweennessLean = nodeBetweenness;
+							edgeBetweennessLean = edgeBetweenness;
+							stressLean = stress;
 						}
-					}
-				} // end iterate over nodes
-				
-				// Save edge betweenness
-				if (useEdgeAttributes && computeNB) 
+					} while (!sourcesLeft.isEmpty() && !cancelled
+							&& !(componentSources >= MIN_SOURCES && isTimeBudgetExceeded()));
+					probe.stop();
+					// Sources skipped due to the time budget still count as progress
+					progress += sourcesLeft.size();
+					probe = startPhase("reduce");
+					final double scale = sampling.endComponent();
+					if (checkpoint == null)
+						for (NodeTask task : tasks)
+							task.reducePaths(scale);
+					probe.stop();
+					clearNodeAttributes(sourcesLeft, "spl", "apl", "clc", "rad");
+				}
+
+				if (cancelled)
 				{
-					for (CyEdge edge : connEdges)
+					threadPool.shutdown();
+					if (checkpoint != null)
+						saveCheckpoint(connNodes, connEdges, node2Int, edgeHash2Int);
+					analysisFinished();
+					return;
+				}
+
+				if (nodeSet == null) {
+					probe = startPhase("writeback");
+					// Normalize and save node betweenness
+					for (final CyNode n : connNodes) 
+					{
+						int nodeID = node2Int.get(n);
+						// Compute node radiality
+						final Double apl = aplMap.get(n);
+						if (apl != null) {
+							final double rad = (componentDiameter + 1.0 - apl.doubleValue()) / componentDiameter;
+							if (isRecordingNodeValues())
+								setNodeValue(n, "rad", Utils.roundTo(rad, roundingDigits));
+						}
+
+						if (computeNB) {
+							final double nNormFactor = computeNormFactor(numNodes);
+							double nb = nodeBetweennessLean[nodeID] * nNormFactor;
+							if (Double.isNaN(nb)) {
+								nb = 0.0;
+							}
+							final int degree = getDegree(n, getIncidentEdges(n));
+							nodeBetweennessArray.add(new Point2D.Double(degree, nb));
+							final long nodeStress = stressLean[nodeID];
+							stressDist.addObservation(nodeStress);
+							if (betweennessSketch != null) {
+								betweennessSketch.add(nb);
+								stressSketch.add(nodeStress);
+							}
+							if (isRecordingNodeValues()) {
+								setNodeValue(n, "nbt", Utils.roundTo(nb, roundingDigits));
+								setNodeValue(n, "stress", nodeStress);
+							}
+						}
+					} // end iterate over nodes
+
+					// Save edge betweenness
+					if (useEdgeAttributes && computeNB) 
 					{
-						int sourceID = node2Int.get(edge.getSource());
-						int targetID = node2Int.get(edge.getTarget());
-						long edgeHash = computeEdgeHash(sourceID, targetID);						
-						double eb = Double.NaN;
-						if (edgeHash2Int.containsKey(edgeHash))
-							eb = edgeBetweennessLean[edgeHash2Int.get(edgeHash)];
-						
-						if (Double.isNaN(eb)) {
-							eb = 0.0;
+						for (CyEdge edge : connEdges)
+						{
+							int sourceID = node2Int.get(edge.getSource());
+							int targetID = node2Int.get(edge.getTarget());
+							long edgeHash = computeEdgeHash(sourceID, targetID);						
+							double eb = Double.NaN;
+							if (edgeHash2Int.containsKey(edgeHash))
+								eb = edgeBetweennessLean[edgeHash2Int.get(edgeHash)];
+
+							if (Double.isNaN(eb)) {
+								eb = 0.0;
+							}
+							final double value = Utils.roundTo(eb, roundingDigits);
+							network.getRow(edge).set(Messages.getAttr("ebt"), value);
+							ebSummary.add(value);
 						}
-						network.getRow(edge).set( Messages.getAttr("ebt"), Utils.roundTo(eb, roundingDigits));
 					}
+					if (checkpoint != null)
+					{
+						// Checkpoints are also due between components, which may each be completed within a round
+						if (isCheckpointDue())
+							saveCheckpoint(connNodes, connEdges, node2Int, edgeHash2Int);
+						else
+							storeComponent(connNodes, connEdges, node2Int, edgeHash2Int);
+					}
+					probe.stop();
 				}
+				publishPartialResult();
+			} // end iteration over connected component
+			if (useEdgeAttributes && computeNB)
+				AttributeCatalog.putEdgeSummary(network, Messages.getAttr("ebt"), ebSummary);
+			threadPool.shutdown();
+
+			saveStats(stats);
+
+			if (nodeSet == null) {
+				saveSampling(sampling);
 			}
-		} // end iteration over connected component
-		
+			saveTiming();
+			if (checkpoint != null)
+			{
+				checkpoint.setPathLengths(sPathLengths);
+				checkpoint.setSharedNeighbors(sharedNeighborsHist);
+				completeCheckpoint();
+			}
+
+			analysisFinished();
+			time = System.currentTimeMillis() - time;
+			stats.set("time", time / 1000.0);
+			progress = nodeCount;
+		}
+		finally
+		{
+			AnalysisMonitor.unregister(this);
+		}
+	}
+
+	/**
+	 * Records the results computed from a source node.
+	 * <p>
+	 * This method is called by the worker threads, as well as when resuming from a checkpoint.
+	 * </p>
+	 * 
+	 * @param aNode Source node.
+	 * @param aNeighborCount Number of neighbors of the source node.
+	 * @param aEccentricity Eccentricity of the source node.
+	 * @param aApl Average shortest path length from the source node.
+	 */
+	private void recordSource(CyNode aNode, int aNeighborCount, int aEccentricity, double aApl)
+	{
+		synchronized (params)
+		{
+			if (params.diameter < aEccentricity)
+				params.diameter = aEccentricity;
+			if (0 < aEccentricity && aEccentricity < params.radius)
+				params.radius = aEccentricity;
+		}
+		synchronized (aplMap)
+		{
+			aplMap.put(aNode, Double.valueOf(aApl));
+		}
+		double closeness = (aApl > 0.0) ? 1 / aApl : 0.0;
+		synchronized (closenessCent)
+		{
+			closenessCent.add(new Point2D.Double(aNeighborCount, closeness));
+			if (closenessSketch != null)
+				closenessSketch.add(closeness);
+		}
+
+		// Store max. and avg. shortest path lengths, and closeness in
+		// node attributes
+		if (isRecordingNodeValues()) 
+		{
+			setNodeValue(aNode, "spl", aEccentricity);
+			setNodeValue(aNode, "apl", Utils.roundTo(aApl, roundingDigits));
+			setNodeValue(aNode, "clc", Utils.roundTo(closeness, roundingDigits));
+		}
+		if (checkpoint != null)
+			checkpoint.addSource(getNodeKey(aNode), aEccentricity, aApl);
+	}
+
+	/**
+	 * Restores the state of a connected component from the checkpoint. The accumulated betweenness and
+	 * stress values are loaded, and the sources processed before the checkpoint, as well as the sources of
+	 * other shards, are removed from the sources left.
+	 * 
+	 * @param aNodes Nodes of the connected component.
+	 * @param aEdges Edges of the connected component.
+	 * @param aNode2Int Mapping of the nodes to their indices in the component.
+	 * @param aEdgeHash2Int Mapping of the edge hashes to their indices in the component.
+	 * @param aEdgeOffsets Offsets of the adjacency lists of the nodes.
+	 * @param aSourcesLeft Sources left to be processed in the component.
+	 */
+	private void resumeComponent(Set<CyNode> aNodes, Set<CyEdge> aEdges, Map<CyNode, Integer> aNode2Int,
+			Map<Long, Integer> aEdgeHash2Int, int[] aEdgeOffsets, List<CyNode> aSourcesLeft)
+	{
+		for (final CyNode node : aNodes)
+		{
+			final String key = getNodeKey(node);
+			final int nodeID = aNode2Int.get(node);
+			nodeBetweennessLean[nodeID] = checkpoint.getNodeBetweenness(key);
+			stressLean[nodeID] = checkpoint.getStress(key);
+		}
+		for (final CyEdge edge : aEdges)
+		{
+			final Integer edgeID = aEdgeHash2Int.get(computeEdgeHash(aNode2Int.get(edge.getSource()), aNode2Int.get(edge.getTarget())));
+			if (edgeID != null)
+				edgeBetweennessLean[edgeID] = checkpoint.getEdgeBetweenness(getEdgeKey(edge));
+		}
+		for (final Iterator<CyNode> it = aSourcesLeft.iterator(); it.hasNext();)
+		{
+			final CyNode node = it.next();
+			final String key = getNodeKey(node);
+			if (checkpoint.isSource(key))
+			{
+				it.remove();
+				final int nodeID = aNode2Int.get(node);
+				final int eccentricity = checkpoint.getEccentricity(key);
+				recordSource(node, aEdgeOffsets[nodeID + 1] - aEdgeOffsets[nodeID], eccentricity, checkpoint.getApl(key));
+				componentDiameter = Math.max(componentDiameter, eccentricity);
+				componentSources++;
+				sourcesProcessed++;
+				progress++;
+			}
+			else if (!isShardSource(node))
+			{
+				it.remove();
+				progress++;
+			}
+		}
+	}
+
+	/**
+	 * Publishes a snapshot of the partial results, including the estimated betweenness and stress of the nodes
+	 * in the connected component whose shortest paths are being computed.
+	 * 
+	 * @param aNodes Nodes of the current connected component.
+	 * @param aNode2Int Mapping of the nodes to their indices in the component.
+	 * @param aNumNodes Number of nodes in the component.
+	 */
+	private void publishComponentResult(Set<CyNode> aNodes, Map<CyNode, Integer> aNode2Int, int aNumNodes)
+	{
+		final int pointCount = nodeBetweennessArray.size();
+		final LogBinDistribution finishedStressDist = stressDist;
+		if (computeNB)
+		{
+			stressDist = new LogBinDistribution();
+			stressDist.merge(finishedStressDist);
+			final double nNormFactor = computeNormFactor(aNumNodes);
+			for (final CyNode n : aNodes)
+			{
+				final int nodeID = aNode2Int.get(n);
+				double nb = nodeBetweennessLean[nodeID] * nNormFactor;
+				if (Double.isNaN(nb))
+					nb = 0.0;
+				nodeBetweennessArray.add(new Point2D.Double(getDegree(n, getIncidentEdges(n)), nb));
+				stressDist.addObservation(stressLean[nodeID]);
+			}
+		}
+		publishPartialResult();
+		nodeBetweennessArray.subList(pointCount, nodeBetweennessArray.size()).clear();
+		stressDist = finishedStressDist;
+	}
+
+	/**
+	 * Stores the accumulated betweenness and stress of the nodes and edges of a connected component in the
+	 * checkpoint.
+	 * 
+	 * @param aNodes Nodes of the connected component.
+	 * @param aEdges Edges of the connected component.
+	 * @param aNode2Int Mapping of the nodes to their indices in the component.
+	 * @param aEdgeHash2Int Mapping of the edge hashes to their indices in the component.
+	 */
+	private void storeComponent(Set<CyNode> aNodes, Set<CyEdge> aEdges, Map<CyNode, Integer> aNode2Int,
+			Map<Long, Integer> aEdgeHash2Int)
+	{
+		for (final CyNode node : aNodes)
+		{
+			final int nodeID = aNode2Int.get(node);
+			checkpoint.setNode(getNodeKey(node), nodeBetweennessLean[nodeID], stressLean[nodeID]);
+		}
+		for (final CyEdge edge : aEdges)
+		{
+			final Integer edgeID = aEdgeHash2Int.get(computeEdgeHash(aNode2Int.get(edge.getSource()), aNode2Int.get(edge.getTarget())));
+			if (edgeID != null)
+				checkpoint.setEdge(getEdgeKey(edge), edgeBetweennessLean[edgeID]);
+		}
+	}
+
+	/**
+	 * Stores the state of the current connected component and the accumulated histograms in the checkpoint
+	 * and saves it.
+	 * 
+	 * @param aNodes Nodes of the current connected component.
+	 * @param aEdges Edges of the current connected component.
+	 * @param aNode2Int Mapping of the nodes to their indices in the component.
+	 * @param aEdgeHash2Int Mapping of the edge hashes to their indices in the component.
+	 */
+	private void saveCheckpoint(Set<CyNode> aNodes, Set<CyEdge> aEdges, Map<CyNode, Integer> aNode2Int,
+			Map<Long, Integer> aEdgeHash2Int)
+	{
+		storeComponent(aNodes, aEdges, aNode2Int, aEdgeHash2Int);
+		checkpoint.setPathLengths(sPathLengths);
+		checkpoint.setSharedNeighbors(sharedNeighborsHist);
+		writeCheckpoint();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.NetworkAnalyzer#getAccumulatorBytes()
+	 */
+	@Override
+	public long getAccumulatorBytes() {
+		long entries = sPathLengths.length + sharedNeighborsHist.length;
+		final double[] nodeBetweenness = nodeBetweennessLean;
+		final double[] edgeBetweenness = edgeBetweennessLean;
+		final long[] stress = stressLean;
+		if (nodeBetweenness != null && edgeBetweenness != null && stress != null) {
+			entries += nodeBetweenness.length + edgeBetweenness.length + stress.length;
+		}
+		// Every worker keeps local copies of the accumulators; all entries are 8 bytes long
+		return entries * 8 * (workerCount + 1);
+	}
+
+	/**
+	 * Stores the parameters accumulated so far in the given statistics instance.
+	 * <p>
+	 * This method does not modify the accumulated values. It is used for storing the final results as well
+	 * as for creating snapshots of partial results.
+	 * </p>
+	 * 
+	 * @param aStats
+	 *            Statistics instance to store the parameters in.
+	 */
+	@Override
+	protected void saveStats(NetworkStats aStats) {
 		// save statistics
 		if (params.connectivityAccum != null) {
 			final double meanConnectivity = params.connectivityAccum.getAverage();
-			stats.set("avNeighbors", meanConnectivity);
+			aStats.set("avNeighbors", meanConnectivity);
 			final double density = meanConnectivity / (nodeCount - 1);
-			stats.set("density", meanConnectivity / (nodeCount - 1));
-			stats.set("centralization", (nodeCount / ((double) nodeCount - 2))
+			aStats.set("density", meanConnectivity / (nodeCount - 1));
+			aStats.set("centralization", (nodeCount / ((double) nodeCount - 2))
 					* (maxConnectivity / ((double) nodeCount - 1) - density));
 			final double nom = params.sqConnectivityAccum.getSum() * nodeCount;
 			final double denom = params.connectivityAccum.getSum()
 					* params.connectivityAccum.getSum();
-			stats.set("heterogeneity", Math.sqrt(nom / denom - 1));
+			aStats.set("heterogeneity", Math.sqrt(nom / denom - 1));
 		}
 
 		// Save degree distribution in the statistics instance
-		stats.set("degreeDist", degreeDist.createHistogram());
+		aStats.set("degreeDist", degreeDist.createHistogram());
 
 		// Save C(k) in the statistics instance
 		if (CCps.size() > 0) {
 			Point2D.Double[] averages = new Point2D.Double[CCps.size()];
 			double cc = accumulateCCs(CCps, averages) / nodeCount;
-			stats.set("cc", cc);
+			aStats.set("cc", cc);
 			if (averages.length > 1) {
-				stats.set("cksDist", new Points2D(averages));
+				aStats.set("cksDist", new Points2D(averages));
 			}
 		}
 
 		// Save topological coefficients in the statistics instance
 		if (topCoefs.size() > 1) {
-			stats.set("topCoefs", new Points2D(topCoefs));
+			aStats.set("topCoefs", new Points2D(topCoefs));
 		}
 
-		stats.set("ncc", params.connectedComponentCount);
-		stats.set("usn", params.unconnectedNodeCount);
-		stats.set("nsl", params.selfLoopCount);
-		stats.set("mnp", params.multiEdgePartners / 2);
+		aStats.set("ncc", params.connectedComponentCount);
+		aStats.set("usn", params.unconnectedNodeCount);
+		aStats.set("nsl", params.selfLoopCount);
+		aStats.set("mnp", params.multiEdgePartners / 2);
 		if (interpr.isPaired()) {
-			stats.set("edgeCount", networkEdgeCount / 2);
+			aStats.set("edgeCount", networkEdgeCount / 2);
 		}
 
 		if (nodeSet == null) {
@@ -489,26 +902,27 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 				connPairs += sPathLengths[i];
 				totalPathLength += i * sPathLengths[i];
 			}
-			stats.set("connPairs", connPairs);
+			aStats.set("connPairs", connPairs);
 
 			// Save shortest path lengths distribution
 			if (params.diameter > 0) {
-				stats.set("diameter", params.diameter);
-				stats.set("radius", params.radius);
-				stats.set("avSpl", (double) totalPathLength / connPairs);
+				aStats.set("diameter", params.diameter);
+				aStats.set("radius", params.radius);
+				aStats.set("avSpl", (double) totalPathLength / connPairs);
 				if (params.diameter > 1) {
-					stats.set("splDist", new LongHistogram(sPathLengths, 1, params.diameter));
+					aStats.set("splDist", new LongHistogram(sPathLengths, 1, params.diameter));
 				}
 				int largestCommN = 0;
+				final long[] commNeighbors = new long[nodeCount];
 				for (int i = 1; i < nodeCount; ++i) {
 					if (sharedNeighborsHist[i] != 0) {
-						sharedNeighborsHist[i] /= 2;
+						commNeighbors[i] = sharedNeighborsHist[i] / 2;
 						largestCommN = i;
 					}
 				}
 				// Save common neighbors distribution
 				if (largestCommN > 0) {
-					stats.set("commNeighbors", new LongHistogram(sharedNeighborsHist, 1,
+					aStats.set("commNeighbors", new LongHistogram(commNeighbors, 1,
 							largestCommN));
 				}
 			}
@@ -516,28 +930,29 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 
 		// Save closeness centrality in the statistics instance
 		if (closenessCent.size() > 1) {
-			stats.set("closenessCent", new Points2D(closenessCent));
+			aStats.set("closenessCent", new Points2D(closenessCent));
 		}
 
 		// Save node betweenness in the statistics instance
 		if (nodeBetweennessArray.size() > 2) {
-			stats.set("nodeBetween", new Points2D(nodeBetweennessArray));
+			aStats.set("nodeBetween", new Points2D(nodeBetweennessArray));
 		}
 
 		// Save neighborhood connectivity in the statistics instance
 		if (NCps.size() > 1) {
-			stats.set("neighborConn", new Points2D(getAverages(NCps)));
+			aStats.set("neighborConn", new Points2D(getAverages(NCps)));
 		}
 
 		// Save stress distribution in the statistics instance
 		if (nodeSet == null && computeNB) {
-			stats.set("stressDist", stressDist.createPoints2D());
+			aStats.set("stressDist", stressDist.createPoints2D());
 		}
-		
-		analysisFinished();
-		time = System.currentTimeMillis() - time;
-		stats.set("time", time / 1000.0);
-		progress = nodeCount;
+
+		// Save quantile sketches of node parameters in the statistics instance
+		saveQuantiles(aStats, "closenessQuantiles", closenessSketch);
+		saveQuantiles(aStats, "betweennessQuantiles", betweennessSketch);
+		saveQuantiles(aStats, "stressQuantiles", stressSketch);
+		saveQuantiles(aStats, "clusteringQuantiles", clusteringSketch);
 	}
 
 	/**
@@ -605,17 +1020,13 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 		}
 
 		// Storing the values in attributes
-		if (useNodeAttributes) 
+		if (isRecordingNodeValues()) 
 		{
-			CyRow nodeRow = network.getRow(aNode);
-			synchronized (network) 
-			{
-				nodeRow.set(Messages.getAttr("slo"), selfLoops);
-				nodeRow.set(Messages.getAttr("isn"), (neighborCount == 0));
-				nodeRow.set(Messages.getAttr("nue"), undirEdges);
-				nodeRow.set(Messages.getAttr("nde"), dirEdges);
-				nodeRow.set(Messages.getAttr("pmn"), partnerOfMultiEdgeNodePairs);
-			}
+			setNodeValue(aNode, "slo", selfLoops);
+			setNodeValue(aNode, "isn", (neighborCount == 0));
+			setNodeValue(aNode, "nue", undirEdges);
+			setNodeValue(aNode, "nde", dirEdges);
+			setNodeValue(aNode, "pmn", partnerOfMultiEdgeNodePairs);
 		}
 		return neighborCount;
 	}
@@ -1012,7 +1423,7 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 	 *         <code>aNode</code>.
 	 */
 	private List<CyEdge> getIncidentEdges(CyNode aNode) {
-		return network.getAdjacentEdgeList(aNode, (interpr.isPaired() ? CyEdge.Type.INCOMING : CyEdge.Type.ANY));
+		return getAdjacentEdges(aNode, (interpr.isPaired() ? CyEdge.Type.INCOMING : CyEdge.Type.ANY));
 	}
 
 	/**
@@ -1025,11 +1436,6 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 	 */
 	private long[] sPathLengths;
 
-	/**
-	 * Flag, indicating if the computed parameters must be stored as node attributes.
-	 */
-	private boolean useNodeAttributes;
-
 	/**
 	 * Flag, indicating if the computed parameters must be stored as edge attributes.
 	 */
@@ -1098,10 +1504,17 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 	private Map<CyNode, Double> aplMap;
 	// stress
 	private LogBinDistribution stressDist;
-	// Compute number of connected components
-	private ConnComponentAnalyzer cca;
+	// quantile sketches of node parameters
+	private QuantileSketch closenessSketch;
+	private QuantileSketch betweennessSketch;
+	private QuantileSketch stressSketch;
+	private QuantileSketch clusteringSketch;
 	private double[] nodeBetweennessLean;
 	private double[] edgeBetweennessLean;
 	private long[] stressLean;
 	private int componentDiameter;
+	// number of sources processed in the current component
+	private int componentSources;
+	// sources used for path-based parameters
+	private PathSampling sampling;
 }
@@ -0,0 +1,387 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * State of a running analysis needed for resuming it from the source nodes that have not been processed.
+ * <p>
+ * A checkpoint contains the eccentricity and average shortest path length of every processed source node,
+ * the accumulated betweenness and stress of the nodes and edges, and the accumulated histograms of
+ * shortest path lengths and shared neighbors. Nodes are identified by keys that do not change when the
+ * network is loaded again, such that an analysis can be resumed after a crash.
+ * </p>
+ * <p>
+ * Checkpoints of analyses that processed disjoint sets of sources of the same network (shards) can be
+ * combined using {@link #merge(AnalysisCheckpoint)}.
+ * </p>
+ */
+public class AnalysisCheckpoint {
+
+	/**
+	 * Initializes a new instance of <code>AnalysisCheckpoint</code> containing no processed sources.
+	 * 
+	 * @param aTitle Title of the analyzed network, including the interpretation applied.
+	 * @param aNodeCount Number of nodes in the analyzed network.
+	 * @param aEdgeCount Number of edges in the analyzed network.
+	 */
+	public AnalysisCheckpoint(String aTitle, int aNodeCount, int aEdgeCount) {
+		title = aTitle;
+		nodeCount = aNodeCount;
+		edgeCount = aEdgeCount;
+		sources = new HashMap<String, double[]>();
+		nodeBetweenness = new HashMap<String, Double>();
+		stress = new HashMap<String, Long>();
+		edgeBetweenness = new HashMap<String, Double>();
+		pathLengths = null;
+		sharedNeighbors = null;
+	}
+
+	/**
+	 * Checks if this checkpoint was created for the given network.
+	 * 
+	 * @param aTitle Title of the analyzed network, including the interpretation applied.
+	 * @param aNodeCount Number of nodes in the analyzed network.
+	 * @param aEdgeCount Number of edges in the analyzed network.
+	 * @return <code>true</code> if the network matches the one this checkpoint was created for;
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean matches(String aTitle, int aNodeCount, int aEdgeCount) {
+		return title.equals(aTitle) && nodeCount == aNodeCount && edgeCount == aEdgeCount;
+	}
+
+	/**
+	 * Gets the title of the analyzed network.
+	 * 
+	 * @return Title of the network, including the interpretation applied.
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * Gets the number of nodes in the analyzed network.
+	 * 
+	 * @return Number of nodes.
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Gets the number of edges in the analyzed network.
+	 * 
+	 * @return Number of edges.
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * Records a processed source node.
+	 * 
+	 * @param aNode Key of the source node.
+	 * @param aEccentricity Eccentricity of the source node.
+	 * @param aApl Average shortest path length from the source node.
+	 */
+	public synchronized void addSource(String aNode, int aEccentricity, double aApl) {
+		sources.put(aNode, new double[] { aEccentricity, aApl });
+	}
+
+	/**
+	 * Checks if the given node has been processed as a source.
+	 * 
+	 * @param aNode Key of the node.
+	 * @return <code>true</code> if shortest paths from the node have been computed; <code>false</code>
+	 *         otherwise.
+	 */
+	public synchronized boolean isSource(String aNode) {
+		return sources.containsKey(aNode);
+	}
+
+	/**
+	 * Gets the eccentricity of a processed source node.
+	 * 
+	 * @param aNode Key of the source node.
+	 * @return Eccentricity of the node.
+	 * @throws NullPointerException If the node has not been processed as a source.
+	 */
+	public synchronized int getEccentricity(String aNode) {
+		return (int) sources.get(aNode)[0];
+	}
+
+	/**
+	 * Gets the average shortest path length from a processed source node.
+	 * 
+	 * @param aNode Key of the source node.
+	 * @return Average shortest path length from the node.
+	 * @throws NullPointerException If the node has not been processed as a source.
+	 */
+	public synchronized double getApl(String aNode) {
+		return sources.get(aNode)[1];
+	}
+
+	/**
+	 * Gets the keys of all processed source nodes.
+	 * 
+	 * @return Set of the keys of the processed sources.
+	 */
+	public Set<String> getSources() {
+		return sources.keySet();
+	}
+
+	/**
+	 * Gets the number of processed source nodes.
+	 * 
+	 * @return Number of processed sources.
+	 */
+	public synchronized int getSourceCount() {
+		return sources.size();
+	}
+
+	/**
+	 * Stores the accumulated betweenness and stress of a node.
+	 * 
+	 * @param aNode Key of the node.
+	 * @param aBetweenness Accumulated (not normalized) betweenness of the node.
+	 * @param aStress Accumulated stress of the node.
+	 */
+	public void setNode(String aNode, double aBetweenness, long aStress) {
+		nodeBetweenness.put(aNode, aBetweenness);
+		stress.put(aNode, aStress);
+	}
+
+	/**
+	 * Gets the keys of all nodes with stored betweenness and stress.
+	 * 
+	 * @return Set of the keys of the nodes.
+	 */
+	public Set<String> getNodes() {
+		return nodeBetweenness.keySet();
+	}
+
+	/**
+	 * Gets the accumulated betweenness of a node.
+	 * 
+	 * @param aNode Key of the node.
+	 * @return Accumulated betweenness of the node; <code>0</code> if not stored.
+	 */
+	public double getNodeBetweenness(String aNode) {
+		final Double value = nodeBetweenness.get(aNode);
+		return value != null ? value.doubleValue() : 0.0;
+	}
+
+	/**
+	 * Gets the accumulated stress of a node.
+	 * 
+	 * @param aNode Key of the node.
+	 * @return Accumulated stress of the node; <code>0</code> if not stored.
+	 */
+	public long getStress(String aNode) {
+		final Long value = stress.get(aNode);
+		return value != null ? value.longValue() : 0;
+	}
+
+	/**
+	 * Stores the accumulated betweenness of an edge.
+	 * 
+	 * @param aEdge Key of the edge.
+	 * @param aBetweenness Accumulated betweenness of the edge.
+	 */
+	public void setEdge(String aEdge, double aBetweenness) {
+		edgeBetweenness.put(aEdge, aBetweenness);
+	}
+
+	/**
+	 * Gets the keys of all edges with stored betweenness.
+	 * 
+	 * @return Set of the keys of the edges.
+	 */
+	public Set<String> getEdges() {
+		return edgeBetweenness.keySet();
+	}
+
+	/**
+	 * Gets the accumulated betweenness of an edge.
+	 * 
+	 * @param aEdge Key of the edge.
+	 * @return Accumulated betweenness of the edge; <code>0</code> if not stored.
+	 */
+	public double getEdgeBetweenness(String aEdge) {
+		final Double value = edgeBetweenness.get(aEdge);
+		return value != null ? value.doubleValue() : 0.0;
+	}
+
+	/**
+	 * Gets the accumulated histogram of shortest path lengths.
+	 * 
+	 * @return Number of shortest paths by length; <code>null</code> if not stored.
+	 */
+	public long[] getPathLengths() {
+		return pathLengths;
+	}
+
+	/**
+	 * Stores a copy of the accumulated histogram of shortest path lengths.
+	 * 
+	 * @param aPathLengths Number of shortest paths by length; can be <code>null</code>.
+	 */
+	public void setPathLengths(long[] aPathLengths) {
+		pathLengths = aPathLengths != null ? aPathLengths.clone() : null;
+	}
+
+	/**
+	 * Gets the accumulated histogram of shared neighbors.
+	 * 
+	 * @return Number of node pairs by number of shared neighbors; <code>null</code> if not stored.
+	 */
+	public long[] getSharedNeighbors() {
+		return sharedNeighbors;
+	}
+
+	/**
+	 * Stores a copy of the accumulated histogram of shared neighbors.
+	 * 
+	 * @param aSharedNeighbors Number of node pairs by number of shared neighbors; can be
+	 *        <code>null</code>.
+	 */
+	public void setSharedNeighbors(long[] aSharedNeighbors) {
+		sharedNeighbors = aSharedNeighbors != null ? aSharedNeighbors.clone() : null;
+	}
+
+	/**
+	 * Adds the processed sources and the accumulated values of another checkpoint of the same network to this
+	 * checkpoint.
+	 * <p>
+	 * The sets of sources processed in the two checkpoints are expected to be disjoint.
+	 * </p>
+	 * 
+	 * @param aOther Checkpoint to be merged into this one.
+	 * @throws IllegalArgumentException If <code>aOther</code> was not created for the same network as this
+	 *         checkpoint.
+	 */
+	public synchronized void merge(AnalysisCheckpoint aOther) {
+		if (!matches(aOther.title, aOther.nodeCount, aOther.edgeCount)) {
+			throw new IllegalArgumentException();
+		}
+		sources.putAll(aOther.sources);
+		for (final String node : aOther.getNodes()) {
+			setNode(node, getNodeBetweenness(node) + aOther.getNodeBetweenness(node), getStress(node)
+					+ aOther.getStress(node));
+		}
+		for (final String edge : aOther.getEdges()) {
+			setEdge(edge, getEdgeBetweenness(edge) + aOther.getEdgeBetweenness(edge));
+		}
+		pathLengths = add(pathLengths, aOther.pathLengths);
+		sharedNeighbors = add(sharedNeighbors, aOther.sharedNeighbors);
+	}
+
+	/**
+	 * Copies a stored histogram into the given array.
+	 * 
+	 * @param aSource Stored histogram; if this is <code>null</code>, calling this method has no effect.
+	 * @param aTarget Array to copy the histogram into.
+	 */
+	public static void restore(long[] aSource, long[] aTarget) {
+		if (aSource != null) {
+			System.arraycopy(aSource, 0, aTarget, 0, Math.min(aSource.length, aTarget.length));
+		}
+	}
+
+	/**
+	 * Adds two histograms.
+	 * 
+	 * @param aHist1 First histogram; can be <code>null</code>.
+	 * @param aHist2 Second histogram; can be <code>null</code>.
+	 * @return Histogram containing the sums of the corresponding bins; <code>null</code> if both
+	 *         histograms are <code>null</code>.
+	 */
+	private static long[] add(long[] aHist1, long[] aHist2) {
+		if (aHist1 == null) {
+			return aHist2 != null ? aHist2.clone() : null;
+		}
+		if (aHist2 == null) {
+			return aHist1;
+		}
+		final long[] sum = new long[Math.max(aHist1.length, aHist2.length)];
+		for (int i = 0; i < aHist1.length; i++) {
+			sum[i] = aHist1[i];
+		}
+		for (int i = 0; i < aHist2.length; i++) {
+			sum[i] += aHist2[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Title of the analyzed network, including the interpretation applied.
+	 */
+	private String title;
+
+	/**
+	 * Number of nodes in the analyzed network.
+	 */
+	private int nodeCount;
+
+	/**
+	 * Number of edges in the analyzed network.
+	 */
+	private int edgeCount;
+
+	/**
+	 * Processed sources in the form of (node key, {eccentricity, average shortest path length}) map.
+	 */
+	private Map<String, double[]> sources;
+
+	/**
+	 * Accumulated betweenness of the nodes in the form of (node key, betweenness) map.
+	 */
+	private Map<String, Double> nodeBetweenness;
+
+	/**
+	 * Accumulated stress of the nodes in the form of (node key, stress) map.
+	 */
+	private Map<String, Long> stress;
+
+	/**
+	 * Accumulated betweenness of the edges in the form of (edge key, betweenness) map.
+	 */
+	private Map<String, Double> edgeBetweenness;
+
+	/**
+	 * Accumulated histogram of shortest path lengths.
+	 */
+	private long[] pathLengths;
+
+	/**
+	 * Accumulated histogram of shared neighbors.
+	 */
+	private long[] sharedNeighbors;
+}
@@ -0,0 +1,422 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-phase timing and throughput measurements of a network analysis.
+ * <p>
+ * For every phase of the analysis (e.g. finding connected components, computing the neighborhood
+ * parameters, traversing shortest paths), this class accumulates the elapsed (wall) time, the CPU time
+ * and the number of bytes allocated by all threads taking part in the phase, as well as the number of
+ * edges traversed. The largest number of bytes allocated by a single thread in a phase and the peak heap
+ * usage observed during the analysis are also recorded.
+ * </p>
+ * <p>
+ * Wall time of a phase is measured on the thread coordinating the phase. Phases which are recorded
+ * directly by worker threads, such as the individual traversal kernels, report the sum of the time the
+ * workers spent in them.
+ * </p>
+ */
+public class AnalysisTiming {
+
+	/**
+	 * Initializes a new instance of <code>AnalysisTiming</code> containing no measurements.
+	 */
+	public AnalysisTiming() {
+		phases = new LinkedHashMap<String, long[]>();
+		peakHeap = 0;
+	}
+
+	/**
+	 * Starts measuring a phase on the current thread, including its elapsed time.
+	 * 
+	 * @param aPhase Name of the phase.
+	 * @return Probe which adds the measurements to this instance when stopped.
+	 */
+	public Probe start(String aPhase) {
+		return new Probe(aPhase, true);
+	}
+
+	/**
+	 * Starts measuring the share of a worker thread in a phase. The elapsed time of the probe is not
+	 * added to the phase, as it is measured by the coordinating thread.
+	 * 
+	 * @param aPhase Name of the phase.
+	 * @return Probe which adds the measurements to this instance when stopped.
+	 */
+	public Probe startWorker(String aPhase) {
+		return new Probe(aPhase, false);
+	}
+
+	/**
+	 * Adds measurements to a phase.
+	 * 
+	 * @param aPhase Name of the phase.
+	 * @param aWallTime Elapsed time, in nanoseconds.
+	 * @param aCpuTime CPU time, in nanoseconds.
+	 * @param aAllocated Number of bytes allocated.
+	 * @param aEdges Number of edges traversed.
+	 */
+	public synchronized void add(String aPhase, long aWallTime, long aCpuTime, long aAllocated,
+			long aEdges) {
+		long[] values = phases.get(aPhase);
+		if (values == null) {
+			values = new long[VALUE_COUNT];
+			phases.put(aPhase, values);
+		}
+		values[WALL] += aWallTime;
+		values[CPU] += aCpuTime;
+		values[ALLOCATED] += aAllocated;
+		values[PEAK_THREAD] = Math.max(values[PEAK_THREAD], aAllocated);
+		values[EDGES] += aEdges;
+	}
+
+	/**
+	 * Sets the largest number of bytes allocated by a single thread in a phase, if it exceeds the current
+	 * value. This method is used when loading measurements from a file.
+	 * 
+	 * @param aPhase Name of the phase.
+	 * @param aBytes Number of bytes allocated by a single thread.
+	 */
+	public synchronized void setPeakThreadAllocated(String aPhase, long aBytes) {
+		add(aPhase, 0, 0, 0, 0);
+		final long[] values = phases.get(aPhase);
+		values[PEAK_THREAD] = Math.max(values[PEAK_THREAD], aBytes);
+	}
+
+	/**
+	 * Records the current heap usage if it exceeds the peak observed so far.
+	 */
+	public synchronized void sampleHeap() {
+		updatePeakHeap(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+	}
+
+	/**
+	 * Sets the peak heap usage, if the given value exceeds the current one.
+	 * 
+	 * @param aBytes Heap usage, in bytes.
+	 */
+	public synchronized void updatePeakHeap(long aBytes) {
+		peakHeap = Math.max(peakHeap, aBytes);
+	}
+
+	/**
+	 * Gets the names of all measured phases in the order in which they were first recorded.
+	 * 
+	 * @return Array of phase names.
+	 */
+	public synchronized String[] getPhases() {
+		return phases.keySet().toArray(new String[phases.size()]);
+	}
+
+	/**
+	 * Gets the elapsed time of a phase.
+	 * 
+	 * @param aPhase Name of the phase.
+	 * @return Elapsed time, in nanoseconds; <code>0</code> if the phase was not measured.
+	 */
+	public long getWallTime(String aPhase) {
+		return getValue(aPhase, WALL);
+	}
+
+	/**
+	 * Gets the CPU time of a phase summed over all threads taking part in it.
+	 * 
+	 * @param aPhase Name of the phase.
+	 * @return CPU time, in nanoseconds; <code>0</code> if the phase was not measured or the JVM does not
+	 *         support CPU time measurement.
+	 */
+	public long getCpuTime(String aPhase) {
+		return getValue(aPhase, CPU);
+	}
+
+	/**
+	 * Gets the number of bytes allocated in a phase by all threads taking part in it.
+	 * 
+	 * @param aPhase Name of the phase.
+	 * @return Number of bytes allocated; <code>0</code> if the phase was not measured or the JVM does not
+	 *         support allocation measurement.
+	 */
+	public long getAllocated(String aPhase) {
+		return getValue(aPhase, ALLOCATED);
+	}
+
+	/**
+	 * Gets the largest number of bytes allocated by a single thread in a phase.
+	 * 
+	 * @param aPhase Name of the phase.
+	 * @return Number of bytes allocated by a single thread.
+	 */
+	public long getPeakThreadAllocated(String aPhase) {
+		return getValue(aPhase, PEAK_THREAD);
+	}
+
+	/**
+	 * Gets the number of edges traversed in a phase.
+	 * 
+	 * @param aPhase Name of the phase.
+	 * @return Number of edges traversed.
+	 */
+	public long getEdgesTraversed(String aPhase) {
+		return getValue(aPhase, EDGES);
+	}
+
+	/**
+	 * Gets the traversal throughput of a phase.
+	 * 
+	 * @param aPhase Name of the phase.
+	 * @return Number of traversed edges per second (TEPS); <code>0</code> if no edges were traversed or
+	 *         no time was measured.
+	 */
+	public double getTEPS(String aPhase) {
+		final long wall = getWallTime(aPhase);
+		return wall > 0 ? getEdgesTraversed(aPhase) * 1e9 / wall : 0.0;
+	}
+
+	/**
+	 * Gets the peak heap usage observed during the analysis.
+	 * 
+	 * @return Peak heap usage, in bytes.
+	 */
+	public synchronized long getPeakHeap() {
+		return peakHeap;
+	}
+
+	/**
+	 * Creates a human-readable summary of the measurements, one line per phase.
+	 * 
+	 * @return Summary of the measurements.
+	 */
+	@Override
+	public synchronized String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (final Map.Entry<String, long[]> entry : phases.entrySet()) {
+			final long[] values = entry.getValue();
+			sb.append(entry.getKey()).append(": wall ").append(values[WALL] / 1000000).append(" ms, cpu ");
+			sb.append(values[CPU] / 1000000).append(" ms, allocated ").append(values[ALLOCATED]);
+			sb.append(" bytes (max. ").append(values[PEAK_THREAD]).append(" per thread)");
+			if (values[EDGES] > 0) {
+				sb.append(", ").append(values[EDGES]).append(" edges, ");
+				sb.append(Math.round(getTEPS(entry.getKey()))).append(" TEPS");
+			}
+			sb.append('\n');
+		}
+		sb.append("peak heap: ").append(peakHeap).append(" bytes");
+		return sb.toString();
+	}
+
+	/**
+	 * Measurement of a phase (or share of a phase) executed by a single thread.
+	 * <p>
+	 * A probe must be stopped on the same thread it was started on.
+	 * </p>
+	 */
+	public class Probe {
+
+		/**
+		 * Initializes a new instance of <code>Probe</code> and takes the initial readings.
+		 * 
+		 * @param aPhase Name of the phase.
+		 * @param aWall Flag indicating if the elapsed time is to be added to the phase.
+		 */
+		Probe(String aPhase, boolean aWall) {
+			phase = aPhase;
+			wall = aWall;
+			startCpu = getThreadCpuTime();
+			startAllocated = getThreadAllocated();
+			startWall = System.nanoTime();
+		}
+
+		/**
+		 * Stops this probe and adds its measurements to the phase.
+		 */
+		public void stop() {
+			stop(0);
+		}
+
+		/**
+		 * Stops this probe and adds its measurements to the phase.
+		 * 
+		 * @param aEdges Number of edges traversed by this thread in the phase.
+		 */
+		public void stop(long aEdges) {
+			final long elapsed = wall ? System.nanoTime() - startWall : 0;
+			add(phase, elapsed, getThreadCpuTime() - startCpu, getThreadAllocated() - startAllocated, aEdges);
+			if (wall) {
+				sampleHeap();
+			}
+		}
+
+		/**
+		 * Name of the measured phase.
+		 */
+		private final String phase;
+
+		/**
+		 * Flag indicating if the elapsed time is to be added to the phase.
+		 */
+		private final boolean wall;
+
+		/**
+		 * Value of the monotonic clock, in nanoseconds, when the probe was started.
+		 */
+		private final long startWall;
+
+		/**
+		 * CPU time of the thread, in nanoseconds, when the probe was started.
+		 */
+		private final long startCpu;
+
+		/**
+		 * Number of bytes allocated by the thread when the probe was started.
+		 */
+		private final long startAllocated;
+	}
+
+	/**
+	 * Gets the CPU time of the current thread.
+	 * 
+	 * @return CPU time of the current thread, in nanoseconds; <code>0</code> if not supported.
+	 */
+	private static long getThreadCpuTime() {
+		if (THREADS.isCurrentThreadCpuTimeSupported()) {
+			final long time = THREADS.getCurrentThreadCpuTime();
+			return time > 0 ? time : 0;
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets the number of bytes allocated by the current thread.
+	 * <p>
+	 * Allocation measurement is an extension of the HotSpot virtual machine; it is accessed through
+	 * reflection in order not to depend on the <code>com.sun.management</code> package.
+	 * </p>
+	 * 
+	 * @return Number of bytes allocated by the current thread; <code>0</code> if not supported.
+	 */
+	private static long getThreadAllocated() {
+		if (ALLOCATED_METHOD != null) {
+			try {
+				final Object bytes = ALLOCATED_METHOD.invoke(THREADS, Long.valueOf(Thread.currentThread().getId()));
+				final long value = ((Long) bytes).longValue();
+				return value > 0 ? value : 0;
+			} catch (Exception ex) {
+				// Measurement not available
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Finds the HotSpot-specific method for measuring thread allocations.
+	 * 
+	 * @return The <code>getThreadAllocatedBytes(long)</code> method; <code>null</code> if the JVM does not
+	 *         support it.
+	 */
+	private static Method findAllocatedMethod() {
+		try {
+			final Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+			if (type.isInstance(THREADS)) {
+				return type.getMethod("getThreadAllocatedBytes", long.class);
+			}
+		} catch (Exception ex) {
+			// Measurement not available
+		} catch (LinkageError ex) {
+			// Measurement not available
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the value of a measurement of a phase.
+	 * 
+	 * @param aPhase Name of the phase.
+	 * @param aIndex Index of the measurement.
+	 * @return Value of the measurement; <code>0</code> if the phase was not measured.
+	 */
+	private synchronized long getValue(String aPhase, int aIndex) {
+		final long[] values = phases.get(aPhase);
+		return values != null ? values[aIndex] : 0;
+	}
+
+	/**
+	 * Management interface of the thread system of the JVM.
+	 */
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * HotSpot-specific method for measuring thread allocations; <code>null</code> if not supported.
+	 */
+	private static final Method ALLOCATED_METHOD = findAllocatedMethod();
+
+	/**
+	 * Index of the elapsed time in the arrays of measurements.
+	 */
+	private static final int WALL = 0;
+
+	/**
+	 * Index of the CPU time in the arrays of measurements.
+	 */
+	private static final int CPU = 1;
+
+	/**
+	 * Index of the number of allocated bytes in the arrays of measurements.
+	 */
+	private static final int ALLOCATED = 2;
+
+	/**
+	 * Index of the largest number of bytes allocated by a single thread in the arrays of measurements.
+	 */
+	private static final int PEAK_THREAD = 3;
+
+	/**
+	 * Index of the number of traversed edges in the arrays of measurements.
+	 */
+	private static final int EDGES = 4;
+
+	/**
+	 * Number of measurements stored for every phase.
+	 */
+	private static final int VALUE_COUNT = 5;
+
+	/**
+	 * Measurements of the phases in the form of (phase, measurements) map.
+	 */
+	private Map<String, long[]> phases;
+
+	/**
+	 * Peak heap usage observed, in bytes.
+	 */
+	private long peakHeap;
+}
@@ -0,0 +1,212 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyTable;
+
+/**
+ * Catalog of the numeric attributes written by NetworkAnalyzer, together with summaries of their values.
+ * <p>
+ * The summaries are recorded when the attributes are written to a network, so that the dialogs for mapping
+ * and plotting attributes do not need to scan the node and edge tables. A summary is returned only as long
+ * as it is consistent with the network: every node (or edge) received a value, the number of nodes (or
+ * edges) has not changed since, and the attribute still exists. Changes made to individual attribute values
+ * after the analysis are not detected. Networks are referenced weakly, so their catalogs do not prevent them
+ * from being garbage-collected.
+ * </p>
+ */
+public abstract class AttributeCatalog {
+
+	/**
+	 * Gets the summary of a node attribute.
+	 * 
+	 * @param aNetwork
+	 *            Network the attribute belongs to.
+	 * @param aColumn
+	 *            Name of the node attribute.
+	 * @return Summary of the values of the attribute in all nodes; <code>null</code> if no up-to-date summary
+	 *         was recorded for this attribute.
+	 */
+	public static AttributeSummary getNodeSummary(CyNetwork aNetwork, String aColumn) {
+		return getSummary(nodeSummaries, aNetwork, aNetwork.getDefaultNodeTable(), aColumn,
+				aNetwork.getNodeCount());
+	}
+
+	/**
+	 * Gets the summary of an edge attribute.
+	 * 
+	 * @param aNetwork
+	 *            Network the attribute belongs to.
+	 * @param aColumn
+	 *            Name of the edge attribute.
+	 * @return Summary of the values of the attribute in all edges; <code>null</code> if no up-to-date summary
+	 *         was recorded for this attribute.
+	 */
+	public static AttributeSummary getEdgeSummary(CyNetwork aNetwork, String aColumn) {
+		return getSummary(edgeSummaries, aNetwork, aNetwork.getDefaultEdgeTable(), aColumn,
+				aNetwork.getEdgeCount());
+	}
+
+	/**
+	 * Records the summary of a node attribute, replacing any previous summary of it.
+	 * 
+	 * @param aNetwork
+	 *            Network the attribute belongs to.
+	 * @param aColumn
+	 *            Name of the node attribute.
+	 * @param aSummary
+	 *            Summary of the values written to the attribute.
+	 */
+	public static void putNodeSummary(CyNetwork aNetwork, String aColumn, AttributeSummary aSummary) {
+		putSummary(nodeSummaries, aNetwork, aColumn, aSummary);
+	}
+
+	/**
+	 * Records the summary of an edge attribute, replacing any previous summary of it.
+	 * 
+	 * @param aNetwork
+	 *            Network the attribute belongs to.
+	 * @param aColumn
+	 *            Name of the edge attribute.
+	 * @param aSummary
+	 *            Summary of the values written to the attribute.
+	 */
+	public static void putEdgeSummary(CyNetwork aNetwork, String aColumn, AttributeSummary aSummary) {
+		putSummary(edgeSummaries, aNetwork, aColumn, aSummary);
+	}
+
+	/**
+	 * Records the summaries of the numeric columns of per-node results that are copied to a network.
+	 * <p>
+	 * This method takes time linear in the size of the results and does not access the node table.
+	 * </p>
+	 * 
+	 * @param aNetwork
+	 *            Network the results are copied to.
+	 * @param aResults
+	 *            Per-node results of an analysis of <code>aNetwork</code>.
+	 * @see NodeResults#copyTo(CyNetwork)
+	 */
+	public static void putNodeSummaries(CyNetwork aNetwork, NodeResults aResults) {
+		for (final String name : aResults.getColumnNames()) {
+			final byte type = aResults.getType(name);
+			if (type == NodeResults.TYPE_BOOLEAN) {
+				continue;
+			}
+			final byte[] states = aResults.getStates(name);
+			final Object values = aResults.getValues(name);
+			final AttributeSummary summary = new AttributeSummary(states.length);
+			for (int i = 0; i < states.length; ++i) {
+				if (states[i] == NodeResults.STATE_SET) {
+					if (type == NodeResults.TYPE_INT) {
+						summary.add(((int[]) values)[i]);
+					} else if (type == NodeResults.TYPE_LONG) {
+						summary.add(((long[]) values)[i]);
+					} else {
+						summary.add(((double[]) values)[i]);
+					}
+				}
+			}
+			putNodeSummary(aNetwork, name, summary);
+		}
+	}
+
+	/**
+	 * Gets an up-to-date summary from the given catalog.
+	 * 
+	 * @param aCatalog
+	 *            Catalog of node or edge attribute summaries.
+	 * @param aNetwork
+	 *            Network the attribute belongs to.
+	 * @param aTable
+	 *            Table of the attribute.
+	 * @param aColumn
+	 *            Name of the attribute.
+	 * @param aRowCount
+	 *            Current number of nodes or edges in <code>aNetwork</code>.
+	 * @return Summary of the attribute; <code>null</code> if no summary was recorded, or if it is incomplete
+	 *         or outdated.
+	 */
+	private static AttributeSummary getSummary(Map<CyNetwork, Map<String, AttributeSummary>> aCatalog,
+			CyNetwork aNetwork, CyTable aTable, String aColumn, int aRowCount) {
+		final AttributeSummary summary;
+		synchronized (aCatalog) {
+			final Map<String, AttributeSummary> summaries = aCatalog.get(aNetwork);
+			summary = summaries != null ? summaries.get(aColumn) : null;
+		}
+		if (summary == null || !summary.isComplete() || summary.getRowCount() != aRowCount) {
+			return null;
+		}
+		final CyColumn column = aTable.getColumn(aColumn);
+		if (column == null || !Number.class.isAssignableFrom(column.getType())) {
+			return null;
+		}
+		return summary;
+	}
+
+	/**
+	 * Records a summary in the given catalog.
+	 * 
+	 * @param aCatalog
+	 *            Catalog of node or edge attribute summaries.
+	 * @param aNetwork
+	 *            Network the attribute belongs to.
+	 * @param aColumn
+	 *            Name of the attribute.
+	 * @param aSummary
+	 *            Summary of the attribute.
+	 */
+	private static void putSummary(Map<CyNetwork, Map<String, AttributeSummary>> aCatalog,
+			CyNetwork aNetwork, String aColumn, AttributeSummary aSummary) {
+		synchronized (aCatalog) {
+			Map<String, AttributeSummary> summaries = aCatalog.get(aNetwork);
+			if (summaries == null) {
+				summaries = new HashMap<String, AttributeSummary>();
+				aCatalog.put(aNetwork, summaries);
+			}
+			summaries.put(aColumn, aSummary);
+		}
+	}
+
+	/**
+	 * Summaries of the node attributes of every network.
+	 */
+	private static final Map<CyNetwork, Map<String, AttributeSummary>> nodeSummaries =
+			new WeakHashMap<CyNetwork, Map<String, AttributeSummary>>();
+
+	/**
+	 * Summaries of the edge attributes of every network.
+	 */
+	private static final Map<CyNetwork, Map<String, AttributeSummary>> edgeSummaries =
+			new WeakHashMap<CyNetwork, Map<String, AttributeSummary>>();
+}
@@ -0,0 +1,180 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Summary of the values of a numeric node or edge attribute, recorded when the attribute is written.
+ * <p>
+ * The summary stores the number of rows that received a value, as well as the minimum, the maximum and the
+ * mean of the values. The quantiles of the values are estimated by a {@link QuantileSketch}, provided that
+ * none of the values is negative. <code>NaN</code> values count as set but are otherwise ignored.
+ * </p>
+ */
+public class AttributeSummary {
+
+	/**
+	 * Initializes a new instance of <code>AttributeSummary</code> with no values.
+	 * 
+	 * @param aRowCount
+	 *            Number of rows in the table of the attribute.
+	 */
+	public AttributeSummary(int aRowCount) {
+		rowCount = aRowCount;
+		setCount = 0;
+		count = 0;
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+		sum = 0;
+		sketch = new QuantileSketch();
+	}
+
+	/**
+	 * Adds a value written to a row.
+	 * 
+	 * @param aValue
+	 *            Value of the attribute in the row.
+	 */
+	public void add(double aValue) {
+		setCount++;
+		if (Double.isNaN(aValue)) {
+			return;
+		}
+		count++;
+		sum += aValue;
+		if (aValue < min) {
+			min = aValue;
+		}
+		if (aValue > max) {
+			max = aValue;
+		}
+		if (sketch != null) {
+			if (aValue >= 0) {
+				sketch.add(aValue);
+			} else {
+				sketch = null;
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of rows in the table of the attribute.
+	 * 
+	 * @return Number of rows the summary was created for.
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Checks if every row received a value.
+	 * 
+	 * @return <code>true</code> if a value was added for every row; <code>false</code> otherwise.
+	 */
+	public boolean isComplete() {
+		return setCount == rowCount;
+	}
+
+	/**
+	 * Gets the minimum of the values.
+	 * 
+	 * @return Smallest value that is not <code>NaN</code>; <code>Double.NaN</code> if there are no such
+	 *         values.
+	 */
+	public double getMin() {
+		return count != 0 ? min : Double.NaN;
+	}
+
+	/**
+	 * Gets the maximum of the values.
+	 * 
+	 * @return Largest value that is not <code>NaN</code>; <code>Double.NaN</code> if there are no such
+	 *         values.
+	 */
+	public double getMax() {
+		return count != 0 ? max : Double.NaN;
+	}
+
+	/**
+	 * Gets the mean of the values.
+	 * 
+	 * @return Mean of the values that are not <code>NaN</code>; <code>Double.NaN</code> if there are no
+	 *         such values.
+	 */
+	public double getMean() {
+		return count != 0 ? sum / count : Double.NaN;
+	}
+
+	/**
+	 * Estimates a quantile of the values.
+	 * 
+	 * @param aQuantile
+	 *            Quantile to be estimated, in the range [<code>0</code>, <code>1</code>].
+	 * @return Estimated value of the quantile; <code>Double.NaN</code> if there are no values or if some of
+	 *         the values are negative.
+	 * @throws IllegalArgumentException
+	 *             If <code>aQuantile</code> is not in the range [<code>0</code>, <code>1</code>].
+	 * @see QuantileSketch#getQuantile(double)
+	 */
+	public double getQuantile(double aQuantile) {
+		return sketch != null && count != 0 ? sketch.getQuantile(aQuantile) : Double.NaN;
+	}
+
+	/**
+	 * Number of rows in the table of the attribute.
+	 */
+	private final int rowCount;
+
+	/**
+	 * Number of rows that received a value.
+	 */
+	private int setCount;
+
+	/**
+	 * Number of values that are not <code>NaN</code>.
+	 */
+	private long count;
+
+	/**
+	 * Smallest value added.
+	 */
+	private double min;
+
+	/**
+	 * Largest value added.
+	 */
+	private double max;
+
+	/**
+	 * Sum of the values added.
+	 */
+	private double sum;
+
+	/**
+	 * Sketch of the distribution of the values; <code>null</code> if a negative value was added.
+	 */
+	private QuantileSketch sketch;
+}
@@ -26,8 +26,10 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.data;
  * #L%
  */
 
-import java.io.FileWriter;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.LineReader;
 
@@ -35,8 +37,8 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.LineReader;
  * Interface implemented by all types of complex parameters.
  * <p>
  * Complex network parameters are immutable collections of numbers. This interface specifies how the
- * parameters are saved to and loaded from text files. Methods for accessing the underlying data are
- * specific for every parameter and are not declared in this interface.
+ * parameters are saved to and loaded from text files and binary files. Methods for accessing the underlying
+ * data are specific for every parameter and are not declared in this interface.
  * </p>
  * 
  * @author Yassen Assenov
@@ -61,6 +63,12 @@ public interface ComplexParam {
 	 */
 	public static final Class<?>[] loadParams = new Class[] { String[].class, LineReader.class };
 
+	/**
+	 * Parameter types of the constructors that read a complex parameter from binary data. Every implementing
+	 * class provides such a constructor, which calls {@link #read(ByteBuffer)}.
+	 */
+	public static final Class<?>[] readParams = new Class[] { ByteBuffer.class };
+
 	/**
 	 * Loads the data of the parameter from the given stream.
 	 * 
@@ -76,13 +84,35 @@ public interface ComplexParam {
 	public void load(String[] aArgs, LineReader aReader) throws IOException;
 
 	/**
-	 * Saves the data of the parameter in the given file.
+	 * Saves the data of the parameter in the given text stream.
 	 * 
-	 * @param aWriter Writer to a text stream. The writer must be open.
+	 * @param aWriter Writer to a text stream. The writer must be open. The data is written value by value,
+	 *        therefore the writer should be buffered.
 	 * @param aSaveArgs Flag indicating if type arguments must also be saved. Setting this parameter
 	 *        to <code>true</code> enables reconstruction of the complex parameter from the stream
 	 *        using the {@link #load(String[], LineReader)} method.
 	 * @throws IOException If I/O error occurs.
 	 */
-	public void save(FileWriter aWriter, boolean aSaveArgs) throws IOException;
+	public void save(Writer aWriter, boolean aSaveArgs) throws IOException;
+
+	/**
+	 * Reads the data of the parameter from the given buffer.
+	 * 
+	 * @param aBuffer Buffer positioned at the data written by {@link #write(DataOutputStream)}. The position
+	 *        of the buffer is advanced past the data of this parameter.
+	 * @throws java.nio.BufferUnderflowException If the buffer does not contain enough data.
+	 * @throws IllegalArgumentException If the buffer contains invalid data.
+	 */
+	public void read(ByteBuffer aBuffer);
+
+	/**
+	 * Writes the data of the parameter in a compact binary form.
+	 * <p>
+	 * The data is written column by column, such that it can be read back with bulk operations.
+	 * </p>
+	 * 
+	 * @param aOut Stream (open for writing) to write the data to.
+	 * @throws IOException If I/O error occurs.
+	 */
+	public void write(DataOutputStream aOut) throws IOException;
 }
@@ -0,0 +1,67 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+
+/**
+ * Placeholder for a complex parameter whose data is loaded on first access.
+ * <p>
+ * Instances of this class can be stored in {@link NetworkStats} in place of the complex parameter they
+ * stand for. The parameter is loaded at most once.
+ * </p>
+ */
+public abstract class DeferredParam {
+
+	/**
+	 * Gets the complex parameter, loading it if necessary.
+	 * 
+	 * @return The loaded complex parameter.
+	 * @throws IOException
+	 *             If the parameter could not be loaded.
+	 */
+	public synchronized ComplexParam get() throws IOException {
+		if (param == null) {
+			param = load();
+		}
+		return param;
+	}
+
+	/**
+	 * Loads the complex parameter.
+	 * 
+	 * @return The loaded complex parameter.
+	 * @throws IOException
+	 *             If I/O error occurs or the data of the parameter is invalid.
+	 */
+	protected abstract ComplexParam load() throws IOException;
+
+	/**
+	 * Complex parameter; <code>null</code> if not loaded yet.
+	 */
+	private ComplexParam param;
+}
@@ -95,6 +95,30 @@ public class DegreeDistribution {
 		distribution[aDegree]++;
 	}
 
+	/**
+	 * Adds all observations of the given distribution to this distribution.
+	 * <p>
+	 * This method allows every worker thread to record the degrees of its nodes in a distribution of its own
+	 * and to combine it with the distribution of the whole network when it finishes. The merge takes time
+	 * linear in the maximum degree of <code>aOther</code>.
+	 * </p>
+	 * 
+	 * @param aOther Distribution whose observations are to be added.
+	 * @throws NullPointerException If <code>aOther</code> is <code>null</code>.
+	 */
+	public void merge(DegreeDistribution aOther) {
+		final int otherMax = aOther.maxDegree;
+		if (otherMax >= distribution.length) {
+			ensureCapacity(otherMax + 1);
+		}
+		if (maxDegree < otherMax) {
+			maxDegree = otherMax;
+		}
+		for (int i = 0; i <= otherMax; ++i) {
+			distribution[i] += aOther.distribution[i];
+		}
+	}
+
 	/**
 	 * Enlarges the size of {@link #distribution}, if necessary, to be at least the specified capacity.
 	 * 
@@ -26,9 +26,13 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.data;
  * #L%
  */
 
-import java.io.FileWriter;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.BinaryStatsSerializer;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.LineReader;
 
 /**
@@ -65,6 +69,17 @@ public class IntHistogram implements ComplexParam {
 		load(aArgs, aReader);
 	}
 
+	/**
+	 * Initializes a new instance of <code>IntHistogram</code> by reading it from the given buffer.
+	 * 
+	 * @param aBuffer Buffer positioned at the binary data of the histogram.
+	 * @see #read(ByteBuffer)
+	 * @see ComplexParam#read(ByteBuffer)
+	 */
+	public IntHistogram(ByteBuffer aBuffer) {
+		read(aBuffer);
+	}
+
 	/**
 	 * Initializes a new instance of <code>IntHistogram</code> as a subset of the given histogram.
 	 * 
@@ -81,15 +96,11 @@ public class IntHistogram implements ComplexParam {
 	 *         </ul>
 	 */
 	public IntHistogram(int[][] aBins, int aFromIndex, int aToIndex) {
-		if (aBins[0].length != aBins[1].length || aFromIndex > aToIndex) {
+		if (aBins[0].length != aBins[1].length || aFromIndex > aToIndex || aToIndex >= aBins[0].length) {
 			throw new ArrayIndexOutOfBoundsException();
 		}
-		final int binCount = aToIndex - aFromIndex + 1;
-		bins = new int[2][binCount];
-		for (int i = 0; i < binCount; ++i) {
-			bins[0][i] = aBins[0][i + aFromIndex];
-			bins[1][i] = aBins[1][i + aFromIndex];
-		}
+		bins = new int[][] { Arrays.copyOfRange(aBins[0], aFromIndex, aToIndex + 1),
+				Arrays.copyOfRange(aBins[1], aFromIndex, aToIndex + 1) };
 	}
 
 	/**
@@ -120,6 +131,15 @@ public class IntHistogram implements ComplexParam {
 		}
 	}
 
+	/**
+	 * Initializes a new instance of <code>IntHistogram</code> with the given bins.
+	 * 
+	 * @param aBins Bins of the histogram in the form of a table of two rows. The array is not copied.
+	 */
+	private IntHistogram(int[][] aBins) {
+		bins = aBins;
+	}
+
 	/**
 	 * Gets the number of bins in this histogram.
 	 * 
@@ -149,6 +169,43 @@ public class IntHistogram implements ComplexParam {
 		return bins;
 	}
 
+	/**
+	 * Creates a histogram that combines the observations of this histogram with the observations of the given
+	 * one.
+	 * <p>
+	 * The bins of both histograms must be sorted by their values, as is the case for all histograms created by
+	 * NetworkAnalyzer. The merge takes time linear in the total number of bins.
+	 * </p>
+	 * 
+	 * @param aOther Histogram to be merged with this one.
+	 * @return Newly created histogram containing the bins of both histograms; the counts of bins with equal
+	 *         values are summed. The histogram is empty if both histograms are empty.
+	 * @throws NullPointerException If <code>aOther</code> is <code>null</code>.
+	 */
+	public IntHistogram merge(IntHistogram aOther) {
+		final int[][] other = aOther.bins;
+		final int count1 = bins[0].length;
+		final int count2 = other[0].length;
+		final int[][] merged = new int[2][count1 + count2];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < count1 || j < count2) {
+			if (j == count2 || (i < count1 && bins[0][i] < other[0][j])) {
+				merged[0][k] = bins[0][i];
+				merged[1][k] = bins[1][i++];
+			} else if (i == count1 || other[0][j] < bins[0][i]) {
+				merged[0][k] = other[0][j];
+				merged[1][k] = other[1][j++];
+			} else {
+				merged[0][k] = bins[0][i];
+				merged[1][k] = bins[1][i++] + other[1][j++];
+			}
+			k++;
+		}
+		return new IntHistogram(new int[][] { Arrays.copyOf(merged[0], k), Arrays.copyOf(merged[1], k) });
+	}
+
 	/**
 	 * Loads the data of the histogram from the given stream.
 	 * 
@@ -176,16 +233,44 @@ public class IntHistogram implements ComplexParam {
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam#save(java.io.FileWriter)
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam#save(java.io.Writer, boolean)
 	 */
-	public void save(FileWriter aWriter, boolean aSaveArgs) throws IOException {
+	public void save(Writer aWriter, boolean aSaveArgs) throws IOException {
 		final int binCount = bins[0].length;
 		if (aSaveArgs) {
-			aWriter.write(String.valueOf(binCount) + "\n");
+			aWriter.write(String.valueOf(binCount));
+			aWriter.write('\n');
 		}
 		for (int i = 0; i < binCount; ++i) {
-			aWriter.write(String.valueOf(bins[0][i]) + SEP + String.valueOf(bins[1][i]) + "\n");
+			aWriter.write(String.valueOf(bins[0][i]));
+			aWriter.write(SEP);
+			aWriter.write(String.valueOf(bins[1][i]));
+			aWriter.write('\n');
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam#read(java.nio.ByteBuffer)
+	 */
+	public void read(ByteBuffer aBuffer) {
+		final int[] values = BinaryStatsSerializer.readInts(aBuffer);
+		final int[] counts = BinaryStatsSerializer.readInts(aBuffer);
+		if (values.length != counts.length) {
+			throw new IllegalArgumentException();
 		}
+		bins = new int[][] { values, counts };
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam#write(java.io.DataOutputStream)
+	 */
+	public void write(DataOutputStream aOut) throws IOException {
+		BinaryStatsSerializer.writeInts(aOut, bins[0]);
+		BinaryStatsSerializer.writeInts(aOut, bins[1]);
 	}
 
 	/**
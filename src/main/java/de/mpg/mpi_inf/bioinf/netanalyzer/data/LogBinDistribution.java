@@ -26,8 +26,6 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.data;
  * #L%
  */
 
-import java.awt.geom.Point2D;
-
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.charts.MyLogarithmicAxis;
 
 /**
@@ -79,11 +77,13 @@ public class LogBinDistribution {
 	 */
 	public Points2D createPoints2D() {
 		final int size = getBinIndex(maxObservation) + 1;
-		final Point2D.Double[] points = new Point2D.Double[size];
+		final double[] xs = new double[size];
+		final double[] ys = new double[size];
 		for (int i = 0; i < size; ++i) {
-			points[i] = new Point2D.Double(bins[0][i], bins[1][i]);
+			xs[i] = bins[0][i];
+			ys[i] = bins[1][i];
 		}
-		return new Points2D(points);
+		return new Points2D(xs, ys);
 	}
 
 	/**
@@ -102,6 +102,30 @@ public class LogBinDistribution {
 		bins[1][binIndex]++;
 	}
 
+	/**
+	 * Adds all observations of the given distribution to this distribution.
+	 * <p>
+	 * This method allows every worker thread to record its observations in a distribution of its own and to
+	 * combine it with the distribution of the whole network when it finishes. The merge takes time linear in
+	 * the number of bins of <code>aOther</code>.
+	 * </p>
+	 * 
+	 * @param aOther Distribution whose observations are to be added.
+	 * @throws NullPointerException If <code>aOther</code> is <code>null</code>.
+	 */
+	public void merge(LogBinDistribution aOther) {
+		final int binCount = getBinIndex(aOther.maxObservation) + 1;
+		if (binCount > bins[0].length) {
+			ensureCapacity(binCount);
+		}
+		if (maxObservation < aOther.maxObservation) {
+			maxObservation = aOther.maxObservation;
+		}
+		for (int i = 0; i < binCount; ++i) {
+			bins[1][i] += aOther.bins[1][i];
+		}
+	}
+
 	/**
 	 * Enlarges the size of {@link #bins}, if necessary, to be at least the specified capacity.
 	 * 
@@ -126,12 +150,40 @@ public class LogBinDistribution {
 
 	/**
 	 * Gets the bin to which the given value should be assigned.
+	 * <p>
+	 * The index is computed by comparing <code>aObservation</code> with the exact powers of
+	 * {@link #LOGBASE}, and not with the help of logarithms, as these give wrong results for some powers of
+	 * the base due to rounding errors.
+	 * </p>
 	 * 
 	 * @param aObservation Value to be assigned to a bin.
 	 * @return Zero-based index of the bin to which <code>aObservation</code> belongs.
 	 */
 	private static int getBinIndex(long aObservation) {
-		return aObservation != 0 ? (int) (Math.log(aObservation) / Math.log(LOGBASE)) + 1 : 0;
+		int index = 0;
+		while (index < POWERS.length && POWERS[index] <= aObservation) {
+			index++;
+		}
+		return index;
+	}
+
+	/**
+	 * Computes all powers of {@link #LOGBASE} that can be represented as <code>long</code> values.
+	 * 
+	 * @return Array of the powers of {@link #LOGBASE}, starting with <code>1</code>.
+	 */
+	private static long[] computePowers() {
+		final long base = (long) LOGBASE;
+		int count = 1;
+		for (long power = 1; power <= Long.MAX_VALUE / base; power *= base) {
+			count++;
+		}
+		final long[] powers = new long[count];
+		powers[0] = 1;
+		for (int i = 1; i < count; ++i) {
+			powers[i] = powers[i - 1] * base;
+		}
+		return powers;
 	}
 
 	/**
@@ -144,6 +196,11 @@ public class LogBinDistribution {
 	 */
 	private static final double LOGBASE = MyLogarithmicAxis.LOGBASE;
 
+	/**
+	 * Left ends of the bins with index <code>1</code> and higher, that is, the powers of {@link #LOGBASE}.
+	 */
+	private static final long[] POWERS = computePowers();
+
 	/**
 	 * Bins in an long distribution in the form of two arrays. The <code>i</code>-th element of the
 	 * first array contains the left end of the <code>i</code>-th bin: <code>0</code> for
@@ -88,6 +88,8 @@ public abstract class Messages {
 		simpleParams.put("nsl", "Number of self-loops");
 		simpleParams.put("mnp", "Multi-edge node pairs");
 		simpleParams.put("usn", "Isolated nodes");
+		simpleParams.put("pathSampling", "Path sources sampled");
+		simpleParams.put("avSplError", "Char. path length error (95%)");
 
 		nodeAttributes = new HashMap<String, String>(32);
 		nodeAttributes.put("spl", "Eccentricity");
@@ -158,6 +160,8 @@ public abstract class Messages {
 
 	public static String DT_BATCHANALYSIS = "Batch Analysis";
 
+	public static String DT_BATCHINDEX = "Batch Analysis - Compare Results";
+
 	public static String DT_BATCHRESULTS = "Batch Analysis - Results";
 
 	public static String DT_BATCHSETTINGS = "Select Directories";
@@ -178,6 +182,8 @@ public abstract class Messages {
 
 	public static String DT_FITTED = "NetworkAnalyzer - Fitted Function";
 
+	public static String DT_FITTING = "Estimating goodness of fit - please wait...";
+
 	public static String DT_GUIERROR = "NetworkAnalyzer - Error";
 
 	public static String DT_INFO = "NetworkAnalyzer - Information";
@@ -222,6 +228,12 @@ public abstract class Messages {
 			"Please make sure you have selected an existing empty directory<br>"
 					+ "for which NetworkAnalyzer has write permissions.");
 
+	public static String SM_BADRANGE = "Please enter numbers as the bounds of the range.";
+
+	public static String SM_BADSHARD = "Invalid shard in the settings; all sources are analyzed.";
+
+	public static String SM_CHARTSNOTSAVED = "  ERROR: Could not save charts to files.";
+
 	public static String SM_CHOOSEINTERPR = "Please choose an interpretation for the edges.";
 
 	public static String SM_CLOSEWARN = "<html>You have not saved the network statistics. " +
@@ -238,6 +250,10 @@ public abstract class Messages {
 
 	public static String SM_DONE = "done";
 
+	public static String SM_ESTIMATED = " (estimated)";
+
+	public static String SM_EXACT = "all nodes (exact)";
+
 	public static String SM_FILEEXISTS = "<html>The specified file already exists.<br>Overwrite?";
 
 	public static String SM_FITLINE = "<html>A line in the form <b><font face=Monospaced>y = a + bx</font></b> was fitted.</html>";
@@ -252,12 +268,16 @@ public abstract class Messages {
 
 	public static String SM_FITPLERROR = "Could not fit power law to the points.";
 
+	public static String SM_FITPLML = "<html>A discrete power law of the form <b><font face=Monospaced>y = ax<sup>b</sup></font></b> was fitted by maximum likelihood.</html>";
+
 	public static String SM_FITPLNODATA = "There are not enough data points to fit a power law.";
 
 	public static String SM_GUIERROR = "An error occurred while initializing the window.";
 
 	public static String SM_IERROR = "An error occurred while opening or reading from the file.";
 
+	public static String SM_INDEXHINT = "Click on a column header to sort. Double-click on a row to open its network statistics.";
+
 	public static String SM_NOINPUTFILES = "No network files found in the specified input directory.";
 
 	public static String SM_INTERNALERROR = "Internal error occurred during computation.";
@@ -285,12 +305,16 @@ public abstract class Messages {
 
 	public static String SM_NETWORKNOTOPENED = "Could not load network from file.";
 
+	public static String SM_NOINDEX = "No results index was found in the output directory.";
+
 	public static String SM_OERROR = "An error occurred while creating or writing to the file.";
 
 	public static String SM_OUTPUTIOERROR = "Could not save network statistics file.";
 
 	public static String SM_OUTPUTNOTCREATED = "Could not write to output directory.";
 
+	public static String SM_PARTIALRESULTS = "<html><i>Analysis in progress - results are incomplete.</i></html>";
+
 	public static String SM_READERROR = "\n  ERROR: Could not create network from network file!\n";
 
 	public static String SM_REMDUPEDGES = " duplicated edge(s) removed from ";
@@ -299,6 +323,8 @@ public abstract class Messages {
 
 	public static String SM_REMSELFLOOPS = " self-loop(s) removed from ";
 
+	public static String SM_RESULTSEXIST = "  Results already present in network statistics file.";
+
 	public static String SM_RESULTSSAVED = "  Results saved to network statistics file.";
 
 	public static String SM_RUNNETWORKANALYZER = constructLabel(
@@ -323,8 +349,12 @@ public abstract class Messages {
 
 	public static String SM_SELECTONENET = "Please select a single network from the list of loaded networks.";
 
+	public static String SM_SHARDSAVED = "  Shard saved to checkpoint file for merging.";
+
 	public static String SM_VISUALIZEERROR = "Parameters cannot be visualized because the network was modified or deleted.";
 
+	public static String SM_UNCHANGED = "unchanged, previous results kept";
+
 	public static String SM_UNKNOWNERROR = "Unknown error occurred.";
 
 	public static String SM_UNLOADING = "Unloading ";
@@ -387,10 +417,16 @@ public abstract class Messages {
 
 	public static String DI_AXES = "Axes";
 
+	public static String DI_BROWSERESULTS = "Compare Results";
+
 	public static String DI_CANCEL = "Cancel";
 
+	public static String DI_CHARTFAILED = "<html><i>The chart could not be created.</i></html>";
+
 	public static String DI_CHARTSETTINGS = "Chart Settings";
 
+	public static String DI_CREATINGCHART = "<html><i>Creating chart...</i></html>";
+
 	public static String DI_CCOF = "Connected Components of ";
 
 	public static String DI_CDIFF = "Compute Differences";
@@ -417,12 +453,18 @@ public abstract class Messages {
 
 	public static String DI_EXTRCOMPLONG = "Extract the selected connected component into a new network named:";
 
+	public static String DI_FILTER = "Filter";
+
 	public static String DI_FILTERDATA = "Change Range";
 
+	public static String DI_FILTERPARAM = "Parameter:";
+
 	public static String DI_FITLINE = "Fit Line";
 
 	public static String DI_FITPL = "Fit Power Law";
 
+	public static String DI_FITPLML = "Fit Power Law (MLE)";
+
 	public static String DI_GENERAL = "General";
 
 	public static String DI_GRID = "Gridlines";
@@ -467,6 +509,10 @@ public abstract class Messages {
 
 	public static String DI_MAPTYPE = "Mapping Type:";
 
+	public static String DI_MAXVALUE = "Max:";
+
+	public static String DI_MINVALUE = "Min:";
+
 	public static String DI_NETFILE = "Network";
 
 	public static String DI_NETSTATSFILE = "Network Statistics File";
@@ -481,6 +527,8 @@ public abstract class Messages {
 
 	public static String DI_OUTPUTDIR = "Output Directory:";
 
+	public static String DI_PERCENTILES = "Percentiles:";
+
 	public static String DI_PIXELS = "pixels";
 
 	public static String DI_PLOT1 = "Plot node table data of ";
@@ -497,10 +545,14 @@ public abstract class Messages {
 
 	public static String DI_REMOVEPL = "Remove Power Law";
 
+	public static String DI_REMOVEPLML = "Remove Power Law (MLE)";
+
 	public static String DI_REMOVESL = "Remove self-loops from the following networks:";
 
 	public static String DI_RESULTS = "Show Results";
 
+	public static String DI_RESUME = "Resume previous analysis in output directory";
+
 	public static String DI_RSQUARED = "R-squared:";
 
 	public static String DI_SAVE = "Save";
@@ -519,6 +571,8 @@ public abstract class Messages {
 
 	public static String DI_SENDREPORT = "Send Report";
 
+	public static String DI_SHOWALL = "Show All";
+
 	public static String DI_SHOWHIST = "Display as Histogram";
 
 	public static String DI_SHOWSCAT = "Display as Scatter Plot";
@@ -645,6 +699,12 @@ public abstract class Messages {
 
 	public static String TT_CLICK2HIDE = "Click to hide";
 
+	public static String TT_DIAMETERBOUND = "<html>Largest eccentricity of the sampled source nodes.<br>"
+			+ "The diameter of the network may be larger.</html>";
+
+	public static String TT_ESTIMATED = "<html>Shortest path lengths, closeness, betweenness and stress<br>"
+			+ "were computed from a random sample of source nodes within the time budget.</html>";
+
 	public static String TT_FILTERDATA = "Display part of the data in the chart";
 
 	public static String TT_FITLINE = "<html>Fit a line.</html>";
@@ -653,6 +713,8 @@ public abstract class Messages {
 
 	public static String TT_FITPL = "<html>Fit a law of the form y = ax<sup>b</sup>.</html>";
 
+	public static String TT_FITPLML = "<html>Fit a discrete power law to the tail of the distribution by maximum likelihood.</html>";
+
 	public static String TT_GENSETTINGS = "General Settings";
 
 	public static String TT_GRIDSETTINGS = "Gridlines-related Settings";
@@ -663,6 +725,9 @@ public abstract class Messages {
 
 	public static String TT_ONLHELP = "Visit the online help of NetworkAnalyzer";
 
+	public static String TT_RADIUSBOUND = "<html>Smallest eccentricity of the sampled source nodes.<br>"
+			+ "The radius of the network may be smaller.</html>";
+
 	public static String TT_REMOVEFILTER = "Display the whole data in the chart";
 
 	public static String TT_SAVECHART = "Save the chart as an image";
@@ -26,6 +26,8 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.data;
  * #L%
  */
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -68,7 +70,24 @@ public class NetworkStats {
 		"usn",
 		"nsl",
 		"mnp",
-		"time"
+		"time",
+		"pathSampling",
+		"avSplError"
+	};
+
+	/**
+	 * List of IDs for simple parameters that are computed from the shortest paths between nodes.
+	 * <p>
+	 * In a time-limited analysis, these parameters are estimated from a sample of source nodes. The
+	 * diameter and the radius are then bounds, as they are computed from the eccentricities of the sampled
+	 * nodes only.
+	 * </p>
+	 */
+	public static final String[] sampledParams = new String[] {
+		"diameter",
+		"radius",
+		"connPairs",
+		"avSpl"
 	};
 
 	/**
@@ -92,7 +111,11 @@ public class NetworkStats {
 		"outNeighborConn",   // directed
 		"nodeBetween",		 // undirected
 		"closenessCent",	 // undirected
-		"stressDist" 		 // undirected
+		"stressDist", 		 // undirected
+		"betweennessQuantiles",
+		"closenessQuantiles",
+		"stressQuantiles",
+		"clusteringQuantiles"
 	};
 
 	/**
@@ -115,6 +138,21 @@ public class NetworkStats {
 		network = aNetwork;
 	}
 
+	/**
+	 * Initializes a new instance of <code>NetworkStats</code> as a copy of the given statistics.
+	 * <p>
+	 * The parameter values are not cloned, i.e. both instances share the same values.
+	 * </p>
+	 *
+	 * @param aStats Statistics to be copied.
+	 */
+	public NetworkStats(NetworkStats aStats) {
+		params = new HashMap<String, Object>(aStats.params);
+		network = aStats.network;
+		partial = aStats.partial;
+		timing = aStats.timing;
+	}
+
 	/**
 	 * Checks if the specified parameter is computed.
 	 *
@@ -128,12 +166,24 @@ public class NetworkStats {
 
 	/**
 	 * Gets the value of the specified parameter.
+	 * <p>
+	 * Complex parameters stored as {@link DeferredParam}s are loaded by this method.
+	 * </p>
 	 *
 	 * @param aParam ID of the parameter to get.
 	 * @return Instance of parameter's value; <code>null</code> if such a parameter is not stored.
+	 * @throws UncheckedIOException If a deferred complex parameter could not be loaded.
 	 */
 	public Object get(String aParam) {
-		return params.get(aParam);
+		final Object value = params.get(aParam);
+		if (value instanceof DeferredParam) {
+			try {
+				return ((DeferredParam) value).get();
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+		return value;
 	}
 
 	/**
@@ -143,9 +193,10 @@ public class NetworkStats {
 	 * @return Parameter's value as a <code>ComplexParam</code>.
 	 * @throws ClassCastException If the specified parameter is simple.
 	 * @throws NullPointerException If the specified parameter does not exist.
+	 * @throws UncheckedIOException If a deferred complex parameter could not be loaded.
 	 */
 	public ComplexParam getComplex(String aParam) {
-		return (ComplexParam) params.get(aParam);
+		return (ComplexParam) get(aParam);
 	}
 
 	/**
@@ -190,6 +241,64 @@ public class NetworkStats {
 		return ((Long) params.get(aParam)).longValue();
 	}
 
+	/**
+	 * Checks if this instance contains partial results.
+	 *
+	 * @return <code>true</code> if this instance is a snapshot of an analysis that is still running;
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isPartial() {
+		return partial;
+	}
+
+	/**
+	 * Checks if the specified parameter is an estimate.
+	 *
+	 * @param aParam ID of parameter.
+	 * @return <code>true</code> if the parameter with the specified ID is one of the {@link #sampledParams}
+	 *         and was computed from a sample of the source nodes only; <code>false</code> otherwise.
+	 */
+	public boolean isEstimate(String aParam) {
+		final Object sampling = params.get("pathSampling");
+		if (!(sampling instanceof Double) || ((Double) sampling).doubleValue() >= 1.0) {
+			return false;
+		}
+		for (final String param : sampledParams) {
+			if (param.equals(aParam)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Marks this instance as containing partial results.
+	 *
+	 * @param aPartial Flag indicating if the parameters are a snapshot of an analysis that is still
+	 *        running.
+	 */
+	public void setPartial(boolean aPartial) {
+		partial = aPartial;
+	}
+
+	/**
+	 * Gets the per-phase timing of the analysis.
+	 *
+	 * @return Timing measurements of the analysis; <code>null</code> if no measurements are available.
+	 */
+	public AnalysisTiming getTiming() {
+		return timing;
+	}
+
+	/**
+	 * Sets the per-phase timing of the analysis.
+	 *
+	 * @param aTiming Timing measurements of the analysis.
+	 */
+	public void setTiming(AnalysisTiming aTiming) {
+		timing = aTiming;
+	}
+
 	/**
 	 * Gets the title of the analyzed network.
 	 *
@@ -212,7 +321,8 @@ public class NetworkStats {
 	 * Sets the value of the specified simple parameter.
 	 * 
 	 * @param aParam ID of the parameter to get.
-	 * @param aValue Instance of parameter's value.
+	 * @param aValue Instance of parameter's value. Complex parameters can also be given as
+	 *        {@link DeferredParam}s.
 	 */
 	public void set(String aParam, Object aValue) {
 		params.put(aParam, aValue);
@@ -293,4 +403,14 @@ public class NetworkStats {
 	 * Unique network id. Needed for parameter visualization.
 	 */
 	private CyNetwork network; 
+
+	/**
+	 * Flag indicating if this instance is a snapshot of an analysis that is still running.
+	 */
+	private boolean partial;
+
+	/**
+	 * Per-phase timing of the analysis; <code>null</code> if not available.
+	 */
+	private AnalysisTiming timing;
 }
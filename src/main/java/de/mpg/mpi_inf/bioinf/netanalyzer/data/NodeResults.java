@@ -0,0 +1,563 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+
+/**
+ * Per-node results of an analysis, stored column by column.
+ * <p>
+ * The SUIDs and names of the nodes are stored once, and every column holds the values of one node attribute
+ * in a primitive array indexed by node. Values of different nodes can be set concurrently by multiple
+ * threads. The results can be copied to the attributes of the network after the analysis, or exported
+ * without going through the node table.
+ * </p>
+ */
+public class NodeResults {
+
+	/**
+	 * Type of columns storing <code>int</code> values.
+	 */
+	public static final byte TYPE_INT = 0;
+
+	/**
+	 * Type of columns storing <code>long</code> values.
+	 */
+	public static final byte TYPE_LONG = 1;
+
+	/**
+	 * Type of columns storing <code>double</code> values.
+	 */
+	public static final byte TYPE_DOUBLE = 2;
+
+	/**
+	 * Type of columns storing <code>boolean</code> values.
+	 */
+	public static final byte TYPE_BOOLEAN = 3;
+
+	/**
+	 * State of a value that has not been set.
+	 */
+	public static final byte STATE_UNSET = 0;
+
+	/**
+	 * State of a value that has been set.
+	 */
+	public static final byte STATE_SET = 1;
+
+	/**
+	 * State of a value that has been cleared; the attribute of the node is removed when the results are
+	 * copied to the network.
+	 */
+	public static final byte STATE_CLEARED = 2;
+
+	/**
+	 * Initializes a new instance of <code>NodeResults</code> for all nodes of the given network.
+	 * 
+	 * @param aNetwork
+	 *            Network whose node results are to be stored.
+	 */
+	public NodeResults(CyNetwork aNetwork) {
+		final List<CyNode> nodeList = aNetwork.getNodeList();
+		final int count = nodeList.size();
+		suids = new long[count];
+		names = new String[count];
+		nodes = nodeList.toArray(new CyNode[count]);
+		indices = new HashMap<CyNode, Integer>(count * 4 / 3 + 1);
+		for (int i = 0; i < count; ++i) {
+			suids[i] = nodes[i].getSUID().longValue();
+			names[i] = aNetwork.getRow(nodes[i]).get(CyNetwork.NAME, String.class);
+			indices.put(nodes[i], Integer.valueOf(i));
+		}
+		columns = new HashMap<String, Column>();
+	}
+
+	/**
+	 * Initializes a new instance of <code>NodeResults</code> for nodes that are not part of a loaded network.
+	 * 
+	 * @param aSuids
+	 *            SUIDs of the nodes.
+	 * @param aNames
+	 *            Names of the nodes; must have the same length as <code>aSuids</code>.
+	 * @throws IllegalArgumentException
+	 *             If the lengths of <code>aSuids</code> and <code>aNames</code> differ.
+	 */
+	public NodeResults(long[] aSuids, String[] aNames) {
+		if (aSuids.length != aNames.length) {
+			throw new IllegalArgumentException();
+		}
+		suids = aSuids;
+		names = aNames;
+		nodes = null;
+		indices = null;
+		columns = new HashMap<String, Column>();
+	}
+
+	/**
+	 * Gets the number of nodes.
+	 * 
+	 * @return Number of nodes whose results are stored.
+	 */
+	public int getNodeCount() {
+		return suids.length;
+	}
+
+	/**
+	 * Gets the SUID of a node.
+	 * 
+	 * @param aIndex
+	 *            Index of the node.
+	 * @return SUID of the node at index <code>aIndex</code>.
+	 */
+	public long getSuid(int aIndex) {
+		return suids[aIndex];
+	}
+
+	/**
+	 * Gets the name of a node.
+	 * 
+	 * @param aIndex
+	 *            Index of the node.
+	 * @return Name of the node at index <code>aIndex</code>; <code>null</code> if the node has no name.
+	 */
+	public String getName(int aIndex) {
+		return names[aIndex];
+	}
+
+	/**
+	 * Gets the index of a node.
+	 * 
+	 * @param aNode
+	 *            Node of the network the results were created for.
+	 * @return Index of <code>aNode</code>; <code>-1</code> if the node is not stored or the results were not
+	 *         created for a network.
+	 */
+	public int getIndex(CyNode aNode) {
+		final Integer index = indices != null ? indices.get(aNode) : null;
+		return index != null ? index.intValue() : -1;
+	}
+
+	/**
+	 * Gets the names of all columns.
+	 * 
+	 * @return Names of the columns, sorted alphabetically.
+	 */
+	public synchronized String[] getColumnNames() {
+		final String[] result = columns.keySet().toArray(new String[columns.size()]);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Gets the type of a column.
+	 * 
+	 * @param aColumn
+	 *            Name of the column.
+	 * @return Type of the column - one of {@link #TYPE_INT}, {@link #TYPE_LONG}, {@link #TYPE_DOUBLE} or
+	 *         {@link #TYPE_BOOLEAN}; <code>-1</code> if no such column exists.
+	 */
+	public byte getType(String aColumn) {
+		final Column column = getColumn(aColumn);
+		return column != null ? column.type : -1;
+	}
+
+	/**
+	 * Gets the states of the values in a column.
+	 * <p>
+	 * The returned array is used by the results; it must not be modified.
+	 * </p>
+	 * 
+	 * @param aColumn
+	 *            Name of the column.
+	 * @return States of the values of all nodes - {@link #STATE_UNSET}, {@link #STATE_SET} or
+	 *         {@link #STATE_CLEARED}; <code>null</code> if no such column exists.
+	 */
+	public byte[] getStates(String aColumn) {
+		final Column column = getColumn(aColumn);
+		return column != null ? column.states : null;
+	}
+
+	/**
+	 * Gets the values in a column.
+	 * <p>
+	 * The returned array is used by the results; it must not be modified. Values of nodes whose state is not
+	 * {@link #STATE_SET} are undefined.
+	 * </p>
+	 * 
+	 * @param aColumn
+	 *            Name of the column.
+	 * @return Values of all nodes as an <code>int[]</code>, <code>long[]</code>, <code>double[]</code> or
+	 *         <code>boolean[]</code> array, depending on the type of the column; <code>null</code> if no
+	 *         such column exists.
+	 */
+	public Object getValues(String aColumn) {
+		final Column column = getColumn(aColumn);
+		return column != null ? column.values : null;
+	}
+
+	/**
+	 * Gets a value.
+	 * 
+	 * @param aIndex
+	 *            Index of the node.
+	 * @param aColumn
+	 *            Name of the column.
+	 * @return Value of the node in the column, as an <code>Integer</code>, <code>Long</code>,
+	 *         <code>Double</code> or <code>Boolean</code>; <code>null</code> if the value is not set.
+	 */
+	public Object get(int aIndex, String aColumn) {
+		final Column column = getColumn(aColumn);
+		if (column == null || column.states[aIndex] != STATE_SET) {
+			return null;
+		}
+		return column.get(aIndex);
+	}
+
+	/**
+	 * Sets the value of a node.
+	 * 
+	 * @param aNode
+	 *            Node of the network the results were created for.
+	 * @param aColumn
+	 *            Name of the column.
+	 * @param aValue
+	 *            Value to be set. Its type determines the type of the column when the column is created.
+	 * @throws IllegalArgumentException
+	 *             If <code>aNode</code> is not stored, or if the type of <code>aValue</code> does not match
+	 *             the type of the column.
+	 */
+	public void set(CyNode aNode, String aColumn, Object aValue) {
+		final int index = getIndex(aNode);
+		if (index < 0) {
+			throw new IllegalArgumentException();
+		}
+		set(index, aColumn, aValue);
+	}
+
+	/**
+	 * Sets the value of a node.
+	 * 
+	 * @param aIndex
+	 *            Index of the node.
+	 * @param aColumn
+	 *            Name of the column.
+	 * @param aValue
+	 *            Value to be set. Its type determines the type of the column when the column is created.
+	 * @throws IllegalArgumentException
+	 *             If the type of <code>aValue</code> does not match the type of the column.
+	 */
+	public void set(int aIndex, String aColumn, Object aValue) {
+		final byte type = getType(aValue);
+		Column column = getColumn(aColumn);
+		if (column == null) {
+			column = addColumn(aColumn, type);
+		}
+		if (column.type != type) {
+			throw new IllegalArgumentException(aColumn);
+		}
+		column.set(aIndex, aValue);
+		column.states[aIndex] = STATE_SET;
+	}
+
+	/**
+	 * Clears the value of a node.
+	 * <p>
+	 * This method has no effect if the column does not exist.
+	 * </p>
+	 * 
+	 * @param aNode
+	 *            Node of the network the results were created for.
+	 * @param aColumn
+	 *            Name of the column.
+	 */
+	public void clear(CyNode aNode, String aColumn) {
+		final Column column = getColumn(aColumn);
+		final int index = getIndex(aNode);
+		if (column != null && index >= 0) {
+			column.states[index] = STATE_CLEARED;
+		}
+	}
+
+	/**
+	 * Adds a column with the given values.
+	 * 
+	 * @param aColumn
+	 *            Name of the column.
+	 * @param aStates
+	 *            States of the values of all nodes.
+	 * @param aValues
+	 *            Values of all nodes as an <code>int[]</code>, <code>long[]</code>, <code>double[]</code> or
+	 *            <code>boolean[]</code> array.
+	 * @throws IllegalArgumentException
+	 *             If the type of <code>aValues</code> is not supported, or if the lengths of the arrays do
+	 *             not match the number of nodes.
+	 */
+	public synchronized void putColumn(String aColumn, byte[] aStates, Object aValues) {
+		final byte type;
+		final int length;
+		if (aValues instanceof int[]) {
+			type = TYPE_INT;
+			length = ((int[]) aValues).length;
+		} else if (aValues instanceof long[]) {
+			type = TYPE_LONG;
+			length = ((long[]) aValues).length;
+		} else if (aValues instanceof double[]) {
+			type = TYPE_DOUBLE;
+			length = ((double[]) aValues).length;
+		} else if (aValues instanceof boolean[]) {
+			type = TYPE_BOOLEAN;
+			length = ((boolean[]) aValues).length;
+		} else {
+			throw new IllegalArgumentException();
+		}
+		if (length != suids.length || aStates.length != suids.length) {
+			throw new IllegalArgumentException();
+		}
+		columns.put(aColumn, new Column(type, aStates, aValues));
+	}
+
+	/**
+	 * Copies the results to the node attributes of the network they were created for.
+	 * <p>
+	 * Set values are stored in the attributes with the names of their columns, and cleared values are
+	 * removed. Attributes of values that were never set are not modified.
+	 * </p>
+	 * 
+	 * @param aNetwork
+	 *            Network the results were created for.
+	 */
+	public void copyTo(CyNetwork aNetwork) {
+		for (final String name : getColumnNames()) {
+			final Column column = getColumn(name);
+			for (int i = 0; i < suids.length; ++i) {
+				final byte state = column.states[i];
+				if (state != STATE_UNSET) {
+					final CyNode node = nodes != null ? nodes[i] : aNetwork.getNode(suids[i]);
+					if (node != null) {
+						final CyRow row = aNetwork.getRow(node);
+						row.set(name, state == STATE_SET ? column.get(i) : null);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the type of the column storing the given value.
+	 * 
+	 * @param aValue
+	 *            Value to be stored.
+	 * @return Type of the column storing values like <code>aValue</code>.
+	 * @throws IllegalArgumentException
+	 *             If the type of <code>aValue</code> is not supported.
+	 */
+	private static byte getType(Object aValue) {
+		if (aValue instanceof Integer) {
+			return TYPE_INT;
+		}
+		if (aValue instanceof Double) {
+			return TYPE_DOUBLE;
+		}
+		if (aValue instanceof Long) {
+			return TYPE_LONG;
+		}
+		if (aValue instanceof Boolean) {
+			return TYPE_BOOLEAN;
+		}
+		throw new IllegalArgumentException(String.valueOf(aValue));
+	}
+
+	/**
+	 * Gets a column.
+	 * 
+	 * @param aColumn
+	 *            Name of the column.
+	 * @return Column with the given name; <code>null</code> if no such column exists.
+	 */
+	private synchronized Column getColumn(String aColumn) {
+		return columns.get(aColumn);
+	}
+
+	/**
+	 * Adds an empty column, unless a column with the given name has been added in the meantime.
+	 * 
+	 * @param aColumn
+	 *            Name of the column.
+	 * @param aType
+	 *            Type of the column.
+	 * @return Column with the given name.
+	 */
+	private synchronized Column addColumn(String aColumn, byte aType) {
+		Column column = columns.get(aColumn);
+		if (column == null) {
+			column = new Column(aType, suids.length);
+			columns.put(aColumn, column);
+		}
+		return column;
+	}
+
+	/**
+	 * Values of a node attribute, stored in a primitive array.
+	 */
+	private static class Column {
+
+		/**
+		 * Initializes a new instance of <code>Column</code> with no values set.
+		 * 
+		 * @param aType
+		 *            Type of the column.
+		 * @param aSize
+		 *            Number of nodes.
+		 */
+		public Column(byte aType, int aSize) {
+			type = aType;
+			states = new byte[aSize];
+			switch (aType) {
+				case TYPE_INT:
+					values = new int[aSize];
+					break;
+				case TYPE_LONG:
+					values = new long[aSize];
+					break;
+				case TYPE_DOUBLE:
+					values = new double[aSize];
+					break;
+				default:
+					values = new boolean[aSize];
+			}
+		}
+
+		/**
+		 * Initializes a new instance of <code>Column</code> with the given values.
+		 * 
+		 * @param aType
+		 *            Type of the column.
+		 * @param aStates
+		 *            States of the values.
+		 * @param aValues
+		 *            Primitive array of the values, matching <code>aType</code>.
+		 */
+		public Column(byte aType, byte[] aStates, Object aValues) {
+			type = aType;
+			states = aStates;
+			values = aValues;
+		}
+
+		/**
+		 * Gets a value.
+		 * 
+		 * @param aIndex
+		 *            Index of the node.
+		 * @return Value of the node, wrapped in an object.
+		 */
+		public Object get(int aIndex) {
+			switch (type) {
+				case TYPE_INT:
+					return Integer.valueOf(((int[]) values)[aIndex]);
+				case TYPE_LONG:
+					return Long.valueOf(((long[]) values)[aIndex]);
+				case TYPE_DOUBLE:
+					return Double.valueOf(((double[]) values)[aIndex]);
+				default:
+					return Boolean.valueOf(((boolean[]) values)[aIndex]);
+			}
+		}
+
+		/**
+		 * Sets a value.
+		 * 
+		 * @param aIndex
+		 *            Index of the node.
+		 * @param aValue
+		 *            Value of the node, of the type of the column.
+		 */
+		public void set(int aIndex, Object aValue) {
+			switch (type) {
+				case TYPE_INT:
+					((int[]) values)[aIndex] = ((Integer) aValue).intValue();
+					break;
+				case TYPE_LONG:
+					((long[]) values)[aIndex] = ((Long) aValue).longValue();
+					break;
+				case TYPE_DOUBLE:
+					((double[]) values)[aIndex] = ((Double) aValue).doubleValue();
+					break;
+				default:
+					((boolean[]) values)[aIndex] = ((Boolean) aValue).booleanValue();
+			}
+		}
+
+		/**
+		 * Type of the column.
+		 */
+		final byte type;
+
+		/**
+		 * States of the values of all nodes.
+		 */
+		final byte[] states;
+
+		/**
+		 * Values of all nodes, as a primitive array matching {@link #type}.
+		 */
+		final Object values;
+	}
+
+	/**
+	 * SUIDs of the nodes.
+	 */
+	private final long[] suids;
+
+	/**
+	 * Names of the nodes.
+	 */
+	private final String[] names;
+
+	/**
+	 * Nodes of the network the results were created for; <code>null</code> if the results were not created
+	 * for a network.
+	 */
+	private final CyNode[] nodes;
+
+	/**
+	 * Indices of the nodes in {@link #nodes}; <code>null</code> if the results were not created for a
+	 * network.
+	 */
+	private final Map<CyNode, Integer> indices;
+
+	/**
+	 * Columns, mapped by their names.
+	 */
+	private final Map<String, Column> columns;
+}
@@ -0,0 +1,195 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bookkeeping of the source nodes used for computing path-based parameters.
+ * <p>
+ * When an analysis runs with a time budget, shortest paths and betweenness are computed only from a
+ * random sample of source nodes in every connected component. This class records how many sources were
+ * processed and accumulates the per-source sums needed to estimate the confidence of the characteristic
+ * path length, which is a ratio estimator over the sampled sources.
+ * </p>
+ */
+public class PathSampling {
+
+	/**
+	 * Initializes a new instance of <code>PathSampling</code>.
+	 */
+	public PathSampling() {
+		components = new ArrayList<double[]>();
+		totalSources = 0;
+		sampledSources = 0;
+		current = null;
+	}
+
+	/**
+	 * Starts collecting data for a new connected component.
+	 * 
+	 * @param aNodeCount Number of nodes in the component, i.e. number of all possible sources.
+	 */
+	public void startComponent(int aNodeCount) {
+		current = new double[STAT_COUNT];
+		current[NODES] = aNodeCount;
+	}
+
+	/**
+	 * Accumulates the shortest path data of a processed source node in the current component.
+	 * 
+	 * @param aData Data on the shortest path lengths from the source node.
+	 */
+	public synchronized void addSource(PathLengthData aData) {
+		final double length = aData.getTotalLength();
+		final double count = aData.getCount();
+		current[SOURCES]++;
+		current[LENGTH] += length;
+		current[COUNT] += count;
+		current[LENGTH_SQ] += length * length;
+		current[LENGTH_COUNT] += length * count;
+		current[COUNT_SQ] += count * count;
+	}
+
+	/**
+	 * Gets the scaling factor for the sources of the current component processed so far.
+	 * 
+	 * @return Scaling factor to be applied to the path-based values accumulated so far in the current
+	 *         component, in order to obtain estimates for the whole component; <code>1.0</code> if no
+	 *         sources were processed yet.
+	 */
+	public synchronized double getCurrentScale() {
+		final double sources = current[SOURCES];
+		return sources > 0 ? current[NODES] / sources : 1.0;
+	}
+
+	/**
+	 * Completes the data collection for the current component.
+	 * 
+	 * @return Scaling factor to be applied to all accumulated path-based values of the component, in order
+	 *         to obtain estimates for the whole component; <code>1.0</code> if all nodes were used as
+	 *         sources.
+	 */
+	public double endComponent() {
+		final int nodes = (int) current[NODES];
+		final int sources = (int) current[SOURCES];
+		totalSources += nodes;
+		sampledSources += sources;
+		if (sources < nodes) {
+			components.add(current);
+		}
+		current = null;
+		return (sources < nodes && sources > 0) ? ((double) nodes) / sources : 1.0;
+	}
+
+	/**
+	 * Checks if all nodes were used as sources.
+	 * 
+	 * @return <code>true</code> if the path-based parameters are exact; <code>false</code> if they are
+	 *         estimated from a sample of source nodes.
+	 */
+	public boolean isExact() {
+		return sampledSources == totalSources;
+	}
+
+	/**
+	 * Gets the fraction of nodes used as sources.
+	 * 
+	 * @return Ratio of sampled source nodes to all nodes, in the range [0, 1].
+	 */
+	public double getSampledFraction() {
+		if (totalSources == 0) {
+			return 1.0;
+		}
+		return ((double) sampledSources) / totalSources;
+	}
+
+	/**
+	 * Computes the half-width of the approximate 95% confidence interval of the characteristic path length.
+	 * <p>
+	 * The variance is estimated separately in every sampled component (with a finite population
+	 * correction) and summed up.
+	 * </p>
+	 * 
+	 * @param aAvSpl Estimated characteristic path length.
+	 * @param aConnPairs Estimated number of connected pairs of nodes.
+	 * @return Half-width of the confidence interval; <code>0</code> if the characteristic path length is
+	 *         exact; <code>Double.NaN</code> if a component was sampled with less than two sources, which
+	 *         does not allow for a variance estimate.
+	 */
+	public double getAvSplError(double aAvSpl, long aConnPairs) {
+		if (aConnPairs == 0) {
+			return 0;
+		}
+		double variance = 0;
+		for (final double[] c : components) {
+			final double k = c[SOURCES];
+			final double n = c[NODES];
+			if (k < 2) {
+				return Double.NaN;
+			}
+			// Sum of squared residuals (T - R * C) over the sampled sources
+			final double ssq = c[LENGTH_SQ] - 2 * aAvSpl * c[LENGTH_COUNT] + aAvSpl * aAvSpl * c[COUNT_SQ];
+			final double mean = (c[LENGTH] - aAvSpl * c[COUNT]) / k;
+			final double s2 = Math.max(0, (ssq - k * mean * mean) / (k - 1));
+			variance += n * n * (1 - k / n) * s2 / k;
+		}
+		return Z_95 * Math.sqrt(variance) / aConnPairs;
+	}
+
+	/**
+	 * Quantile of the standard normal distribution for a two-sided 95% confidence interval.
+	 */
+	private static final double Z_95 = 1.96;
+
+	/**
+	 * Indices of the statistics stored for a component.
+	 */
+	private static final int NODES = 0, SOURCES = 1, LENGTH = 2, COUNT = 3, LENGTH_SQ = 4,
+			LENGTH_COUNT = 5, COUNT_SQ = 6, STAT_COUNT = 7;
+
+	/**
+	 * Statistics of all components that were only partially sampled.
+	 */
+	private List<double[]> components;
+
+	/**
+	 * Statistics of the component currently being processed.
+	 */
+	private double[] current;
+
+	/**
+	 * Total number of nodes in the processed components.
+	 */
+	private long totalSources;
+
+	/**
+	 * Number of nodes used as sources in the processed components.
+	 */
+	private long sampledSources;
+}
@@ -27,16 +27,30 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.data;
  */
 
 import java.awt.geom.Point2D;
-import java.io.FileWriter;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.BinaryStatsSerializer;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.LineReader;
 
 /**
  * Complex parameter that stores a set of points in the 2D space. Every point is stored as a pair of its
- * coordinates - two <code>Double</code> values.
+ * coordinates - two <code>double</code> values.
+ * <p>
+ * The coordinates are kept in two parallel arrays, one for the <i>x</i> and one for the <i>y</i>
+ * coordinates. The bulk operations of this class work directly on these arrays; {@link #getPoints()}
+ * creates <code>Point2D</code> instances only when it is called.
+ * </p>
+ * <p>
+ * The order of the points by their <i>x</i> coordinates is computed once, when it is first needed, and is
+ * kept with the coordinates. Filtering by a range of <i>x</i> values therefore takes logarithmic time in the
+ * size of the set, plus linear time in the number of points in the range.
+ * </p>
  * 
  * @author Yassen Assenov
  */
@@ -57,6 +71,17 @@ public class Points2D implements ComplexParam {
 		load(aArgs, aReader);
 	}
 
+	/**
+	 * Initializes a new instance of <code>Points2D</code> by reading it from the given buffer.
+	 * 
+	 * @param aBuffer Buffer positioned at the binary data of the point set.
+	 * @see #read(ByteBuffer)
+	 * @see ComplexParam#read(ByteBuffer)
+	 */
+	public Points2D(ByteBuffer aBuffer) {
+		read(aBuffer);
+	}
+
 	/**
 	 * Initializes a new instance of <code>Points2D</code> based on the given list of points.
 	 * 
@@ -64,8 +89,7 @@ public class Points2D implements ComplexParam {
 	 * @throws NullPointerException If <code>aPoints</code> is <code>null</code>.
 	 */
 	public Points2D(List<Point2D.Double> aPoints) {
-		points = new Point2D.Double[aPoints.size()];
-		aPoints.toArray(points);
+		split(aPoints);
 	}
 
 	/**
@@ -75,8 +99,7 @@ public class Points2D implements ComplexParam {
 	 * @throws NullPointerException If <code>aPoints</code> is <code>null</code>.
 	 */
 	public Points2D(Set<Point2D.Double> aPoints) {
-		points = new Point2D.Double[aPoints.size()];
-		aPoints.toArray(points);
+		split(aPoints);
 	}
 
 	/**
@@ -85,19 +108,81 @@ public class Points2D implements ComplexParam {
 	 * @param aPoints Set of 2D points in the form of {@link java.awt.geom.Point2D.Double} array.
 	 */
 	public Points2D(Point2D.Double[] aPoints) {
-		points = (aPoints != null) ? aPoints : new Point2D.Double[0];
+		final int count = (aPoints != null) ? aPoints.length : 0;
+		xs = new double[count];
+		ys = new double[count];
+		if (count != 0) {
+			ArrayUtils.coordinateSplit(aPoints, xs, ys);
+		}
+	}
+
+	/**
+	 * Initializes a new instance of <code>Points2D</code> based on the given coordinates.
+	 * <p>
+	 * <b>Note:</b> The arrays are not copied; they must not be modified after this point set is created.
+	 * </p>
+	 * 
+	 * @param aXs Values of the <i>x</i> coordinates of the points.
+	 * @param aYs Values of the <i>y</i> coordinates of the points.
+	 * @throws IllegalArgumentException If the two arrays differ in length.
+	 * @throws NullPointerException If any of the parameters is <code>null</code>.
+	 */
+	public Points2D(double[] aXs, double[] aYs) {
+		if (aXs.length != aYs.length) {
+			throw new IllegalArgumentException();
+		}
+		xs = aXs;
+		ys = aYs;
 	}
 
 	/**
 	 * Gets the points in this point set.
+	 * <p>
+	 * A new array of points is created on every call of this method. Consider using {@link #getXs()} and
+	 * {@link #getYs()} instead.
+	 * </p>
 	 * 
 	 * @return All the points in this point set in the form of an array of
 	 *         {@link java.awt.geom.Point2D.Double} instances.
 	 */
 	public Point2D.Double[] getPoints() {
+		final int count = xs.length;
+		final Point2D.Double[] points = new Point2D.Double[count];
+		for (int i = 0; i < count; ++i) {
+			points[i] = new Point2D.Double(xs[i], ys[i]);
+		}
 		return points;
 	}
 
+	/**
+	 * Gets the number of points in this point set.
+	 * 
+	 * @return Number of points stored.
+	 */
+	public int size() {
+		return xs.length;
+	}
+
+	/**
+	 * Gets the <i>x</i> coordinates of the points in this set.
+	 * 
+	 * @return Array of <i>x</i> coordinates; the <code>i</code>-th element corresponds to the
+	 *         <code>i</code>-th point. The returned array must not be modified.
+	 */
+	public double[] getXs() {
+		return xs;
+	}
+
+	/**
+	 * Gets the <i>y</i> coordinates of the points in this set.
+	 * 
+	 * @return Array of <i>y</i> coordinates; the <code>i</code>-th element corresponds to the
+	 *         <code>i</code>-th point. The returned array must not be modified.
+	 */
+	public double[] getYs() {
+		return ys;
+	}
+
 	/**
 	 * Gets the range of <i>x</i> values for this histogram.
 	 * 
@@ -107,19 +192,88 @@ public class Points2D implements ComplexParam {
 	 * @throws IllegalStateException If this point set is empty, that is, if it contains no data points.
 	 */
 	public double[] getRangeX() {
-		if (points.length == 0) {
-			throw new IllegalStateException();
+		return getRange(xs);
+	}
+
+	/**
+	 * Gets the range of <i>y</i> values for this histogram.
+	 * 
+	 * @return Array of two elements - the minimum and the maximum value of the <i>y</i> coordinates in this
+	 *         point set.
+	 * 
+	 * @throws IllegalStateException If this point set is empty, that is, if it contains no data points.
+	 */
+	public double[] getRangeY() {
+		return getRange(ys);
+	}
+
+	/**
+	 * Creates a point set containing the points of this set whose <i>x</i> coordinates lie in the given
+	 * range.
+	 * <p>
+	 * The range is located by two binary searches in the order of the points by <i>x</i>, so only the
+	 * points in the range are visited.
+	 * </p>
+	 * 
+	 * @param aXMin Minimal value of the <i>x</i> coordinate to be included.
+	 * @param aXMax Maximal value of the <i>x</i> coordinate to be included.
+	 * @return Point set containing all points <i>p</i> such that <code>aXMin</code> &le; <i>p.x</i> &le;
+	 *         <code>aXMax</code>, sorted by their <i>x</i> coordinates; the result of {@link #sortByX()} if
+	 *         all points are in the range.
+	 */
+	public Points2D filterX(double aXMin, double aXMax) {
+		final int[] order = getOrderX();
+		final int from = searchX(order, aXMin, false);
+		final int to = searchX(order, aXMax, true);
+		if (to - from == xs.length) {
+			return sortByX();
 		}
-		double[] range = new double[] { Double.MAX_VALUE, Double.MIN_VALUE };
-		for (final Point2D.Double point : points) {
-			if (point.x < range[0]) {
-				range[0] = point.x;
-			}
-			if (point.x > range[1]) {
-				range[1] = point.x;
-			}
+		final int included = Math.max(to - from, 0);
+		final double[] newXs = new double[included];
+		final double[] newYs = new double[included];
+		for (int i = 0; i < included; ++i) {
+			newXs[i] = xs[order[from + i]];
+			newYs[i] = ys[order[from + i]];
 		}
-		return range;
+		return new Points2D(newXs, newYs);
+	}
+
+	/**
+	 * Creates a point set containing the points of this set sorted by their <i>x</i> coordinates.
+	 * <p>
+	 * The sort is stable - points with equal <i>x</i> coordinates retain their relative order.
+	 * </p>
+	 * 
+	 * @return Point set containing the points of this set in ascending order of their <i>x</i>
+	 *         coordinates; this instance if the points are already sorted.
+	 */
+	public Points2D sortByX() {
+		final int count = xs.length;
+		int i = 1;
+		while (i < count && xs[i - 1] <= xs[i]) {
+			i++;
+		}
+		if (i >= count) {
+			return this;
+		}
+		final int[] order = getOrderX();
+		final double[] newXs = new double[count];
+		final double[] newYs = new double[count];
+		for (i = 0; i < count; ++i) {
+			newXs[i] = xs[order[i]];
+			newYs[i] = ys[order[i]];
+		}
+		return new Points2D(newXs, newYs);
+	}
+
+	/**
+	 * Creates a point set containing the natural logarithms of the coordinates of the points in this set.
+	 * 
+	 * @return Newly created point set in which the <code>i</code>-th point has as coordinates the natural
+	 *         logarithms of the coordinates of the <code>i</code>-th point in this set.
+	 */
+	public Points2D log() {
+		return new Points2D(ArrayUtils.log(xs, false), ArrayUtils.log(ys, false));
 	}
 
 	/**
@@ -136,36 +290,205 @@ public class Points2D implements ComplexParam {
 	 */
 	public void load(String[] aArgs, LineReader aReader) throws IOException {
 		final int itemCount = Integer.parseInt(aArgs[0]);
-		points = new Point2D.Double[itemCount];
+		xs = new double[itemCount];
+		ys = new double[itemCount];
+		orderX = null;
 		for (int i = 0; i < itemCount; ++i) {
 			String[] coords = aReader.readLine().split(SEPREGEX);
-			double x = Double.parseDouble(coords[0]);
-			double y = Double.parseDouble(coords[1]);
-			points[i] = new Point2D.Double(x, y);
+			xs[i] = Double.parseDouble(coords[0]);
+			ys[i] = Double.parseDouble(coords[1]);
 		}
 	}
 
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam#save(java.io.FileWriter)
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam#save(java.io.Writer, boolean)
 	 */
-	public void save(FileWriter aWriter, boolean aSaveArgs) throws IOException {
-		final int itemCount = points.length;
+	public void save(Writer aWriter, boolean aSaveArgs) throws IOException {
+		final int itemCount = xs.length;
 		if (aSaveArgs) {
-			aWriter.write(String.valueOf(itemCount) + "\n");
+			aWriter.write(String.valueOf(itemCount));
+			aWriter.write('\n');
 		}
 		for (int i = 0; i < itemCount; ++i) {
-			double x = points[i].x;
-			double y = points[i].y;
-			String xStr = x < Long.MAX_VALUE && Math.floor(x) != x ? String.valueOf(x) : String.valueOf((long) x);
-			String yStr = y < Long.MAX_VALUE && Math.floor(y) != y ? String.valueOf(y) : String.valueOf((long) y);
-			aWriter.write(xStr + SEP + yStr + "\n");
+			aWriter.write(format(xs[i]));
+			aWriter.write(SEP);
+			aWriter.write(format(ys[i]));
+			aWriter.write('\n');
 		}
 	}
 
 	/**
-	 * The set of 2D points.
+	 * Formats a coordinate for saving to a text stream.
+	 * 
+	 * @param aValue Coordinate to be formatted.
+	 * @return Text representation of <code>aValue</code>; integral values are formatted without a fractional
+	 *         part.
+	 */
+	private static String format(double aValue) {
+		return aValue < Long.MAX_VALUE && Math.floor(aValue) != aValue ? String.valueOf(aValue) : String
+				.valueOf((long) aValue);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam#read(java.nio.ByteBuffer)
+	 */
+	public void read(ByteBuffer aBuffer) {
+		final double[] newXs = BinaryStatsSerializer.readDoubles(aBuffer);
+		final double[] newYs = BinaryStatsSerializer.readDoubles(aBuffer);
+		if (newXs.length != newYs.length) {
+			throw new IllegalArgumentException();
+		}
+		xs = newXs;
+		ys = newYs;
+		orderX = null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam#write(java.io.DataOutputStream)
+	 */
+	public void write(DataOutputStream aOut) throws IOException {
+		BinaryStatsSerializer.writeDoubles(aOut, xs);
+		BinaryStatsSerializer.writeDoubles(aOut, ys);
+	}
+
+	/**
+	 * Gets the range of the given coordinate values.
+	 * 
+	 * @param aValues Coordinate values.
+	 * @return Array of two elements - the minimum and the maximum of <code>aValues</code>.
+	 * @throws IllegalStateException If <code>aValues</code> is empty.
+	 */
+	private static double[] getRange(double[] aValues) {
+		if (aValues.length == 0) {
+			throw new IllegalStateException();
+		}
+		double[] range = new double[] { aValues[0], aValues[0] };
+		for (final double value : aValues) {
+			if (value < range[0]) {
+				range[0] = value;
+			}
+			if (value > range[1]) {
+				range[1] = value;
+			}
+		}
+		return range;
+	}
+
+	/**
+	 * Gets the order of the points by their <i>x</i> coordinates, computing it if necessary.
+	 * <p>
+	 * The order is computed by a stable merge sort - points with equal <i>x</i> coordinates retain their
+	 * relative order.
+	 * </p>
+	 * 
+	 * @return Indices of the points in ascending order of their <i>x</i> coordinates. The returned array must
+	 *         not be modified.
+	 */
+	private int[] getOrderX() {
+		if (orderX != null) {
+			return orderX;
+		}
+		final int count = xs.length;
+		int[] order = new int[count];
+		int[] buffer = new int[count];
+		for (int i = 0; i < count; ++i) {
+			order[i] = i;
+		}
+		for (int width = 1; width < count; width *= 2) {
+			for (int from = 0; from < count; from += 2 * width) {
+				merge(order, buffer, from, Math.min(from + width, count), Math.min(from + 2 * width, count));
+			}
+			final int[] swap = order;
+			order = buffer;
+			buffer = swap;
+		}
+		orderX = order;
+		return order;
+	}
+
+	/**
+	 * Finds the position of an <i>x</i> value in the order of the points.
+	 * 
+	 * @param aOrder Indices of the points in ascending order of their <i>x</i> coordinates.
+	 * @param aValue Value of the <i>x</i> coordinate to be searched for.
+	 * @param aAfterEqual Flag indicating if the points whose <i>x</i> coordinates equal <code>aValue</code>
+	 *        must precede the returned position.
+	 * @return Number of points whose <i>x</i> coordinates are smaller than <code>aValue</code> (or smaller
+	 *         than or equal to <code>aValue</code> if <code>aAfterEqual</code> is <code>true</code>).
+	 */
+	private int searchX(int[] aOrder, double aValue, boolean aAfterEqual) {
+		int low = 0;
+		int high = aOrder.length;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			final double x = xs[aOrder[middle]];
+			if (x < aValue || (aAfterEqual && x == aValue)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of point indices, as one step of the merge sort in {@link #getOrderX()}.
+	 * 
+	 * @param aSource Indices of points, sorted by <i>x</i> within the two runs.
+	 * @param aTarget Array to store the merged run in.
+	 * @param aFrom Start of the first run.
+	 * @param aMiddle End of the first run and start of the second one.
+	 * @param aTo End of the second run.
+	 */
+	private void merge(int[] aSource, int[] aTarget, int aFrom, int aMiddle, int aTo) {
+		int i = aFrom;
+		int j = aMiddle;
+		for (int k = aFrom; k < aTo; ++k) {
+			if (j >= aTo || (i < aMiddle && xs[aSource[i]] <= xs[aSource[j]])) {
+				aTarget[k] = aSource[i++];
+			} else {
+				aTarget[k] = aSource[j++];
+			}
+		}
+	}
+
+	/**
+	 * Stores the coordinates of the given points in the coordinate arrays of this instance.
+	 * 
+	 * @param aPoints Collection of 2D points.
+	 * @throws NullPointerException If <code>aPoints</code> is <code>null</code>.
+	 */
+	private void split(Collection<Point2D.Double> aPoints) {
+		final int count = aPoints.size();
+		xs = new double[count];
+		ys = new double[count];
+		int i = 0;
+		for (final Point2D.Double point : aPoints) {
+			xs[i] = point.x;
+			ys[i++] = point.y;
+		}
+	}
+
+	/**
+	 * Values of the <i>x</i> coordinates of the points.
+	 */
+	private double[] xs;
+
+	/**
+	 * Values of the <i>y</i> coordinates of the points; <code>ys[i]</code> is the <i>y</i> coordinate of the
+	 * point whose <i>x</i> coordinate is <code>xs[i]</code>.
+	 */
+	private double[] ys;
+
+	/**
+	 * Indices of the points in ascending order of their <i>x</i> coordinates; <code>null</code> if the order
+	 * is not computed yet.
 	 */
-	private Point2D.Double[] points;
+	private int[] orderX;
 }
@@ -0,0 +1,487 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.BinaryStatsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.LineReader;
+
+/**
+ * Complex parameter that summarizes the distribution of a non-negative per-node value, such as betweenness
+ * or closeness centrality, in a constant amount of memory.
+ * <p>
+ * The sketch puts the observations in bins of exponentially growing size, such that every quantile is
+ * estimated with a relative error of at most {@link #getRelativeAccuracy()}. The size of the sketch depends
+ * on the ratio between the largest and the smallest positive observations only, and not on the number of
+ * observations. Zero values (and positive values smaller than <code>Double.MIN_NORMAL</code>) are counted
+ * separately and are reported exactly.
+ * </p>
+ * <p>
+ * Sketches of the same accuracy can be merged in time linear in their numbers of bins. This allows every
+ * worker thread, or every shard of an analysis, to record its observations in a sketch of its own.
+ * </p>
+ */
+public class QuantileSketch implements ComplexParam {
+
+	/**
+	 * Relative accuracy of the quantiles estimated by sketches created by NetworkAnalyzer.
+	 */
+	public static final double DEFAULT_ACCURACY = 0.01;
+
+	/**
+	 * Initializes a new instance of <code>QuantileSketch</code> by loading it from the given stream.
+	 * 
+	 * @param aArgs View the documentation of {@link #load(String[], LineReader)} for a description of this
+	 *        parameter.
+	 * @param aReader View the documentation of {@link #load(String[], LineReader)} for a description of this
+	 *        parameter.
+	 * @throws IOException View the documentation of {@link #load(String[], LineReader)} for details.
+	 * @see #load(String[], LineReader)
+	 * @see ComplexParam#load(String[], LineReader)
+	 */
+	public QuantileSketch(String[] aArgs, LineReader aReader) throws IOException {
+		load(aArgs, aReader);
+	}
+
+	/**
+	 * Initializes a new instance of <code>QuantileSketch</code> by reading it from the given buffer.
+	 * 
+	 * @param aBuffer Buffer positioned at the binary data of the sketch.
+	 * @see #read(ByteBuffer)
+	 * @see ComplexParam#read(ByteBuffer)
+	 */
+	public QuantileSketch(ByteBuffer aBuffer) {
+		read(aBuffer);
+	}
+
+	/**
+	 * Initializes a new empty instance of <code>QuantileSketch</code> with the default accuracy.
+	 */
+	public QuantileSketch() {
+		this(DEFAULT_ACCURACY);
+	}
+
+	/**
+	 * Initializes a new empty instance of <code>QuantileSketch</code>.
+	 * 
+	 * @param aRelativeAccuracy Maximum relative error of the estimated quantiles.
+	 * @throws IllegalArgumentException If <code>aRelativeAccuracy</code> is not in the range (0, 1).
+	 */
+	public QuantileSketch(double aRelativeAccuracy) {
+		init(aRelativeAccuracy);
+		counts = new long[0];
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * Adds a new observation to this sketch.
+	 * 
+	 * @param aValue Observed value to be added.
+	 * @throws IllegalArgumentException If <code>aValue</code> is negative or <code>NaN</code>.
+	 */
+	public void add(double aValue) {
+		if (!(aValue >= 0)) {
+			throw new IllegalArgumentException();
+		}
+		if (aValue < Double.MIN_NORMAL) {
+			zeroCount++;
+		} else {
+			increment(getBinIndex(aValue), 1);
+		}
+		count++;
+		if (aValue < min) {
+			min = aValue;
+		}
+		if (aValue > max) {
+			max = aValue;
+		}
+	}
+
+	/**
+	 * Adds all observations of the given sketch to this sketch.
+	 * 
+	 * @param aOther Sketch whose observations are to be added.
+	 * @throws IllegalArgumentException If the accuracy of <code>aOther</code> differs from the accuracy of
+	 *         this sketch.
+	 * @throws NullPointerException If <code>aOther</code> is <code>null</code>.
+	 */
+	public void merge(QuantileSketch aOther) {
+		if (aOther.relativeAccuracy != relativeAccuracy) {
+			throw new IllegalArgumentException();
+		}
+		for (int i = 0; i < aOther.counts.length; ++i) {
+			if (aOther.counts[i] != 0) {
+				increment(aOther.offset + i, aOther.counts[i]);
+			}
+		}
+		zeroCount += aOther.zeroCount;
+		count += aOther.count;
+		min = Math.min(min, aOther.min);
+		max = Math.max(max, aOther.max);
+	}
+
+	/**
+	 * Gets the number of observations added to this sketch.
+	 * 
+	 * @return Number of observations summarized by this sketch.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the smallest observation added to this sketch.
+	 * 
+	 * @return Minimum observed value.
+	 * @throws IllegalStateException If this sketch is empty.
+	 */
+	public double getMin() {
+		if (count == 0) {
+			throw new IllegalStateException();
+		}
+		return min;
+	}
+
+	/**
+	 * Gets the largest observation added to this sketch.
+	 * 
+	 * @return Maximum observed value.
+	 * @throws IllegalStateException If this sketch is empty.
+	 */
+	public double getMax() {
+		if (count == 0) {
+			throw new IllegalStateException();
+		}
+		return max;
+	}
+
+	/**
+	 * Gets the maximum relative error of the quantiles estimated by this sketch.
+	 * 
+	 * @return Relative accuracy of this sketch.
+	 */
+	public double getRelativeAccuracy() {
+		return relativeAccuracy;
+	}
+
+	/**
+	 * Estimates the given quantile of the observations.
+	 * 
+	 * @param aQuantile Quantile to be estimated, for example, <code>0.5</code> for the median.
+	 * @return Estimated value of the quantile. The minimum and the maximum observations are returned
+	 *         exactly.
+	 * @throws IllegalArgumentException If <code>aQuantile</code> is not in the range [0, 1].
+	 * @throws IllegalStateException If this sketch is empty.
+	 */
+	public double getQuantile(double aQuantile) {
+		if (!(0 <= aQuantile && aQuantile <= 1)) {
+			throw new IllegalArgumentException();
+		}
+		if (count == 0) {
+			throw new IllegalStateException();
+		}
+		final long rank = (long) (aQuantile * (count - 1));
+		if (rank == 0) {
+			return min;
+		}
+		if (rank == count - 1) {
+			return max;
+		}
+		long seen = zeroCount;
+		if (rank < seen) {
+			return 0;
+		}
+		for (int i = 0; i < counts.length; ++i) {
+			seen += counts[i];
+			if (rank < seen) {
+				return getBinValue(offset + i);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Creates the cumulative distribution function of the observations.
+	 * 
+	 * @return Point set that contains one point for every non-empty bin of this sketch. The <i>x</i>
+	 *         coordinate of a point is the estimated value of the observations in the bin, and the <i>y</i>
+	 *         coordinate is the fraction of observations less than or equal to it.
+	 */
+	public Points2D createCdf() {
+		int binCount = zeroCount != 0 ? 1 : 0;
+		for (final long c : counts) {
+			if (c != 0) {
+				binCount++;
+			}
+		}
+		final double[] xs = new double[binCount];
+		final double[] ys = new double[binCount];
+		long seen = zeroCount;
+		int j = 0;
+		if (zeroCount != 0) {
+			ys[j++] = (double) zeroCount / count;
+		}
+		for (int i = 0; i < counts.length; ++i) {
+			if (counts[i] != 0) {
+				seen += counts[i];
+				xs[j] = getBinValue(offset + i);
+				ys[j++] = (double) seen / count;
+			}
+		}
+		return new Points2D(xs, ys);
+	}
+
+	/**
+	 * Loads the data of the sketch from the given stream.
+	 * 
+	 * @param aArgs Four-element array representing the arguments passed to this type. These are the
+	 *        <code>String</code> representations of the number of non-empty bins, the relative accuracy,
+	 *        and the minimum and maximum observations, in this order.
+	 * @param aReader Reader from a text stream. The reader must be open and positioned in the stream such
+	 *        that the data for the bins follows. Every bin is stored on a separate line as its estimated
+	 *        value and number of observations.
+	 * @throws IOException If I/O error occurs.
+	 * @throws NumberFormatException If the stream contains invalid data.
+	 * @throws NullPointerException If at least one of the parameters is <code>null</code>.
+	 * @throws ArrayIndexOutOfBoundsException If <code>aArgs</code> contains less than four elements.
+	 */
+	public void load(String[] aArgs, LineReader aReader) throws IOException {
+		final int binCount = Integer.parseInt(aArgs[0]);
+		init(Double.parseDouble(aArgs[1]));
+		counts = new long[0];
+		offset = 0;
+		zeroCount = 0;
+		count = 0;
+		for (int i = 0; i < binCount; ++i) {
+			final String[] values = aReader.readLine().split(SEPREGEX);
+			final double value = Double.parseDouble(values[0]);
+			final long observations = Long.parseLong(values[1]);
+			if (value < Double.MIN_NORMAL) {
+				zeroCount += observations;
+			} else {
+				increment(getBinIndex(value), observations);
+			}
+			count += observations;
+		}
+		min = Double.parseDouble(aArgs[2]);
+		max = Double.parseDouble(aArgs[3]);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam#save(java.io.Writer, boolean)
+	 */
+	public void save(Writer aWriter, boolean aSaveArgs) throws IOException {
+		if (aSaveArgs) {
+			int binCount = zeroCount != 0 ? 1 : 0;
+			for (final long c : counts) {
+				if (c != 0) {
+					binCount++;
+				}
+			}
+			aWriter.write(binCount + " " + relativeAccuracy + " " + min + " " + max);
+			aWriter.write('\n');
+		}
+		if (zeroCount != 0) {
+			aWriter.write("0");
+			aWriter.write(SEP);
+			aWriter.write(String.valueOf(zeroCount));
+			aWriter.write('\n');
+		}
+		for (int i = 0; i < counts.length; ++i) {
+			if (counts[i] != 0) {
+				aWriter.write(String.valueOf(getBinValue(offset + i)));
+				aWriter.write(SEP);
+				aWriter.write(String.valueOf(counts[i]));
+				aWriter.write('\n');
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam#read(java.nio.ByteBuffer)
+	 */
+	public void read(ByteBuffer aBuffer) {
+		final double[] header = BinaryStatsSerializer.readDoubles(aBuffer);
+		final long[] sizes = BinaryStatsSerializer.readLongs(aBuffer);
+		final long[] newCounts = BinaryStatsSerializer.readLongs(aBuffer);
+		if (header.length != 3 || sizes.length != 3) {
+			throw new IllegalArgumentException();
+		}
+		init(header[0]);
+		min = header[1];
+		max = header[2];
+		offset = (int) sizes[0];
+		zeroCount = sizes[1];
+		count = sizes[2];
+		counts = newCounts;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam#write(java.io.DataOutputStream)
+	 */
+	public void write(DataOutputStream aOut) throws IOException {
+		int from = 0;
+		int to = counts.length;
+		while (from < to && counts[from] == 0) {
+			from++;
+		}
+		while (to > from && counts[to - 1] == 0) {
+			to--;
+		}
+		final long[] used = new long[to - from];
+		System.arraycopy(counts, from, used, 0, used.length);
+		BinaryStatsSerializer.writeDoubles(aOut, new double[] { relativeAccuracy, min, max });
+		BinaryStatsSerializer.writeLongs(aOut, new long[] { offset + from, zeroCount, count });
+		BinaryStatsSerializer.writeLongs(aOut, used);
+	}
+
+	/**
+	 * Sets the accuracy of this sketch and computes the base of its bins.
+	 * 
+	 * @param aRelativeAccuracy Maximum relative error of the estimated quantiles.
+	 * @throws IllegalArgumentException If <code>aRelativeAccuracy</code> is not in the range (0, 1).
+	 */
+	private void init(double aRelativeAccuracy) {
+		if (!(0 < aRelativeAccuracy && aRelativeAccuracy < 1)) {
+			throw new IllegalArgumentException();
+		}
+		relativeAccuracy = aRelativeAccuracy;
+		gamma = (1 + aRelativeAccuracy) / (1 - aRelativeAccuracy);
+		logGamma = Math.log(gamma);
+	}
+
+	/**
+	 * Gets the bin to which the given positive value should be assigned.
+	 * 
+	 * @param aValue Value to be assigned to a bin.
+	 * @return Index <i>i</i> of the bin (<i>&gamma;<sup>i - 1</sup></i>; <i>&gamma;<sup>i</sup></i>] that
+	 *         contains <code>aValue</code>.
+	 */
+	private int getBinIndex(double aValue) {
+		return (int) Math.ceil(Math.log(aValue) / logGamma);
+	}
+
+	/**
+	 * Gets the estimated value of the observations in the given bin.
+	 * <p>
+	 * The estimate differs from every value in the bin by at most {@link #relativeAccuracy} relative to the
+	 * value.
+	 * </p>
+	 * 
+	 * @param aIndex Index of the bin.
+	 * @return Estimated value of the observations in bin <code>aIndex</code>.
+	 */
+	private double getBinValue(int aIndex) {
+		return Math.min(Math.max(2 * Math.pow(gamma, aIndex) / (gamma + 1), min), max);
+	}
+
+	/**
+	 * Adds the given number of observations to a bin, enlarging {@link #counts} if necessary.
+	 * 
+	 * @param aIndex Index of the bin.
+	 * @param aCount Number of observations to be added.
+	 */
+	private void increment(int aIndex, long aCount) {
+		if (counts.length == 0) {
+			counts = new long[INITIAL_SIZE];
+			offset = aIndex - INITIAL_SIZE / 2;
+		}
+		if (aIndex < offset || aIndex >= offset + counts.length) {
+			final int from = Math.min(aIndex, offset);
+			final int to = Math.max(aIndex + 1, offset + counts.length);
+			final int capacity = Math.max(to - from, 2 * counts.length);
+			final int newOffset = aIndex < offset ? to - capacity : from;
+			final long[] newCounts = new long[capacity];
+			System.arraycopy(counts, 0, newCounts, offset - newOffset, counts.length);
+			counts = newCounts;
+			offset = newOffset;
+		}
+		counts[aIndex - offset] += aCount;
+	}
+
+	/**
+	 * Initial number of bins allocated when the first positive observation is added.
+	 */
+	private static final int INITIAL_SIZE = 64;
+
+	/**
+	 * Maximum relative error of the estimated quantiles.
+	 */
+	private double relativeAccuracy;
+
+	/**
+	 * Base of the exponentially growing bins, computed from {@link #relativeAccuracy}.
+	 */
+	private double gamma;
+
+	/**
+	 * Natural logarithm of {@link #gamma}.
+	 */
+	private double logGamma;
+
+	/**
+	 * Number of observations in the bins; <code>counts[i]</code> is the number of observations in the bin
+	 * with index <code>offset + i</code>.
+	 */
+	private long[] counts;
+
+	/**
+	 * Index of the bin stored in the first element of {@link #counts}.
+	 */
+	private int offset;
+
+	/**
+	 * Number of observations that are zero or smaller than <code>Double.MIN_NORMAL</code>.
+	 */
+	private long zeroCount;
+
+	/**
+	 * Total number of observations.
+	 */
+	private long count;
+
+	/**
+	 * Minimum observation.
+	 */
+	private double min;
+
+	/**
+	 * Maximum observation.
+	 */
+	private double max;
+}
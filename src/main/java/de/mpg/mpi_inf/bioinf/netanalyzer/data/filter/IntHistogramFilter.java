@@ -26,6 +26,8 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.data.filter;
  * #L%
  */
 
+import java.util.Arrays;
+
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.IntHistogram;
 
@@ -71,16 +73,16 @@ public class IntHistogramFilter implements ComplexParamFilter {
 			throw new UnsupportedOperationException();
 		}
 		int[][] bins = ((IntHistogram) aParam).getBins();
+		// The bins are sorted by their distinct values
 		int[] dataRange = bins[0];
-		int fromIndex = 0;
-		while (dataRange[fromIndex] < observationMin) {
-			fromIndex++;
+		int fromIndex = Arrays.binarySearch(dataRange, observationMin);
+		if (fromIndex < 0) {
+			fromIndex = -fromIndex - 1;
 		}
-		int toIndex = fromIndex;
-		while (toIndex < dataRange.length && dataRange[toIndex] <= observationMax) {
-			toIndex++;
+		int toIndex = Arrays.binarySearch(dataRange, observationMax);
+		if (toIndex < 0) {
+			toIndex = -toIndex - 2;
 		}
-		toIndex--;
 		return new IntHistogram(bins, fromIndex, toIndex);
 	}
 
@@ -26,10 +26,6 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.data.filter;
  * #L%
  */
 
-import java.awt.geom.Point2D;
-import java.util.ArrayList;
-import java.util.List;
-
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Points2D;
 
@@ -60,15 +56,7 @@ public class Points2DFilter implements ComplexParamFilter {
 		if (!(aParam instanceof Points2D)) {
 			throw new UnsupportedOperationException();
 		}
-		final Point2D.Double[] original = ((Points2D) aParam).getPoints();
-		final List<Point2D.Double> filtered = new ArrayList<Point2D.Double>(original.length);
-		for (final Point2D.Double point : original) {
-			if (xMin <= point.x && point.x <= xMax) {
-				filtered.add(point);
-			}
-		}
-
-		return new Points2D(filtered);
+		return ((Points2D) aParam).filterX(xMin, xMax);
 	}
 
 	/**
@@ -0,0 +1,340 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data.io;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.InnerException;
+import de.mpg.mpi_inf.bioinf.netanalyzer.NetworkAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkAnalysisReport;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
+
+/**
+ * Manifest of the network statistics files created by a batch analysis in an output directory.
+ * <p>
+ * For every analyzed input file, the manifest stores its path, size and content hash, together with the
+ * interpretations applied, the version of the analysis and a hash of the settings affecting the results. A
+ * later batch analysis into the same directory uses the manifest to reuse the results of input files that have
+ * not changed.
+ * </p>
+ * <p>
+ * The manifest is a tab-delimited text file with one line for every network statistics file.
+ * </p>
+ */
+public class BatchManifest {
+
+	/**
+	 * Name of the manifest file in the output directory.
+	 */
+	public static final String FILE_NAME = "netanalyzer.manifest";
+
+	/**
+	 * Initializes a new instance of <code>BatchManifest</code> and loads the manifest file in the given
+	 * directory, if present.
+	 * 
+	 * @param aOutputDir
+	 *            Output directory of the batch analysis.
+	 * @param aInterpretations
+	 *            Identifier of the interpretations applied in the batch analysis.
+	 * @param aSettings
+	 *            Description of the settings affecting the results of the batch analysis.
+	 */
+	public BatchManifest(File aOutputDir, String aInterpretations, String aSettings) {
+		outputDir = aOutputDir;
+		file = new File(aOutputDir, FILE_NAME);
+		interpretations = aInterpretations;
+		settingsHash = computeHash(aSettings);
+		entries = new HashMap<String, List<String[]>>();
+		load();
+	}
+
+	/**
+	 * Checks if the manifest contains results of the given input file.
+	 * 
+	 * @param aInputFile
+	 *            Input file of the batch analysis.
+	 * @return <code>true</code> if the input file was analyzed previously, regardless of whether the results
+	 *         are still valid; <code>false</code> otherwise.
+	 */
+	public synchronized boolean contains(File aInputFile) {
+		return entries.containsKey(aInputFile.getAbsolutePath());
+	}
+
+	/**
+	 * Gets the reports of a previous analysis of the given input file, if its results are still valid.
+	 * <p>
+	 * The results are valid if the input file, the interpretations applied, the version of the analysis and
+	 * the settings have not changed, and all network statistics files are present.
+	 * </p>
+	 * 
+	 * @param aInputFile
+	 *            Input file of the batch analysis.
+	 * @param aHash
+	 *            Content hash of the input file, as computed by {@link #computeHash(File)}.
+	 * @return Reports of the analysis of all interpretations of the input file; <code>null</code> if the
+	 *         results are not valid.
+	 */
+	public synchronized List<NetworkAnalysisReport> getReports(File aInputFile, String aHash) {
+		final List<String[]> lines = entries.get(aInputFile.getAbsolutePath());
+		if (lines == null) {
+			return null;
+		}
+		final String size = String.valueOf(aInputFile.length());
+		final String version = String.valueOf(NetworkAnalyzer.ANALYSIS_VERSION);
+		final List<NetworkAnalysisReport> reports = new ArrayList<NetworkAnalysisReport>(lines.size());
+		for (final String[] line : lines) {
+			final File netstatFile = new File(outputDir, line[8]);
+			if (!size.equals(line[1]) || !aHash.equals(line[2]) || !interpretations.equals(line[3])
+					|| !version.equals(line[4]) || !settingsHash.equals(line[5]) || !netstatFile.isFile()) {
+				return null;
+			}
+			final NetworkInterpretation interpr = new NetworkInterpretation(null, Boolean.parseBoolean(line[6]),
+					Boolean.parseBoolean(line[7]));
+			reports.add(new NetworkAnalysisReport(aInputFile, interpr, netstatFile));
+		}
+		return reports;
+	}
+
+	/**
+	 * Records the results of the analysis of an input file, replacing any previous results.
+	 * 
+	 * @param aInputFile
+	 *            Input file of the batch analysis.
+	 * @param aHash
+	 *            Content hash of the input file, as computed by {@link #computeHash(File)}.
+	 * @param aReports
+	 *            Reports of the successful analysis of all interpretations of the input file.
+	 */
+	public synchronized void put(File aInputFile, String aHash, List<NetworkAnalysisReport> aReports) {
+		final String path = aInputFile.getAbsolutePath();
+		final List<String[]> lines = new ArrayList<String[]>(aReports.size());
+		for (final NetworkAnalysisReport report : aReports) {
+			final NetworkInterpretation interpr = report.getInterpretation();
+			final boolean additional = interpr.isDirected() ? interpr.isIgnoreUSL() : interpr.isPaired();
+			lines.add(new String[] { path, String.valueOf(aInputFile.length()), aHash, interpretations,
+					String.valueOf(NetworkAnalyzer.ANALYSIS_VERSION), settingsHash,
+					String.valueOf(interpr.isDirected()), String.valueOf(additional),
+					report.getResultFile().getName() });
+		}
+		entries.put(path, lines);
+	}
+
+	/**
+	 * Saves the manifest to its file in the output directory.
+	 * 
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public synchronized void save() throws IOException {
+		final File tempFile = new File(file.getPath() + ".tmp");
+		final BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile));
+		try {
+			writer.write(HEADER);
+			writer.newLine();
+			for (final List<String[]> lines : entries.values()) {
+				for (final String[] line : lines) {
+					for (int i = 0; i < line.length; ++i) {
+						if (i > 0) {
+							writer.write(SEPARATOR);
+						}
+						writer.write(line[i]);
+					}
+					writer.newLine();
+				}
+			}
+		} finally {
+			writer.close();
+		}
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Could not replace " + file);
+		}
+		if (!tempFile.renameTo(file)) {
+			throw new IOException("Could not rename " + tempFile);
+		}
+	}
+
+	/**
+	 * Computes the content hash of a file.
+	 * 
+	 * @param aFile
+	 *            File to be hashed.
+	 * @return Hexadecimal representation of the SHA-256 digest of the file contents.
+	 * @throws IOException
+	 *             If an I/O error occurs while reading the file.
+	 */
+	public static String computeHash(File aFile) throws IOException {
+		final MessageDigest digest = createDigest();
+		final InputStream in = new FileInputStream(aFile);
+		try {
+			final byte[] buffer = new byte[BUFFER_SIZE];
+			for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Computes the hash of a string.
+	 * 
+	 * @param aText
+	 *            Text to be hashed.
+	 * @return Hexadecimal representation of the SHA-256 digest of the UTF-8 encoded text.
+	 */
+	private static String computeHash(String aText) {
+		final MessageDigest digest = createDigest();
+		try {
+			return toHex(digest.digest(aText.getBytes("UTF-8")));
+		} catch (IOException ex) {
+			// UTF-8 is always supported
+			throw new InnerException(ex);
+		}
+	}
+
+	/**
+	 * Creates a new SHA-256 message digest.
+	 * 
+	 * @return Newly created message digest.
+	 */
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			// SHA-256 is supported by every Java platform
+			throw new InnerException(ex);
+		}
+	}
+
+	/**
+	 * Converts a byte array to its hexadecimal representation.
+	 * 
+	 * @param aBytes
+	 *            Bytes to be converted.
+	 * @return String of two hexadecimal digits per byte.
+	 */
+	private static String toHex(byte[] aBytes) {
+		final StringBuilder hex = new StringBuilder(aBytes.length * 2);
+		for (final byte b : aBytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+			hex.append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * Loads the manifest file, if present. Invalid lines are ignored.
+	 */
+	private void load() {
+		if (!file.isFile()) {
+			return;
+		}
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new FileReader(file));
+			if (!HEADER.equals(reader.readLine())) {
+				return;
+			}
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				final String[] fields = line.split(SEPARATOR, -1);
+				if (fields.length != FIELD_COUNT) {
+					continue;
+				}
+				List<String[]> lines = entries.get(fields[0]);
+				if (lines == null) {
+					lines = new ArrayList<String[]>();
+					entries.put(fields[0], lines);
+				}
+				lines.add(fields);
+			}
+		} catch (IOException ex) {
+			// Results of the previous analysis cannot be reused
+			entries.clear();
+		} finally {
+			IOUtils.closeStream(reader);
+		}
+	}
+
+	/**
+	 * First line of the manifest file.
+	 */
+	private static final String HEADER = "#NetworkAnalyzer batch manifest";
+
+	/**
+	 * Separator of the fields in a line of the manifest file.
+	 */
+	private static final String SEPARATOR = "\t";
+
+	/**
+	 * Number of fields in a line of the manifest file.
+	 */
+	private static final int FIELD_COUNT = 9;
+
+	/**
+	 * Size of the buffer used for computing content hashes.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Output directory of the batch analysis.
+	 */
+	private File outputDir;
+
+	/**
+	 * Manifest file.
+	 */
+	private File file;
+
+	/**
+	 * Identifier of the interpretations applied in the batch analysis.
+	 */
+	private String interpretations;
+
+	/**
+	 * Hash of the settings affecting the results of the batch analysis.
+	 */
+	private String settingsHash;
+
+	/**
+	 * Lines of the manifest, grouped by the path of the input file they refer to.
+	 */
+	private Map<String, List<String[]>> entries;
+}
@@ -0,0 +1,446 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data.io;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.IntHistogram;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.LongHistogram;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkAnalysisReport;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Points2D;
+import de.mpg.mpi_inf.bioinf.netanalyzer.dec.Fitter;
+import de.mpg.mpi_inf.bioinf.netanalyzer.dec.PowerLawFit;
+
+/**
+ * Index of the network statistics files created by batch analyses in an output directory.
+ * <p>
+ * For every network statistics file, the index stores the analyzed network file, the interpretation applied,
+ * the values of all simple parameters and a summary of every complex parameter. The summary of a histogram
+ * consists of the mean and the maximum of its observations, and the summary of a set of points is their
+ * number. Integer histograms, such as the degree distributions, are additionally summarized by the exponent
+ * and the lower bound of a discrete power law fitted to their tail. The index can therefore be loaded in a
+ * single read for comparing all analyzed networks; the network statistics files themselves are opened only
+ * when needed.
+ * </p>
+ * <p>
+ * The index is a tab-delimited text file with a header line listing the parameters, and one line for every
+ * network statistics file.
+ * </p>
+ */
+public class BatchResultsIndex {
+
+	/**
+	 * Name of the index file in the output directory.
+	 */
+	public static final String FILE_NAME = "netanalyzer.index";
+
+	/**
+	 * Suffix of the parameters storing the mean of the observations of a histogram.
+	 */
+	public static final String MEAN_SUFFIX = ".mean";
+
+	/**
+	 * Suffix of the parameters storing the maximum of the observations of a histogram.
+	 */
+	public static final String MAX_SUFFIX = ".max";
+
+	/**
+	 * Suffix of the parameters storing the number of points in a set of points.
+	 */
+	public static final String COUNT_SUFFIX = ".count";
+
+	/**
+	 * Suffix of the parameters storing the exponent of the power law fitted to an integer histogram.
+	 */
+	public static final String EXPONENT_SUFFIX = ".plexponent";
+
+	/**
+	 * Suffix of the parameters storing the lower bound of the power law fitted to an integer histogram.
+	 */
+	public static final String XMIN_SUFFIX = ".plxmin";
+
+	/**
+	 * Initializes a new instance of <code>BatchResultsIndex</code> and loads the index file in the given
+	 * directory, if present.
+	 * 
+	 * @param aOutputDir
+	 *            Output directory of batch analyses.
+	 */
+	public BatchResultsIndex(File aOutputDir) {
+		outputDir = aOutputDir;
+		file = new File(aOutputDir, FILE_NAME);
+		params = new LinkedHashSet<String>();
+		entries = new LinkedHashMap<String, Entry>();
+		load();
+	}
+
+	/**
+	 * Checks if the index contains the given network statistics file.
+	 * 
+	 * @param aNetstatFile
+	 *            Network statistics file in the output directory.
+	 * @return <code>true</code> if the index contains an entry for <code>aNetstatFile</code>;
+	 *         <code>false</code> otherwise.
+	 */
+	public synchronized boolean contains(File aNetstatFile) {
+		return entries.containsKey(aNetstatFile.getName());
+	}
+
+	/**
+	 * Adds the results of the analysis of a network interpretation to the index, replacing any previous entry
+	 * for the same network statistics file.
+	 * 
+	 * @param aReport
+	 *            Report of the successful analysis of a network interpretation.
+	 * @param aStats
+	 *            Results of the analysis, as saved in the network statistics file of the report.
+	 */
+	public synchronized void put(NetworkAnalysisReport aReport, NetworkStats aStats) {
+		final Map<String, String> values = new HashMap<String, String>();
+		for (final String param : aStats.getComputedSimple()) {
+			values.put(param, toText(aStats.get(param)));
+		}
+		for (final String param : aStats.getComputedComplex()) {
+			summarize(param, aStats.getComplex(param), values);
+		}
+		for (final String param : values.keySet()) {
+			params.add(param);
+		}
+		final String name = aReport.getResultFile().getName();
+		entries.put(name, new Entry(aReport.getNetwork(), aReport.getInterpretation(), name, values));
+		entryList = null;
+	}
+
+	/**
+	 * Gets the parameters stored in the index.
+	 * 
+	 * @return IDs of the simple parameters and of the summaries of complex parameters, in the order they were
+	 *         first added to the index.
+	 */
+	public synchronized String[] getParameters() {
+		return params.toArray(new String[params.size()]);
+	}
+
+	/**
+	 * Gets the network statistics files in the index.
+	 * 
+	 * @return Reports of the analyses of all network interpretations in the index, in the order they were
+	 *         added.
+	 */
+	public synchronized List<NetworkAnalysisReport> getReports() {
+		final List<NetworkAnalysisReport> reports = new ArrayList<NetworkAnalysisReport>(entries.size());
+		for (final Entry entry : entries.values()) {
+			reports.add(new NetworkAnalysisReport(entry.network, entry.interpretation, new File(outputDir,
+					entry.netstats)));
+		}
+		return reports;
+	}
+
+	/**
+	 * Gets the value of a parameter in an entry of the index.
+	 * 
+	 * @param aIndex
+	 *            Index of the entry, in the order of {@link #getReports()}.
+	 * @param aParam
+	 *            ID of the parameter, as returned by {@link #getParameters()}.
+	 * @return Text representation of the value; <code>null</code> if the parameter was not computed for
+	 *         the entry.
+	 * @throws IndexOutOfBoundsException
+	 *             If <code>aIndex</code> is not a valid entry index.
+	 */
+	public synchronized String getValue(int aIndex, String aParam) {
+		if (aIndex < 0 || aIndex >= entries.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (entryList == null) {
+			entryList = new ArrayList<Entry>(entries.values());
+		}
+		return entryList.get(aIndex).values.get(aParam);
+	}
+
+	/**
+	 * Saves the index to its file in the output directory.
+	 * <p>
+	 * Entries whose network statistics files no longer exist are not saved.
+	 * </p>
+	 * 
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public synchronized void save() throws IOException {
+		final String[] columns = getParameters();
+		final File tempFile = new File(file.getPath() + ".tmp");
+		final BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile));
+		try {
+			writer.write(HEADER);
+			writer.newLine();
+			writer.write(COLUMNS);
+			for (final String param : columns) {
+				writer.write(SEPARATOR);
+				writer.write(param);
+			}
+			writer.newLine();
+			for (final Entry entry : entries.values()) {
+				if (!new File(outputDir, entry.netstats).isFile()) {
+					continue;
+				}
+				final NetworkInterpretation interpr = entry.interpretation;
+				final boolean additional = interpr.isDirected() ? interpr.isIgnoreUSL() : interpr.isPaired();
+				writer.write(entry.network.getPath());
+				writer.write(SEPARATOR + interpr.isDirected() + SEPARATOR + additional + SEPARATOR);
+				writer.write(entry.netstats);
+				for (final String param : columns) {
+					writer.write(SEPARATOR);
+					final String value = entry.values.get(param);
+					if (value != null) {
+						writer.write(value);
+					}
+				}
+				writer.newLine();
+			}
+		} finally {
+			writer.close();
+		}
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Could not replace " + file);
+		}
+		if (!tempFile.renameTo(file)) {
+			throw new IOException("Could not rename " + tempFile);
+		}
+	}
+
+	/**
+	 * Adds the summary of a complex parameter to the given values.
+	 * 
+	 * @param aParam
+	 *            ID of the complex parameter.
+	 * @param aValue
+	 *            Value of the complex parameter.
+	 * @param aValues
+	 *            Map of parameter values to add the summary to.
+	 */
+	private static void summarize(String aParam, ComplexParam aValue, Map<String, String> aValues) {
+		if (aValue instanceof IntHistogram) {
+			final int[][] bins = ((IntHistogram) aValue).getBins();
+			double sum = 0;
+			long count = 0;
+			int max = 0;
+			for (int i = 0; i < bins[0].length; ++i) {
+				if (bins[1][i] > 0) {
+					sum += (double) bins[0][i] * bins[1][i];
+					count += bins[1][i];
+					max = bins[0][i];
+				}
+			}
+			if (count > 0) {
+				aValues.put(aParam + MEAN_SUFFIX, String.valueOf(sum / count));
+				aValues.put(aParam + MAX_SUFFIX, String.valueOf(max));
+			}
+			final PowerLawFit fit = Fitter.maxLikelihoodPowerLawFit((IntHistogram) aValue);
+			if (fit != null) {
+				aValues.put(aParam + EXPONENT_SUFFIX, String.valueOf(fit.getExponent()));
+				aValues.put(aParam + XMIN_SUFFIX, String.valueOf(fit.getXMin()));
+			}
+		} else if (aValue instanceof LongHistogram) {
+			final long[][] bins = ((LongHistogram) aValue).getBins();
+			double sum = 0;
+			long count = 0;
+			long max = 0;
+			for (int i = 0; i < bins[0].length; ++i) {
+				if (bins[1][i] > 0) {
+					sum += (double) bins[0][i] * bins[1][i];
+					count += bins[1][i];
+					max = bins[0][i];
+				}
+			}
+			if (count > 0) {
+				aValues.put(aParam + MEAN_SUFFIX, String.valueOf(sum / count));
+				aValues.put(aParam + MAX_SUFFIX, String.valueOf(max));
+			}
+		} else if (aValue instanceof Points2D) {
+			aValues.put(aParam + COUNT_SUFFIX, String.valueOf(((Points2D) aValue).size()));
+		}
+	}
+
+	/**
+	 * Converts the value of a simple parameter to text that can be stored in the index.
+	 * 
+	 * @param aValue
+	 *            Value of a simple parameter.
+	 * @return Text representation of <code>aValue</code>, in which all separators and line breaks are
+	 *         replaced by spaces.
+	 */
+	private static String toText(Object aValue) {
+		return String.valueOf(aValue).replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+	}
+
+	/**
+	 * Loads the index file, if present. Invalid lines are ignored.
+	 */
+	private void load() {
+		if (!file.isFile()) {
+			return;
+		}
+		String text = null;
+		try {
+			text = IOUtils.readFile(new FileInputStream(file));
+		} catch (IOException ex) {
+			// Index is created anew
+			return;
+		}
+		final String[] lines = text.split("\r?\n");
+		if (lines.length < 2 || !HEADER.equals(lines[0]) || !lines[1].startsWith(COLUMNS)) {
+			return;
+		}
+		final String[] columns = lines[1].split(SEPARATOR, -1);
+		for (int i = FIXED_COUNT; i < columns.length; ++i) {
+			params.add(columns[i]);
+		}
+		for (int l = 2; l < lines.length; ++l) {
+			final String[] fields = lines[l].split(SEPARATOR, -1);
+			if (fields.length != columns.length) {
+				continue;
+			}
+			final Map<String, String> values = new HashMap<String, String>();
+			for (int i = FIXED_COUNT; i < fields.length; ++i) {
+				if (fields[i].length() != 0) {
+					values.put(columns[i], fields[i]);
+				}
+			}
+			final NetworkInterpretation interpr = new NetworkInterpretation(null, Boolean.parseBoolean(fields[1]),
+					Boolean.parseBoolean(fields[2]));
+			entries.put(fields[3], new Entry(new File(fields[0]), interpr, fields[3], values));
+		}
+	}
+
+	/**
+	 * Entry of the index, describing a network statistics file.
+	 */
+	private static class Entry {
+
+		/**
+		 * Initializes a new instance of <code>Entry</code>.
+		 * 
+		 * @param aNetwork
+		 *            Analyzed network file.
+		 * @param aInterpretation
+		 *            Interpretation applied.
+		 * @param aNetstats
+		 *            Name of the network statistics file.
+		 * @param aValues
+		 *            Values of the parameters, mapped by parameter IDs.
+		 */
+		public Entry(File aNetwork, NetworkInterpretation aInterpretation, String aNetstats,
+				Map<String, String> aValues) {
+			network = aNetwork;
+			interpretation = aInterpretation;
+			netstats = aNetstats;
+			values = aValues;
+		}
+
+		/**
+		 * Analyzed network file.
+		 */
+		final File network;
+
+		/**
+		 * Interpretation applied.
+		 */
+		final NetworkInterpretation interpretation;
+
+		/**
+		 * Name of the network statistics file.
+		 */
+		final String netstats;
+
+		/**
+		 * Values of the parameters, mapped by parameter IDs.
+		 */
+		final Map<String, String> values;
+	}
+
+	/**
+	 * First line of the index file.
+	 */
+	private static final String HEADER = "#NetworkAnalyzer batch results index";
+
+	/**
+	 * Separator of the fields in a line of the index file.
+	 */
+	private static final String SEPARATOR = "\t";
+
+	/**
+	 * Beginning of the second line of the index file, naming the fields common to all entries.
+	 */
+	private static final String COLUMNS = "network" + SEPARATOR + "directed" + SEPARATOR + "additional"
+			+ SEPARATOR + "netstats";
+
+	/**
+	 * Number of fields common to all entries.
+	 */
+	private static final int FIXED_COUNT = 4;
+
+	/**
+	 * Output directory of the batch analyses.
+	 */
+	private File outputDir;
+
+	/**
+	 * Index file.
+	 */
+	private File file;
+
+	/**
+	 * IDs of the parameters stored in the index, in the order they were first added.
+	 */
+	private Set<String> params;
+
+	/**
+	 * Entries of the index, mapped by the names of their network statistics files.
+	 */
+	private Map<String, Entry> entries;
+
+	/**
+	 * Entries of the index as a list, in the order of {@link #entries}; <code>null</code> if not created
+	 * since the last modification.
+	 */
+	private List<Entry> entryList;
+}
@@ -0,0 +1,561 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data.io;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Constructor;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AnalysisTiming;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.DeferredParam;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+
+/**
+ * Controller class providing methods for loading and saving <code>NetworkStats</code> instances in a compact
+ * binary format.
+ * <p>
+ * A binary netstats file starts with the title, the simple parameters and the timing of the analysis. These
+ * are followed by one section per complex parameter, in which the data is stored column by column, and an
+ * index giving the offset and length of every section. The last eight bytes of the file contain the offset of
+ * the index. Simple parameters are loaded eagerly, while every complex parameter is read from its section
+ * when it is first accessed.
+ * </p>
+ */
+public class BinaryStatsSerializer {
+
+	/**
+	 * Checks if the given file is a binary netstats file.
+	 * 
+	 * @param aFile
+	 *            File to be checked.
+	 * @return <code>true</code> if <code>aFile</code> starts with the signature of binary netstats files;
+	 *         <code>false</code> otherwise.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 * @throws FileNotFoundException
+	 *             If the specified file does not exist, is a directory rather than a regular file, or for
+	 *             some other reason cannot be opened for reading.
+	 */
+	public static boolean isBinary(File aFile) throws IOException {
+		final DataInputStream in = new DataInputStream(new FileInputStream(aFile));
+		try {
+			return aFile.length() >= 4 && in.readInt() == MAGIC;
+		} finally {
+			IOUtils.closeStream(in);
+		}
+	}
+
+	/**
+	 * Loads network parameters from a binary netstats file.
+	 * <p>
+	 * The complex parameters are not read by this method. They are stored as {@link DeferredParam}s and read
+	 * from <code>aFile</code> on first access; the file must therefore not be modified afterwards.
+	 * </p>
+	 * 
+	 * @param aFile
+	 *            File containing network parameters.
+	 * @return The loaded parameters encapsulated in a <code>NetworkStats</code> instance; <code>null</code>
+	 *         if the file is not a valid binary netstats file.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 * @throws FileNotFoundException
+	 *             If the specified file does not exist, is a directory rather than a regular file, or for
+	 *             some other reason cannot be opened for reading.
+	 */
+	public static NetworkStats load(File aFile) throws IOException {
+		final long length = aFile.length();
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(aFile)));
+			if (length < 16 || in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return null;
+			}
+			final NetworkStats stats = new NetworkStats();
+			stats.setTitle(in.readUTF());
+			if (!readSimple(stats, in)) {
+				return null;
+			}
+			if (in.readBoolean()) {
+				stats.setTiming(readTiming(in));
+			}
+			in.close();
+			in = new DataInputStream(new ByteArrayInputStream(readIndex(aFile, length)));
+			for (int i = in.readInt(); i > 0; --i) {
+				final String paramID = in.readUTF();
+				final String paramType = in.readUTF();
+				final long offset = in.readLong();
+				final int size = in.readInt();
+				if (!paramType.equals(SettingsSerializer.getDefaultType(paramID)) || offset < 0
+						|| offset + size > length) {
+					return null;
+				}
+				final Class<?> type = Class.forName(StatsSerializer.getTypeName(paramType));
+				stats.set(paramID, new Section(aFile, type.getConstructor(ComplexParam.readParams), offset,
+						size));
+			}
+			return stats;
+		} catch (IOException ex) {
+			if (ex instanceof FileNotFoundException) {
+				throw ex;
+			}
+			// Corrupt or truncated file
+			return null;
+		} catch (ClassNotFoundException ex) {
+			return null;
+		} catch (NoSuchMethodException ex) {
+			return null;
+		} catch (IllegalArgumentException ex) {
+			return null;
+		} finally {
+			IOUtils.closeStream(in);
+		}
+	}
+
+	/**
+	 * Saves the computed network parameters to a binary netstats file.
+	 * 
+	 * @param aStats
+	 *            Network parameters encapsulated in a <code>NetworkStats</code> instance.
+	 * @param aFile
+	 *            File to be saved to.
+	 * @throws FileNotFoundException
+	 *             If <code>aFile</code> is a directory rather than a regular file, does not exist but cannot
+	 *             be created, or cannot be opened for any other reason.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static void save(NetworkStats aStats, File aFile) throws IOException {
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+				aFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(aStats.getTitle());
+			writeSimple(aStats, out);
+			final AnalysisTiming timing = aStats.getTiming();
+			out.writeBoolean(timing != null);
+			if (timing != null) {
+				writeTiming(timing, out);
+			}
+
+			final String[] names = aStats.getComputedComplex();
+			final int[] offsets = new int[names.length];
+			final int[] sizes = new int[names.length];
+			for (int i = 0; i < names.length; ++i) {
+				offsets[i] = out.size();
+				aStats.getComplex(names[i]).write(out);
+				sizes[i] = out.size() - offsets[i];
+			}
+			final int indexOffset = out.size();
+			if (indexOffset == Integer.MAX_VALUE) {
+				throw new IOException("Network statistics too large for " + aFile);
+			}
+			out.writeInt(names.length);
+			for (int i = 0; i < names.length; ++i) {
+				out.writeUTF(names[i]);
+				out.writeUTF(aStats.getComplex(names[i]).getClass().getSimpleName());
+				out.writeLong(offsets[i]);
+				out.writeInt(sizes[i]);
+			}
+			out.writeLong(indexOffset);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads an array of <code>int</code> values.
+	 * 
+	 * @param aBuffer
+	 *            Buffer positioned at the array, as written by {@link #writeInts(DataOutputStream, int[])}.
+	 * @return The array read.
+	 * @throws BufferUnderflowException
+	 *             If the buffer does not contain the whole array.
+	 */
+	public static int[] readInts(ByteBuffer aBuffer) {
+		final int length = readLength(aBuffer, 4);
+		final int[] values = new int[length];
+		aBuffer.asIntBuffer().get(values);
+		aBuffer.position(aBuffer.position() + length * 4);
+		return values;
+	}
+
+	/**
+	 * Reads an array of <code>long</code> values.
+	 * 
+	 * @param aBuffer
+	 *            Buffer positioned at the array, as written by {@link #writeLongs(DataOutputStream, long[])}.
+	 * @return The array read.
+	 * @throws BufferUnderflowException
+	 *             If the buffer does not contain the whole array.
+	 */
+	public static long[] readLongs(ByteBuffer aBuffer) {
+		final int length = readLength(aBuffer, 8);
+		final long[] values = new long[length];
+		aBuffer.asLongBuffer().get(values);
+		aBuffer.position(aBuffer.position() + length * 8);
+		return values;
+	}
+
+	/**
+	 * Reads an array of <code>double</code> values.
+	 * 
+	 * @param aBuffer
+	 *            Buffer positioned at the array, as written by
+	 *            {@link #writeDoubles(DataOutputStream, double[])}.
+	 * @return The array read.
+	 * @throws BufferUnderflowException
+	 *             If the buffer does not contain the whole array.
+	 */
+	public static double[] readDoubles(ByteBuffer aBuffer) {
+		final int length = readLength(aBuffer, 8);
+		final double[] values = new double[length];
+		aBuffer.asDoubleBuffer().get(values);
+		aBuffer.position(aBuffer.position() + length * 8);
+		return values;
+	}
+
+	/**
+	 * Writes an array of <code>int</code> values.
+	 * 
+	 * @param aOut
+	 *            Stream (open for writing) to write the array to.
+	 * @param aValues
+	 *            Array to be written.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static void writeInts(DataOutputStream aOut, int[] aValues) throws IOException {
+		aOut.writeInt(aValues.length);
+		for (final int value : aValues) {
+			aOut.writeInt(value);
+		}
+	}
+
+	/**
+	 * Writes an array of <code>long</code> values.
+	 * 
+	 * @param aOut
+	 *            Stream (open for writing) to write the array to.
+	 * @param aValues
+	 *            Array to be written.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static void writeLongs(DataOutputStream aOut, long[] aValues) throws IOException {
+		aOut.writeInt(aValues.length);
+		for (final long value : aValues) {
+			aOut.writeLong(value);
+		}
+	}
+
+	/**
+	 * Writes an array of <code>double</code> values.
+	 * 
+	 * @param aOut
+	 *            Stream (open for writing) to write the array to.
+	 * @param aValues
+	 *            Array to be written.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static void writeDoubles(DataOutputStream aOut, double[] aValues) throws IOException {
+		aOut.writeInt(aValues.length);
+		for (final double value : aValues) {
+			aOut.writeDouble(value);
+		}
+	}
+
+	/**
+	 * Reads the length of an array and checks that the buffer contains all its elements.
+	 * 
+	 * @param aBuffer
+	 *            Buffer positioned at the array.
+	 * @param aElementSize
+	 *            Size, in bytes, of an element of the array.
+	 * @return Length of the array.
+	 * @throws BufferUnderflowException
+	 *             If the buffer does not contain the whole array.
+	 */
+	private static int readLength(ByteBuffer aBuffer, int aElementSize) {
+		final int length = aBuffer.getInt();
+		if (length < 0 || length > aBuffer.remaining() / aElementSize) {
+			throw new BufferUnderflowException();
+		}
+		return length;
+	}
+
+	/**
+	 * Reads the index of the complex parameter sections.
+	 * 
+	 * @param aFile
+	 *            Binary netstats file.
+	 * @param aLength
+	 *            Length of the file, in bytes.
+	 * @return Contents of the index.
+	 * @throws IOException
+	 *             If I/O error occurs or if the offset of the index is invalid.
+	 */
+	private static byte[] readIndex(File aFile, long aLength) throws IOException {
+		final RandomAccessFile file = new RandomAccessFile(aFile, "r");
+		try {
+			file.seek(aLength - 8);
+			final long offset = file.readLong();
+			if (offset < 0 || offset > aLength - 8) {
+				throw new IOException();
+			}
+			final byte[] index = new byte[(int) (aLength - 8 - offset)];
+			file.seek(offset);
+			file.readFully(index);
+			return index;
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Reads the simple network parameters.
+	 * 
+	 * @param aStats
+	 *            Network parameters to store the simple parameters read in.
+	 * @param aIn
+	 *            Stream (open for reading) to read the parameters from.
+	 * @return <code>true</code> if all parameters were read; <code>false</code> if the data is invalid.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	private static boolean readSimple(NetworkStats aStats, DataInputStream aIn) throws IOException {
+		for (int i = aIn.readInt(); i > 0; --i) {
+			final String name = aIn.readUTF();
+			if (!Messages.containsSimpleParam(name)) {
+				return false;
+			}
+			Object param = null;
+			switch (aIn.readByte()) {
+				case 'B':
+					param = Boolean.valueOf(aIn.readBoolean());
+					break;
+				case 'D':
+					param = new Double(aIn.readDouble());
+					break;
+				case 'I':
+					param = new Integer(aIn.readInt());
+					break;
+				case 'L':
+					param = new Long(aIn.readLong());
+					break;
+				case 'S':
+					param = aIn.readUTF();
+					break;
+				default:
+					return false;
+			}
+			aStats.set(name, param);
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the simple network parameters.
+	 * <p>
+	 * Every parameter is written as its name, followed by a one-byte type tag and the value.
+	 * </p>
+	 * 
+	 * @param aStats
+	 *            Network parameters encapsulated in a <code>NetworkStats</code> instance.
+	 * @param aOut
+	 *            Stream (open for writing) to write the parameters to.
+	 * @throws IOException
+	 *             If I/O error occurs, or if a parameter is of unsupported type.
+	 */
+	private static void writeSimple(NetworkStats aStats, DataOutputStream aOut) throws IOException {
+		final String[] names = aStats.getComputedSimple();
+		aOut.writeInt(names.length);
+		for (final String name : names) {
+			aOut.writeUTF(name);
+			final Object value = aStats.get(name);
+			if (value instanceof Boolean) {
+				aOut.writeByte('B');
+				aOut.writeBoolean(((Boolean) value).booleanValue());
+			} else if (value instanceof Double) {
+				aOut.writeByte('D');
+				aOut.writeDouble(((Double) value).doubleValue());
+			} else if (value instanceof Integer) {
+				aOut.writeByte('I');
+				aOut.writeInt(((Integer) value).intValue());
+			} else if (value instanceof Long) {
+				aOut.writeByte('L');
+				aOut.writeLong(((Long) value).longValue());
+			} else if (value instanceof String) {
+				aOut.writeByte('S');
+				aOut.writeUTF((String) value);
+			} else {
+				throw new IOException("Unsupported type of parameter " + name);
+			}
+		}
+	}
+
+	/**
+	 * Reads the per-phase timing of the analysis.
+	 * 
+	 * @param aIn
+	 *            Stream (open for reading) to read the timing from.
+	 * @return The timing read.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	private static AnalysisTiming readTiming(DataInputStream aIn) throws IOException {
+		final AnalysisTiming timing = new AnalysisTiming();
+		timing.updatePeakHeap(aIn.readLong());
+		for (int i = aIn.readInt(); i > 0; --i) {
+			final String phase = aIn.readUTF();
+			final long wall = aIn.readLong();
+			final long cpu = aIn.readLong();
+			final long allocated = aIn.readLong();
+			final long peakAllocated = aIn.readLong();
+			timing.add(phase, wall, cpu, allocated, aIn.readLong());
+			timing.setPeakThreadAllocated(phase, peakAllocated);
+		}
+		return timing;
+	}
+
+	/**
+	 * Writes the per-phase timing of the analysis.
+	 * 
+	 * @param aTiming
+	 *            Timing measurements of the analysis.
+	 * @param aOut
+	 *            Stream (open for writing) to write the timing to.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	private static void writeTiming(AnalysisTiming aTiming, DataOutputStream aOut) throws IOException {
+		final String[] phases = aTiming.getPhases();
+		aOut.writeLong(aTiming.getPeakHeap());
+		aOut.writeInt(phases.length);
+		for (final String phase : phases) {
+			aOut.writeUTF(phase);
+			aOut.writeLong(aTiming.getWallTime(phase));
+			aOut.writeLong(aTiming.getCpuTime(phase));
+			aOut.writeLong(aTiming.getAllocated(phase));
+			aOut.writeLong(aTiming.getPeakThreadAllocated(phase));
+			aOut.writeLong(aTiming.getEdgesTraversed(phase));
+		}
+	}
+
+	/**
+	 * Complex parameter stored in a section of a binary netstats file and read on first access.
+	 */
+	private static class Section extends DeferredParam {
+
+		/**
+		 * Initializes a new instance of <code>Section</code>.
+		 * 
+		 * @param aFile
+		 *            Binary netstats file.
+		 * @param aConstructor
+		 *            Constructor of the complex parameter type, accepting {@link ComplexParam#readParams}.
+		 * @param aOffset
+		 *            Offset of the section in the file.
+		 * @param aSize
+		 *            Size of the section, in bytes.
+		 */
+		public Section(File aFile, Constructor<?> aConstructor, long aOffset, int aSize) {
+			file = aFile;
+			constructor = aConstructor;
+			offset = aOffset;
+			size = aSize;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.DeferredParam#load()
+		 */
+		@Override
+		protected ComplexParam load() throws IOException {
+			final byte[] data = new byte[size];
+			final RandomAccessFile in = new RandomAccessFile(file, "r");
+			try {
+				in.seek(offset);
+				in.readFully(data);
+			} finally {
+				in.close();
+			}
+			try {
+				return (ComplexParam) constructor.newInstance(ByteBuffer.wrap(data));
+			} catch (Exception ex) {
+				// Corrupt data (BufferUnderflowException or IllegalArgumentException wrapped by
+				// InvocationTargetException), or the parameter type cannot be instantiated
+				throw new IOException("Invalid data in " + file, ex);
+			}
+		}
+
+		/**
+		 * Binary netstats file.
+		 */
+		private final File file;
+
+		/**
+		 * Constructor of the complex parameter type.
+		 */
+		private final Constructor<?> constructor;
+
+		/**
+		 * Offset of the section in the file.
+		 */
+		private final long offset;
+
+		/**
+		 * Size of the section, in bytes.
+		 */
+		private final int size;
+	}
+
+	/**
+	 * Magic number identifying binary netstats files (&quot;NAST&quot; in ASCII).
+	 */
+	private static final int MAGIC = 0x4E415354;
+
+	/**
+	 * Version of the binary netstats file format.
+	 */
+	private static final int VERSION = 1;
+}
@@ -0,0 +1,202 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data.io;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AnalysisCheckpoint;
+
+/**
+ * Controller class providing methods for loading and saving <code>AnalysisCheckpoint</code> instances in a
+ * compact binary format.
+ */
+public class CheckpointSerializer {
+
+	/**
+	 * Loads an analysis checkpoint from file.
+	 * 
+	 * @param aFile
+	 *            File containing the checkpoint.
+	 * @return The loaded checkpoint; <code>null</code> if the file does not exist or is not a valid
+	 *         checkpoint file.
+	 */
+	public static AnalysisCheckpoint load(File aFile) {
+		if (!aFile.isFile()) {
+			return null;
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(aFile)));
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return null;
+			}
+			final AnalysisCheckpoint checkpoint = new AnalysisCheckpoint(in.readUTF(), in.readInt(), in
+					.readInt());
+			checkpoint.setPathLengths(readArray(in));
+			checkpoint.setSharedNeighbors(readArray(in));
+			for (int i = in.readInt(); i > 0; --i) {
+				checkpoint.addSource(in.readUTF(), in.readInt(), in.readDouble());
+			}
+			for (int i = in.readInt(); i > 0; --i) {
+				checkpoint.setNode(in.readUTF(), in.readDouble(), in.readLong());
+			}
+			for (int i = in.readInt(); i > 0; --i) {
+				checkpoint.setEdge(in.readUTF(), in.readDouble());
+			}
+			return checkpoint;
+		} catch (IOException ex) {
+			// Corrupt or truncated file
+			return null;
+		} finally {
+			IOUtils.closeStream(in);
+		}
+	}
+
+	/**
+	 * Saves an analysis checkpoint to file.
+	 * <p>
+	 * The checkpoint is first written to a temporary file, which then replaces <code>aFile</code>, such that
+	 * a crash while saving does not destroy the previous checkpoint.
+	 * </p>
+	 * 
+	 * @param aCheckpoint
+	 *            Checkpoint to be saved.
+	 * @param aFile
+	 *            File to save the checkpoint to.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static void save(AnalysisCheckpoint aCheckpoint, File aFile) throws IOException {
+		final File tempFile = new File(aFile.getPath() + ".tmp");
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+				tempFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(aCheckpoint.getTitle());
+			out.writeInt(aCheckpoint.getNodeCount());
+			out.writeInt(aCheckpoint.getEdgeCount());
+			writeArray(out, aCheckpoint.getPathLengths());
+			writeArray(out, aCheckpoint.getSharedNeighbors());
+			out.writeInt(aCheckpoint.getSourceCount());
+			for (final String node : aCheckpoint.getSources()) {
+				out.writeUTF(node);
+				out.writeInt(aCheckpoint.getEccentricity(node));
+				out.writeDouble(aCheckpoint.getApl(node));
+			}
+			out.writeInt(aCheckpoint.getNodes().size());
+			for (final String node : aCheckpoint.getNodes()) {
+				out.writeUTF(node);
+				out.writeDouble(aCheckpoint.getNodeBetweenness(node));
+				out.writeLong(aCheckpoint.getStress(node));
+			}
+			out.writeInt(aCheckpoint.getEdges().size());
+			for (final String edge : aCheckpoint.getEdges()) {
+				out.writeUTF(edge);
+				out.writeDouble(aCheckpoint.getEdgeBetweenness(edge));
+			}
+		} finally {
+			out.close();
+		}
+		if (aFile.exists() && !aFile.delete()) {
+			throw new IOException("Could not replace " + aFile);
+		}
+		if (!tempFile.renameTo(aFile)) {
+			throw new IOException("Could not rename " + tempFile);
+		}
+	}
+
+	/**
+	 * Deletes an analysis checkpoint file, if it exists.
+	 * 
+	 * @param aFile
+	 *            Checkpoint file to be deleted.
+	 */
+	public static void delete(File aFile) {
+		aFile.delete();
+		new File(aFile.getPath() + ".tmp").delete();
+	}
+
+	/**
+	 * Reads an array of <code>long</code> values.
+	 * 
+	 * @param aIn
+	 *            Stream (open for reading) to read the array from.
+	 * @return The array read; <code>null</code> if a <code>null</code> array was saved.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	private static long[] readArray(DataInputStream aIn) throws IOException {
+		final int length = aIn.readInt();
+		if (length < 0) {
+			return null;
+		}
+		final long[] array = new long[length];
+		for (int i = 0; i < length; ++i) {
+			array[i] = aIn.readLong();
+		}
+		return array;
+	}
+
+	/**
+	 * Writes an array of <code>long</code> values.
+	 * 
+	 * @param aOut
+	 *            Stream (open for writing) to write the array to.
+	 * @param aArray
+	 *            Array to be written; can be <code>null</code>.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	private static void writeArray(DataOutputStream aOut, long[] aArray) throws IOException {
+		if (aArray == null) {
+			aOut.writeInt(-1);
+			return;
+		}
+		aOut.writeInt(aArray.length);
+		for (final long value : aArray) {
+			aOut.writeLong(value);
+		}
+	}
+
+	/**
+	 * Magic number identifying checkpoint files (&quot;NACP&quot; in ASCII).
+	 */
+	private static final int MAGIC = 0x4E414350;
+
+	/**
+	 * Version of the checkpoint file format.
+	 */
+	private static final int VERSION = 1;
+}
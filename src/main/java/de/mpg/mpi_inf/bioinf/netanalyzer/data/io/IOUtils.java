@@ -26,11 +26,25 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.data.io;
  * #L%
  */
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
  * Utility class providing helper methods for stream manipulation.
@@ -39,6 +53,106 @@ import java.io.InputStreamReader;
  */
 public abstract class IOUtils {
 
+	/**
+	 * Name of the output compression that writes files as they are.
+	 */
+	public static final String COMPRESSION_NONE = "none";
+
+	/**
+	 * Name of the output compression that writes files in the gzip format.
+	 */
+	public static final String COMPRESSION_GZIP = "gzip";
+
+	/**
+	 * Name of the output compression that writes files in the zlib (deflate) format.
+	 */
+	public static final String COMPRESSION_DEFLATE = "deflate";
+
+	/**
+	 * Opens a buffered stream for writing to the given file.
+	 * 
+	 * @param aFile
+	 *            File to be written.
+	 * @param aCompression
+	 *            Compression of the file - one of {@link #COMPRESSION_NONE}, {@link #COMPRESSION_GZIP} or
+	 *            {@link #COMPRESSION_DEFLATE}. Any other value, including <code>null</code>, is treated as
+	 *            {@link #COMPRESSION_NONE}.
+	 * @return Stream (open for writing) to <code>aFile</code>.
+	 * @throws FileNotFoundException
+	 *             If <code>aFile</code> is a directory rather than a regular file, does not exist but cannot
+	 *             be created, or cannot be opened for any other reason.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static OutputStream openOutput(File aFile, String aCompression) throws IOException {
+		final OutputStream out = new FileOutputStream(aFile);
+		try {
+			if (COMPRESSION_GZIP.equals(aCompression)) {
+				return new GZIPOutputStream(out, BUFFER_SIZE);
+			}
+			if (COMPRESSION_DEFLATE.equals(aCompression)) {
+				return new DeflaterOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+			}
+		} catch (IOException ex) {
+			closeStream(out);
+			throw ex;
+		}
+		return new BufferedOutputStream(out, BUFFER_SIZE);
+	}
+
+	/**
+	 * Opens a buffered writer to the given file.
+	 * 
+	 * @param aFile
+	 *            File to be written.
+	 * @param aCompression
+	 *            Compression of the file; see {@link #openOutput(File, String)}.
+	 * @return Writer (open) to <code>aFile</code>.
+	 * @throws FileNotFoundException
+	 *             If <code>aFile</code> is a directory rather than a regular file, does not exist but cannot
+	 *             be created, or cannot be opened for any other reason.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static Writer openWriter(File aFile, String aCompression) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(openOutput(aFile, aCompression)), BUFFER_SIZE);
+	}
+
+	/**
+	 * Opens a buffered stream for reading the given file, decompressing it if necessary.
+	 * <p>
+	 * Files written in the gzip or zlib formats are recognized by their first two bytes.
+	 * </p>
+	 * 
+	 * @param aFile
+	 *            File to be read.
+	 * @return Stream (open for reading) of the uncompressed contents of <code>aFile</code>.
+	 * @throws FileNotFoundException
+	 *             If the specified file does not exist, is a directory rather than a regular file, or for
+	 *             some other reason cannot be opened for reading.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static InputStream openInput(File aFile) throws IOException {
+		final InputStream in = new BufferedInputStream(new FileInputStream(aFile), BUFFER_SIZE);
+		try {
+			in.mark(2);
+			final int first = in.read();
+			final int second = in.read();
+			in.reset();
+			if (first == 0x1f && second == 0x8b) {
+				return new GZIPInputStream(in, BUFFER_SIZE);
+			}
+			if (first == 0x78 && (first * 256 + second) % 31 == 0) {
+				return new BufferedInputStream(new InflaterInputStream(in), BUFFER_SIZE);
+			}
+		} catch (IOException ex) {
+			closeStream(in);
+			throw ex;
+		}
+		return in;
+	}
+
 	/**
 	 * Reads the contents of the given stream as a <code>String</code> and closes the stream.
 	 * 
@@ -87,4 +201,9 @@ public abstract class IOUtils {
 			// Unsuccessful attempt to close the stream; ignore
 		}
 	}
+
+	/**
+	 * Size, in bytes, of the buffers of the streams opened by this class.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
 }
@@ -27,8 +27,8 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.data.io;
  */
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 
 /**
  * Reader for &quot;.netstats&quot: version 2 files. It uses <code>BufferedReader</code> for
@@ -41,10 +41,10 @@ class Netstats2Reader implements LineReader {
 	/**
 	 * Initializes a new instance of <code>Netstats2Reader</code>.
 	 * 
-	 * @param aFileReader Reader of the underlying file stream.
+	 * @param aReader Reader of the underlying stream.
 	 */
-	public Netstats2Reader(FileReader aFileReader) {
-		reader = new BufferedReader(aFileReader);
+	public Netstats2Reader(Reader aReader) {
+		reader = new BufferedReader(aReader);
 	}
 
 	/*
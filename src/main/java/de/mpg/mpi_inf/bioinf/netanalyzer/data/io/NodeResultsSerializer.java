@@ -0,0 +1,409 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data.io;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NodeResults;
+
+/**
+ * Controller class providing methods for exporting and loading per-node results of an analysis.
+ * <p>
+ * Results are exported either as comma-separated values, written node by node, or in a compact binary
+ * format, in which every column is stored as a contiguous array. A binary node results file contains the
+ * number of nodes, their SUIDs and names, followed by the name, type, value states and values of every
+ * column.
+ * </p>
+ */
+public class NodeResultsSerializer {
+
+	/**
+	 * Name of the format in which no node results are saved.
+	 */
+	public static final String FORMAT_NONE = "none";
+
+	/**
+	 * Name of the compact binary format of node results.
+	 */
+	public static final String FORMAT_BINARY = "binary";
+
+	/**
+	 * Name of the comma-separated values format of node results.
+	 */
+	public static final String FORMAT_CSV = "csv";
+
+	/**
+	 * Extension of binary node results files.
+	 */
+	public static final String BINARY_EXTENSION = ".nresults";
+
+	/**
+	 * Extension of node results files in comma-separated values format.
+	 */
+	public static final String CSV_EXTENSION = ".nresults.csv";
+
+	/**
+	 * Loads node results from a binary file.
+	 * 
+	 * @param aFile
+	 *            Binary node results file.
+	 * @return The loaded node results; <code>null</code> if the file is not a valid binary node results
+	 *         file.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 * @throws FileNotFoundException
+	 *             If the specified file does not exist, is a directory rather than a regular file, or for
+	 *             some other reason cannot be opened for reading.
+	 */
+	public static NodeResults load(File aFile) throws IOException {
+		final long length = aFile.length();
+		if (length > Integer.MAX_VALUE) {
+			return null;
+		}
+		final byte[] data = new byte[(int) length];
+		final InputStream in = new FileInputStream(aFile);
+		try {
+			int read = 0;
+			while (read < data.length) {
+				final int count = in.read(data, read, data.length - read);
+				if (count < 0) {
+					return null;
+				}
+				read += count;
+			}
+		} finally {
+			IOUtils.closeStream(in);
+		}
+		try {
+			final ByteBuffer buffer = ByteBuffer.wrap(data);
+			if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				return null;
+			}
+			final long[] suids = BinaryStatsSerializer.readLongs(buffer);
+			final String[] names = new String[suids.length];
+			for (int i = 0; i < names.length; ++i) {
+				names[i] = readString(buffer);
+			}
+			final NodeResults results = new NodeResults(suids, names);
+			for (int i = buffer.getInt(); i > 0; --i) {
+				final String column = readString(buffer);
+				final byte type = buffer.get();
+				final byte[] states = readBytes(buffer);
+				final Object values;
+				switch (type) {
+					case NodeResults.TYPE_INT:
+						values = BinaryStatsSerializer.readInts(buffer);
+						break;
+					case NodeResults.TYPE_LONG:
+						values = BinaryStatsSerializer.readLongs(buffer);
+						break;
+					case NodeResults.TYPE_DOUBLE:
+						values = BinaryStatsSerializer.readDoubles(buffer);
+						break;
+					case NodeResults.TYPE_BOOLEAN:
+						final byte[] bytes = readBytes(buffer);
+						final boolean[] flags = new boolean[bytes.length];
+						for (int j = 0; j < bytes.length; ++j) {
+							flags[j] = bytes[j] != 0;
+						}
+						values = flags;
+						break;
+					default:
+						return null;
+				}
+				results.putColumn(column, states, values);
+			}
+			return results;
+		} catch (BufferUnderflowException ex) {
+			// Truncated file
+			return null;
+		} catch (IllegalArgumentException ex) {
+			// Inconsistent number of nodes
+			return null;
+		}
+	}
+
+	/**
+	 * Saves node results to a binary file.
+	 * 
+	 * @param aResults
+	 *            Node results to be saved.
+	 * @param aFile
+	 *            File to be saved to.
+	 * @throws FileNotFoundException
+	 *             If <code>aFile</code> is a directory rather than a regular file, does not exist but cannot
+	 *             be created, or cannot be opened for any other reason.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static void save(NodeResults aResults, File aFile) throws IOException {
+		final DataOutputStream out = new DataOutputStream(IOUtils.openOutput(aFile, IOUtils.COMPRESSION_NONE));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			final int count = aResults.getNodeCount();
+			out.writeInt(count);
+			for (int i = 0; i < count; ++i) {
+				out.writeLong(aResults.getSuid(i));
+			}
+			for (int i = 0; i < count; ++i) {
+				writeString(out, aResults.getName(i));
+			}
+			final String[] columns = aResults.getColumnNames();
+			out.writeInt(columns.length);
+			for (final String column : columns) {
+				writeString(out, column);
+				final byte type = aResults.getType(column);
+				out.writeByte(type);
+				writeBytes(out, aResults.getStates(column));
+				final Object values = aResults.getValues(column);
+				switch (type) {
+					case NodeResults.TYPE_INT:
+						BinaryStatsSerializer.writeInts(out, (int[]) values);
+						break;
+					case NodeResults.TYPE_LONG:
+						BinaryStatsSerializer.writeLongs(out, (long[]) values);
+						break;
+					case NodeResults.TYPE_DOUBLE:
+						BinaryStatsSerializer.writeDoubles(out, (double[]) values);
+						break;
+					default:
+						final boolean[] flags = (boolean[]) values;
+						out.writeInt(flags.length);
+						for (final boolean flag : flags) {
+							out.writeByte(flag ? 1 : 0);
+						}
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Saves node results as comma-separated values to a file.
+	 * 
+	 * @param aResults
+	 *            Node results to be saved.
+	 * @param aFile
+	 *            File to be saved to.
+	 * @param aCompression
+	 *            Compression of the file; see {@link IOUtils#openOutput(File, String)}.
+	 * @throws FileNotFoundException
+	 *             If <code>aFile</code> is a directory rather than a regular file, does not exist but cannot
+	 *             be created, or cannot be opened for any other reason.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static void saveCsv(NodeResults aResults, File aFile, String aCompression) throws IOException {
+		saveCsv(aResults, IOUtils.openWriter(aFile, aCompression));
+	}
+
+	/**
+	 * Saves node results as comma-separated values.
+	 * <p>
+	 * The first line contains the column names, starting with &quot;SUID&quot; and &quot;name&quot;. Every
+	 * subsequent line contains the values of a node; values that are not set are left empty. The lines are
+	 * written one at a time, and the writer is closed afterwards.
+	 * </p>
+	 * 
+	 * @param aResults
+	 *            Node results to be saved.
+	 * @param aWriter
+	 *            Writer to save the results to.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static void saveCsv(NodeResults aResults, Writer aWriter) throws IOException {
+		try {
+			final String[] columns = aResults.getColumnNames();
+			aWriter.write("SUID,name");
+			for (final String column : columns) {
+				aWriter.write(',');
+				writeField(aWriter, column);
+			}
+			aWriter.write('\n');
+			final StringBuilder line = new StringBuilder();
+			final int count = aResults.getNodeCount();
+			for (int i = 0; i < count; ++i) {
+				line.setLength(0);
+				line.append(aResults.getSuid(i)).append(',');
+				appendField(line, aResults.getName(i));
+				for (final String column : columns) {
+					line.append(',');
+					final Object value = aResults.get(i, column);
+					if (value != null) {
+						line.append(value);
+					}
+				}
+				line.append('\n');
+				aWriter.write(line.toString());
+			}
+		} finally {
+			aWriter.close();
+		}
+	}
+
+	/**
+	 * Writes a text field of comma-separated values.
+	 * 
+	 * @param aWriter
+	 *            Writer to write the field to.
+	 * @param aField
+	 *            Text of the field.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	private static void writeField(Writer aWriter, String aField) throws IOException {
+		final StringBuilder field = new StringBuilder();
+		appendField(field, aField);
+		aWriter.write(field.toString());
+	}
+
+	/**
+	 * Appends a text field of comma-separated values, enclosing it in quotes if necessary.
+	 * 
+	 * @param aLine
+	 *            Line to append the field to.
+	 * @param aField
+	 *            Text of the field; <code>null</code> for an empty field.
+	 */
+	private static void appendField(StringBuilder aLine, String aField) {
+		if (aField == null) {
+			return;
+		}
+		if (aField.indexOf(',') < 0 && aField.indexOf('"') < 0 && aField.indexOf('\n') < 0
+				&& aField.indexOf('\r') < 0) {
+			aLine.append(aField);
+			return;
+		}
+		aLine.append('"');
+		for (int i = 0; i < aField.length(); ++i) {
+			final char c = aField.charAt(i);
+			if (c == '"') {
+				aLine.append('"');
+			}
+			aLine.append(c);
+		}
+		aLine.append('"');
+	}
+
+	/**
+	 * Reads a string, as written by {@link #writeString(DataOutputStream, String)}.
+	 * 
+	 * @param aBuffer
+	 *            Buffer positioned at the string.
+	 * @return The string read; <code>null</code> if a <code>null</code> string was written.
+	 * @throws BufferUnderflowException
+	 *             If the buffer does not contain the whole string.
+	 */
+	private static String readString(ByteBuffer aBuffer) {
+		final int length = aBuffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > aBuffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		final String result = new String(aBuffer.array(), aBuffer.position(), length, StandardCharsets.UTF_8);
+		aBuffer.position(aBuffer.position() + length);
+		return result;
+	}
+
+	/**
+	 * Writes a string as its length in bytes, followed by its UTF-8 encoding.
+	 * 
+	 * @param aOut
+	 *            Stream (open for writing) to write the string to.
+	 * @param aString
+	 *            String to be written; can be <code>null</code>.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	private static void writeString(DataOutputStream aOut, String aString) throws IOException {
+		if (aString == null) {
+			aOut.writeInt(-1);
+			return;
+		}
+		final byte[] bytes = aString.getBytes(StandardCharsets.UTF_8);
+		aOut.writeInt(bytes.length);
+		aOut.write(bytes);
+	}
+
+	/**
+	 * Reads an array of bytes, as written by {@link #writeBytes(DataOutputStream, byte[])}.
+	 * 
+	 * @param aBuffer
+	 *            Buffer positioned at the array.
+	 * @return The array read.
+	 * @throws BufferUnderflowException
+	 *             If the buffer does not contain the whole array.
+	 */
+	private static byte[] readBytes(ByteBuffer aBuffer) {
+		final int length = aBuffer.getInt();
+		if (length < 0 || length > aBuffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		final byte[] values = new byte[length];
+		aBuffer.get(values);
+		return values;
+	}
+
+	/**
+	 * Writes an array of bytes.
+	 * 
+	 * @param aOut
+	 *            Stream (open for writing) to write the array to.
+	 * @param aValues
+	 *            Array to be written.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	private static void writeBytes(DataOutputStream aOut, byte[] aValues) throws IOException {
+		aOut.writeInt(aValues.length);
+		aOut.write(aValues);
+	}
+
+	/**
+	 * Magic number identifying binary node results files (&quot;NANR&quot; in ASCII).
+	 */
+	private static final int MAGIC = 0x4E414E52;
+
+	/**
+	 * Version of the binary node results format.
+	 */
+	private static final int VERSION = 1;
+}
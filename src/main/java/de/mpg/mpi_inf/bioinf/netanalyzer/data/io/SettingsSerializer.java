@@ -108,6 +108,21 @@ public abstract class SettingsSerializer {
 		return pluginSettings;
 	}
 
+	/**
+	 * Initializes the settings by loading them from the internal XML settings file only.
+	 * <p>
+	 * Unlike {@link #initVisualSettings()}, this method neither reads nor writes the external settings file.
+	 * It is used where the settings of the user must not be affected, such as in unit tests.
+	 * </p>
+	 * 
+	 * @throws InnerException
+	 *             If locating, opening or parsing the internal XML settings file has failed.
+	 */
+	public static void initDefaultSettings() {
+		visualSettings = new HashMap<String, SettingsGroup>();
+		loadSettings(getDocInternal());
+	}
+
 	/**
 	 * Initializes the default visual settings by loading them from file(s). This method is called upon plugin
 	 * initialization only.
@@ -129,6 +144,8 @@ public abstract class SettingsSerializer {
 		if (doc != null) {
 			try {
 				loadSettings(doc);
+				// Settings files saved by older versions lack the groups of newer complex parameters
+				loadGroups(getDocInternal().getRootElement(), true);
 				return;
 			} catch (Exception ex) {
 				final String msg = Messages.SM_LOADSETTINGSFAIL1 + Plugin.getSettingsFileName()
@@ -259,13 +276,35 @@ public abstract class SettingsSerializer {
 	 *            Document that contains the settings.
 	 */
 	private static void loadSettings(Document aDoc) {
+		Element root = aDoc.getRootElement();
 		try {
-			Element root = aDoc.getRootElement();
 			pluginSettings = new PluginSettings(root.getChild(PluginSettings.tag));
+		} catch (SecurityException ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw new InnerException(ex);
+		}
+		loadGroups(root, false);
+	}
+
+	/**
+	 * Loads the visual settings groups of complex parameters from a given XML element.
+	 * 
+	 * @param aRoot
+	 *            Root element of the settings document.
+	 * @param aMissingOnly
+	 *            Flag indicating if only the groups for parameters that have no settings yet must be
+	 *            loaded.
+	 */
+	private static void loadGroups(Element aRoot, boolean aMissingOnly) {
+		try {
 			// TODO: [Cytoscape 2.8] Check if a new version of JDom is used
-			final List<?> paramSettings = root.getChildren(SettingsGroup.tag);
+			final List<?> paramSettings = aRoot.getChildren(SettingsGroup.tag);
 			for (final Object el : paramSettings) {
 				final Element complexParamEl = (Element) el;
+				if (aMissingOnly && visualSettings.containsKey(complexParamEl.getAttributeValue("name"))) {
+					continue;
+				}
 				final String type = complexParamEl.getAttributeValue("type");
 				final Class<?> sGroup = Plugin.getSettingsGroupClass(type);
 				final Constructor<?> constr = sGroup.getConstructor(XMLSerializable.constructorParams);
@@ -26,15 +26,19 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.data.io;
  * #L%
  */
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 
 import de.mpg.mpi_inf.bioinf.netanalyzer.InnerException;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AnalysisTiming;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
@@ -48,6 +52,10 @@ public class StatsSerializer {
 
 	/**
 	 * Loads network parameters from file.
+	 * <p>
+	 * Both text and binary netstats files are accepted; the format is detected automatically. Text files can
+	 * also be compressed. The complex parameters of binary files are loaded on demand.
+	 * </p>
 	 * 
 	 * @param aFile
 	 *            File containing network parameters.
@@ -61,10 +69,13 @@ public class StatsSerializer {
 	 */
 	@SuppressWarnings("fallthrough")
 	public static NetworkStats load(File aFile) throws IOException {
+		if (BinaryStatsSerializer.isBinary(aFile)) {
+			return BinaryStatsSerializer.load(aFile);
+		}
 		NetworkStats stats = null;
 		LineReader reader = null;
 		try {
-			reader = new Netstats2Reader(new FileReader(aFile));
+			reader = new Netstats2Reader(new InputStreamReader(IOUtils.openInput(aFile)));
 			switch (getVersion(reader.readLine())) {
 				case 1:
 					reader = new Netstats1Reader((Netstats2Reader) reader);
@@ -75,6 +86,8 @@ public class StatsSerializer {
 					for (String line = reader.readLine(); line != null; line = reader.readLine()) {
 						if (SIMPLE_HEADER.equals(line)) {
 							loadSimple(stats, reader);
+						} else if (TIMING_HEADER.equals(line)) {
+							loadTiming(stats, reader);
 						} else if (COMPLEX_HEADER.equals(line)) {
 							loadComplex(stats, reader);
 						}
@@ -103,7 +116,7 @@ public class StatsSerializer {
 	 *             If I/O error occurs.
 	 */
 	public static void save(NetworkStats aStats, String aFileName) throws IOException {
-		save(aStats, new FileWriter(aFileName));
+		save(aStats, new File(aFileName));
 	}
 
 	/**
@@ -121,7 +134,41 @@ public class StatsSerializer {
 	 *             If I/O error occurs.
 	 */
 	public static void save(NetworkStats aStats, File aFile) throws IOException {
-		save(aStats, new FileWriter(aFile));
+		save(aStats, aFile, IOUtils.COMPRESSION_NONE);
+	}
+
+	/**
+	 * Saves the computed network parameters to a file, compressing it if requested.
+	 * 
+	 * @param aStats
+	 *            Network parameters encapsulated in a <code>NetworkStats</code> instance.
+	 * @param aFile
+	 *            File to be saved to.
+	 * @param aCompression
+	 *            Compression of the file; see {@link IOUtils#openOutput(File, String)}.
+	 * 
+	 * @throws FileNotFoundException
+	 *             If <code>aFile</code> is a directory rather than a regular file, does not exist but cannot
+	 *             be created, or cannot be opened for any other reason.
+	 * @throws IOException
+	 *             If I/O error occurs.
+	 */
+	public static void save(NetworkStats aStats, File aFile, String aCompression) throws IOException {
+		save(aStats, IOUtils.openWriter(aFile, aCompression));
+	}
+
+	/**
+	 * Saves all the computed network parameters to the given stream and closes it.
+	 * 
+	 * @param aStats
+	 *            Network parameters encapsulated in a <code>NetworkStats</code> instance.
+	 * @param aOut
+	 *            Stream (open for writing) to save the parameters to.
+	 * @throws IOException
+	 *             If I/O error occurs, for example, if <code>aOut</code> is not open.
+	 */
+	public static void save(NetworkStats aStats, OutputStream aOut) throws IOException {
+		save(aStats, new BufferedWriter(new OutputStreamWriter(aOut)));
 	}
 
 	/**
@@ -165,6 +212,35 @@ public class StatsSerializer {
 		}
 	}
 
+	/**
+	 * Loads the per-phase timing of the analysis from file.
+	 * 
+	 * @param aStats
+	 *            Network parameters encapsulated in a <code>NetworkStats</code> instance.
+	 * @param aReader
+	 *            Stream (open for reading) to load data from.
+	 * 
+	 * @throws IOException
+	 *             If I/O error occurs, for example, if <code>aReader</code> could not be closed.
+	 * @throws NumberFormatException
+	 *             If the data read is invalid.
+	 */
+	private static void loadTiming(NetworkStats aStats, LineReader aReader) throws IOException,
+			NumberFormatException {
+		final AnalysisTiming timing = new AnalysisTiming();
+		final String[] header = aReader.readLine().split("\\s");
+		final int linesToRead = Integer.parseInt(header[0]);
+		timing.updatePeakHeap(Long.parseLong(header[1]));
+		for (int i = 0; i < linesToRead; ++i) {
+			final String[] data = aReader.readLine().split("\\s");
+			final String phase = data[0];
+			timing.add(phase, Long.parseLong(data[1]), Long.parseLong(data[2]), Long.parseLong(data[3]),
+					Long.parseLong(data[5]));
+			timing.setPeakThreadAllocated(phase, Long.parseLong(data[4]));
+		}
+		aStats.setTiming(timing);
+	}
+
 	/**
 	 * Loads complex network parameters from file.
 	 * 
@@ -213,7 +289,10 @@ public class StatsSerializer {
 	}
 
 	/**
-	 * Saves all the computed network parameters to file.
+	 * Saves all the computed network parameters to the given writer and closes it.
+	 * <p>
+	 * The writer should be buffered, as the parameters are written value by value.
+	 * </p>
 	 * 
 	 * @param aStats
 	 *            Network parameters encapsulated in a <code>NetworkStats</code> instance.
@@ -222,12 +301,18 @@ public class StatsSerializer {
 	 * @throws IOException
 	 *             If I/O error occurs, for example, if <code>aWriter</code> is not open.
 	 */
-	public static void save(NetworkStats aStats, FileWriter aWriter) throws IOException {
-		aWriter.write(FILE_HEADERS[FILE_HEADERS.length - 1] + "\n");
-		aWriter.write(aStats.getTitle() + "\n");
-		saveSimple(aStats, aWriter);
-		saveComplex(aStats, aWriter);
-		aWriter.close();
+	public static void save(NetworkStats aStats, Writer aWriter) throws IOException {
+		try {
+			aWriter.write(FILE_HEADERS[FILE_HEADERS.length - 1]);
+			aWriter.write('\n');
+			aWriter.write(aStats.getTitle());
+			aWriter.write('\n');
+			saveSimple(aStats, aWriter);
+			saveTiming(aStats, aWriter);
+			saveComplex(aStats, aWriter);
+		} finally {
+			aWriter.close();
+		}
 	}
 
 	/**
@@ -240,17 +325,52 @@ public class StatsSerializer {
 	 * @throws IOException
 	 *             If I/O error occurs, for example, if <code>aWriter</code> is not open.
 	 */
-	private static void saveSimple(NetworkStats aStats, FileWriter aWriter) throws IOException {
+	private static void saveSimple(NetworkStats aStats, Writer aWriter) throws IOException {
 		String[] statNames = aStats.getComputedSimple();
 		if (statNames.length == 0) {
 			return;
 		}
-		aWriter.write(SIMPLE_HEADER + "\n" + statNames.length + "\n");
+		aWriter.write(SIMPLE_HEADER);
+		aWriter.write('\n');
+		aWriter.write(String.valueOf(statNames.length));
+		aWriter.write('\n');
 		for (int i = 0; i < statNames.length; ++i) {
-			aWriter.write(statNames[i] + " ");
+			aWriter.write(statNames[i]);
+			aWriter.write(' ');
 			Object value = aStats.get(statNames[i]);
-			aWriter.write(value.getClass().getSimpleName() + " ");
-			aWriter.write(value.toString() + "\n");
+			aWriter.write(value.getClass().getSimpleName());
+			aWriter.write(' ');
+			aWriter.write(value.toString());
+			aWriter.write('\n');
+		}
+	}
+
+	/**
+	 * Saves the per-phase timing of the analysis to file, if available.
+	 * <p>
+	 * Every phase is saved on a separate line in the form:<br/>
+	 * <code>name wall cpu allocated peakthreadallocated edges</code><br/>
+	 * where times are given in nanoseconds and memory in bytes.
+	 * </p>
+	 * 
+	 * @param aStats
+	 *            Network parameters encapsulated in a <code>NetworkStats</code> instance.
+	 * @param aWriter
+	 *            Stream (open for writing) to save the timing to.
+	 * @throws IOException
+	 *             If I/O error occurs, for example, if <code>aWriter</code> is not open.
+	 */
+	private static void saveTiming(NetworkStats aStats, Writer aWriter) throws IOException {
+		final AnalysisTiming timing = aStats.getTiming();
+		if (timing == null) {
+			return;
+		}
+		final String[] phases = timing.getPhases();
+		aWriter.write(TIMING_HEADER + "\n" + phases.length + " " + timing.getPeakHeap() + "\n");
+		for (final String phase : phases) {
+			aWriter.write(phase + " " + timing.getWallTime(phase) + " " + timing.getCpuTime(phase) + " "
+					+ timing.getAllocated(phase) + " " + timing.getPeakThreadAllocated(phase) + " "
+					+ timing.getEdgesTraversed(phase) + "\n");
 		}
 	}
 
@@ -264,16 +384,20 @@ public class StatsSerializer {
 	 * @throws IOException
 	 *             If I/O error occurs, for example, if <code>aWriter</code> is not open.
 	 */
-	private static void saveComplex(NetworkStats aStats, FileWriter aWriter) throws IOException {
+	private static void saveComplex(NetworkStats aStats, Writer aWriter) throws IOException {
 		String[] statNames = aStats.getComputedComplex();
 		if (statNames.length == 0) {
 			return;
 		}
-		aWriter.write(COMPLEX_HEADER + "\n");
+		aWriter.write(COMPLEX_HEADER);
+		aWriter.write('\n');
 		for (int i = 0; i < statNames.length; ++i) {
 			final String name = statNames[i];
 			final ComplexParam value = aStats.getComplex(name);
-			aWriter.write(name + " " + value.getClass().getSimpleName() + " ");
+			aWriter.write(name);
+			aWriter.write(' ');
+			aWriter.write(value.getClass().getSimpleName());
+			aWriter.write(' ');
 			value.save(aWriter, true);
 		}
 	}
@@ -305,7 +429,7 @@ public class StatsSerializer {
 	 *            short name for the type to get.
 	 * @return Full name of the type, obtained by prepending the data package to it.
 	 */
-	private static String getTypeName(String aShortName) {
+	static String getTypeName(String aShortName) {
 		String[] packageName = StatsSerializer.class.getName().split("\\.");
 		StringBuffer type = new StringBuffer(64);
 		for (int i = 0; i < packageName.length - 2; ++i) {
@@ -351,6 +475,15 @@ public class StatsSerializer {
 	 */
 	private static final String SIMPLE_HEADER = "#simple";
 
+	/**
+	 * Line in the file indicating the per-phase timing of the analysis follows.
+	 * <p>
+	 * Note that this string does <b>not</b> include the end-of-line delimiter. The timing section is saved
+	 * before the complex parameters, as the latter extend to the end of the file.
+	 * </p>
+	 */
+	private static final String TIMING_HEADER = "#timing";
+
 	/**
 	 * Line in the file indicating complex parameters follow.
 	 * <p>
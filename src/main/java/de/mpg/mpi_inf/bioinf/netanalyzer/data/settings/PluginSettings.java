@@ -158,6 +158,84 @@ public class PluginSettings extends Settings {
 		return useEdgeAttributes;
 	}
 
+	/**
+	 * Gets the time budget for network analysis.
+	 * 
+	 * @return Maximum time, in seconds, the analyzers spend on path-based parameters before reporting
+	 *         estimates; <code>0</code> if the analysis is not time-limited.
+	 */
+	public int getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * Checks if network statistics of batch analyses are saved in binary format.
+	 * 
+	 * @return <code>true</code> if the &quot;.netstats&quot; files of batch analyses are saved in the compact
+	 *         binary format; <code>false</code> if they are saved as text.
+	 */
+	public boolean getBinaryNetstats() {
+		return binaryNetstats;
+	}
+
+	/**
+	 * Gets the compression of the text files saved by batch analyses.
+	 * 
+	 * @return Name of the compression of &quot;.netstats&quot; text files and node attribute files - one of
+	 *         {@link de.mpg.mpi_inf.bioinf.netanalyzer.data.io.IOUtils#COMPRESSION_NONE},
+	 *         {@link de.mpg.mpi_inf.bioinf.netanalyzer.data.io.IOUtils#COMPRESSION_GZIP} or
+	 *         {@link de.mpg.mpi_inf.bioinf.netanalyzer.data.io.IOUtils#COMPRESSION_DEFLATE}.
+	 */
+	public String getCompression() {
+		return compression;
+	}
+
+	/**
+	 * Gets the format of the per-node results files saved by batch analyses.
+	 * 
+	 * @return Name of the format of the node results files - one of
+	 *         {@link de.mpg.mpi_inf.bioinf.netanalyzer.data.io.NodeResultsSerializer#FORMAT_NONE},
+	 *         {@link de.mpg.mpi_inf.bioinf.netanalyzer.data.io.NodeResultsSerializer#FORMAT_BINARY} or
+	 *         {@link de.mpg.mpi_inf.bioinf.netanalyzer.data.io.NodeResultsSerializer#FORMAT_CSV}.
+	 */
+	public String getNodeResults() {
+		return nodeResults;
+	}
+
+	/**
+	 * Checks if quantile sketches of the node centralities are computed.
+	 * 
+	 * @return <code>true</code> if the analysis summarizes the distributions of the node centralities and
+	 *         clustering coefficients in quantile sketches; <code>false</code> otherwise.
+	 */
+	public boolean getQuantiles() {
+		return quantiles;
+	}
+
+	/**
+	 * Gets the format of the chart images saved by batch analyses.
+	 * 
+	 * @return Name of the format of the chart images - one of
+	 *         {@link de.mpg.mpi_inf.bioinf.netanalyzer.ui.ChartExporter#FORMAT_NONE},
+	 *         {@link de.mpg.mpi_inf.bioinf.netanalyzer.ui.ChartExporter#FORMAT_PNG},
+	 *         {@link de.mpg.mpi_inf.bioinf.netanalyzer.ui.ChartExporter#FORMAT_SVG} or
+	 *         {@link de.mpg.mpi_inf.bioinf.netanalyzer.ui.ChartExporter#FORMAT_JPEG}.
+	 */
+	public String getChartFormat() {
+		return chartFormat;
+	}
+
+	/**
+	 * Gets the shard of the sources analyzed by batch analyses.
+	 * 
+	 * @return Shard in the form <code>i/N</code>, where <code>N</code> is the number of shards and
+	 *         <code>i</code> is the number of this shard, between <code>1</code> and <code>N</code>;
+	 *         <code>none</code> if batch analyses analyze all sources.
+	 */
+	public String getShard() {
+		return shard;
+	}
+
 	/**
 	 * Gets the color of the background.
 	 * 
@@ -346,6 +424,41 @@ public class PluginSettings extends Settings {
 	 */
 	static final String useEdgeAttributesTag = "edgeattributes";
 
+	/**
+	 * Name of the tag identifying the time budget for network analysis.
+	 */
+	static final String timeBudgetTag = "timebudget";
+
+	/**
+	 * Name of the tag identifying the &quot;binaryNetstats&quot; flag.
+	 */
+	static final String binaryNetstatsTag = "binarynetstats";
+
+	/**
+	 * Name of the tag identifying the compression of batch output files.
+	 */
+	static final String compressionTag = "compression";
+
+	/**
+	 * Name of the tag identifying the format of per-node results files.
+	 */
+	static final String nodeResultsTag = "noderesults";
+
+	/**
+	 * Name of the tag identifying the &quot;quantiles&quot; flag.
+	 */
+	static final String quantilesTag = "quantiles";
+
+	/**
+	 * Name of the tag identifying the format of the chart images.
+	 */
+	static final String chartFormatTag = "chartformat";
+
+	/**
+	 * Name of the tag identifying the shard of the sources analyzed by batch analyses.
+	 */
+	static final String shardTag = "shard";
+
 	/**
 	 * Name of the tag identifying the background color.
 	 */
@@ -416,6 +529,41 @@ public class PluginSettings extends Settings {
 	 */
 	boolean useEdgeAttributes;
 
+	/**
+	 * Time budget, in seconds, for network analysis; <code>0</code> for no limit.
+	 */
+	int timeBudget;
+
+	/**
+	 * Flag indicating if network statistics of batch analyses are saved in binary format.
+	 */
+	boolean binaryNetstats;
+
+	/**
+	 * Compression of the text files saved by batch analyses.
+	 */
+	String compression;
+
+	/**
+	 * Format of the per-node results files saved by batch analyses.
+	 */
+	String nodeResults;
+
+	/**
+	 * Flag indicating if quantile sketches of the node centralities are computed.
+	 */
+	boolean quantiles;
+
+	/**
+	 * Format of the chart images saved by batch analyses.
+	 */
+	String chartFormat;
+
+	/**
+	 * Shard of the sources analyzed by batch analyses; <code>none</code> to analyze all sources.
+	 */
+	String shard;
+
 	/**
 	 * Color to be used for the background when visualizing network parameters.
 	 */
@@ -0,0 +1,120 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data.settings;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import org.jdom.Element;
+import org.w3c.dom.DOMException;
+
+/**
+ * Group of settings used by {@link de.mpg.mpi_inf.bioinf.netanalyzer.data.QuantileSketch} complex parameter
+ * type.
+ */
+public class QuantileSketchGroup extends SettingsGroup {
+
+	/**
+	 * Initializes a new instance of <code>QuantileSketchGroup</code>.
+	 * 
+	 * @param aElement Node in XML settings file for this complex parameter settings group.
+	 */
+	public QuantileSketchGroup(Element aElement) {
+		super(aElement);
+		try {
+			general = new GeneralVisSettings(aElement.getChild(GeneralVisSettings.tag));
+			axes = new AxesSettings(aElement.getChild(AxesSettings.tag));
+			grid = new GridSettings(aElement.getChild(GridSettings.tag));
+			scatter = new ScatterSettings(aElement.getChild(ScatterSettings.tag));
+		} catch (NullPointerException ex) {
+			throw new DOMException(DOMException.NOT_FOUND_ERR, "");
+		}
+	}
+
+	/**
+	 * Produces an exact copy of this settings group instance.
+	 * 
+	 * @return Copy of the settings group instance.
+	 * @see Object#clone()
+	 */
+	@Override
+	public Object clone() {
+		QuantileSketchGroup cloned = new QuantileSketchGroup(getParamID());
+		cloned.general = (GeneralVisSettings) general.clone();
+		cloned.axes = (AxesSettings) axes.clone();
+		cloned.grid = (GridSettings) grid.clone();
+		cloned.scatter = (ScatterSettings) scatter.clone();
+		return cloned;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.XMLSerializable#toXmlNode()
+	 */
+	public Element toXmlNode() {
+		Element el = new Element(SettingsGroup.tag);
+		el.setAttribute("name", getParamID());
+		el.setAttribute("type", "QuantileSketch");
+		el.addContent(general.toXmlNode());
+		el.addContent(axes.toXmlNode());
+		el.addContent(scatter.toXmlNode());
+		el.addContent(grid.toXmlNode());
+		attachDecoratorsTo(el);
+		return el;
+	}
+
+	/**
+	 * General visual settings for the plot.
+	 */
+	public GeneralVisSettings general;
+
+	/**
+	 * Axis-related setting for the plot.
+	 */
+	public AxesSettings axes;
+
+	/**
+	 * Gridline-related settings for the chart.
+	 */
+	public GridSettings grid;
+
+	/**
+	 * Visual settings specific for the plot of the cumulative distribution.
+	 */
+	public ScatterSettings scatter;
+
+	/**
+	 * Initializes a new instance of <code>QuantileSketchGroup</code>.
+	 * <p>
+	 * The initialized instance contains no data and therefore this constructor is used only by the
+	 * {@link #clone()} method.
+	 * </p>
+	 * 
+	 * @param aParamID ID of the complex parameter this settings group applies to.
+	 */
+	private QuantileSketchGroup(String aParamID) {
+		super(aParamID);
+	}
+}
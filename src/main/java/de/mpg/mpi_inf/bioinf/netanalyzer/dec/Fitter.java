@@ -27,8 +27,20 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.dec;
  */
 
 import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import de.mpg.mpi_inf.bioinf.netanalyzer.InnerException;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.ArrayUtils;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.IntHistogram;
 
 /**
  * Utility class providing methods for fitting functions and working with numerical sequences.
@@ -75,6 +87,111 @@ public abstract class Fitter {
 		return computeLeastSquares(x, y);
 	}
 
+	/**
+	 * Fits a discrete power law to the tail of the given distribution using the maximum likelihood method.
+	 * <p>
+	 * The lower bound x<sub>min</sub> of the power-law behavior is chosen among the observed values such
+	 * that the Kolmogorov-Smirnov distance between the fitted power law and the observations
+	 * x &ge; x<sub>min</sub> is minimal, as proposed by Clauset, Shalizi and Newman (2009). For every
+	 * candidate x<sub>min</sub>, the exponent maximizing the likelihood is found numerically. Bins with
+	 * non-positive values are ignored.
+	 * </p>
+	 * 
+	 * @param aHistogram Histogram of the observations, for example a degree distribution.
+	 * @return Power law fitted to the tail of the distribution; <code>null</code> if the histogram contains
+	 *         less than two distinct positive values.
+	 * @throws NullPointerException If <code>aHistogram</code> is <code>null</code>.
+	 */
+	public static PowerLawFit maxLikelihoodPowerLawFit(IntHistogram aHistogram) {
+		final int[][] bins = positiveBins(aHistogram);
+		return fitPowerLaw(bins[0], bins[1], bins[0].length);
+	}
+
+	/**
+	 * Estimates the goodness of fit of a power law by a semi-parametric bootstrap.
+	 * <p>
+	 * Every synthetic data set has as many observations as the original one. Each observation is drawn from
+	 * the fitted power law with probability equal to the fraction of observations in the tail, and from the
+	 * observed values below x<sub>min</sub> otherwise. A power law is then fitted to every synthetic data
+	 * set, including the choice of x<sub>min</sub>. The synthetic data sets are generated and fitted in
+	 * parallel; every one of them uses its own fixed random seed, so the result does not depend on the
+	 * number of threads.
+	 * </p>
+	 * 
+	 * @param aHistogram Histogram of the observations.
+	 * @param aFit Power law fitted to <code>aHistogram</code> by
+	 *        {@link #maxLikelihoodPowerLawFit(IntHistogram)}.
+	 * @param aSamples Number of synthetic data sets to generate.
+	 * @param aThreadCount Number of threads to use.
+	 * @return Fraction of the synthetic data sets whose Kolmogorov-Smirnov distance to their fitted power law
+	 *         is at least as large as the distance of <code>aFit</code>; <code>Double.NaN</code> if the
+	 *         current thread was interrupted.
+	 * @throws IllegalArgumentException If <code>aSamples</code> or <code>aThreadCount</code> is not
+	 *         positive.
+	 */
+	public static double powerLawPValue(IntHistogram aHistogram, PowerLawFit aFit, int aSamples,
+			int aThreadCount) {
+		return powerLawPValue(aHistogram, aFit, aSamples, aThreadCount, null);
+	}
+
+	/**
+	 * Estimates the goodness of fit of a power law by a semi-parametric bootstrap and reports the number
+	 * of synthetic data sets fitted so far.
+	 * <p>
+	 * The estimate is computed as in {@link #powerLawPValue(IntHistogram, PowerLawFit, int, int)}. The
+	 * computation can be stopped by interrupting the calling thread.
+	 * </p>
+	 * 
+	 * @param aHistogram Histogram of the observations.
+	 * @param aFit Power law fitted to <code>aHistogram</code> by
+	 *        {@link #maxLikelihoodPowerLawFit(IntHistogram)}.
+	 * @param aSamples Number of synthetic data sets to generate.
+	 * @param aThreadCount Number of threads to use.
+	 * @param aProgress Counter incremented every time a synthetic data set is fitted; may be
+	 *        <code>null</code>.
+	 * @return Estimated p-value of the fit; <code>Double.NaN</code> if the current thread was interrupted.
+	 * @throws IllegalArgumentException If <code>aSamples</code> or <code>aThreadCount</code> is not
+	 *         positive.
+	 */
+	public static double powerLawPValue(IntHistogram aHistogram, PowerLawFit aFit, int aSamples,
+			int aThreadCount, final AtomicInteger aProgress) {
+		if (aSamples <= 0 || aThreadCount <= 0 || aFit.getCount() > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException();
+		}
+		final int[][] bins = positiveBins(aHistogram);
+		final PowerLawSampler sampler = new PowerLawSampler(aFit, bins[0], bins[1]);
+		final ExecutorService workers = Executors.newFixedThreadPool(aThreadCount);
+		try {
+			final List<Future<Double>> tasks = new ArrayList<Future<Double>>(aSamples);
+			for (int i = 0; i < aSamples; ++i) {
+				final long seed = BOOTSTRAP_SEED + i * SEED_INCREMENT;
+				tasks.add(workers.submit(new Callable<Double>() {
+					public Double call() {
+						final PowerLawFit fit = sampler.sampleFit(new Random(seed));
+						if (aProgress != null) {
+							aProgress.incrementAndGet();
+						}
+						return Double.valueOf(fit != null ? fit.getDistance() : 0);
+					}
+				}));
+			}
+			int exceeding = 0;
+			for (final Future<Double> task : tasks) {
+				if (task.get().doubleValue() >= aFit.getDistance()) {
+					exceeding++;
+				}
+			}
+			return (double) exceeding / aSamples;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return Double.NaN;
+		} catch (ExecutionException ex) {
+			throw new InnerException(ex.getCause());
+		} finally {
+			workers.shutdownNow();
+		}
+	}
+
 	/**
 	 * Computes the Pearson correlation coefficient between the two data series.
 	 * 
@@ -166,4 +283,379 @@ public abstract class Fitter {
 		}
 		return new Point2D.Double(a, b);
 	}
+
+	/**
+	 * Extracts the bins of a histogram that have positive values and positive counts.
+	 * 
+	 * @param aHistogram Histogram to be scanned.
+	 * @return Table of two rows - the values and the counts of the bins, in the order of the histogram.
+	 */
+	private static int[][] positiveBins(IntHistogram aHistogram) {
+		final int[][] bins = aHistogram.getBins();
+		final int binCount = bins[0].length;
+		final int[] values = new int[binCount];
+		final int[] counts = new int[binCount];
+		int length = 0;
+		for (int i = 0; i < binCount; ++i) {
+			if (bins[0][i] > 0 && bins[1][i] > 0) {
+				values[length] = bins[0][i];
+				counts[length++] = bins[1][i];
+			}
+		}
+		return new int[][] { Arrays.copyOf(values, length), Arrays.copyOf(counts, length) };
+	}
+
+	/**
+	 * Fits a discrete power law to the tail of a distribution, scanning all candidates for
+	 * x<sub>min</sub>.
+	 * 
+	 * @param aValues Distinct positive observed values, sorted in ascending order.
+	 * @param aCounts Number of observations of every value in <code>aValues</code>.
+	 * @param aLength Number of values to consider.
+	 * @return Power law with the smallest Kolmogorov-Smirnov distance; <code>null</code> if
+	 *         <code>aLength</code> is less than <code>2</code>.
+	 */
+	private static PowerLawFit fitPowerLaw(int[] aValues, int[] aCounts, int aLength) {
+		if (aLength < 2) {
+			return null;
+		}
+		final long[] tailCounts = new long[aLength];
+		final double[] logSums = new double[aLength];
+		long tailCount = 0;
+		double logSum = 0;
+		for (int i = aLength - 1; i >= 0; --i) {
+			tailCount += aCounts[i];
+			logSum += aCounts[i] * Math.log(aValues[i]);
+			tailCounts[i] = tailCount;
+			logSums[i] = logSum;
+		}
+		PowerLawFit best = null;
+		// At least two distinct values are needed in the tail to estimate the exponent
+		for (int i = 0; i < aLength - 1; ++i) {
+			final double exponent = fitExponent(aValues[i], logSums[i] / tailCounts[i]);
+			final double normalization = hurwitzZeta(exponent, aValues[i]);
+			final double distance =
+					ksDistance(aValues, aCounts, i, aLength, exponent, tailCounts[i], normalization);
+			if (best == null || distance < best.getDistance()) {
+				best = new PowerLawFit(exponent, aValues[i], tailCounts[i], tailCount, normalization, distance);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Finds the exponent of a discrete power law that maximizes the likelihood of the observations.
+	 * <p>
+	 * The log-likelihood is a concave function of the exponent, hence it is maximized by a golden section
+	 * search.
+	 * </p>
+	 * 
+	 * @param aXMin Smallest value to which the power law applies.
+	 * @param aMeanLog Mean of the natural logarithms of the observations greater than or equal to
+	 *        <code>aXMin</code>.
+	 * @return Maximum likelihood estimate of the exponent.
+	 */
+	private static double fitExponent(int aXMin, double aMeanLog) {
+		double a = MIN_EXPONENT;
+		double b = MAX_EXPONENT;
+		double c = b - GOLDEN_RATIO * (b - a);
+		double d = a + GOLDEN_RATIO * (b - a);
+		double fc = -c * aMeanLog - Math.log(hurwitzZeta(c, aXMin));
+		double fd = -d * aMeanLog - Math.log(hurwitzZeta(d, aXMin));
+		while (b - a > EXPONENT_PRECISION) {
+			if (fc > fd) {
+				b = d;
+				d = c;
+				fd = fc;
+				c = b - GOLDEN_RATIO * (b - a);
+				fc = -c * aMeanLog - Math.log(hurwitzZeta(c, aXMin));
+			} else {
+				a = c;
+				c = d;
+				fc = fd;
+				d = a + GOLDEN_RATIO * (b - a);
+				fd = -d * aMeanLog - Math.log(hurwitzZeta(d, aXMin));
+			}
+		}
+		return (a + b) / 2;
+	}
+
+	/**
+	 * Computes the Kolmogorov-Smirnov distance between the tail of a distribution and a power law.
+	 * <p>
+	 * The empirical complementary distribution function is constant between two consecutive observed
+	 * values, while the one of the power law is decreasing. Therefore, it suffices to compare them at every
+	 * observed value <code>x</code> and at <code>x + 1</code>.
+	 * </p>
+	 * 
+	 * @param aValues Distinct positive observed values, sorted in ascending order.
+	 * @param aCounts Number of observations of every value in <code>aValues</code>.
+	 * @param aFrom Index of x<sub>min</sub> in <code>aValues</code>.
+	 * @param aLength Number of values to consider.
+	 * @param aExponent Exponent of the power law.
+	 * @param aTailCount Number of observations greater than or equal to x<sub>min</sub>.
+	 * @param aNormalization Normalization constant &zeta;(<code>aExponent</code>, x<sub>min</sub>).
+	 * @return Maximum distance between the empirical and the fitted distribution functions.
+	 */
+	private static double ksDistance(int[] aValues, int[] aCounts, int aFrom, int aLength, double aExponent,
+			long aTailCount, double aNormalization) {
+		double distance = 0;
+		long remaining = aTailCount;
+		// Hurwitz zeta function at x, updated incrementally over small gaps between the values
+		double zeta = aNormalization;
+		int x = aValues[aFrom];
+		for (int i = aFrom; i < aLength; ++i) {
+			final int value = aValues[i];
+			if (value - x > ZETA_TERMS) {
+				zeta = hurwitzZeta(aExponent, value);
+			} else {
+				for (; x < value; ++x) {
+					zeta -= Math.pow(x, -aExponent);
+				}
+			}
+			x = value;
+			double diff = Math.abs((double) remaining / aTailCount - zeta / aNormalization);
+			if (distance < diff) {
+				distance = diff;
+			}
+			remaining -= aCounts[i];
+			zeta -= Math.pow(x++, -aExponent);
+			diff = Math.abs((double) remaining / aTailCount - zeta / aNormalization);
+			if (distance < diff) {
+				distance = diff;
+			}
+		}
+		return distance;
+	}
+
+	/**
+	 * Computes the Hurwitz zeta function.
+	 * <p>
+	 * The first terms of the series are summed directly and the remainder is approximated by the
+	 * Euler-Maclaurin formula.
+	 * </p>
+	 * 
+	 * @param aS Exponent; it must be greater than <code>1</code>.
+	 * @param aQ Offset; it must be positive.
+	 * @return Value of &zeta;(<code>aS</code>, <code>aQ</code>) = &sum;<sub>k &ge; 0</sub>
+	 *         (k + <code>aQ</code>)<sup>-<code>aS</code></sup>.
+	 */
+	private static double hurwitzZeta(double aS, double aQ) {
+		double sum = 0;
+		double q = aQ;
+		for (int k = 0; k < ZETA_TERMS; ++k) {
+			sum += Math.pow(q++, -aS);
+		}
+		final double t = Math.pow(q, -aS);
+		final double q2 = q * q;
+		sum += q * t / (aS - 1) + t / 2;
+		// Correction terms with the Bernoulli numbers B2, B4 and B6
+		double term = aS * t / q;
+		sum += term / 12;
+		term *= (aS + 1) * (aS + 2) / q2;
+		sum -= term / 720;
+		term *= (aS + 3) * (aS + 4) / q2;
+		sum += term / 30240;
+		return sum;
+	}
+
+	/**
+	 * Generator of synthetic data sets following a fitted power law in their tail.
+	 */
+	private static class PowerLawSampler {
+
+		/**
+		 * Initializes a new instance of <code>PowerLawSampler</code>.
+		 * 
+		 * @param aFit Power law fitted to the observations.
+		 * @param aValues Distinct positive observed values, sorted in ascending order.
+		 * @param aCounts Number of observations of every value in <code>aValues</code>.
+		 */
+		public PowerLawSampler(PowerLawFit aFit, int[] aValues, int[] aCounts) {
+			exponent = aFit.getExponent();
+			xMin = aFit.getXMin();
+			count = (int) aFit.getCount();
+			tailProbability = (double) aFit.getTailCount() / aFit.getCount();
+			int lowLength = 0;
+			while (lowLength < aValues.length && aValues[lowLength] < xMin) {
+				lowLength++;
+			}
+			lowValues = Arrays.copyOf(aValues, lowLength);
+			lowCumulative = new long[lowLength];
+			long sum = 0;
+			for (int i = 0; i < lowLength; ++i) {
+				sum += aCounts[i];
+				lowCumulative[i] = sum;
+			}
+			final double normalization = hurwitzZeta(exponent, xMin);
+			double zeta = normalization;
+			tailTable = new double[SAMPLER_TABLE_SIZE];
+			for (int i = 0; i < SAMPLER_TABLE_SIZE; ++i) {
+				zeta -= Math.pow(xMin + i, -exponent);
+				tailTable[i] = zeta / normalization;
+			}
+		}
+
+		/**
+		 * Generates a synthetic data set and fits a power law to it.
+		 * 
+		 * @param aRandom Source of randomness.
+		 * @return Power law fitted to the synthetic data set; <code>null</code> if the data set contains
+		 *         less than two distinct values.
+		 */
+		public PowerLawFit sampleFit(Random aRandom) {
+			final int[] sample = new int[count];
+			for (int i = 0; i < count; ++i) {
+				if (lowValues.length == 0 || aRandom.nextDouble() < tailProbability) {
+					sample[i] = nextTailValue(aRandom);
+				} else {
+					sample[i] = nextLowValue(aRandom);
+				}
+			}
+			Arrays.sort(sample);
+			// Compact the sorted sample in place into distinct values and their counts
+			final int[] counts = new int[count];
+			int length = 0;
+			for (int i = 0; i < count; ++i) {
+				if (length > 0 && sample[length - 1] == sample[i]) {
+					counts[length - 1]++;
+				} else {
+					sample[length] = sample[i];
+					counts[length++] = 1;
+				}
+			}
+			return fitPowerLaw(sample, counts, length);
+		}
+
+		/**
+		 * Draws a value from the fitted power law.
+		 * <p>
+		 * Values up to x<sub>min</sub> + {@link Fitter#SAMPLER_TABLE_SIZE} are drawn exactly by inverting
+		 * the tabulated distribution function. Larger values are drawn from the continuous approximation of
+		 * the power law, rounded to the nearest integer.
+		 * </p>
+		 * 
+		 * @param aRandom Source of randomness.
+		 * @return Random value greater than or equal to x<sub>min</sub>.
+		 */
+		private int nextTailValue(Random aRandom) {
+			final double u = 1 - aRandom.nextDouble();
+			final int last = tailTable.length - 1;
+			if (u <= tailTable[last]) {
+				final double start = xMin + tailTable.length - 0.5;
+				final double x = Math.floor(start * Math.pow(u / tailTable[last], -1 / (exponent - 1)) + 0.5);
+				return x < Integer.MAX_VALUE ? (int) x : Integer.MAX_VALUE - 1;
+			}
+			// Smallest i such that P(X > xMin + i) < u
+			int low = 0;
+			int high = last;
+			while (low < high) {
+				final int middle = (low + high) >>> 1;
+				if (tailTable[middle] < u) {
+					high = middle;
+				} else {
+					low = middle + 1;
+				}
+			}
+			return xMin + low;
+		}
+
+		/**
+		 * Draws one of the observed values below x<sub>min</sub>, proportionally to its count.
+		 * 
+		 * @param aRandom Source of randomness.
+		 * @return Random observed value smaller than x<sub>min</sub>.
+		 */
+		private int nextLowValue(Random aRandom) {
+			final long r = (long) (aRandom.nextDouble() * lowCumulative[lowCumulative.length - 1]);
+			// Smallest i such that lowCumulative[i] > r
+			int low = 0;
+			int high = lowCumulative.length - 1;
+			while (low < high) {
+				final int middle = (low + high) >>> 1;
+				if (lowCumulative[middle] > r) {
+					high = middle;
+				} else {
+					low = middle + 1;
+				}
+			}
+			return lowValues[low];
+		}
+
+		/**
+		 * Exponent of the fitted power law.
+		 */
+		private final double exponent;
+
+		/**
+		 * Smallest value to which the fitted power law applies.
+		 */
+		private final int xMin;
+
+		/**
+		 * Number of observations in every synthetic data set.
+		 */
+		private final int count;
+
+		/**
+		 * Probability that an observation is drawn from the power law.
+		 */
+		private final double tailProbability;
+
+		/**
+		 * Observed values below {@link #xMin}, in ascending order.
+		 */
+		private final int[] lowValues;
+
+		/**
+		 * Cumulative counts of the observed values in {@link #lowValues}.
+		 */
+		private final long[] lowCumulative;
+
+		/**
+		 * Complementary distribution function of the power law; the <code>i</code>-th element is the
+		 * probability P(X &gt; {@link #xMin} + <code>i</code>).
+		 */
+		private final double[] tailTable;
+	}
+
+	/**
+	 * Smallest exponent considered when fitting a discrete power law.
+	 */
+	private static final double MIN_EXPONENT = 1.0001;
+
+	/**
+	 * Largest exponent considered when fitting a discrete power law.
+	 */
+	private static final double MAX_EXPONENT = 20;
+
+	/**
+	 * Precision to which the exponent of a discrete power law is estimated.
+	 */
+	private static final double EXPONENT_PRECISION = 1e-6;
+
+	/**
+	 * Inverse of the golden ratio, used in the golden section search.
+	 */
+	private static final double GOLDEN_RATIO = (Math.sqrt(5) - 1) / 2;
+
+	/**
+	 * Number of terms of the Hurwitz zeta function that are summed directly.
+	 */
+	private static final int ZETA_TERMS = 10;
+
+	/**
+	 * Number of values of a power law whose probabilities are tabulated for sampling.
+	 */
+	private static final int SAMPLER_TABLE_SIZE = 1000;
+
+	/**
+	 * Random seed of the first synthetic data set in goodness-of-fit tests.
+	 */
+	private static final long BOOTSTRAP_SEED = 20090129L;
+
+	/**
+	 * Difference between the random seeds of two consecutive synthetic data sets.
+	 */
+	private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
 }
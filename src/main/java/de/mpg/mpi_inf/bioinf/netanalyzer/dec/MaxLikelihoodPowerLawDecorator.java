@@ -0,0 +1,408 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.dec;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.geom.Point2D;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.ProgressMonitor;
+import javax.swing.Timer;
+
+import org.jdom.Element;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.InnerException;
+import de.mpg.mpi_inf.bioinf.netanalyzer.SwingWorker;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.ArrayUtils;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.IntHistogram;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
+import de.mpg.mpi_inf.bioinf.netanalyzer.sconnect.HelpConnector;
+import de.mpg.mpi_inf.bioinf.netanalyzer.ui.ComplexParamVisualizer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.ui.Utils;
+import de.mpg.mpi_inf.bioinf.netanalyzer.ui.charts.JFreeChartConn;
+import de.mpg.mpi_inf.bioinf.netanalyzer.ui.dec.FitData;
+import de.mpg.mpi_inf.bioinf.netanalyzer.ui.dec.FittingReportDialog;
+
+/**
+ * Decorator for fitting a discrete power law to the tail of an integer histogram with the maximum
+ * likelihood method.
+ * <p>
+ * The fit is computed by {@link Fitter#maxLikelihoodPowerLawFit(IntHistogram)} on the histogram itself,
+ * not on the points of the chart. The decoration shows the expected number of observations
+ * f(x) = &alpha; x<sup>&beta;</sup> for x &ge; x<sub>min</sub>; the coefficients are stored in a
+ * <code>Point2D.Double</code> instance as a couple (&alpha;, &beta;). In verbose mode, the goodness of fit
+ * is estimated by {@link Fitter#powerLawPValue(IntHistogram, PowerLawFit, int, int, AtomicInteger)} in a
+ * separate thread, and the report is displayed once the estimation completes.
+ * </p>
+ */
+public class MaxLikelihoodPowerLawDecorator extends TwoCoefsDecorator {
+
+	private static final Logger logger = LoggerFactory.getLogger(MaxLikelihoodPowerLawDecorator.class);
+
+	/**
+	 * Initializes a new instance of <code>MaxLikelihoodPowerLawDecorator</code>.
+	 * 
+	 * @param aElement Node in XML settings file that defines a maximum likelihood power law fitter.
+	 */
+	public MaxLikelihoodPowerLawDecorator(Element aElement) {
+		super(null);
+	}
+
+	@Override
+	public Object clone() {
+		return new MaxLikelihoodPowerLawDecorator(coefs);
+	}
+
+	@Override
+	public void decorate(Window aOwner, JFreeChart aChart, ComplexParamVisualizer aVisualizer, boolean aVerbose) {
+		clearDataset(aChart, seriesName);
+		final ComplexParam param = aVisualizer.getComplexParam();
+		final PowerLawFit fit =
+				param instanceof IntHistogram ? Fitter.maxLikelihoodPowerLawFit((IntHistogram) param) : null;
+		if (fit == null) {
+			// Error - not enough data points
+			if (aVerbose) {
+				Utils.showErrorBox(aOwner, Messages.DT_FIT, Messages.SM_FITPLNODATA);
+			}
+			return;
+		}
+		coefs = new Point2D.Double(fit.expectedCount(1), -fit.getExponent());
+
+		final Point2D.Double[] posPoints = keepPositive(JFreeChartConn.extractData(aChart));
+		final boolean logLog = isLogLog(aVisualizer.getSettings());
+		final XYSeries newData = createFittingData(fit.getXMin(), posPoints, logLog);
+		final XYPlot plot = aChart.getXYPlot();
+		int i = getDatasetIndex(plot, seriesName);
+		if (i == -1) {
+			i = createDataset(plot);
+		}
+		plot.setDataset(i, new XYSeriesCollection(newData));
+
+		if (aVerbose) {
+			// Estimate the goodness of fit in the background and report it when done
+			estimator = new PValueEstimator(aOwner, (IntHistogram) param, fit);
+			estimator.start();
+		}
+	}
+
+	@Override
+	public void undecorate(JFreeChart aChart) {
+		if (estimator != null) {
+			estimator.cancel();
+		}
+		clearDataset(aChart, seriesName);
+		coefs = null;
+	}
+
+	@Override
+	public String getButtonLabel() {
+		return isActive() ? Messages.DI_REMOVEPLML : Messages.DI_FITPLML;
+	}
+
+	@Override
+	public String getButtonToolTip() {
+		return isActive() ? null : Messages.TT_FITPLML;
+	}
+
+	/**
+	 * Name of the data series this decorator adds to the chart.
+	 */
+	private static final String seriesName = "ML Power Law";
+
+	/**
+	 * Number of synthetic data sets generated to estimate the goodness of fit.
+	 */
+	private static final int BOOTSTRAP_SAMPLES = 250;
+
+	/**
+	 * Estimation of the goodness of fit currently running; <code>null</code> if no estimation is running.
+	 */
+	private PValueEstimator estimator;
+
+	/**
+	 * Initializes a new instance of <code>MaxLikelihoodPowerLawDecorator</code>.
+	 * <p>
+	 * This constructor is used only by the {@link #clone()} method.
+	 * </p>
+	 * 
+	 * @param aCoefs Coefficients of the fitted power law. Set this parameter to <code>null</code>
+	 *        if coefficients are not computed.
+	 */
+	protected MaxLikelihoodPowerLawDecorator(Point2D.Double aCoefs) {
+		super(aCoefs);
+	}
+
+	/**
+	 * Creates a collection of points that adhere to the fitted power law.
+	 * 
+	 * @param aXMin Smallest value to which the power law applies.
+	 * @param aPoints Data points of the chart. They are used to determine the range in which the newly
+	 *        created data series will lie.
+	 * @param aIsLogLog Flag indicating if the points will be drawn on a log-log plot. If this
+	 *        parameter is <code>true</code>, this method creates only two points.
+	 * @return Newly created collection of points that follow the power law with coefficients in
+	 *         {@link #coefs}.
+	 */
+	private XYSeries createFittingData(int aXMin, Point2D.Double[] aPoints, boolean aIsLogLog) {
+		final XYSeries series = new XYSeries(seriesName, false, false);
+		if (aPoints.length == 0) {
+			return series;
+		}
+
+		final Point2D.Double min = new Point2D.Double();
+		final Point2D.Double max = new Point2D.Double();
+		ArrayUtils.minMax(aPoints, min, max);
+		final double xmin = aXMin;
+		double xmax = max.x;
+		if (valueAt(xmax) < min.y) {
+			xmax = pointAt(min.y);
+		}
+		if (xmax <= xmin) {
+			return series;
+		}
+
+		if (aIsLogLog) {
+			series.add(xmin, valueAt(xmin));
+			series.add(xmax, valueAt(xmax));
+		} else {
+			final int resolution = ChartPanel.DEFAULT_WIDTH;
+			final double step = (xmax - xmin) / resolution;
+			double x = xmin;
+			for (int i = 0; i < resolution; ++i) {
+				series.add(x, valueAt(x));
+				x += step;
+			}
+			series.add(xmax, valueAt(xmax));
+		}
+		return series;
+	}
+
+	/**
+	 * Displays a dialog to report the result of fitting the power law.
+	 * 
+	 * @param aOwner Dialog from which the report dialog is to be displayed.
+	 * @param aFit Fitted power law.
+	 * @param aCoefs Coefficients (&alpha;, &beta;) of the fitted power law.
+	 * @param aPValue Estimated goodness of fit of the power law.
+	 */
+	private void showReport(Window aOwner, PowerLawFit aFit, Point2D.Double aCoefs, double aPValue) {
+		final String powerLawSection = "#powerlaw";
+		final String helpURL = HelpConnector.getFittingURL() + powerLawSection;
+		final String note = "The power law was fitted to the " + aFit.getTailCount() + " of "
+				+ aFit.getCount() + " observations with x &ge; " + aFit.getXMin() + ".<br>"
+				+ "Kolmogorov-Smirnov distance: " + Utils.doubleToString(aFit.getDistance(), 6, 4)
+				+ "<br>p-value (" + BOOTSTRAP_SAMPLES + " bootstrap samples): "
+				+ Utils.doubleToString(aPValue, 6, 3);
+		final FitData data = new FitData(Messages.SM_FITPLML, aCoefs, null, null, helpURL, note);
+		FittingReportDialog d = new FittingReportDialog(aOwner, Messages.DT_FITTED, data);
+		d.setVisible(true);
+	}
+
+	/**
+	 * Computes the fitted value at a given point.
+	 * 
+	 * @param aPoint Point to compute the fitted value at.
+	 * @return Fitted value at <code>aPoint</code>, computed according to the power law f(x) =
+	 *         &alpha;x<sup>&beta;</sup>.
+	 */
+	private double valueAt(double aPoint) {
+		return coefs.x * de.mpg.mpi_inf.bioinf.netanalyzer.data.Utils.pow(aPoint, coefs.y);
+	}
+
+	/**
+	 * Computes the inverted function of the fitted power law.
+	 * 
+	 * @param aValue Value of the fitted power law.
+	 * @return Point <code>x</code> such that the value of the power law at <code>x</code>
+	 *         (approximately) equals <code>aValue</code>.
+	 */
+	private double pointAt(double aValue) {
+		return de.mpg.mpi_inf.bioinf.netanalyzer.data.Utils.pow(aValue / coefs.x, 1 / coefs.y);
+	}
+
+	/**
+	 * Background estimation of the goodness of fit of a power law.
+	 * <p>
+	 * The progress of the bootstrap is displayed in a progress monitor, which enables the user to cancel
+	 * it. Once the estimation completes, the fitting report is displayed on the event dispatch thread.
+	 * </p>
+	 */
+	private class PValueEstimator extends SwingWorker implements ActionListener {
+
+		/**
+		 * Initializes a new instance of <code>PValueEstimator</code>.
+		 * <p>
+		 * Note that the constructor does not start the estimation - this is performed by the
+		 * <code>start()</code> method.
+		 * </p>
+		 * 
+		 * @param aOwner Owner of the progress monitor and of the report dialog.
+		 * @param aHistogram Histogram of the observations.
+		 * @param aFit Power law fitted to <code>aHistogram</code>.
+		 */
+		public PValueEstimator(Window aOwner, IntHistogram aHistogram, PowerLawFit aFit) {
+			owner = aOwner;
+			histogram = aHistogram;
+			fit = aFit;
+			fitCoefs = coefs;
+			progress = new AtomicInteger();
+			cancelled = false;
+			monitor = new ProgressMonitor(aOwner, Messages.DT_FITTING, null, 0, BOOTSTRAP_SAMPLES);
+			monitor.setMillisToDecideToPopup(500);
+			timer = new Timer(250, this);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+		 */
+		public void actionPerformed(ActionEvent e) {
+			monitor.setProgress(progress.get());
+			if (monitor.isCanceled()) {
+				cancel();
+			}
+		}
+
+		/**
+		 * Stops the estimation. The report is not displayed.
+		 */
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				close();
+				interrupt();
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see de.mpg.mpi_inf.bioinf.netanalyzer.SwingWorker#start()
+		 */
+		@Override
+		public void start() {
+			timer.start();
+			super.start();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see de.mpg.mpi_inf.bioinf.netanalyzer.SwingWorker#construct()
+		 */
+		@Override
+		public Object construct() {
+			try {
+				return Double.valueOf(Fitter.powerLawPValue(histogram, fit, BOOTSTRAP_SAMPLES, Runtime
+						.getRuntime().availableProcessors(), progress));
+			} catch (InnerException ex) {
+				// NetworkAnalyzer internal error
+				logger.error(Messages.SM_LOGERROR, ex);
+				return null;
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see de.mpg.mpi_inf.bioinf.netanalyzer.SwingWorker#finished()
+		 */
+		@Override
+		public void finished() {
+			if (estimator == this) {
+				estimator = null;
+			}
+			if (!cancelled) {
+				close();
+				final Double pValue = (Double) getValue();
+				if (pValue != null) {
+					// Inform the user what the coefficients are
+					showReport(owner, fit, fitCoefs, pValue.doubleValue());
+				}
+			}
+		}
+
+		/**
+		 * Stops the updates of the progress monitor and closes it.
+		 */
+		private void close() {
+			timer.stop();
+			monitor.close();
+		}
+
+		/**
+		 * Owner of the progress monitor and of the report dialog.
+		 */
+		private Window owner;
+
+		/**
+		 * Histogram of the observations.
+		 */
+		private IntHistogram histogram;
+
+		/**
+		 * Power law fitted to {@link #histogram}.
+		 */
+		private PowerLawFit fit;
+
+		/**
+		 * Coefficients (&alpha;, &beta;) of {@link #fit} as displayed in the chart.
+		 */
+		private Point2D.Double fitCoefs;
+
+		/**
+		 * Number of synthetic data sets fitted so far.
+		 */
+		private AtomicInteger progress;
+
+		/**
+		 * Progress monitor to reflect the progress of the bootstrap.
+		 */
+		private ProgressMonitor monitor;
+
+		/**
+		 * Timer responsible for regular updates of the progress monitor.
+		 */
+		private Timer timer;
+
+		/**
+		 * Flag indicating if the estimation was cancelled.
+		 */
+		private boolean cancelled;
+	}
+}
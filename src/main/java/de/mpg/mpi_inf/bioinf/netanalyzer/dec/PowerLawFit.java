@@ -0,0 +1,144 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.dec;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Discrete power law fitted to the tail of a distribution of positive integers.
+ * <p>
+ * The power law has the form p(x) = x<sup>-&alpha;</sup> / &zeta;(&alpha;, x<sub>min</sub>) for all
+ * x &ge; x<sub>min</sub>, where &zeta; is the Hurwitz zeta function. Instances of this class are created by
+ * {@link Fitter#maxLikelihoodPowerLawFit(de.mpg.mpi_inf.bioinf.netanalyzer.data.IntHistogram)}.
+ * </p>
+ */
+public class PowerLawFit {
+
+	/**
+	 * Initializes a new instance of <code>PowerLawFit</code>.
+	 * 
+	 * @param aExponent Scaling exponent &alpha; of the power law.
+	 * @param aXMin Smallest value to which the power law applies.
+	 * @param aTailCount Number of observations greater than or equal to <code>aXMin</code>.
+	 * @param aCount Total number of observations.
+	 * @param aNormalization Normalization constant &zeta;(&alpha;, x<sub>min</sub>).
+	 * @param aDistance Kolmogorov-Smirnov distance between the observations in the tail and the power law.
+	 */
+	PowerLawFit(double aExponent, int aXMin, long aTailCount, long aCount, double aNormalization,
+			double aDistance) {
+		exponent = aExponent;
+		xMin = aXMin;
+		tailCount = aTailCount;
+		count = aCount;
+		normalization = aNormalization;
+		distance = aDistance;
+	}
+
+	/**
+	 * Gets the scaling exponent of the power law.
+	 * 
+	 * @return Exponent &alpha; of the fitted power law; it is always greater than <code>1</code>.
+	 */
+	public double getExponent() {
+		return exponent;
+	}
+
+	/**
+	 * Gets the lower bound of the power-law behavior.
+	 * 
+	 * @return Smallest value x<sub>min</sub> to which the power law applies.
+	 */
+	public int getXMin() {
+		return xMin;
+	}
+
+	/**
+	 * Gets the number of observations in the tail of the distribution.
+	 * 
+	 * @return Number of observations greater than or equal to {@link #getXMin()}.
+	 */
+	public long getTailCount() {
+		return tailCount;
+	}
+
+	/**
+	 * Gets the total number of observations.
+	 * 
+	 * @return Number of positive observations the power law was fitted to.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the Kolmogorov-Smirnov statistic of the fit.
+	 * 
+	 * @return Maximum distance between the empirical and the fitted cumulative distribution functions of
+	 *         the observations in the tail.
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Gets the expected number of observations of the given value.
+	 * 
+	 * @param aValue Value greater than or equal to {@link #getXMin()}.
+	 * @return Number of observations of <code>aValue</code> predicted by the fitted power law.
+	 */
+	public double expectedCount(double aValue) {
+		return tailCount * Math.pow(aValue, -exponent) / normalization;
+	}
+
+	/**
+	 * Scaling exponent of the power law.
+	 */
+	private double exponent;
+
+	/**
+	 * Smallest value to which the power law applies.
+	 */
+	private int xMin;
+
+	/**
+	 * Number of observations greater than or equal to {@link #xMin}.
+	 */
+	private long tailCount;
+
+	/**
+	 * Total number of observations.
+	 */
+	private long count;
+
+	/**
+	 * Normalization constant of the power law.
+	 */
+	private double normalization;
+
+	/**
+	 * Kolmogorov-Smirnov statistic of the fit.
+	 */
+	private double distance;
+}
@@ -51,6 +51,9 @@ public class AnalyzeNetworkTask extends AbstractNetworkCollectionTask {
 	
 	//@Tunable(description = "Analyze only selected nodes?")
 	public Boolean selectedOnly = false;
+
+	//@Tunable(description = "Time budget in seconds (0 for no limit)")
+	public Integer timeBudget = 0;
 	
 	
 	public AnalyzeNetworkTask(final Collection<CyNetwork> networks) {
@@ -98,6 +101,8 @@ public class AnalyzeNetworkTask extends AbstractNetworkCollectionTask {
 		else
 			analyzer = new UndirNetworkAnalyzer(network, nodes, interpr);
 		
+		if (timeBudget != null && timeBudget.intValue() > 0)
+			analyzer.setTimeBudget(timeBudget.intValue() * 1000L);
 		analyzer.computeAll();
 	}
 	
@@ -129,7 +129,7 @@ public class AnalysisResultPanel extends JPanel implements ActionListener, CytoP
 		this.resultPanelFactory =panelFactory;
 
 		this.stats = aStats;
-		boolean paramMapping = false;
+		paramMapping = false;
 		if (aAnalyzer != null) {
 			final PluginSettings s = SettingsSerializer.getPluginSettings();
 			paramMapping = aAnalyzer.isGlobal() && (s.getUseNodeAttributes() || s.getUseEdgeAttributes());
@@ -196,10 +196,74 @@ public class AnalysisResultPanel extends JPanel implements ActionListener, CytoP
 //		dispose();
 	}
 
+	/**
+	 * Replaces the displayed network parameters with the given ones.
+	 * <p>
+	 * This method is used for refreshing the panel while the analysis is running, as well as for displaying
+	 * the final results once the analysis completes. It must be called on the event dispatch thread.
+	 * </p>
+	 * 
+	 * @param aStats
+	 *            Network statistics to be visualized.
+	 */
+	public void updateStats(NetworkStats aStats) {
+		stats = aStats;
+		if (tabs == null) {
+			removeAll();
+			initControls(paramMapping);
+		} else {
+			// Update the tabs in place, so that the selected tab and the created charts are kept
+			tabs.setComponentAt(0, new SimpleStatsPanel(stats));
+			final String[] complexNames = stats.getComputedComplex();
+			for (int i = 0; i < complexNames.length; ++i) {
+				final String id = complexNames[i];
+				final LazyChartPanel chartPanel = findChartPanel(id);
+				if (chartPanel != null) {
+					chartPanel.update(stats);
+				} else {
+					final LazyChartPanel newPanel = new LazyChartPanel(owner, id, stats);
+					tabs.insertTab(LazyChartPanel.getTitle(id), null, newPanel, null, i + 1);
+				}
+			}
+			saveButton.setEnabled(!stats.isPartial());
+			visualizeButton.setEnabled(paramMapping && !stats.isPartial());
+		}
+		revalidate();
+		repaint();
+	}
+
+	/**
+	 * Checks if this panel has been closed by the user.
+	 * 
+	 * @return <code>true</code> if this panel has been removed from the results panel;
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isClosed() {
+		return resultPanel == null;
+	}
+
+	/**
+	 * Finds the tab displaying the chart of the given complex parameter.
+	 * 
+	 * @param aID
+	 *            ID of the complex parameter.
+	 * @return Panel of the chart of the complex parameter; <code>null</code> if no tab displays it.
+	 */
+	private LazyChartPanel findChartPanel(String aID) {
+		for (int i = 1; i < tabs.getTabCount(); ++i) {
+			final Component tab = tabs.getComponentAt(i);
+			if (tab instanceof LazyChartPanel && ((LazyChartPanel) tab).getID().equals(aID)) {
+				return (LazyChartPanel) tab;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Creates and lays out the controls inside this dialog.
 	 * <p>
-	 * This method is called upon initialization only.
+	 * This method is called upon initialization. When the displayed statistics are replaced, it is called
+	 * again only if the parameters are displayed in expandable panels rather than in tabs.
 	 * </p>
 	 */
 	private void initControls(boolean enableParameterMapping) {
@@ -207,7 +271,7 @@ public class AnalysisResultPanel extends JPanel implements ActionListener, CytoP
 		// final boolean useExpandable = SettingsSerializer.getPluginSettings().getExpandable();
 		final boolean useExpandable = false;
 		this.setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
-		final JTabbedPane tabs = useExpandable ? null : new JTabbedPane();
+		tabs = useExpandable ? null : new JTabbedPane();
 
 		final JComponent simpleStatsPanel = new SimpleStatsPanel(stats);
 		if (useExpandable) {
@@ -221,6 +285,11 @@ public class AnalysisResultPanel extends JPanel implements ActionListener, CytoP
 		final String[] complexNames = stats.getComputedComplex();
 		for (int i = 0; i < complexNames.length; ++i) {
 			final String id = complexNames[i];
+			if (!useExpandable) {
+				// Charts are created in the background when their tabs are first displayed
+				tabs.addTab(LazyChartPanel.getTitle(id), new LazyChartPanel(owner, id, stats));
+				continue;
+			}
 			final ComplexParam cp = stats.getComplex(id);
 			final String typeName = cp.getClass().getSimpleName();
 			try {
@@ -229,11 +298,7 @@ public class AnalysisResultPanel extends JPanel implements ActionListener, CytoP
 				final Object[] conParams = new Object[] { cp, SettingsSerializer.getDefault(id) };
 				ComplexParamVisualizer v = (ComplexParamVisualizer) con.newInstance(conParams);
 				final Decorator[] decs = Decorators.get(id);
-				if (useExpandable) {
-					this.add(new ChartExpandablePanel(owner, id, v, (i == 0), decs));
-				} else {
-					tabs.addTab(v.getTitle(), new ChartDisplayPanel(owner, id, v, decs));
-				}
+				this.add(new ChartExpandablePanel(owner, id, v, (i == 0), decs));
 			} catch (Exception ex) {
 				throw new InnerException(ex);
 			}
@@ -243,10 +308,11 @@ public class AnalysisResultPanel extends JPanel implements ActionListener, CytoP
 		
 		saveButton = new JButton(Messages.DI_SAVESTATISTICS);
 		saveButton.addActionListener(this);
+		saveButton.setEnabled(!stats.isPartial());
 		visualizeButton = new JButton(Messages.DI_VISUALIZEPARAMETER);
 		visualizeButton.setEnabled(false);
 		visualizeButton.addActionListener(this);
-		visualizeButton.setEnabled(enableParameterMapping);
+		visualizeButton.setEnabled(enableParameterMapping && !stats.isPartial());
 		
 		closeButton = new JButton("Close Tab");
 		closeButton.addActionListener(new ActionListener() {
@@ -340,6 +406,17 @@ public class AnalysisResultPanel extends JPanel implements ActionListener, CytoP
 	 * Network parameters instance displayed in this dialog.
 	 */
 	private NetworkStats stats;
+
+	/**
+	 * Flag indicating if the computed parameters can be mapped to visual styles.
+	 */
+	private boolean paramMapping;
+
+	/**
+	 * Tabs displaying the simple parameters and the charts; <code>null</code> if the parameters are displayed
+	 * in expandable panels.
+	 */
+	private JTabbedPane tabs;
 	
 	private JButton closeButton;
 
@@ -0,0 +1,512 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.ui;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static javax.swing.GroupLayout.DEFAULT_SIZE;
+import static javax.swing.GroupLayout.PREFERRED_SIZE;
+
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.util.List;
+
+import javax.swing.AbstractAction;
+import javax.swing.GroupLayout;
+import javax.swing.GroupLayout.Alignment;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.RowFilter;
+import javax.swing.SwingConstants;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+
+import org.cytoscape.util.swing.LookAndFeelUtil;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.LoadNetstatsAction;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkAnalysisReport;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.BatchResultsIndex;
+
+/**
+ * Dialog for comparing the results of batch analyses, as stored in a {@link BatchResultsIndex}.
+ * <p>
+ * The dialog lists all analyzed network interpretations together with the values of their parameters. The
+ * table can be sorted by any parameter, and filtered by a range of values of a parameter. The network
+ * statistics file of an interpretation is opened only when the user double-clicks on its row.
+ * </p>
+ */
+public class BatchIndexDialog extends JDialog implements ActionListener {
+
+	/**
+	 * Initializes a new instance of <code>BatchIndexDialog</code>.
+	 * 
+	 * @param aOwner
+	 *            Window from which this dialog is displayed.
+	 * @param aIndex
+	 *            Index of the results to be compared.
+	 * @param aAction
+	 *            Action used to open network statistics files.
+	 */
+	public BatchIndexDialog(Window aOwner, BatchResultsIndex aIndex, LoadNetstatsAction aAction) {
+		super(aOwner, Messages.DT_BATCHINDEX, ModalityType.MODELESS);
+		action = aAction;
+		model = new IndexTableModel(aIndex);
+		init();
+		setLocationRelativeTo(aOwner);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+	 */
+	public void actionPerformed(ActionEvent e) {
+		final Object source = e.getSource();
+		if (source == btnShowAll) {
+			sorter.setRowFilter(null);
+			txtMin.setText("");
+			txtMax.setText("");
+		} else if (source == btnFilter) {
+			final int column = cobParams.getSelectedIndex() + IndexTableModel.FIXED_COUNT;
+			try {
+				final double min = parseBound(txtMin.getText(), Double.NEGATIVE_INFINITY);
+				final double max = parseBound(txtMax.getText(), Double.POSITIVE_INFINITY);
+				sorter.setRowFilter(new RangeFilter(column, min, max));
+			} catch (NumberFormatException ex) {
+				Utils.showErrorBox(this, Messages.DT_WRONGDATA, Messages.SM_BADRANGE);
+			}
+		}
+	}
+
+	/**
+	 * Parses a bound of the range of the filter.
+	 * 
+	 * @param aText
+	 *            Text entered by the user.
+	 * @param aDefault
+	 *            Bound to be used if no text is entered.
+	 * @return Value of the bound.
+	 * @throws NumberFormatException
+	 *             If <code>aText</code> is neither empty nor a number.
+	 */
+	private static double parseBound(String aText, double aDefault) {
+		final String text = aText.trim();
+		return text.length() == 0 ? aDefault : Double.parseDouble(text);
+	}
+
+	/**
+	 * Opens the network statistics file of the given table row.
+	 * 
+	 * @param aViewRow
+	 *            Index of the row in the (sorted and filtered) table.
+	 */
+	private void openRow(int aViewRow) {
+		if (aViewRow >= 0) {
+			final File file = model.getNetstatsFile(tblResults.convertRowIndexToModel(aViewRow));
+			action.openNetstats(this, file);
+		}
+	}
+
+	/**
+	 * Initializes and lays out the controls in this dialog.
+	 */
+	@SuppressWarnings("serial")
+	private void init() {
+		final JLabel label = new JLabel(Messages.SM_INDEXHINT, SwingConstants.CENTER);
+
+		// Add results table
+		tblResults = new JTable(model);
+		sorter = new TableRowSorter<IndexTableModel>(model);
+		tblResults.setRowSorter(sorter);
+		tblResults.setDefaultRenderer(NetworkInterpretation.class, new InterpretationCellRenderer());
+		tblResults.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		tblResults.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+		tblResults.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (e.getClickCount() == 2) {
+					openRow(tblResults.rowAtPoint(e.getPoint()));
+				}
+			}
+		});
+		final JScrollPane scrPane = new JScrollPane(tblResults);
+
+		// Add filter controls
+		final JLabel lblParam = new JLabel(Messages.DI_FILTERPARAM);
+		cobParams = new JComboBox<String>(model.getParameterNames());
+		final JLabel lblMin = new JLabel(Messages.DI_MINVALUE);
+		txtMin = new JTextField(8);
+		final JLabel lblMax = new JLabel(Messages.DI_MAXVALUE);
+		txtMax = new JTextField(8);
+		btnFilter = Utils.createButton(Messages.DI_FILTER, null, this);
+		btnShowAll = Utils.createButton(Messages.DI_SHOWALL, null, this);
+		btnFilter.setEnabled(cobParams.getItemCount() > 0);
+
+		final JPanel panFilter = new JPanel();
+		final GroupLayout filterLayout = new GroupLayout(panFilter);
+		panFilter.setLayout(filterLayout);
+		filterLayout.setAutoCreateGaps(true);
+		filterLayout.setHorizontalGroup(filterLayout.createSequentialGroup()
+				.addComponent(lblParam)
+				.addComponent(cobParams, PREFERRED_SIZE, DEFAULT_SIZE, PREFERRED_SIZE)
+				.addComponent(lblMin)
+				.addComponent(txtMin, PREFERRED_SIZE, DEFAULT_SIZE, PREFERRED_SIZE)
+				.addComponent(lblMax)
+				.addComponent(txtMax, PREFERRED_SIZE, DEFAULT_SIZE, PREFERRED_SIZE)
+				.addComponent(btnFilter)
+				.addComponent(btnShowAll)
+		);
+		filterLayout.setVerticalGroup(filterLayout.createParallelGroup(Alignment.BASELINE, false)
+				.addComponent(lblParam)
+				.addComponent(cobParams)
+				.addComponent(lblMin)
+				.addComponent(txtMin)
+				.addComponent(lblMax)
+				.addComponent(txtMax)
+				.addComponent(btnFilter)
+				.addComponent(btnShowAll)
+		);
+
+		// Add Close button
+		final JButton btnClose = Utils.createButton(new AbstractAction(Messages.DI_CLOSE) {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				setVisible(false);
+				dispose();
+			}
+		}, null);
+		final JPanel panButton = LookAndFeelUtil.createOkCancelPanel(null, btnClose);
+
+		final JPanel contentPane = new JPanel();
+		final GroupLayout layout = new GroupLayout(contentPane);
+		contentPane.setLayout(layout);
+		layout.setAutoCreateContainerGaps(true);
+		layout.setAutoCreateGaps(true);
+
+		layout.setHorizontalGroup(layout.createParallelGroup(Alignment.CENTER, true)
+				.addComponent(label)
+				.addComponent(panFilter)
+				.addComponent(scrPane, DEFAULT_SIZE, 800, Short.MAX_VALUE)
+				.addComponent(panButton)
+		);
+		layout.setVerticalGroup(layout.createSequentialGroup()
+				.addComponent(label)
+				.addComponent(panFilter, PREFERRED_SIZE, DEFAULT_SIZE, PREFERRED_SIZE)
+				.addComponent(scrPane, DEFAULT_SIZE, 400, Short.MAX_VALUE)
+				.addComponent(panButton)
+		);
+
+		setContentPane(contentPane);
+
+		LookAndFeelUtil.setDefaultOkCancelKeyStrokes(getRootPane(), null, btnClose.getAction());
+		getRootPane().setDefaultButton(btnClose);
+
+		pack();
+	}
+
+	/**
+	 * Table model presenting the entries of a results index.
+	 * <p>
+	 * The first two columns contain the network file and the interpretation applied; every following column
+	 * contains the values of a parameter. The values are parsed when the model is created.
+	 * </p>
+	 */
+	private static class IndexTableModel extends AbstractTableModel {
+
+		/**
+		 * Number of columns preceding the parameter columns.
+		 */
+		static final int FIXED_COUNT = 2;
+
+		/**
+		 * Initializes a new instance of <code>IndexTableModel</code>.
+		 * 
+		 * @param aIndex
+		 *            Index of the results to be presented.
+		 */
+		public IndexTableModel(BatchResultsIndex aIndex) {
+			reports = aIndex.getReports();
+			params = aIndex.getParameters();
+			values = new Object[reports.size()][params.length];
+			numeric = new boolean[params.length];
+			for (int j = 0; j < params.length; ++j) {
+				numeric[j] = true;
+				for (int i = 0; i < values.length; ++i) {
+					final String text = aIndex.getValue(i, params[j]);
+					if (text != null) {
+						try {
+							values[i][j] = Double.valueOf(text);
+						} catch (NumberFormatException ex) {
+							values[i][j] = text;
+							numeric[j] = false;
+						}
+					}
+				}
+				if (!numeric[j]) {
+					for (int i = 0; i < values.length; ++i) {
+						if (values[i][j] != null) {
+							values[i][j] = aIndex.getValue(i, params[j]);
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Gets the names of the parameters presented in this model.
+		 * 
+		 * @return Human-readable names of the parameters, in the order of their columns.
+		 */
+		public String[] getParameterNames() {
+			final String[] names = new String[params.length];
+			for (int j = 0; j < params.length; ++j) {
+				names[j] = getColumnName(j + FIXED_COUNT);
+			}
+			return names;
+		}
+
+		/**
+		 * Gets the network statistics file of the given row.
+		 * 
+		 * @param aRow
+		 *            Index of the row in this model.
+		 * @return Network statistics file of the network interpretation on row <code>aRow</code>.
+		 */
+		public File getNetstatsFile(int aRow) {
+			return reports.get(aRow).getResultFile();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see javax.swing.table.AbstractTableModel#getColumnClass(int)
+		 */
+		@Override
+		public Class<?> getColumnClass(int aColumn) {
+			switch (aColumn) {
+				case 0:
+					return String.class;
+				case 1:
+					return NetworkInterpretation.class;
+				default:
+					return numeric[aColumn - FIXED_COUNT] ? Double.class : String.class;
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see javax.swing.table.TableModel#getColumnCount()
+		 */
+		public int getColumnCount() {
+			return params.length + FIXED_COUNT;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see javax.swing.table.AbstractTableModel#getColumnName(int)
+		 */
+		@Override
+		public String getColumnName(int aColumn) {
+			switch (aColumn) {
+				case 0:
+					return Messages.DI_NETFILE;
+				case 1:
+					return Messages.DI_INTERPR;
+				default:
+					final String param = params[aColumn - FIXED_COUNT];
+					final String name = Messages.get(param);
+					return name != null ? name : param;
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see javax.swing.table.TableModel#getRowCount()
+		 */
+		public int getRowCount() {
+			return reports.size();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see javax.swing.table.TableModel#getValueAt(int, int)
+		 */
+		public Object getValueAt(int aRow, int aColumn) {
+			switch (aColumn) {
+				case 0:
+					return reports.get(aRow).getNetwork().getName();
+				case 1:
+					return reports.get(aRow).getInterpretation();
+				default:
+					return values[aRow][aColumn - FIXED_COUNT];
+			}
+		}
+
+		/**
+		 * Unique ID for this version of this class. It is used in serialization.
+		 */
+		private static final long serialVersionUID = 3460270834166925137L;
+
+		/**
+		 * Analyzed network interpretations.
+		 */
+		private final List<NetworkAnalysisReport> reports;
+
+		/**
+		 * IDs of the parameters presented.
+		 */
+		private final String[] params;
+
+		/**
+		 * Values of the parameters; <code>values[i][j]</code> is the value of parameter <code>j</code> in
+		 * row <code>i</code>, or <code>null</code> if it was not computed.
+		 */
+		private final Object[][] values;
+
+		/**
+		 * Flags indicating which parameters have numeric values only.
+		 */
+		private final boolean[] numeric;
+	}
+
+	/**
+	 * Filter including the rows in which the value of a numeric parameter lies in a given range.
+	 */
+	private static class RangeFilter extends RowFilter<IndexTableModel, Integer> {
+
+		/**
+		 * Initializes a new instance of <code>RangeFilter</code>.
+		 * 
+		 * @param aColumn
+		 *            Column of the parameter in the table model.
+		 * @param aMin
+		 *            Minimum value to be included.
+		 * @param aMax
+		 *            Maximum value to be included.
+		 */
+		public RangeFilter(int aColumn, double aMin, double aMax) {
+			column = aColumn;
+			min = aMin;
+			max = aMax;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see javax.swing.RowFilter#include(javax.swing.RowFilter.Entry)
+		 */
+		@Override
+		public boolean include(Entry<? extends IndexTableModel, ? extends Integer> aEntry) {
+			final Object value = aEntry.getValue(column);
+			if (!(value instanceof Double)) {
+				return false;
+			}
+			final double v = ((Double) value).doubleValue();
+			return min <= v && v <= max;
+		}
+
+		/**
+		 * Column of the parameter in the table model.
+		 */
+		private final int column;
+
+		/**
+		 * Minimum value to be included.
+		 */
+		private final double min;
+
+		/**
+		 * Maximum value to be included.
+		 */
+		private final double max;
+	}
+
+	/**
+	 * Unique ID for this version of this class. It is used in serialization.
+	 */
+	private static final long serialVersionUID = -2283546131987404213L;
+
+	/**
+	 * Action used to open network statistics files.
+	 */
+	private final LoadNetstatsAction action;
+
+	/**
+	 * Table model presenting the index.
+	 */
+	private final IndexTableModel model;
+
+	/**
+	 * Table listing the indexed network interpretations.
+	 */
+	private JTable tblResults;
+
+	/**
+	 * Sorter and filter of the table rows.
+	 */
+	private TableRowSorter<IndexTableModel> sorter;
+
+	/**
+	 * Combo box for choosing the parameter to filter by.
+	 */
+	private JComboBox<String> cobParams;
+
+	/**
+	 * Text field for the minimum value of the filter.
+	 */
+	private JTextField txtMin;
+
+	/**
+	 * Text field for the maximum value of the filter.
+	 */
+	private JTextField txtMax;
+
+	/**
+	 * &quot;Filter&quot; button.
+	 */
+	private JButton btnFilter;
+
+	/**
+	 * &quot;Show All&quot; button.
+	 */
+	private JButton btnShowAll;
+}
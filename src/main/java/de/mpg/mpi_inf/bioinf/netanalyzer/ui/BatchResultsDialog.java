@@ -64,6 +64,7 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.SampleTaskMonitor;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkAnalysisReport;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.BatchResultsIndex;
 
 /**
  * Dialog displaying the results of network batch analysis.
@@ -231,7 +232,17 @@ public class BatchResultsDialog extends JDialog implements ListSelectionListener
 			}
 		}, null);
 		
-		final JPanel panButton = LookAndFeelUtil.createOkCancelPanel(null, btnClose);
+		// Add Compare Results button
+		final File indexFile = getIndexFile(aReports);
+		final JButton btnCompare = Utils.createButton(new AbstractAction(Messages.DI_BROWSERESULTS) {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				action.openIndex(BatchResultsDialog.this, indexFile);
+			}
+		}, null);
+		btnCompare.setEnabled(indexFile != null);
+
+		final JPanel panButton = LookAndFeelUtil.createOkCancelPanel(btnCompare, btnClose);
 
 		final JPanel contentPane = new JPanel();
 		final GroupLayout layout = new GroupLayout(contentPane);
@@ -258,4 +269,22 @@ public class BatchResultsDialog extends JDialog implements ListSelectionListener
 		
 		pack();
 	}
+
+	/**
+	 * Gets the results index of the batch analysis that produced the given reports.
+	 * 
+	 * @param aReports
+	 *            List of analysis reports.
+	 * @return Index file in the output directory of the batch analysis; <code>null</code> if no network
+	 *         statistics file was saved.
+	 */
+	private static File getIndexFile(List<NetworkAnalysisReport> aReports) {
+		for (final NetworkAnalysisReport report : aReports) {
+			final File resultFile = report.getResultFile();
+			if (resultFile != null) {
+				return new File(resultFile.getParentFile(), BatchResultsIndex.FILE_NAME);
+			}
+		}
+		return null;
+	}
 }
@@ -40,6 +40,7 @@ import javax.swing.GroupLayout;
 import javax.swing.GroupLayout.Alignment;
 import javax.swing.AbstractAction;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JDialog;
 import javax.swing.JFileChooser;
 import javax.swing.JLabel;
@@ -94,7 +95,7 @@ public class BatchSettingsDialog extends JDialog implements ActionListener {
 		} else if (src == btnOutputDir) {
 			final File file = updateSetting(choOutputDir);
 			if (file != null) {
-				if (checkOutputDir(file)) {
+				if (checkOutputDir(file, cbxResume.isSelected())) {
 					txfOutputDir.setText(file.getAbsolutePath());
 				} else {
 					txfOutputDir.setText("");
@@ -103,6 +104,13 @@ public class BatchSettingsDialog extends JDialog implements ActionListener {
 				updateStartButton();
 			}
 
+		} else if (src == cbxResume) {
+			// A non-empty output directory is accepted only when resuming
+			final File file = choOutputDir.getSelectedFile();
+			if (!"".equals(txfOutputDir.getText()) && !checkOutputDir(file, cbxResume.isSelected())) {
+				txfOutputDir.setText("");
+				updateStartButton();
+			}
 		}
 	}
 
@@ -132,6 +140,16 @@ public class BatchSettingsDialog extends JDialog implements ActionListener {
 		return Interpretations.UNDIRECTED;
 	}
 
+	/**
+	 * Gets the selected option for resuming a previous batch analysis.
+	 * 
+	 * @return <code>true</code> if a previous batch analysis in the output directory is to be resumed,
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isResume() {
+		return cbxResume.isSelected();
+	}
+
 	/**
 	 * Creates and lays out the controls inside this dialog.
 	 * <p>
@@ -235,6 +253,10 @@ public class BatchSettingsDialog extends JDialog implements ActionListener {
 			);
 		}
 		
+		// Add check box for resuming a previous analysis
+		cbxResume = new JCheckBox(Messages.DI_RESUME);
+		cbxResume.addActionListener(this);
+
 		// Add info about node attributes
 		final JPanel panAttr = new JPanel(new FlowLayout(FlowLayout.CENTER, BS, BS));
 		
@@ -277,12 +299,14 @@ public class BatchSettingsDialog extends JDialog implements ActionListener {
 			layout.setHorizontalGroup(layout.createParallelGroup(Alignment.CENTER, true)
 					.addComponent(panSelects, DEFAULT_SIZE, DEFAULT_SIZE, Short.MAX_VALUE)
 					.addComponent(panInterpr, DEFAULT_SIZE, DEFAULT_SIZE, Short.MAX_VALUE)
+					.addComponent(cbxResume)
 					.addComponent(panAttr)
 					.addComponent(panBottom, DEFAULT_SIZE, DEFAULT_SIZE, Short.MAX_VALUE)
 			);
 			layout.setVerticalGroup(layout.createSequentialGroup()
 					.addComponent(panSelects)
 					.addComponent(panInterpr)
+					.addComponent(cbxResume)
 					.addComponent(panAttr)
 					.addComponent(panBottom)
 			);
@@ -326,8 +350,23 @@ public class BatchSettingsDialog extends JDialog implements ActionListener {
 	 *         otherwise.
 	 */
 	public static boolean checkOutputDir(File aFile) {
+		return checkOutputDir(aFile, false);
+	}
+
+	/**
+	 * Checks the output directory, i.e. if aFile exists, is a directory, is writable and, unless a previous
+	 * analysis is resumed, is empty.
+	 * 
+	 * @param aFile
+	 *            File to be checked.
+	 * @param aResume
+	 *            Flag indicating if a previous batch analysis in the directory is resumed.
+	 * @return <code>true</code> if the output directory fulfills the criterion, and <code>false</code>
+	 *         otherwise.
+	 */
+	public static boolean checkOutputDir(File aFile, boolean aResume) {
 		try {
-			if (aFile.exists() && aFile.isDirectory() && aFile.list().length == 0 && aFile.canWrite()) {
+			if (aFile.exists() && aFile.isDirectory() && (aResume || aFile.list().length == 0) && aFile.canWrite()) {
 				return true;
 			}
 		} catch (Exception ex) {
@@ -429,6 +468,11 @@ public class BatchSettingsDialog extends JDialog implements ActionListener {
 	 */
 	private JButton btnStart;
 
+	/**
+	 * Check box for resuming a previous batch analysis in the output directory.
+	 */
+	private JCheckBox cbxResume;
+
 	/**
 	 * Directory chooser for the Networks.
 	 */
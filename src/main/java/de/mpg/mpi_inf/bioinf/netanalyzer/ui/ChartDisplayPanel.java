@@ -35,6 +35,7 @@ import java.awt.Window;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
@@ -164,12 +165,31 @@ public class ChartDisplayPanel extends JPanel implements ActionListener {
 	 */
 	public ChartDisplayPanel(Window owner, String aID, ComplexParamVisualizer aVisualizer,
 			Decorator[] aDecorators) {
+		this(owner, aID, aVisualizer, aDecorators, aVisualizer.createControl());
+	}
+
+	/**
+	 * Initializes a new instance of <code>ChartDisplayPanel</code> that displays an already created chart.
+	 * 
+	 * @param owner
+	 *            Owner dialog.
+	 * @param aID
+	 *            ID of complex parameter to be displayed.
+	 * @param aVisualizer
+	 *            Visualizer of the complex parameter to be displayed.
+	 * @param aDecorators
+	 *            Decorator instances for the complex parameter visualized.
+	 * @param aChart
+	 *            Chart created by <code>aVisualizer</code>.
+	 */
+	public ChartDisplayPanel(Window owner, String aID, ComplexParamVisualizer aVisualizer,
+			Decorator[] aDecorators, JFreeChart aChart) {
 		super();
 		visualizer = aVisualizer;
 		id = aID;
 		decorators = aDecorators;
 		originalParam = aVisualizer.getComplexParam();
-		chart = aVisualizer.createControl();
+		chart = aChart;
 		this.owner = owner;
 
 		initControls();
@@ -418,11 +438,11 @@ public class ChartDisplayPanel extends JPanel implements ActionListener {
 		JFileChooser saveFileDialog = new JFileChooser();
 		int saveIt = saveFileDialog.showSaveDialog(this);
 		if (saveIt == JFileChooser.APPROVE_OPTION) {
-			FileWriter writer = null;
+			BufferedWriter writer = null;
 			try {
 				File file = saveFileDialog.getSelectedFile();
 				if (Utils.canSave(file, this)) {
-					writer = new FileWriter(file);
+					writer = new BufferedWriter(new FileWriter(file));
 					visualizer.getComplexParam().save(writer, false);
 				}
 			} catch (IOException ex) {
@@ -0,0 +1,346 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.ui;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.StatsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.ui.charts.JFreeChartConn;
+
+/**
+ * Exporter of the charts of network statistics to image files without a user interface.
+ * <p>
+ * The charts are drawn off-screen, so the exporter can be used in batch analysis and from the command
+ * line (see {@link #main(String[])}). Every chart is exported to a file named
+ * <code>[prefix]-[parameter ID].[format]</code>. The charts are created and saved in parallel by a pool of
+ * worker threads, which must be released by calling {@link #shutdown()} once the exporter is no longer
+ * needed.
+ * </p>
+ */
+public class ChartExporter {
+
+	/**
+	 * Format name indicating that charts are not exported.
+	 */
+	public static final String FORMAT_NONE = "none";
+
+	/**
+	 * Format name of PNG images.
+	 */
+	public static final String FORMAT_PNG = "png";
+
+	/**
+	 * Format name of SVG images.
+	 */
+	public static final String FORMAT_SVG = "svg";
+
+	/**
+	 * Format name of JPEG images.
+	 */
+	public static final String FORMAT_JPEG = "jpeg";
+
+	/**
+	 * Exports the charts of one or more network statistics files.
+	 * <p>
+	 * Usage: <code>ChartExporter input output [format [width height]]</code>, where <code>input</code> is a
+	 * &quot;.netstats&quot; file or a directory of such files, <code>output</code> is the directory to save
+	 * the images to and <code>format</code> is one of {@link #FORMAT_PNG} (default), {@link #FORMAT_SVG} or
+	 * {@link #FORMAT_JPEG}. The visual settings of the charts are read from the NetworkAnalyzer settings
+	 * file.
+	 * </p>
+	 * 
+	 * @param aArgs
+	 *            Command-line arguments.
+	 */
+	public static void main(String[] aArgs) {
+		if (aArgs.length != 2 && aArgs.length != 3 && aArgs.length != 5) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		System.setProperty("java.awt.headless", "true");
+		ChartExporter exporter = null;
+		try {
+			final String format = aArgs.length > 2 ? aArgs[2] : FORMAT_PNG;
+			final int width = aArgs.length > 3 ? Integer.parseInt(aArgs[3]) : ChartPanel.DEFAULT_WIDTH;
+			final int height = aArgs.length > 3 ? Integer.parseInt(aArgs[4]) : ChartPanel.DEFAULT_HEIGHT;
+			SettingsSerializer.initVisualSettings();
+			exporter = new ChartExporter(format, width, height, Runtime.getRuntime().availableProcessors());
+			final File input = new File(aArgs[0]);
+			final File output = new File(aArgs[1]);
+			output.mkdirs();
+			final List<File> files = input.isDirectory() ? exporter.exportDirectory(input, output) : exporter
+					.export(StatsSerializer.load(input), output, getPrefix(input));
+			for (final File file : files) {
+				System.out.println(file);
+			}
+		} catch (IllegalArgumentException ex) {
+			// NumberFormatException
+			System.err.println(USAGE);
+			System.exit(1);
+		} catch (Exception ex) {
+			System.err.println(ex);
+			System.exit(1);
+		} finally {
+			if (exporter != null) {
+				exporter.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Initializes a new instance of <code>ChartExporter</code>.
+	 * 
+	 * @param aFormat
+	 *            Format of the image files - one of {@link #FORMAT_PNG}, {@link #FORMAT_SVG} or
+	 *            {@link #FORMAT_JPEG}.
+	 * @param aWidth
+	 *            Width, in pixels, of the images.
+	 * @param aHeight
+	 *            Height, in pixels, of the images.
+	 * @param aThreadCount
+	 *            Number of charts to be created and saved in parallel.
+	 * @throws IllegalArgumentException
+	 *             If the format is not supported, or if any of the other parameters is not positive.
+	 */
+	public ChartExporter(String aFormat, int aWidth, int aHeight, int aThreadCount) {
+		if (!(FORMAT_PNG.equals(aFormat) || FORMAT_SVG.equals(aFormat) || FORMAT_JPEG.equals(aFormat))) {
+			throw new IllegalArgumentException(aFormat);
+		}
+		if (aWidth <= 0 || aHeight <= 0 || aThreadCount <= 0) {
+			throw new IllegalArgumentException();
+		}
+		format = aFormat;
+		width = aWidth;
+		height = aHeight;
+		workers = Executors.newFixedThreadPool(aThreadCount, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				final Thread thread = new Thread(r, "NetworkAnalyzer chart exporter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Exports the charts of all complex parameters in the given network statistics.
+	 * <p>
+	 * The charts are exported in parallel. This method returns after all charts have been processed.
+	 * </p>
+	 * 
+	 * @param aStats
+	 *            Network statistics whose charts are to be exported.
+	 * @param aOutputDir
+	 *            Directory to save the image files to.
+	 * @param aPrefix
+	 *            Prefix of the names of the image files, usually the name of the analyzed network.
+	 * @return List of the created image files.
+	 * @throws IOException
+	 *             If any of the charts could not be exported; all other charts are exported regardless.
+	 */
+	public List<File> export(final NetworkStats aStats, final File aOutputDir, final String aPrefix)
+			throws IOException {
+		final List<Future<List<File>>> tasks = new ArrayList<Future<List<File>>>();
+		for (final String id : aStats.getComputedComplex()) {
+			tasks.add(workers.submit(new Callable<List<File>>() {
+				public List<File> call() throws IOException {
+					return Arrays.asList(exportChart(aStats, id, aOutputDir, aPrefix));
+				}
+			}));
+		}
+		return collect(tasks);
+	}
+
+	/**
+	 * Exports the charts of all network statistics files in the given directory.
+	 * <p>
+	 * The files are processed in parallel; the charts of every file are named after the file. This method
+	 * returns after all files have been processed.
+	 * </p>
+	 * 
+	 * @param aInputDir
+	 *            Directory that contains &quot;.netstats&quot; files, for example the output directory of a
+	 *            batch analysis.
+	 * @param aOutputDir
+	 *            Directory to save the image files to.
+	 * @return List of the created image files.
+	 * @throws IOException
+	 *             If any of the files could not be read or any of the charts could not be exported; all
+	 *             other charts are exported regardless.
+	 */
+	public List<File> exportDirectory(File aInputDir, final File aOutputDir) throws IOException {
+		final File[] inputFiles = aInputDir.listFiles();
+		if (inputFiles == null) {
+			throw new IOException(aInputDir.toString());
+		}
+		Arrays.sort(inputFiles);
+		final List<Future<List<File>>> tasks = new ArrayList<Future<List<File>>>();
+		for (final File inputFile : inputFiles) {
+			if (!inputFile.isFile() || !SupportedExtensions.netStatsFilter.hasExtension(inputFile)) {
+				continue;
+			}
+			tasks.add(workers.submit(new Callable<List<File>>() {
+				public List<File> call() throws IOException {
+					final NetworkStats stats = StatsSerializer.load(inputFile);
+					final String prefix = getPrefix(inputFile);
+					final List<File> files = new ArrayList<File>();
+					for (final String id : stats.getComputedComplex()) {
+						files.add(exportChart(stats, id, aOutputDir, prefix));
+					}
+					return files;
+				}
+			}));
+		}
+		return collect(tasks);
+	}
+
+	/**
+	 * Stops the worker threads of this exporter once the exports in progress have finished.
+	 */
+	public void shutdown() {
+		workers.shutdown();
+	}
+
+	/**
+	 * Gets the name of a network statistics file without its extension.
+	 * 
+	 * @param aFile
+	 *            Network statistics file.
+	 * @return Name of <code>aFile</code> without the &quot;.netstats&quot; extension.
+	 */
+	private static String getPrefix(File aFile) {
+		final String name = aFile.getName();
+		final int dot = name.lastIndexOf('.');
+		return dot > 0 ? name.substring(0, dot) : name;
+	}
+
+	/**
+	 * Waits for the given export tasks to finish and collects the files they have created.
+	 * 
+	 * @param aTasks
+	 *            Submitted export tasks.
+	 * @return List of the files created by all tasks.
+	 * @throws IOException
+	 *             If any of the tasks failed; the exception of the first failed task is thrown after all
+	 *             tasks have finished.
+	 */
+	private static List<File> collect(List<Future<List<File>>> aTasks) throws IOException {
+		final List<File> files = new ArrayList<File>();
+		Throwable error = null;
+		for (final Future<List<File>> task : aTasks) {
+			try {
+				files.addAll(task.get());
+			} catch (ExecutionException ex) {
+				if (error == null) {
+					error = ex.getCause();
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IOException(ex);
+			}
+		}
+		if (error instanceof IOException) {
+			throw (IOException) error;
+		}
+		if (error != null) {
+			throw new IOException(error);
+		}
+		return files;
+	}
+
+	/**
+	 * Creates the chart of a complex parameter and saves it to an image file.
+	 * 
+	 * @param aStats
+	 *            Network statistics that contain the complex parameter.
+	 * @param aID
+	 *            ID of the complex parameter.
+	 * @param aOutputDir
+	 *            Directory to save the image file to.
+	 * @param aPrefix
+	 *            Prefix of the name of the image file.
+	 * @return The created image file.
+	 * @throws IOException
+	 *             If the parameter could not be loaded or the image could not be saved.
+	 */
+	private File exportChart(NetworkStats aStats, String aID, File aOutputDir, String aPrefix)
+			throws IOException {
+		final ComplexParam cp = aStats.getComplex(aID);
+		final JFreeChart chart = ComplexParamVisualizer.create(cp, SettingsSerializer.getDefault(aID))
+				.createControl();
+		final File file = new File(aOutputDir, aPrefix + "-" + aID + "." + format);
+		if (FORMAT_PNG.equals(format)) {
+			JFreeChartConn.saveAsPng(file, chart, width, height);
+		} else if (FORMAT_SVG.equals(format)) {
+			JFreeChartConn.saveAsSvg(file, chart, width, height);
+		} else {
+			JFreeChartConn.saveAsJpeg(file, chart, width, height);
+		}
+		return file;
+	}
+
+	/**
+	 * Command-line usage of the exporter.
+	 */
+	private static final String USAGE = "Usage: ChartExporter <netstats file or directory> <output directory> "
+			+ "[png|svg|jpeg [width height]]";
+
+	/**
+	 * Format of the image files.
+	 */
+	private final String format;
+
+	/**
+	 * Width, in pixels, of the images.
+	 */
+	private final int width;
+
+	/**
+	 * Height, in pixels, of the images.
+	 */
+	private final int height;
+
+	/**
+	 * Worker threads creating and saving the charts.
+	 */
+	private final ExecutorService workers;
+}
@@ -29,6 +29,7 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.ui;
 import java.awt.Dialog.ModalityType;
 import java.awt.Window;
 import java.io.IOException;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 
 import javax.swing.JComponent;
@@ -38,6 +39,7 @@ import org.cytoscape.util.swing.LookAndFeelUtil;
 import org.jfree.chart.JFreeChart;
 
 import de.mpg.mpi_inf.bioinf.netanalyzer.InnerException;
+import de.mpg.mpi_inf.bioinf.netanalyzer.Plugin;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.GeneralVisSettings;
@@ -50,6 +52,29 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.SettingsGroup;
  */
 public abstract class ComplexParamVisualizer {
 
+	/**
+	 * Creates a visualizer for the given complex parameter.
+	 * <p>
+	 * The type of the visualizer is determined by the type of the complex parameter.
+	 * </p>
+	 * 
+	 * @param aParam Complex parameter to be visualized.
+	 * @param aSettings Visual settings for the complex parameter.
+	 * @return Newly created visualizer of <code>aParam</code>.
+	 * @throws InnerException If the visualizer could not be created.
+	 */
+	public static ComplexParamVisualizer create(ComplexParam aParam, SettingsGroup aSettings) {
+		try {
+			final Class<?> visClass = Plugin.getVisualizerClass(aParam.getClass().getSimpleName());
+			final Constructor<?> con = visClass.getConstructors()[0];
+			return (ComplexParamVisualizer) con.newInstance(new Object[] { aParam, aSettings });
+		} catch (Exception ex) {
+			// ClassNotFoundException, IllegalAccessException, InstantiationException,
+			// InvocationTargetException
+			throw new InnerException(ex);
+		}
+	}
+
 	/**
 	 * Creates the chart control that displays the complex parameter.
 	 * 
@@ -52,22 +52,26 @@ import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 
+import org.cytoscape.event.CyEventHelper;
 import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.events.RowSetRecord;
+import org.cytoscape.model.events.RowsSetEvent;
 import org.cytoscape.task.create.NewNetworkSelectedNodesAndEdgesTaskFactory;
 import org.cytoscape.util.swing.LookAndFeelUtil;
 import org.cytoscape.work.TaskIterator;
 import org.cytoscape.work.TaskManager;
 
 import de.mpg.mpi_inf.bioinf.netanalyzer.ConnComponentAnalyzer;
-import de.mpg.mpi_inf.bioinf.netanalyzer.CyNetworkUtils;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.CCInfo;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 
 /**
- * Dialog listing the connected components of a network. This dialog also allows for a connected
- * component to be saved as a new network.
+ * Dialog listing the connected components of a network. This dialog also allows for one or more
+ * connected components to be saved as a new network.
  * 
  * @author Yassen Assenov
  */
@@ -75,6 +79,7 @@ public class ConnComponentsDialog extends JDialog implements DocumentListener, L
 
 	private final NewNetworkSelectedNodesAndEdgesTaskFactory tf;
 	private final TaskManager<?, ?> tm;
+	private final CyEventHelper eventHelper;
 	
 	/**
 	 * Initializes a new instance of <code>ConnComponentsDialog</code>.
@@ -86,13 +91,14 @@ public class ConnComponentsDialog extends JDialog implements DocumentListener, L
 	 *         <code>true</code>.
 	 */
 	public ConnComponentsDialog(Frame aOwner, CyNetwork aNetwork, CCInfo[] aComponents,
-			final NewNetworkSelectedNodesAndEdgesTaskFactory tf, final TaskManager<?, ?> tm)
-		throws HeadlessException {
+			final NewNetworkSelectedNodesAndEdgesTaskFactory tf, final TaskManager<?, ?> tm,
+			final CyEventHelper eventHelper) throws HeadlessException {
 		super(aOwner, Messages.DT_CONNCOMP, true);
 		network = aNetwork;
 		components = aComponents;
 		this.tf = tf;
 		this.tm = tm;
+		this.eventHelper = eventHelper;
 		
 		initControls();
 		pack();
@@ -103,7 +109,7 @@ public class ConnComponentsDialog extends JDialog implements DocumentListener, L
 	@Override
 	public void valueChanged(ListSelectionEvent e) {
 		int i = listComp.getSelectedIndex() + 1;
-		boolean enabled = (i != 0);
+		boolean enabled = !listComp.isSelectionEmpty();
 		btnExtract.getAction().setEnabled(enabled);
 		
 		if (enabled) {
@@ -162,7 +168,7 @@ public class ConnComponentsDialog extends JDialog implements DocumentListener, L
 		}
 		
 		listComp = new JList(ccItems);
-		listComp.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		listComp.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
 		listComp.addListSelectionListener(this);
 		
 		if (compCount < 8) {
@@ -175,20 +181,40 @@ public class ConnComponentsDialog extends JDialog implements DocumentListener, L
 		btnExtract = Utils.createButton(new AbstractAction(Messages.DI_EXTR) {
 			@Override
 			public void actionPerformed(ActionEvent e) {
-				// Reset
-				for(CyNode node: network.getNodeList())
-					network.getRow(node).set(CyNetwork.SELECTED, false);
-				for(CyEdge edge: network.getEdgeList())
-					network.getRow(edge).set(CyNetwork.SELECTED, false);
+				final int[] indices = listComp.getSelectedIndices();
+				final CCInfo[] comps = new CCInfo[indices.length];
+				for (int i = 0; i < indices.length; ++i) {
+					comps[i] = components[indices[i]];
+				}
+				final Set<CyNode> nodes = ConnComponentAnalyzer.getNodesOf(network, comps);
 				
-				CCInfo comp = components[listComp.getSelectedIndex()];
-				final List<CyNode> nodes = new ArrayList<CyNode>(ConnComponentAnalyzer.getNodesOf(network, comp));
-				final Set<CyEdge> edges = CyNetworkUtils.getAllConnectingEdges(network,nodes);
-				
-				for(CyNode node: nodes)
-					network.getRow(node).set(CyNetwork.SELECTED, true);
-				for(CyEdge edge: edges)
-					network.getRow(edge).set(CyNetwork.SELECTED, true);
+				// Update the selection silently and notify the listeners with a single event per table
+				final CyTable nodeTable = network.getDefaultNodeTable();
+				final CyTable edgeTable = network.getDefaultEdgeTable();
+				final List<RowSetRecord> nodeRecords = new ArrayList<RowSetRecord>();
+				final List<RowSetRecord> edgeRecords = new ArrayList<RowSetRecord>();
+				eventHelper.silenceEventSource(nodeTable);
+				eventHelper.silenceEventSource(edgeTable);
+				try {
+					// Reset
+					clearSelection(nodeTable, nodeRecords);
+					clearSelection(edgeTable, edgeRecords);
+					
+					for (final CyNode node : nodes) {
+						setSelected(network.getRow(node), Boolean.TRUE, nodeRecords);
+					}
+					// An edge belongs to the component of its source node
+					for (final CyEdge edge : network.getEdgeList()) {
+						if (nodes.contains(edge.getSource())) {
+							setSelected(network.getRow(edge), Boolean.TRUE, edgeRecords);
+						}
+					}
+				} finally {
+					eventHelper.unsilenceEventSource(nodeTable);
+					eventHelper.unsilenceEventSource(edgeTable);
+				}
+				eventHelper.fireEvent(new RowsSetEvent(nodeTable, nodeRecords));
+				eventHelper.fireEvent(new RowsSetEvent(edgeTable, edgeRecords));
 				
 				final TaskIterator itr = tf.createTaskIterator(network);
 				tm.execute(itr);
@@ -230,11 +256,35 @@ public class ConnComponentsDialog extends JDialog implements DocumentListener, L
 		LookAndFeelUtil.setDefaultOkCancelKeyStrokes(getRootPane(), btnExtract.getAction(), btnCancel.getAction());
 	}
 
+	/**
+	 * Deselects all selected rows of the given table.
+	 * 
+	 * @param aTable Node or edge table of {@link #network}.
+	 * @param aRecords List to which a record for every deselected row is added.
+	 */
+	private static void clearSelection(CyTable aTable, List<RowSetRecord> aRecords) {
+		for (final CyRow row : aTable.getMatchingRows(CyNetwork.SELECTED, Boolean.TRUE)) {
+			setSelected(row, Boolean.FALSE, aRecords);
+		}
+	}
+
+	/**
+	 * Sets the selection state of the given row.
+	 * 
+	 * @param aRow Row of a node or an edge of {@link #network}.
+	 * @param aSelected Selection state to be set.
+	 * @param aRecords List to which a record of the change is added.
+	 */
+	private static void setSelected(CyRow aRow, Boolean aSelected, List<RowSetRecord> aRecords) {
+		aRow.set(CyNetwork.SELECTED, aSelected);
+		aRecords.add(new RowSetRecord(aRow, CyNetwork.SELECTED, aSelected, aSelected));
+	}
+
 	/**
 	 * Updates the &quot;enabled&quot; status of the Extract button.
 	 */
 	private void updateBtnExtract() {
-		if (listComp.getSelectedIndex() == -1) {
+		if (listComp.isSelectionEmpty()) {
 			btnExtract.getAction().setEnabled(false);
 		} else {
 			btnExtract.getAction().setEnabled(true);
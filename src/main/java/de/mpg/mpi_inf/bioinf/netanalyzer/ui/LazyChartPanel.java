@@ -0,0 +1,256 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.ui;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.awt.BorderLayout;
+import java.awt.Window;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+import org.jfree.chart.JFreeChart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Decorators;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.GeneralVisSettings;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.SettingsGroup;
+
+/**
+ * Placeholder for a {@link ChartDisplayPanel} that creates the chart when it is first displayed.
+ * <p>
+ * Until the panel becomes visible, neither the complex parameter is loaded nor the chart is created. The
+ * first time it is shown, the visualizer and the chart are created on a background thread and the panel
+ * displays a message in the meantime. Once the chart is ready, it is displayed in a
+ * <code>ChartDisplayPanel</code> that fills this panel.
+ * </p>
+ */
+public class LazyChartPanel extends JPanel implements HierarchyListener {
+
+	private static final long serialVersionUID = -4326127870613920516L;
+	private static final Logger logger = LoggerFactory.getLogger(LazyChartPanel.class);
+
+	/**
+	 * Gets the title of the chart for the given complex parameter.
+	 * <p>
+	 * The title is read from the default visual settings of the parameter, so that the parameter itself
+	 * does not need to be loaded.
+	 * </p>
+	 * 
+	 * @param aID
+	 *            ID of the complex parameter.
+	 * @return Title of the chart; <code>aID</code> if the settings of the parameter define no title.
+	 */
+	public static String getTitle(String aID) {
+		final SettingsGroup settings = SettingsSerializer.getDefault(aID);
+		if (settings != null) {
+			try {
+				final Object general = settings.getClass().getField("general").get(settings);
+				if (general instanceof GeneralVisSettings) {
+					return ((GeneralVisSettings) general).getTitle();
+				}
+			} catch (Exception ex) {
+				// IllegalAccessException, NoSuchFieldException, SecurityException
+				// Fall through
+			}
+		}
+		return aID;
+	}
+
+	/**
+	 * Stops the background thread that creates the charts.
+	 * <p>
+	 * Charts waiting to be created are discarded. This method is called when the plugin is stopped; no lazy
+	 * chart panels can be loaded afterwards.
+	 * </p>
+	 */
+	public static void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Initializes a new instance of <code>LazyChartPanel</code>.
+	 * 
+	 * @param aOwner
+	 *            Owner dialog.
+	 * @param aID
+	 *            ID of the complex parameter to be displayed.
+	 * @param aStats
+	 *            Network statistics that contain the complex parameter.
+	 */
+	public LazyChartPanel(Window aOwner, String aID, NetworkStats aStats) {
+		super(new BorderLayout());
+		owner = aOwner;
+		id = aID;
+		stats = aStats;
+		loading = false;
+		add(new JLabel(Messages.DI_CREATINGCHART, SwingConstants.CENTER), BorderLayout.CENTER);
+		addHierarchyListener(this);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.awt.event.HierarchyListener#hierarchyChanged(java.awt.event.HierarchyEvent)
+	 */
+	public void hierarchyChanged(HierarchyEvent e) {
+		if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
+			load();
+		}
+	}
+
+	/**
+	 * Starts creating the chart in the background, unless it is already created or being created, or the
+	 * plugin has been stopped.
+	 * <p>
+	 * This method must be called on the event dispatch thread.
+	 * </p>
+	 */
+	public void load() {
+		if (loading || executor.isShutdown()) {
+			return;
+		}
+		loading = true;
+		removeHierarchyListener(this);
+		final NetworkStats loadedStats = stats;
+		executor.execute(new Runnable() {
+			public void run() {
+				ComplexParamVisualizer visualizer = null;
+				JFreeChart chart = null;
+				try {
+					final ComplexParam cp = loadedStats.getComplex(id);
+					visualizer = ComplexParamVisualizer.create(cp, SettingsSerializer.getDefault(id));
+					chart = visualizer.createControl();
+				} catch (RuntimeException ex) {
+					// InnerException, UncheckedIOException
+					logger.error(Messages.SM_LOGERROR, ex);
+				}
+				final ComplexParamVisualizer createdVisualizer = visualizer;
+				final JFreeChart createdChart = chart;
+				SwingUtilities.invokeLater(new Runnable() {
+					public void run() {
+						display(createdVisualizer, createdChart);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Gets the ID of the displayed complex parameter.
+	 * 
+	 * @return ID of the complex parameter displayed in this panel.
+	 */
+	public String getID() {
+		return id;
+	}
+
+	/**
+	 * Replaces the network statistics that contain the displayed complex parameter.
+	 * <p>
+	 * If the chart has already been created, it is created again from the given statistics, and the current
+	 * chart is displayed until the new one is ready. Otherwise, the chart is created from the given
+	 * statistics when the panel is first displayed. This method must be called on the event dispatch
+	 * thread.
+	 * </p>
+	 * 
+	 * @param aStats
+	 *            Network statistics that contain the complex parameter.
+	 */
+	public void update(NetworkStats aStats) {
+		stats = aStats;
+		if (loading) {
+			loading = false;
+			if (isShowing()) {
+				load();
+			} else {
+				addHierarchyListener(this);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the placeholder message with the created chart.
+	 * 
+	 * @param aVisualizer
+	 *            Visualizer of the complex parameter; <code>null</code> if it could not be created.
+	 * @param aChart
+	 *            Chart created by <code>aVisualizer</code>; <code>null</code> if it could not be created.
+	 */
+	private void display(ComplexParamVisualizer aVisualizer, JFreeChart aChart) {
+		removeAll();
+		if (aChart != null) {
+			add(new ChartDisplayPanel(owner, id, aVisualizer, Decorators.get(id), aChart), BorderLayout.CENTER);
+		} else {
+			add(new JLabel(Messages.DI_CHARTFAILED, SwingConstants.CENTER), BorderLayout.CENTER);
+		}
+		revalidate();
+		repaint();
+	}
+
+	/**
+	 * Single background thread that creates the charts of all lazy chart panels.
+	 */
+	private static final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		public Thread newThread(Runnable r) {
+			final Thread thread = new Thread(r, "NetworkAnalyzer chart builder");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/**
+	 * Owner dialog of this panel.
+	 */
+	private final Window owner;
+
+	/**
+	 * ID of the displayed complex parameter.
+	 */
+	private final String id;
+
+	/**
+	 * Network statistics that contain the displayed complex parameter.
+	 */
+	private NetworkStats stats;
+
+	/**
+	 * Flag indicating if the creation of the chart has been started.
+	 */
+	private boolean loading;
+}
@@ -61,6 +61,8 @@ import org.cytoscape.view.model.CyNetworkViewManager;
 import org.cytoscape.view.vizmap.VisualMappingManager;
 import org.cytoscape.view.vizmap.VisualStyle;
 
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AttributeCatalog;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AttributeSummary;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
 
@@ -441,6 +443,8 @@ public class MapParameterDialog extends VisualizeParameterDialog implements Acti
 	private void getBoundaryValues(CyNetwork network, String[][] attr, CyIdentifiable entry) {
 		for (int i = 0; i < attr.length; i++) {
 			for (int j = 0; j < attr[i].length; j++) {
+				if (attr[i][j] == null)
+					continue;
 				final Class<?> attrType =
 					network.getRow(entry).getTable().getColumn(attr[i][j]).getType();
 
@@ -479,6 +483,10 @@ public class MapParameterDialog extends VisualizeParameterDialog implements Acti
 	/**
 	 * Computes the minimum, maximum and mean values for each available attribute and saves them in a min, max
 	 * and mean hash maps, respectively.
+	 * <p>
+	 * The values of attributes recorded in the {@link AttributeCatalog} are taken from their summaries; only
+	 * the remaining attributes are computed by processing each node or edge.
+	 * </p>
 	 */
 	private void getMinMaxMeanValues() {
 		minAttrValue = new HashMap<>(32);
@@ -486,16 +494,56 @@ public class MapParameterDialog extends VisualizeParameterDialog implements Acti
 		meanAttrValue = new HashMap<>(32);
 
 		// Find min, max and mean for each node attribute
-		// TODO: [Cytoscape 2.8] Check if the returned iterator is parameterized
-		for ( CyNode n : network.getNodeList()) {
-			getBoundaryValues( network, nodeAttr, n);
+		final String[][] nodeAttrLeft = putSummaries(nodeAttr, true);
+		if (nodeAttrLeft != null) {
+			for ( CyNode n : network.getNodeList()) {
+				getBoundaryValues( network, nodeAttrLeft, n);
+			}
+			calculateMean(network.getNodeCount(), nodeAttrLeft);
 		}
-		calculateMean(network.getNodeCount(), nodeAttr);
-		// Find min, max and mean for each node attribute
-		for ( CyEdge e : network.getEdgeList()) {
-			getBoundaryValues( network, edgeAttr, e);
+		// Find min, max and mean for each edge attribute
+		final String[][] edgeAttrLeft = putSummaries(edgeAttr, false);
+		if (edgeAttrLeft != null) {
+			for ( CyEdge e : network.getEdgeList()) {
+				getBoundaryValues( network, edgeAttrLeft, e);
+			}
+			calculateMean(network.getEdgeCount(), edgeAttrLeft);
+		}
+	}
+
+	/**
+	 * Saves the minimum, maximum and mean values of the attributes recorded in the {@link AttributeCatalog}.
+	 * 
+	 * @param attr
+	 *            Array of attributes, whose minimum, maximum and mean values are needed.
+	 * @param nodes
+	 *            Flag indicating if <code>attr</code> contains node attributes (<code>true</code>) or edge
+	 *            attributes (<code>false</code>).
+	 * @return Copy of <code>attr</code> in which the attributes with recorded summaries are replaced by
+	 *         <code>null</code>; <code>null</code> if all attributes have summaries.
+	 */
+	private String[][] putSummaries(String[][] attr, boolean nodes) {
+		final String[][] attrLeft = new String[attr.length][];
+		boolean scanNeeded = false;
+		for (int i = 0; i < attr.length; i++) {
+			attrLeft[i] = attr[i].clone();
+			for (int j = 0; j < attr[i].length; j++) {
+				final AttributeSummary summary = nodes ? AttributeCatalog.getNodeSummary(network, attr[i][j])
+						: AttributeCatalog.getEdgeSummary(network, attr[i][j]);
+				if (summary == null) {
+					scanNeeded = true;
+				} else {
+					attrLeft[i][j] = null;
+					final double mean = summary.getMean();
+					if (!Double.isNaN(mean)) {
+						minAttrValue.put(attr[i][j], new Double(summary.getMin()));
+						maxAttrValue.put(attr[i][j], new Double(summary.getMax()));
+						meanAttrValue.put(attr[i][j], new Double(mean));
+					}
+				}
+			}
 		}
-		calculateMean(network.getEdgeCount(), edgeAttr);
+		return scanNeeded ? attrLeft : null;
 	}
 
 	/**
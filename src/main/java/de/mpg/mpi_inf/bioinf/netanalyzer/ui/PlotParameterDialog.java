@@ -35,11 +35,9 @@ import java.awt.FlowLayout;
 import java.awt.Frame;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.awt.geom.Point2D;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Random;
 
 import javax.swing.AbstractAction;
@@ -255,17 +253,24 @@ public class PlotParameterDialog extends VisualizeParameterDialog implements Act
 		
 		final Class<?> attrType1 = cyAttr.getColumn(attrX).getType();
 		final Class<?> attrType2 = cyAttr.getColumn(attrY).getType();
-		final List<Point2D.Double> plotValues = new ArrayList<Point2D.Double>(network.getNodeCount());
+		final int nodeCount = network.getNodeCount();
+		final double[] xs = new double[nodeCount];
+		final double[] ys = new double[nodeCount];
+		int count = 0;
 		
 		for (CyNode node : network.getNodeList()) {
 			Double value1 = getAttrValue(network, node, attrX, attrType1);
 			Double value2 = getAttrValue(network, node, attrY, attrType2);
 			
 			if (value1 != null && value2 != null) {
-				plotValues.add(new Point2D.Double(value1.doubleValue(), value2.doubleValue()));
+				xs[count] = value1.doubleValue();
+				ys[count] = value2.doubleValue();
+				count++;
 			}
 		}
 		
+		final Points2D plotValues = count == nodeCount ? new Points2D(xs, ys) : new Points2D(Arrays
+				.copyOf(xs, count), Arrays.copyOf(ys, count));
 		initChartPanel(plotValues, attrX, attrY);
 		((JPanel) getContentPane()).updateUI();
 		pack();
@@ -273,8 +278,8 @@ public class PlotParameterDialog extends VisualizeParameterDialog implements Act
 		setLocationRelativeTo(parent);
 	}
 
-	private void initChartPanel(List<Point2D.Double> plotValues, String attrX, String attrY) {
-		ComplexParam cp = new Points2D(plotValues);
+	private void initChartPanel(Points2D plotValues, String attrX, String attrY) {
+		ComplexParam cp = plotValues;
 		String typeName = cp.getClass().getSimpleName();
 		
 		try {
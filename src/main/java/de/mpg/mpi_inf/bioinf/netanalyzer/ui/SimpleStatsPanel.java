@@ -71,6 +71,9 @@ public class SimpleStatsPanel extends JPanel {
 			addDescrValuePair(aStats, statNames, 0, nameCount, descrCol, valueCol);
 		}
 		add(simpleStatsPanel, BorderLayout.CENTER);
+		if (aStats.isPartial()) {
+			add(new JLabel(Messages.SM_PARTIALRESULTS, SwingConstants.CENTER), BorderLayout.NORTH);
+		}
 	}
 
 	/**
@@ -126,10 +129,28 @@ public class SimpleStatsPanel extends JPanel {
 			totalPairs = totalPairs * (totalPairs - 1);
 			long percentage = (connPairs * 100) / totalPairs;
 			labelText = labelText + " (" + percentage + "%)";
+		} else if ("pathSampling".equals(aName)) {
+			final double fraction = ((Double) value).doubleValue();
+			if (fraction < 1.0) {
+				labelText = Math.round(fraction * 100) + "%" + Messages.SM_ESTIMATED;
+				toolTipText = Messages.TT_ESTIMATED;
+			} else {
+				labelText = Messages.SM_EXACT;
+			}
 		} else if (value instanceof Double) {
 			toolTipText = labelText;
 			labelText = Utils.doubleToString((Double) value, NUMBER_LENGTH_MAX, PRECISION_MAX);
 		}
+		if (aStats.isEstimate(aName)) {
+			labelText = labelText + Messages.SM_ESTIMATED;
+			if ("diameter".equals(aName)) {
+				toolTipText = Messages.TT_DIAMETERBOUND;
+			} else if ("radius".equals(aName)) {
+				toolTipText = Messages.TT_RADIUSBOUND;
+			} else {
+				toolTipText = Messages.TT_ESTIMATED;
+			}
+		}
 		return Utils.createLabel("<html><b>" + labelText + "</b></html>", toolTipText);
 	}
 
@@ -49,6 +49,7 @@ import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.AbstractRenderer;
 import org.jfree.chart.renderer.xy.XYBarRenderer;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.chart.title.TextTitle;
 import org.jfree.data.Range;
 import org.jfree.data.xy.XYDataset;
 import org.jfree.data.xy.XYSeries;
@@ -57,7 +58,9 @@ import org.jfree.data.xy.XYSeriesCollection;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.IntHistogram;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.IntRange;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.LongHistogram;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Points2D;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.QuantileSketch;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.AxesSettings;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.BarsSettings;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.GeneralVisSettings;
@@ -65,6 +68,7 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.GridSettings;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.IntHistogramGroup;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.LongHistogramGroup;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.Points2DGroup;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.QuantileSketchGroup;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.ScatterSettings;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.ui.Cross;
 
@@ -193,15 +197,46 @@ public abstract class JFreeChartConn {
 		return chart;
 	}
 
+	/**
+	 * Creates a chart that displays the cumulative distribution function of the given quantile sketch.
+	 * <p>
+	 * The chart is entitled with the estimated values of the percentiles in {@link #PERCENTILES}.
+	 * </p>
+	 * 
+	 * @param aSketch
+	 *            Complex parameter that stores the data to be visualized.
+	 * @param aSettings
+	 *            Settings group for quantile sketches.
+	 * @return Newly created chart control.
+	 */
+	public static JFreeChart createCdf(QuantileSketch aSketch, QuantileSketchGroup aSettings) {
+		final JFreeChart chart = createScatter(fromPoints2D(aSketch.createCdf()), aSettings.general,
+				aSettings.axes, aSettings.grid, aSettings.scatter);
+		if (aSketch.getCount() != 0) {
+			final StringBuilder summary = new StringBuilder(Messages.DI_PERCENTILES);
+			for (int i = 0; i < PERCENTILES.length; ++i) {
+				summary.append(i == 0 ? " " : "; ");
+				summary.append(PERCENTILES[i]).append("% = ");
+				summary.append(String.format("%.3g", aSketch.getQuantile(PERCENTILES[i] / 100.0)));
+			}
+			chart.addSubtitle(new TextTitle(summary.toString()));
+		}
+		return chart;
+	}
+
 	/**
 	 * Encloses the given chart into a panel.
+	 * <p>
+	 * The panel draws the chart into an off-screen image, which is reused until the chart or the size of
+	 * the panel changes. Switching between tabs and repainting thus do not redraw the chart.
+	 * </p>
 	 * 
 	 * @param aChart
 	 *            Chart to be enclosed in a panel.
 	 * @return Panel that contains <code>aChart</code>.
 	 */
 	public static JPanel createPanel(JFreeChart aChart) {
-		return new ChartPanel(aChart);
+		return new ChartPanel(aChart, true);
 	}
 
 	/**
@@ -249,7 +284,8 @@ public abstract class JFreeChartConn {
 	/**
 	 * Extracts the visualized data from a given chart instance.
 	 * <p>
-	 * This methods extracts the default data series from the default dataset of the given chart.
+	 * This methods extracts the default data series from the default dataset of the given chart. If the
+	 * displayed points are sampled from a larger point set, all points of the set are returned.
 	 * </p>
 	 * 
 	 * @param aChart
@@ -258,6 +294,9 @@ public abstract class JFreeChartConn {
 	 */
 	public static Point2D.Double[] extractData(JFreeChart aChart) {
 		XYDataset dataColl = aChart.getXYPlot().getDataset();
+		if (dataColl instanceof Points2DDataset) {
+			return ((Points2DDataset) dataColl).getPoints().getPoints();
+		}
 		final int n = dataColl.getItemCount(0);
 		Point2D.Double[] dataPoints = new Point2D.Double[n];
 		for (int i = 0; i < n; ++i) {
@@ -417,6 +456,10 @@ public abstract class JFreeChartConn {
 	}
 
 	private static double logLowerBound(XYDataset aDataset, boolean isDomainAxis) {
+		if (aDataset instanceof Points2DDataset && ((Points2DDataset) aDataset).isSampled()) {
+			final Points2DDataset dataset = (Points2DDataset) aDataset;
+			return isDomainAxis ? dataset.getMinPositiveX() : dataset.getMinPositiveY();
+		}
 		double lowerBound = 0.0;
 		for (int i = 0; i < aDataset.getItemCount(0); i++) {
 			double tmp = isDomainAxis ? aDataset.getXValue(0, i) : aDataset.getYValue(0, i);
@@ -483,9 +526,9 @@ public abstract class JFreeChartConn {
 	}
 
 	/**
-	 * Creates a scatter plot that visualizes the given data collection.
+	 * Creates a scatter plot that visualizes the given dataset.
 	 * 
-	 * @param aCollection
+	 * @param aDataset
 	 *            Data to be visualized.
 	 * @param aGeneral
 	 *            General visual settings to be applied.
@@ -497,14 +540,14 @@ public abstract class JFreeChartConn {
 	 *            Point-related visual settings to be applied.
 	 * @return Newly created chart control.
 	 */
-	private static JFreeChart createScatter(XYSeriesCollection aCollection,
+	private static JFreeChart createScatter(XYDataset aDataset,
 			GeneralVisSettings aGeneral, AxesSettings aAxes, GridSettings aGrid,
 			ScatterSettings aScatter) {
 
 		JFreeChart chart = ChartFactory.createScatterPlot(null, // title
 				convertLabel(aAxes.getDomainAxisLabel()), // label of X axis
 				convertLabel(aAxes.getRangeAxisLabel()), // label of Y axis
-				aCollection, // dataset
+				aDataset, // dataset
 				PlotOrientation.VERTICAL, // orientation
 				false, // create legend
 				true, // display tooltips
@@ -520,6 +563,9 @@ public abstract class JFreeChartConn {
 		updateAxes(plot, aAxes, aGrid, domainDataRange, rangeDataRange);
 		updateScatter(plot, aScatter);
 		chart.setBackgroundPaint(null);
+		if (aDataset instanceof Points2DDataset) {
+			((Points2DDataset) aDataset).attachTo(plot);
+		}
 		return chart;
 	}
 
@@ -556,19 +602,17 @@ public abstract class JFreeChartConn {
 	}
 
 	/**
-	 * Converts the given point set to a data collection.
+	 * Converts the given point set to a dataset.
+	 * <p>
+	 * Large point sets are sampled to the resolution of the screen; see {@link Points2DDataset}.
+	 * </p>
 	 * 
 	 * @param aPoints
 	 *            Set of points to be converted.
-	 * @return Data collection to be used in the creation of a chart.
+	 * @return Dataset to be used in the creation of a chart.
 	 */
-	private static XYSeriesCollection fromPoints2D(Points2D aPoints) {
-		Point2D.Double[] points = aPoints.getPoints();
-		XYSeries dataSeries = new XYSeries("", true, true);
-		for (int i = 0; i < points.length; ++i) {
-			dataSeries.add(points[i].x, points[i].y, false);
-		}
-		return new XYSeriesCollection(dataSeries);
+	private static XYDataset fromPoints2D(Points2D aPoints) {
+		return new Points2DDataset(aPoints);
 	}
 
 	/**
@@ -663,4 +707,9 @@ public abstract class JFreeChartConn {
 		}
 		renderer.setSeriesShape(0, shape);
 	}
+
+	/**
+	 * Percentiles displayed in the title of cumulative distribution charts.
+	 */
+	private static final int[] PERCENTILES = new int[] { 10, 25, 50, 75, 90, 99 };
 }
@@ -0,0 +1,595 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.ui.charts;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+import org.jfree.chart.axis.LogarithmicAxis;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.event.PlotChangeEvent;
+import org.jfree.chart.event.PlotChangeListener;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.DomainInfo;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.xy.AbstractXYDataset;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Points2D;
+
+/**
+ * Dataset of a single series that displays a point set at the resolution of the screen.
+ * <p>
+ * Point sets of more than {@link #MAX_POINTS} points are not rendered point by point. If the <i>x</i>
+ * coordinates of the points are strictly increasing, the visible part of the series is downsampled with
+ * the Largest-Triangle-Three-Buckets algorithm. Otherwise, the visible points are aggregated in a grid of
+ * {@link #GRID_SIZE} &times; {@link #GRID_SIZE} cells and every non-empty cell is represented by the
+ * centroid of its points. Once the dataset is attached to a plot, the visible part is sampled again every
+ * time the plot's axes change, for example when the user zooms in.
+ * </p>
+ * <p>
+ * The bounds of the dataset are always computed from the exact point set, which is also available through
+ * {@link #getPoints()}.
+ * </p>
+ */
+public class Points2DDataset extends AbstractXYDataset implements DomainInfo, RangeInfo, PlotChangeListener {
+
+	/**
+	 * Maximum number of points displayed by this dataset.
+	 */
+	public static final int MAX_POINTS = 4000;
+
+	/**
+	 * Number of grid cells along each axis used to aggregate unordered point sets.
+	 */
+	public static final int GRID_SIZE = 200;
+
+	/**
+	 * Initializes a new instance of <code>Points2DDataset</code>.
+	 * 
+	 * @param aPoints
+	 *            Point set to be displayed.
+	 */
+	public Points2DDataset(Points2D aPoints) {
+		points = aPoints;
+		xs = aPoints.getXs();
+		ys = aPoints.getYs();
+		ordered = isIncreasing(xs);
+		plot = null;
+		if (xs.length != 0) {
+			final double[] rangeX = aPoints.getRangeX();
+			final double[] rangeY = aPoints.getRangeY();
+			boundsX = new Range(rangeX[0], rangeX[1]);
+			boundsY = new Range(rangeY[0], rangeY[1]);
+		} else {
+			boundsX = null;
+			boundsY = null;
+		}
+		minPositiveX = minPositive(xs);
+		minPositiveY = minPositive(ys);
+		windowX = boundsX;
+		windowY = boundsY;
+		logX = false;
+		logY = false;
+		sample();
+	}
+
+	/**
+	 * Attaches this dataset to the plot that displays it.
+	 * <p>
+	 * If the point set is downsampled, the dataset listens to the changes of the plot and samples the
+	 * visible part of the point set when the axes' ranges change.
+	 * </p>
+	 * 
+	 * @param aPlot
+	 *            Plot that displays this dataset.
+	 */
+	public void attachTo(XYPlot aPlot) {
+		if (isSampled()) {
+			plot = aPlot;
+			aPlot.addChangeListener(this);
+			update();
+		}
+	}
+
+	/**
+	 * Checks if the point set is sampled for display.
+	 * 
+	 * @return <code>true</code> if the point set contains more than {@link #MAX_POINTS} points and only a
+	 *         sample of it is displayed; <code>false</code> if all points are displayed.
+	 */
+	public boolean isSampled() {
+		return xs.length > MAX_POINTS;
+	}
+
+	/**
+	 * Gets the exact point set displayed by this dataset.
+	 * 
+	 * @return All points of the dataset, regardless of the sampling.
+	 */
+	public Points2D getPoints() {
+		return points;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.general.SeriesDataset#getSeriesCount()
+	 */
+	@Override
+	public int getSeriesCount() {
+		return 1;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.general.SeriesDataset#getSeriesKey(int)
+	 */
+	@Override
+	@SuppressWarnings("rawtypes")
+	public Comparable getSeriesKey(int aSeries) {
+		return "";
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.xy.XYDataset#getItemCount(int)
+	 */
+	public int getItemCount(int aSeries) {
+		return viewXs.length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.xy.XYDataset#getX(int, int)
+	 */
+	public Number getX(int aSeries, int aItem) {
+		return new Double(viewXs[aItem]);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.xy.AbstractXYDataset#getXValue(int, int)
+	 */
+	@Override
+	public double getXValue(int aSeries, int aItem) {
+		return viewXs[aItem];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.xy.XYDataset#getY(int, int)
+	 */
+	public Number getY(int aSeries, int aItem) {
+		return new Double(viewYs[aItem]);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.xy.AbstractXYDataset#getYValue(int, int)
+	 */
+	@Override
+	public double getYValue(int aSeries, int aItem) {
+		return viewYs[aItem];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.DomainInfo#getDomainLowerBound(boolean)
+	 */
+	public double getDomainLowerBound(boolean aIncludeInterval) {
+		return boundsX != null ? boundsX.getLowerBound() : Double.NaN;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.DomainInfo#getDomainUpperBound(boolean)
+	 */
+	public double getDomainUpperBound(boolean aIncludeInterval) {
+		return boundsX != null ? boundsX.getUpperBound() : Double.NaN;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.DomainInfo#getDomainBounds(boolean)
+	 */
+	public Range getDomainBounds(boolean aIncludeInterval) {
+		return boundsX;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.RangeInfo#getRangeLowerBound(boolean)
+	 */
+	public double getRangeLowerBound(boolean aIncludeInterval) {
+		return boundsY != null ? boundsY.getLowerBound() : Double.NaN;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.RangeInfo#getRangeUpperBound(boolean)
+	 */
+	public double getRangeUpperBound(boolean aIncludeInterval) {
+		return boundsY != null ? boundsY.getUpperBound() : Double.NaN;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.data.RangeInfo#getRangeBounds(boolean)
+	 */
+	public Range getRangeBounds(boolean aIncludeInterval) {
+		return boundsY;
+	}
+
+	/**
+	 * Gets the smallest positive <i>x</i> coordinate of the point set.
+	 * 
+	 * @return Smallest positive <i>x</i> coordinate; <code>0</code> if the point set contains no points
+	 *         with positive <i>x</i> coordinates.
+	 */
+	public double getMinPositiveX() {
+		return minPositiveX;
+	}
+
+	/**
+	 * Gets the smallest positive <i>y</i> coordinate of the point set.
+	 * 
+	 * @return Smallest positive <i>y</i> coordinate; <code>0</code> if the point set contains no points
+	 *         with positive <i>y</i> coordinates.
+	 */
+	public double getMinPositiveY() {
+		return minPositiveY;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.jfree.chart.event.PlotChangeListener#plotChanged(org.jfree.chart.event.PlotChangeEvent)
+	 */
+	public void plotChanged(PlotChangeEvent aEvent) {
+		update();
+	}
+
+	/**
+	 * Checks if the given values are strictly increasing.
+	 * 
+	 * @param aValues
+	 *            Values to be checked.
+	 * @return <code>true</code> if every value is greater than the previous one; <code>false</code>
+	 *         otherwise.
+	 */
+	private static boolean isIncreasing(double[] aValues) {
+		for (int i = 1; i < aValues.length; ++i) {
+			if (!(aValues[i - 1] < aValues[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the smallest positive value in the given array.
+	 * 
+	 * @param aValues
+	 *            Values to be traversed.
+	 * @return Smallest positive element of <code>aValues</code>; <code>0</code> if there are no positive
+	 *         elements.
+	 */
+	private static double minPositive(double[] aValues) {
+		double min = 0;
+		for (final double value : aValues) {
+			if (value > 0 && (min == 0 || value < min)) {
+				min = value;
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Samples the point set again if the visible ranges of the plot's axes have changed.
+	 */
+	private void update() {
+		final ValueAxis domainAxis = plot.getDomainAxis();
+		final ValueAxis rangeAxis = plot.getRangeAxis();
+		final Range newWindowX = domainAxis.getRange();
+		final Range newWindowY = rangeAxis.getRange();
+		final boolean newLogX = domainAxis instanceof LogarithmicAxis;
+		final boolean newLogY = rangeAxis instanceof LogarithmicAxis;
+		if (newWindowX.equals(windowX) && newWindowY.equals(windowY) && newLogX == logX && newLogY == logY) {
+			return;
+		}
+		windowX = newWindowX;
+		windowY = newWindowY;
+		logX = newLogX;
+		logY = newLogY;
+		sample();
+		fireDatasetChanged();
+	}
+
+	/**
+	 * Samples the visible part of the point set.
+	 */
+	private void sample() {
+		if (!isSampled()) {
+			viewXs = xs;
+			viewYs = ys;
+		} else if (ordered) {
+			sampleLargestTriangles();
+		} else {
+			sampleGrid();
+		}
+	}
+
+	/**
+	 * Downsamples the visible part of the point set with the Largest-Triangle-Three-Buckets algorithm.
+	 * <p>
+	 * The first and the last point are always kept. The other points are split into buckets of (almost)
+	 * equal size and from every bucket, the point is kept that forms the largest triangle with the last kept
+	 * point and the average of the next bucket. The areas are computed in the coordinates of the axes, that
+	 * is, after logarithmic scaling if the axis is logarithmic.
+	 * </p>
+	 */
+	private void sampleLargestTriangles() {
+		int from = Arrays.binarySearch(xs, windowX.getLowerBound());
+		from = from >= 0 ? from : -from - 1;
+		int to = Arrays.binarySearch(xs, windowX.getUpperBound());
+		to = to >= 0 ? to + 1 : -to - 1;
+		// Include the neighbors of the visible part, so that the series enters and leaves the window
+		from = Math.max(from - 1, 0);
+		to = Math.min(to + 1, xs.length);
+		final int count = to - from;
+		if (count <= MAX_POINTS) {
+			viewXs = Arrays.copyOfRange(xs, from, to);
+			viewYs = Arrays.copyOfRange(ys, from, to);
+			return;
+		}
+
+		final double[] sampledXs = new double[MAX_POINTS];
+		final double[] sampledYs = new double[MAX_POINTS];
+		sampledXs[0] = xs[from];
+		sampledYs[0] = ys[from];
+		final double every = (double) (count - 2) / (MAX_POINTS - 2);
+		int last = from;
+		for (int i = 0; i < MAX_POINTS - 2; ++i) {
+			// Average of the next bucket
+			final int nextStart = from + (int) ((i + 1) * every) + 1;
+			final int nextEnd = Math.min(from + (int) ((i + 2) * every) + 1, to);
+			double avgX = 0;
+			double avgY = 0;
+			for (int j = nextStart; j < nextEnd; ++j) {
+				avgX += scale(xs[j], logX, minPositiveX);
+				avgY += scale(ys[j], logY, minPositiveY);
+			}
+			avgX /= nextEnd - nextStart;
+			avgY /= nextEnd - nextStart;
+
+			// Point of the current bucket that forms the largest triangle
+			final double lastX = scale(xs[last], logX, minPositiveX);
+			final double lastY = scale(ys[last], logY, minPositiveY);
+			final int start = from + (int) (i * every) + 1;
+			final int end = from + (int) ((i + 1) * every) + 1;
+			double maxArea = -1;
+			int chosen = start;
+			for (int j = start; j < end; ++j) {
+				final double x = scale(xs[j], logX, minPositiveX);
+				final double y = scale(ys[j], logY, minPositiveY);
+				final double area = Math.abs((lastX - avgX) * (y - lastY) - (lastX - x) * (avgY - lastY));
+				if (area > maxArea) {
+					maxArea = area;
+					chosen = j;
+				}
+			}
+			sampledXs[i + 1] = xs[chosen];
+			sampledYs[i + 1] = ys[chosen];
+			last = chosen;
+		}
+		sampledXs[MAX_POINTS - 1] = xs[to - 1];
+		sampledYs[MAX_POINTS - 1] = ys[to - 1];
+		viewXs = sampledXs;
+		viewYs = sampledYs;
+	}
+
+	/**
+	 * Aggregates the visible part of the point set in a grid.
+	 * <p>
+	 * Every non-empty cell of the grid is represented by the centroid of the points it contains. The cells
+	 * have equal sizes in the coordinates of the axes, that is, after logarithmic scaling if the axis is
+	 * logarithmic.
+	 * </p>
+	 */
+	private void sampleGrid() {
+		final double lowerX = windowX.getLowerBound();
+		final double upperX = windowX.getUpperBound();
+		final double lowerY = windowY.getLowerBound();
+		final double upperY = windowY.getUpperBound();
+		final double offsetX = scale(lowerX, logX, minPositiveX);
+		final double offsetY = scale(lowerY, logY, minPositiveY);
+		final double cellX = cellSize(offsetX, scale(upperX, logX, minPositiveX));
+		final double cellY = cellSize(offsetY, scale(upperY, logY, minPositiveY));
+
+		final int[] counts = new int[GRID_SIZE * GRID_SIZE];
+		final double[] sumsX = new double[counts.length];
+		final double[] sumsY = new double[counts.length];
+		int occupied = 0;
+		for (int i = 0; i < xs.length; ++i) {
+			final double x = xs[i];
+			final double y = ys[i];
+			if (!(lowerX <= x && x <= upperX && lowerY <= y && y <= upperY)) {
+				continue;
+			}
+			final int column = cellIndex((scale(x, logX, minPositiveX) - offsetX) / cellX);
+			final int row = cellIndex((scale(y, logY, minPositiveY) - offsetY) / cellY);
+			final int cell = row * GRID_SIZE + column;
+			if (counts[cell]++ == 0) {
+				occupied++;
+			}
+			sumsX[cell] += x;
+			sumsY[cell] += y;
+		}
+
+		viewXs = new double[occupied];
+		viewYs = new double[occupied];
+		for (int cell = 0, i = 0; i < occupied; ++cell) {
+			final int count = counts[cell];
+			if (count != 0) {
+				viewXs[i] = sumsX[cell] / count;
+				viewYs[i] = sumsY[cell] / count;
+				i++;
+			}
+		}
+	}
+
+	/**
+	 * Computes the size of a grid cell along one axis.
+	 * 
+	 * @param aLower
+	 *            Lower bound of the visible range, in the coordinates of the axis.
+	 * @param aUpper
+	 *            Upper bound of the visible range, in the coordinates of the axis.
+	 * @return Width of a grid cell; <code>1</code> if the range is empty.
+	 */
+	private static double cellSize(double aLower, double aUpper) {
+		final double size = (aUpper - aLower) / GRID_SIZE;
+		return size > 0 ? size : 1;
+	}
+
+	/**
+	 * Converts a relative position in the grid to the index of a grid cell.
+	 * 
+	 * @param aPosition
+	 *            Position in the grid, measured in cells.
+	 * @return Index of the cell that contains the position, in the range [0, {@link #GRID_SIZE}).
+	 */
+	private static int cellIndex(double aPosition) {
+		return Math.max(0, Math.min((int) aPosition, GRID_SIZE - 1));
+	}
+
+	/**
+	 * Converts a value to the coordinates of an axis.
+	 * 
+	 * @param aValue
+	 *            Value to be converted.
+	 * @param aLog
+	 *            Flag indicating if the axis is logarithmic.
+	 * @param aMinPositive
+	 *            Smallest positive value in the data; non-positive values are shown at this value on a
+	 *            logarithmic axis.
+	 * @return <code>aValue</code> if the axis is linear; its decimal logarithm otherwise.
+	 */
+	private static double scale(double aValue, boolean aLog, double aMinPositive) {
+		if (aLog) {
+			return aValue > 0 ? Math.log10(aValue) : (aMinPositive > 0 ? Math.log10(aMinPositive) : 0);
+		}
+		return aValue;
+	}
+
+	/**
+	 * Exact point set displayed by this dataset.
+	 */
+	private Points2D points;
+
+	/**
+	 * <i>x</i> coordinates of the exact point set.
+	 */
+	private double[] xs;
+
+	/**
+	 * <i>y</i> coordinates of the exact point set.
+	 */
+	private double[] ys;
+
+	/**
+	 * Flag indicating if the <i>x</i> coordinates of the point set are strictly increasing.
+	 */
+	private boolean ordered;
+
+	/**
+	 * Bounds of the <i>x</i> coordinates of the point set; <code>null</code> if the set is empty.
+	 */
+	private Range boundsX;
+
+	/**
+	 * Bounds of the <i>y</i> coordinates of the point set; <code>null</code> if the set is empty.
+	 */
+	private Range boundsY;
+
+	/**
+	 * Smallest positive <i>x</i> coordinate of the point set.
+	 */
+	private double minPositiveX;
+
+	/**
+	 * Smallest positive <i>y</i> coordinate of the point set.
+	 */
+	private double minPositiveY;
+
+	/**
+	 * Plot this dataset is attached to; <code>null</code> if the dataset does not follow a plot.
+	 */
+	private XYPlot plot;
+
+	/**
+	 * Visible range of the domain axis the current sample is computed for.
+	 */
+	private Range windowX;
+
+	/**
+	 * Visible range of the range axis the current sample is computed for.
+	 */
+	private Range windowY;
+
+	/**
+	 * Flag indicating if the current sample is computed for a logarithmic domain axis.
+	 */
+	private boolean logX;
+
+	/**
+	 * Flag indicating if the current sample is computed for a logarithmic range axis.
+	 */
+	private boolean logY;
+
+	/**
+	 * <i>x</i> coordinates of the displayed points.
+	 */
+	private double[] viewXs;
+
+	/**
+	 * <i>y</i> coordinates of the displayed points.
+	 */
+	private double[] viewYs;
+}
@@ -0,0 +1,151 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.AnalysisTiming;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.IntHistogram;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.LongHistogram;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Points2D;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.QuantileSketch;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.BinaryStatsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.StatsSerializer;
+
+// Tests that network statistics saved in the binary netstats format are loaded unchanged
+public class BinaryStatsSerializerTest
+{
+	@BeforeClass
+	public static void initSettings()
+	{
+		SettingsSerializer.initDefaultSettings();
+	}
+
+	private static NetworkStats createStats()
+	{
+		NetworkStats stats = new NetworkStats();
+		stats.setTitle("Test network \u00e4");
+		stats.set("nodeCount", 5);
+		stats.set("edgeCount", 3000000000L);
+		stats.set("avNeighbors", 2.4);
+		stats.set("pathSampling", 0.25);
+		stats.set("degreeDist", new IntHistogram(new int[][] { { 0, 1, 2, 7 }, { 1, 2, 1, 1 } }, 0, 3));
+		stats.set("splDist", new LongHistogram(new long[] { 0, 6, 4, 10000000000L }, 1, 3));
+		stats.set("cksDist", new Points2D(new double[] { 3, 1, 2 }, new double[] { 0.5, 1.0, 0.0 }));
+		QuantileSketch sketch = new QuantileSketch();
+		for (int i = 0; i < 1000; i++)
+			sketch.add(i * i / 7.0);
+		stats.set("betweennessQuantiles", sketch);
+		AnalysisTiming timing = new AnalysisTiming();
+		timing.add("Shortest paths", 123456789L, 98765432L, 1024, 77);
+		stats.setTiming(timing);
+		return stats;
+	}
+
+	private static String toText(ComplexParam param) throws IOException
+	{
+		StringWriter writer = new StringWriter();
+		param.save(writer, true);
+		return writer.toString();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		NetworkStats stats = createStats();
+		File file = File.createTempFile("netstats", ".bin");
+		try
+		{
+			BinaryStatsSerializer.save(stats, file);
+			assertTrue(BinaryStatsSerializer.isBinary(file));
+			NetworkStats loaded = BinaryStatsSerializer.load(file);
+			assertNotNull(loaded);
+			assertEquals(stats.getTitle(), loaded.getTitle());
+			assertArrayEquals(stats.getComputedSimple(), loaded.getComputedSimple());
+			for (String param : stats.getComputedSimple())
+				assertEquals(stats.get(param), loaded.get(param));
+			assertArrayEquals(stats.getComputedComplex(), loaded.getComputedComplex());
+			for (String param : stats.getComputedComplex())
+			{
+				assertSame(stats.getComplex(param).getClass(), loaded.getComplex(param).getClass());
+				assertEquals(toText(stats.getComplex(param)), toText(loaded.getComplex(param)));
+			}
+			AnalysisTiming timing = loaded.getTiming();
+			assertNotNull(timing);
+			assertArrayEquals(stats.getTiming().getPhases(), timing.getPhases());
+			assertEquals(123456789L, timing.getWallTime("Shortest paths"));
+			assertEquals(98765432L, timing.getCpuTime("Shortest paths"));
+			assertEquals(1024, timing.getAllocated("Shortest paths"));
+			assertEquals(77, timing.getEdgesTraversed("Shortest paths"));
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testTextFile() throws IOException
+	{
+		File file = File.createTempFile("netstats", ".netstats");
+		try
+		{
+			StatsSerializer.save(createStats(), file);
+			assertFalse(BinaryStatsSerializer.isBinary(file));
+			assertNull(BinaryStatsSerializer.load(file));
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testTruncatedFile() throws IOException
+	{
+		File file = File.createTempFile("netstats", ".bin");
+		try
+		{
+			BinaryStatsSerializer.save(createStats(), file);
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try
+			{
+				raf.setLength(raf.length() - 20);
+			}
+			finally
+			{
+				raf.close();
+			}
+			assertTrue(BinaryStatsSerializer.isBinary(file));
+			assertNull(BinaryStatsSerializer.load(file));
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testEmptyFile() throws IOException
+	{
+		File file = File.createTempFile("netstats", ".bin");
+		try
+		{
+			assertFalse(BinaryStatsSerializer.isBinary(file));
+			assertNull(BinaryStatsSerializer.load(file));
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.cytoscape.model.CyNode;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.DirNetworkAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.NetworkAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.UndirNetworkAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NodeResults;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
+
+// Tests that resumed and sharded analyses give the same results as an analysis in a single run
+public class CheckpointTest
+{
+	private static final double TOLERANCE = 1e-9;
+
+	@BeforeClass
+	public static void initSettings()
+	{
+		SettingsSerializer.initDefaultSettings();
+		SettingsSerializer.getPluginSettings().setUseNodeAttributes(false);
+		SettingsSerializer.getPluginSettings().setUseEdgeAttributes(false);
+	}
+
+	// Random network of several components with a self-loop and an isolated node
+	private static InMemoryNetwork createNetwork(boolean directed)
+	{
+		Random random = new Random(directed ? 11 : 5);
+		InMemoryNetwork network = new InMemoryNetwork(directed ? "directed" : "undirected");
+		List<CyNode> nodes = new ArrayList<CyNode>();
+		for (int i = 0; i < 60; i++)
+			nodes.add(network.addNode("n" + i));
+		for (int i = 0; i < 50; i++)
+			for (int j = i + 1; j < 50; j++)
+				if (random.nextInt(12) == 0)
+					network.addEdge(nodes.get(i), nodes.get(j), directed);
+		for (int i = 50; i < 58; i++)
+			network.addEdge(nodes.get(i), nodes.get(i + 1), directed);
+		network.addEdge(nodes.get(57), nodes.get(50), directed);
+		network.addEdge(nodes.get(3), nodes.get(3), directed);
+		return network;
+	}
+
+	private static NetworkAnalyzer createAnalyzer(InMemoryNetwork network, boolean directed)
+	{
+		NetworkAnalyzer analyzer;
+		if (directed)
+			analyzer = new DirNetworkAnalyzer(network.getNetwork(), null, new NetworkInterpretation(null, true, false));
+		else
+			analyzer = new UndirNetworkAnalyzer(network.getNetwork(), null, new NetworkInterpretation(null, false, false));
+		analyzer.setKeepNodeResults(true);
+		analyzer.setThreadCount(2);
+		return analyzer;
+	}
+
+	private static void assertClose(String message, Object expected, Object actual)
+	{
+		if (expected instanceof Number && actual instanceof Number)
+		{
+			double e = ((Number) expected).doubleValue();
+			double a = ((Number) actual).doubleValue();
+			if (Double.isNaN(e))
+				assertTrue(message, Double.isNaN(a));
+			else
+				assertEquals(message, e, a, TOLERANCE * Math.max(1, Math.abs(e)));
+		}
+		else
+			assertEquals(message, expected, actual);
+	}
+
+	private static String[] sortedTokens(String text)
+	{
+		String[] lines = text.trim().split("\\n");
+		Arrays.sort(lines);
+		return String.join("\n", lines).split("\\s+");
+	}
+
+	// Compares the texts of the complex parameters number by number, ignoring the order of the lines
+	private static void assertSameText(String param, String expected, String actual)
+	{
+		String[] e = sortedTokens(expected);
+		String[] a = sortedTokens(actual);
+		assertEquals(param, e.length, a.length);
+		for (int i = 0; i < e.length; i++)
+		{
+			try
+			{
+				assertClose(param, Double.valueOf(e[i]), Double.valueOf(a[i]));
+			}
+			catch (NumberFormatException ex)
+			{
+				assertEquals(param, e[i], a[i]);
+			}
+		}
+	}
+
+	private static void assertSameResults(NetworkAnalyzer expected, NetworkAnalyzer actual) throws IOException
+	{
+		NetworkStats e = expected.getStats();
+		NetworkStats a = actual.getStats();
+		assertArrayEquals(e.getComputedSimple(), a.getComputedSimple());
+		for (String param : e.getComputedSimple())
+			if (!param.equals("time"))
+				assertClose(param, e.get(param), a.get(param));
+		assertArrayEquals(e.getComputedComplex(), a.getComputedComplex());
+		for (String param : e.getComputedComplex())
+		{
+			StringWriter ew = new StringWriter();
+			StringWriter aw = new StringWriter();
+			e.getComplex(param).save(ew, true);
+			a.getComplex(param).save(aw, true);
+			assertSameText(param, ew.toString(), aw.toString());
+		}
+
+		NodeResults en = expected.getNodeResults();
+		NodeResults an = actual.getNodeResults();
+		assertEquals(en.getNodeCount(), an.getNodeCount());
+		assertArrayEquals(en.getColumnNames(), an.getColumnNames());
+		for (String column : en.getColumnNames())
+			for (int i = 0; i < en.getNodeCount(); i++)
+				assertClose(column + " of " + en.getName(i), en.get(i, column), an.get(i, column));
+	}
+
+	private static void testShards(boolean directed) throws IOException
+	{
+		InMemoryNetwork network = createNetwork(directed);
+		NetworkAnalyzer full = createAnalyzer(network, directed);
+		full.computeAll();
+
+		File[] shards = new File[3];
+		try
+		{
+			for (int i = 0; i < shards.length; i++)
+			{
+				shards[i] = File.createTempFile("shard" + i, ".checkpoint");
+				NetworkAnalyzer shard = createAnalyzer(network, directed);
+				shard.setCheckpointFile(shards[i], false);
+				shard.setShard(i, shards.length);
+				shard.computeAll();
+				assertTrue(shards[i].length() > 0);
+			}
+			NetworkAnalyzer merged = createAnalyzer(network, directed);
+			merged.setMergedShards(shards);
+			merged.computeAll();
+			assertSameResults(full, merged);
+
+			// The sources of a missing shard are analyzed by the merging analyzer
+			NetworkAnalyzer partlyMerged = createAnalyzer(network, directed);
+			File missing = new File(shards[1].getPath() + ".missing");
+			partlyMerged.setMergedShards(new File[] { shards[0], missing, shards[2] });
+			partlyMerged.computeAll();
+			assertSameResults(full, partlyMerged);
+		}
+		finally
+		{
+			for (File file : shards)
+				if (file != null)
+					file.delete();
+		}
+	}
+
+	private static void testResume(boolean directed) throws IOException
+	{
+		InMemoryNetwork network = createNetwork(directed);
+		NetworkAnalyzer full = createAnalyzer(network, directed);
+		full.computeAll();
+
+		File file = File.createTempFile("resume", ".checkpoint");
+		try
+		{
+			// The checkpoint of a shard is a checkpoint of an analysis stopped halfway
+			NetworkAnalyzer first = createAnalyzer(network, directed);
+			first.setCheckpointFile(file, false);
+			first.setShard(0, 2);
+			first.computeAll();
+			assertTrue(file.length() > 0);
+
+			NetworkAnalyzer resumed = createAnalyzer(network, directed);
+			resumed.setCheckpointFile(file, true);
+			resumed.computeAll();
+			assertSameResults(full, resumed);
+			assertFalse(file.exists());
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testUndirectedShards() throws IOException
+	{
+		testShards(false);
+	}
+
+	@Test
+	public void testDirectedShards() throws IOException
+	{
+		testShards(true);
+	}
+
+	@Test
+	public void testUndirectedResume() throws IOException
+	{
+		testResume(false);
+	}
+
+	@Test
+	public void testDirectedResume() throws IOException
+	{
+		testResume(true);
+	}
+}
@@ -0,0 +1,58 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.cytoscape.model.CyNode;
+import org.junit.Test;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.ConnComponentAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.CCInfo;
+
+// Tests the extraction of the nodes of several connected components at once
+public class ConnComponentAnalyzerTest
+{
+	@Test
+	public void testGetNodesOf()
+	{
+		// Components of sizes 4 (a path and a self-loop), 3 (a directed cycle), 2 and 1
+		InMemoryNetwork net = new InMemoryNetwork("components");
+		CyNode[] nodes = new CyNode[10];
+		for (int i = 0; i < nodes.length; i++)
+			nodes[i] = net.addNode("n" + i);
+		net.addEdge(nodes[0], nodes[1], false);
+		net.addEdge(nodes[2], nodes[1], false);
+		net.addEdge(nodes[2], nodes[3], false);
+		net.addEdge(nodes[3], nodes[3], false);
+		net.addEdge(nodes[4], nodes[5], true);
+		net.addEdge(nodes[5], nodes[6], true);
+		net.addEdge(nodes[6], nodes[4], true);
+		net.addEdge(nodes[8], nodes[7], true);
+
+		ConnComponentAnalyzer analyzer = new ConnComponentAnalyzer(net.getNetwork());
+		CCInfo[] components = analyzer.findComponents().toArray(new CCInfo[0]);
+		assertEquals(4, components.length);
+
+		// Every combination of components gives the union of their nodes
+		for (int mask = 0; mask < 1 << components.length; mask++)
+		{
+			Set<CyNode> expected = new HashSet<CyNode>();
+			CCInfo[] selected = new CCInfo[Integer.bitCount(mask)];
+			for (int i = 0, j = 0; i < components.length; i++)
+				if ((mask & 1 << i) != 0)
+				{
+					selected[j++] = components[i];
+					expected.addAll(analyzer.getNodesOf(components[i]));
+				}
+			assertEquals(expected, ConnComponentAnalyzer.getNodesOf(net.getNetwork(), selected));
+		}
+
+		// Components of another network contribute no nodes
+		InMemoryNetwork other = new InMemoryNetwork("other");
+		CCInfo foreign = new CCInfo(1, other.addNode("m0"));
+		Set<CyNode> nodes0 = ConnComponentAnalyzer.getNodesOf(net.getNetwork(), new CCInfo[] { foreign, components[0] });
+		assertEquals(analyzer.getNodesOf(components[0]), nodes0);
+	}
+}
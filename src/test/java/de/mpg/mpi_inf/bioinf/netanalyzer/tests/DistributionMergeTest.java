@@ -0,0 +1,86 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.DegreeDistribution;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.IntHistogram;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.LogBinDistribution;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.LongHistogram;
+
+// Tests that merging distributions gives the same result as recording all observations in one
+public class DistributionMergeTest
+{
+	@Test
+	public void testDegreeDistribution()
+	{
+		int[] degrees = new int[] { 0, 3, 3, 7, 1, 12, 3, 0, 250, 7 };
+		DegreeDistribution all = new DegreeDistribution(10);
+		DegreeDistribution part1 = new DegreeDistribution(10);
+		DegreeDistribution part2 = new DegreeDistribution(2);
+		for (int i = 0; i < degrees.length; i++)
+		{
+			all.addObservation(degrees[i]);
+			(i < 4 ? part1 : part2).addObservation(degrees[i]);
+		}
+		part1.merge(part2);
+		part1.merge(new DegreeDistribution(1));
+		assertEquals(all.getMaxDegree(), part1.getMaxDegree());
+		for (int d = 0; d <= all.getMaxDegree(); d++)
+			assertEquals(all.getCount(d), part1.getCount(d));
+		assertArrayEquals(all.createHistogram().getBins(), part1.createHistogram().getBins());
+	}
+
+	@Test
+	public void testLogBinDistribution()
+	{
+		long[] observations = new long[] { 0, 1, 9, 10, 11, 99, 1000, 123456789012L, 5, 0 };
+		LogBinDistribution all = new LogBinDistribution();
+		LogBinDistribution part1 = new LogBinDistribution();
+		LogBinDistribution part2 = new LogBinDistribution();
+		for (int i = 0; i < observations.length; i++)
+		{
+			all.addObservation(observations[i]);
+			(i % 3 == 0 ? part1 : part2).addObservation(observations[i]);
+		}
+		part1.merge(part2);
+		part1.merge(new LogBinDistribution());
+		assertEquals(all.getMaxObservation(), part1.getMaxObservation());
+		assertArrayEquals(all.createHistogram().getBins(), part1.createHistogram().getBins());
+	}
+
+	@Test
+	public void testIntHistogram() throws IOException
+	{
+		IntHistogram h1 = new IntHistogram(new int[][] { { 1, 3, 5 }, { 2, 1, 4 } }, 0, 2);
+		IntHistogram h2 = new IntHistogram(new int[][] { { 0, 2, 3, 9 }, { 7, 1, 1, 1 } }, 0, 3);
+		int[][] expected = new int[][] { { 0, 1, 2, 3, 5, 9 }, { 7, 2, 1, 2, 4, 1 } };
+		assertArrayEquals(expected, h1.merge(h2).getBins());
+		assertArrayEquals(expected, h2.merge(h1).getBins());
+
+		// Empty histograms
+		IntHistogram empty = new IntHistogram(new String[] { "0" }, new StringLineReader(""));
+		assertArrayEquals(h1.getBins(), h1.merge(empty).getBins());
+		assertArrayEquals(h1.getBins(), empty.merge(h1).getBins());
+		assertEquals(0, empty.merge(empty).getBinCount());
+	}
+
+	@Test
+	public void testLongHistogram() throws IOException
+	{
+		LongHistogram h1 = new LongHistogram(new long[][] { { 1, 3, 1L << 40 }, { 2, 1, 4 } }, 0, 2);
+		LongHistogram h2 = new LongHistogram(new long[][] { { 0, 3, 4 }, { 7, 1L << 35, 1 } }, 0, 2);
+		long[][] expected = new long[][] { { 0, 1, 3, 4, 1L << 40 }, { 7, 2, (1L << 35) + 1, 1, 4 } };
+		assertArrayEquals(expected, h1.merge(h2).getBins());
+		assertArrayEquals(expected, h2.merge(h1).getBins());
+
+		// Empty histograms
+		LongHistogram empty = new LongHistogram(new String[] { "0" }, new StringLineReader(""));
+		assertArrayEquals(h1.getBins(), h1.merge(empty).getBins());
+		assertArrayEquals(h1.getBins(), empty.merge(h1).getBins());
+		assertEquals(0, empty.merge(empty).getBinCount());
+	}
+}
@@ -0,0 +1,74 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.IntHistogram;
+import de.mpg.mpi_inf.bioinf.netanalyzer.dec.Fitter;
+import de.mpg.mpi_inf.bioinf.netanalyzer.dec.PowerLawFit;
+
+// Tests the maximum likelihood power law fit on synthetic data with a known exponent
+public class FitterTest
+{
+	private static final double EXPONENT = 2.5;
+	private static final int XMIN = 5;
+
+	@Test
+	public void testMaxLikelihoodPowerLawFit()
+	{
+		IntHistogram histogram = createPowerLaw(new Random(42), 20000, 0.3);
+		PowerLawFit fit = Fitter.maxLikelihoodPowerLawFit(histogram);
+		assertNotNull(fit);
+		assertEquals(EXPONENT, fit.getExponent(), 0.1);
+		assertTrue(fit.getXMin() >= XMIN - 2 && fit.getXMin() <= 2 * XMIN);
+		assertEquals(20000, fit.getCount());
+		assertTrue(fit.getTailCount() <= fit.getCount());
+		assertTrue(fit.getDistance() >= 0 && fit.getDistance() < 0.05);
+	}
+
+	@Test
+	public void testTooFewValues()
+	{
+		assertNull(Fitter.maxLikelihoodPowerLawFit(new IntHistogram(new int[][] { { 3 }, { 100 } }, 0, 0)));
+		assertNull(Fitter.maxLikelihoodPowerLawFit(new IntHistogram(new int[][] { { 0, 4 }, { 100, 7 } }, 0, 1)));
+	}
+
+	@Test
+	public void testPowerLawPValue()
+	{
+		IntHistogram histogram = createPowerLaw(new Random(7), 2000, 0.3);
+		PowerLawFit fit = Fitter.maxLikelihoodPowerLawFit(histogram);
+		double p1 = Fitter.powerLawPValue(histogram, fit, 20, 1);
+		double p4 = Fitter.powerLawPValue(histogram, fit, 20, 4);
+		assertEquals(p1, p4, 0);
+		assertTrue(p1 >= 0 && p1 <= 1);
+	}
+
+	// Draws observations from a discrete power law above XMIN mixed with uniform values below it
+	private static IntHistogram createPowerLaw(Random random, int count, double belowFraction)
+	{
+		TreeMap<Integer, Integer> counts = new TreeMap<Integer, Integer>();
+		for (int i = 0; i < count; i++)
+		{
+			int x;
+			if (random.nextDouble() < belowFraction)
+				x = 1 + random.nextInt(XMIN - 1);
+			else
+				x = (int) Math.floor((XMIN - 0.5) * Math.pow(1 - random.nextDouble(), -1 / (EXPONENT - 1)) + 0.5);
+			Integer old = counts.get(x);
+			counts.put(x, old == null ? 1 : old + 1);
+		}
+		int[][] bins = new int[2][counts.size()];
+		int i = 0;
+		for (Integer x : counts.keySet())
+		{
+			bins[0][i] = x;
+			bins[1][i++] = counts.get(x);
+		}
+		return new IntHistogram(bins, 0, bins[0].length - 1);
+	}
+}
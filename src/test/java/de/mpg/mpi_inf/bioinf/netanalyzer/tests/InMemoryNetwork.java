@@ -0,0 +1,270 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.tests;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+
+// In-memory network with the subset of the CyNetwork interface used by the analyzers
+class InMemoryNetwork implements InvocationHandler
+{
+	private static long nextSUID = 1;
+
+	private final CyNetwork network;
+	private final List<CyNode> nodes = new ArrayList<CyNode>();
+	private final List<CyEdge> edges = new ArrayList<CyEdge>();
+	private final Map<CyNode, List<CyEdge>> adjacentEdges = new HashMap<CyNode, List<CyEdge>>();
+	private final Map<Object, Map<String, Object>> values = new HashMap<Object, Map<String, Object>>();
+	private final CyTable nodeTable = createTable();
+	private final CyTable edgeTable = createTable();
+
+	public InMemoryNetwork(String name)
+	{
+		network = (CyNetwork) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { CyNetwork.class }, this);
+		getValues(network).put(CyNetwork.NAME, name);
+	}
+
+	public CyNetwork getNetwork()
+	{
+		return network;
+	}
+
+	public CyNode addNode(String name)
+	{
+		final CyNode node = new TestNode(nextSUID++);
+		nodes.add(node);
+		adjacentEdges.put(node, new ArrayList<CyEdge>());
+		getValues(node).put(CyNetwork.NAME, name);
+		return node;
+	}
+
+	public CyEdge addEdge(CyNode source, CyNode target, boolean directed)
+	{
+		final CyEdge edge = new TestEdge(nextSUID++, source, target, directed);
+		edges.add(edge);
+		adjacentEdges.get(source).add(edge);
+		if (target != source)
+			adjacentEdges.get(target).add(edge);
+		return edge;
+	}
+
+	public Object invoke(Object proxy, Method method, Object[] args)
+	{
+		final String name = method.getName();
+		if (name.equals("getSUID"))
+			return Long.valueOf(0);
+		if (name.equals("getNodeCount"))
+			return Integer.valueOf(nodes.size());
+		if (name.equals("getEdgeCount"))
+			return Integer.valueOf(edges.size());
+		if (name.equals("getNodeList"))
+			return new ArrayList<CyNode>(nodes);
+		if (name.equals("getEdgeList"))
+			return new ArrayList<CyEdge>(edges);
+		if (name.equals("getAdjacentEdgeList") || name.equals("getAdjacentEdgeIterable"))
+			return getAdjacentEdges((CyNode) args[0], (CyEdge.Type) args[1]);
+		if (name.equals("getNeighborList"))
+		{
+			final List<CyNode> neighbors = new ArrayList<CyNode>();
+			for (final CyEdge edge : getAdjacentEdges((CyNode) args[0], (CyEdge.Type) args[1]))
+				neighbors.add(edge.getSource() == args[0] ? edge.getTarget() : edge.getSource());
+			return neighbors;
+		}
+		if (name.equals("getConnectingEdgeList"))
+		{
+			final List<CyEdge> connecting = new ArrayList<CyEdge>();
+			for (final CyEdge edge : adjacentEdges.get(args[0]))
+				if (edge.getSource() == args[1] || edge.getTarget() == args[1])
+					connecting.add(edge);
+			return connecting;
+		}
+		if (name.equals("containsNode"))
+			return Boolean.valueOf(adjacentEdges.containsKey(args[0]));
+		if (name.equals("getRow"))
+			return createRow(args[0]);
+		if (name.equals("getDefaultNodeTable"))
+			return nodeTable;
+		if (name.equals("getDefaultEdgeTable"))
+			return edgeTable;
+		if (name.equals("getTable") && args[0] == CyNode.class)
+			return nodeTable;
+		if (name.equals("getTable") && args[0] == CyEdge.class)
+			return edgeTable;
+		if (name.equals("hashCode"))
+			return Integer.valueOf(System.identityHashCode(proxy));
+		if (name.equals("equals"))
+			return Boolean.valueOf(proxy == args[0]);
+		if (name.equals("toString"))
+			return "InMemoryNetwork";
+		throw new UnsupportedOperationException(name);
+	}
+
+	private List<CyEdge> getAdjacentEdges(CyNode node, CyEdge.Type type)
+	{
+		final List<CyEdge> result = new ArrayList<CyEdge>();
+		for (final CyEdge edge : adjacentEdges.get(node))
+		{
+			final boolean incoming = edge.getTarget() == node;
+			final boolean outgoing = edge.getSource() == node;
+			switch (type)
+			{
+			case ANY:
+				result.add(edge);
+				break;
+			case INCOMING:
+				if (incoming)
+					result.add(edge);
+				break;
+			case OUTGOING:
+				if (outgoing)
+					result.add(edge);
+				break;
+			case DIRECTED:
+				if (edge.isDirected())
+					result.add(edge);
+				break;
+			case UNDIRECTED:
+				if (!edge.isDirected())
+					result.add(edge);
+				break;
+			}
+		}
+		return result;
+	}
+
+	private synchronized Map<String, Object> getValues(Object item)
+	{
+		Map<String, Object> itemValues = values.get(item);
+		if (itemValues == null)
+		{
+			itemValues = new LinkedHashMap<String, Object>();
+			values.put(item, itemValues);
+		}
+		return itemValues;
+	}
+
+	private CyRow createRow(Object item)
+	{
+		final Map<String, Object> itemValues = getValues(item);
+		return (CyRow) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { CyRow.class }, new InvocationHandler()
+		{
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				final String name = method.getName();
+				synchronized (itemValues)
+				{
+					if (name.equals("get") || name.equals("getRaw"))
+						return itemValues.get(args[0]);
+					if (name.equals("set"))
+					{
+						if (args[1] == null)
+							itemValues.remove(args[0]);
+						else
+							itemValues.put((String) args[0], args[1]);
+						return null;
+					}
+					if (name.equals("isSet"))
+						return Boolean.valueOf(itemValues.containsKey(args[0]));
+					if (name.equals("getAllValues"))
+						return new HashMap<String, Object>(itemValues);
+				}
+				if (name.equals("hashCode"))
+					return Integer.valueOf(System.identityHashCode(proxy));
+				if (name.equals("equals"))
+					return Boolean.valueOf(proxy == args[0]);
+				throw new UnsupportedOperationException(name);
+			}
+		});
+	}
+
+	private CyTable createTable()
+	{
+		return (CyTable) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { CyTable.class }, new InvocationHandler()
+		{
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				final String name = method.getName();
+				if (name.equals("getColumn") || name.equals("createColumn"))
+					return null;
+				if (name.equals("getColumns"))
+					return new ArrayList<Object>();
+				if (name.equals("hashCode"))
+					return Integer.valueOf(System.identityHashCode(proxy));
+				if (name.equals("equals"))
+					return Boolean.valueOf(proxy == args[0]);
+				throw new UnsupportedOperationException(name);
+			}
+		});
+	}
+
+	private static class TestNode implements CyNode
+	{
+		private final Long suid;
+
+		TestNode(long suid)
+		{
+			this.suid = Long.valueOf(suid);
+		}
+
+		public Long getSUID()
+		{
+			return suid;
+		}
+
+		public CyNetwork getNetworkPointer()
+		{
+			return null;
+		}
+
+		public void setNetworkPointer(CyNetwork network)
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static class TestEdge implements CyEdge
+	{
+		private final Long suid;
+		private final CyNode source;
+		private final CyNode target;
+		private final boolean directed;
+
+		TestEdge(long suid, CyNode source, CyNode target, boolean directed)
+		{
+			this.suid = Long.valueOf(suid);
+			this.source = source;
+			this.target = target;
+			this.directed = directed;
+		}
+
+		public Long getSUID()
+		{
+			return suid;
+		}
+
+		public CyNode getSource()
+		{
+			return source;
+		}
+
+		public CyNode getTarget()
+		{
+			return target;
+		}
+
+		public boolean isDirected()
+		{
+			return directed;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Points2D;
+
+// Tests the range filter and the sorting of point sets
+public class Points2DTest
+{
+	private static final double[] xs = new double[] { 3.0, -1.0, 2.0, 5.0, 2.0, 0.5 };
+	private static final double[] ys = new double[] { 30.0, -10.0, 20.0, 50.0, 21.0, 5.0 };
+
+	@Test
+	public void testFilterX()
+	{
+		Points2D points = new Points2D(xs.clone(), ys.clone());
+
+		// Bounds are inclusive and the result is sorted by x, keeping the order of equal x values
+		Points2D filtered = points.filterX(0.5, 3.0);
+		assertArrayEquals(new double[] { 0.5, 2.0, 2.0, 3.0 }, filtered.getXs(), 0.0);
+		assertArrayEquals(new double[] { 5.0, 20.0, 21.0, 30.0 }, filtered.getYs(), 0.0);
+
+		// All points in range
+		filtered = points.filterX(-10.0, 10.0);
+		assertArrayEquals(new double[] { -1.0, 0.5, 2.0, 2.0, 3.0, 5.0 }, filtered.getXs(), 0.0);
+		assertArrayEquals(new double[] { -10.0, 5.0, 20.0, 21.0, 30.0, 50.0 }, filtered.getYs(), 0.0);
+
+		// No points in range
+		assertEquals(0, points.filterX(5.5, 10.0).size());
+		assertEquals(0, points.filterX(1.0, 0.0).size());
+
+		// The points themselves are not modified
+		assertArrayEquals(xs, points.getXs(), 0.0);
+		assertArrayEquals(ys, points.getYs(), 0.0);
+	}
+
+	@Test
+	public void testSortByX()
+	{
+		Points2D points = new Points2D(xs.clone(), ys.clone());
+		Points2D sorted = points.sortByX();
+		assertArrayEquals(new double[] { -1.0, 0.5, 2.0, 2.0, 3.0, 5.0 }, sorted.getXs(), 0.0);
+		assertArrayEquals(new double[] { -10.0, 5.0, 20.0, 21.0, 30.0, 50.0 }, sorted.getYs(), 0.0);
+		assertSame(sorted, sorted.sortByX());
+	}
+}
@@ -0,0 +1,128 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.QuantileSketch;
+
+// Tests the accuracy, the merge and the serialization of quantile sketches
+public class QuantileSketchTest
+{
+	private static final double[] quantiles = new double[] { 0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999, 1.0 };
+
+	// Observations spanning nine orders of magnitude, with some zeros
+	private static double[] createObservations(long seed, int count)
+	{
+		Random random = new Random(seed);
+		double[] observations = new double[count];
+		for (int i = 0; i < count; i++)
+			observations[i] = random.nextInt(20) == 0 ? 0.0 : Math.exp(random.nextGaussian() * 4.0);
+		return observations;
+	}
+
+	private static QuantileSketch createSketch(double[] observations, int from, int to)
+	{
+		QuantileSketch sketch = new QuantileSketch();
+		for (int i = from; i < to; i++)
+			sketch.add(observations[i]);
+		return sketch;
+	}
+
+	private static void assertSameSketch(QuantileSketch expected, QuantileSketch actual)
+	{
+		assertEquals(expected.getCount(), actual.getCount());
+		assertEquals(expected.getRelativeAccuracy(), actual.getRelativeAccuracy(), 0.0);
+		assertEquals(expected.getMin(), actual.getMin(), 0.0);
+		assertEquals(expected.getMax(), actual.getMax(), 0.0);
+		for (int i = 0; i <= 100; i++)
+			assertEquals(expected.getQuantile(i / 100.0), actual.getQuantile(i / 100.0), 0.0);
+	}
+
+	@Test
+	public void testErrorBound()
+	{
+		double[] observations = createObservations(42, 20000);
+		QuantileSketch sketch = createSketch(observations, 0, observations.length);
+		double[] sorted = observations.clone();
+		Arrays.sort(sorted);
+
+		assertEquals(observations.length, sketch.getCount());
+		assertEquals(sorted[0], sketch.getMin(), 0.0);
+		assertEquals(sorted[sorted.length - 1], sketch.getMax(), 0.0);
+		double accuracy = sketch.getRelativeAccuracy();
+		for (double q : quantiles)
+		{
+			double exact = sorted[(int) (q * (sorted.length - 1))];
+			double estimate = sketch.getQuantile(q);
+			if (Math.abs(estimate - exact) > accuracy * exact * (1 + 1e-9))
+				fail("Quantile " + q + " too far off: " + estimate + " instead of " + exact);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testEmpty()
+	{
+		new QuantileSketch().getQuantile(0.5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegative()
+	{
+		new QuantileSketch().add(-1.0);
+	}
+
+	@Test
+	public void testMerge()
+	{
+		double[] observations = createObservations(7, 5000);
+		QuantileSketch all = createSketch(observations, 0, observations.length);
+
+		QuantileSketch merged = createSketch(observations, 0, 1000);
+		merged.merge(createSketch(observations, 1000, 4000));
+		merged.merge(new QuantileSketch());
+		merged.merge(createSketch(observations, 4000, observations.length));
+		assertSameSketch(all, merged);
+
+		QuantileSketch empty = new QuantileSketch();
+		empty.merge(all);
+		assertSameSketch(all, empty);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMergeDifferentAccuracy()
+	{
+		new QuantileSketch(0.01).merge(new QuantileSketch(0.05));
+	}
+
+	@Test
+	public void testTextRoundTrip() throws IOException
+	{
+		QuantileSketch sketch = createSketch(createObservations(11, 3000), 0, 3000);
+		StringWriter writer = new StringWriter();
+		sketch.save(writer, true);
+		String text = writer.toString();
+		int lineEnd = text.indexOf('\n');
+		String[] args = text.substring(0, lineEnd).split(" ");
+		assertSameSketch(sketch, new QuantileSketch(args, new StringLineReader(text.substring(lineEnd + 1))));
+	}
+
+	@Test
+	public void testBinaryRoundTrip() throws IOException
+	{
+		QuantileSketch sketch = createSketch(createObservations(13, 3000), 0, 3000);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		sketch.write(out);
+		out.close();
+		assertSameSketch(sketch, new QuantileSketch(ByteBuffer.wrap(bytes.toByteArray())));
+	}
+}
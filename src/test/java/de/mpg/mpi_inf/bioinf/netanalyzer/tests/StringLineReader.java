@@ -0,0 +1,33 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.tests;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.LineReader;
+
+// Reader of the text representation of complex parameters saved to a string
+class StringLineReader implements LineReader
+{
+	private final BufferedReader reader;
+
+	public StringLineReader(String text)
+	{
+		reader = new BufferedReader(new StringReader(text));
+	}
+
+	public void close() throws IOException
+	{
+		reader.close();
+	}
+
+	public String readLine() throws IOException
+	{
+		return reader.readLine();
+	}
+
+	public boolean ready() throws IOException
+	{
+		return reader.ready();
+	}
+}
@@ -0,0 +1,168 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.cytoscape.model.CyNode;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.DirNetworkAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.NetworkAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.UndirNetworkAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NodeResults;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
+
+// Tests that a time-limited analysis samples the sources of the path-based parameters and reports so
+public class TimeBudgetTest
+{
+	@BeforeClass
+	public static void initSettings()
+	{
+		SettingsSerializer.initDefaultSettings();
+		SettingsSerializer.getPluginSettings().setUseNodeAttributes(false);
+		SettingsSerializer.getPluginSettings().setUseEdgeAttributes(false);
+	}
+
+	// Connected network of a ring with random chords, too large to be analyzed within a millisecond
+	private static InMemoryNetwork createNetwork(boolean directed, int nodeCount)
+	{
+		Random random = new Random(3);
+		InMemoryNetwork network = new InMemoryNetwork(directed ? "directed" : "undirected");
+		List<CyNode> nodes = new ArrayList<CyNode>();
+		for (int i = 0; i < nodeCount; i++)
+			nodes.add(network.addNode("n" + i));
+		for (int i = 0; i < nodeCount; i++)
+		{
+			network.addEdge(nodes.get(i), nodes.get((i + 1) % nodeCount), directed);
+			network.addEdge(nodes.get(i), nodes.get(random.nextInt(nodeCount)), directed);
+		}
+		return network;
+	}
+
+	private static NetworkAnalyzer createAnalyzer(InMemoryNetwork network, boolean directed, long budget)
+	{
+		NetworkAnalyzer analyzer;
+		if (directed)
+			analyzer = new DirNetworkAnalyzer(network.getNetwork(), null, new NetworkInterpretation(null, true, false));
+		else
+			analyzer = new UndirNetworkAnalyzer(network.getNetwork(), null, new NetworkInterpretation(null, false, false));
+		analyzer.setKeepNodeResults(true);
+		analyzer.setThreadCount(2);
+		analyzer.setTimeBudget(budget);
+		analyzer.computeAll();
+		return analyzer;
+	}
+
+	private static int countSet(NodeResults results, String attrID)
+	{
+		int count = 0;
+		for (int i = 0; i < results.getNodeCount(); i++)
+			if (results.get(i, Messages.getAttr(attrID)) != null)
+				count++;
+		return count;
+	}
+
+	// Compares the texts of a complex parameter number by number, ignoring the order of the lines
+	private static void assertSameParam(String param, NetworkStats expected, NetworkStats actual) throws IOException
+	{
+		String[] e = sortedTokens(expected, param);
+		String[] a = sortedTokens(actual, param);
+		assertEquals(param, e.length, a.length);
+		for (int i = 0; i < e.length; i++)
+		{
+			double value = Double.parseDouble(e[i]);
+			assertEquals(param, value, Double.parseDouble(a[i]), 1e-9 * Math.max(1, Math.abs(value)));
+		}
+	}
+
+	private static String[] sortedTokens(NetworkStats stats, String param) throws IOException
+	{
+		StringWriter writer = new StringWriter();
+		stats.getComplex(param).save(writer, false);
+		String[] lines = writer.toString().trim().split("\\n");
+		Arrays.sort(lines);
+		return String.join("\n", lines).split("\\s+");
+	}
+
+	private static void testSampled(boolean directed)
+	{
+		InMemoryNetwork network = createNetwork(directed, 1500);
+		NetworkStats exact = createAnalyzer(network, directed, 0).getStats();
+		NetworkAnalyzer analyzer = createAnalyzer(network, directed, 1);
+		NetworkStats stats = analyzer.getStats();
+
+		double fraction = ((Double) stats.get("pathSampling")).doubleValue();
+		assertTrue(fraction > 0 && fraction < 1);
+		double error = ((Double) stats.get("avSplError")).doubleValue();
+		assertTrue(error > 0 && !Double.isInfinite(error));
+		double avSpl = ((Double) stats.get("avSpl")).doubleValue();
+		double exactAvSpl = ((Double) exact.get("avSpl")).doubleValue();
+		assertEquals(exactAvSpl, avSpl, 0.2 * exactAvSpl);
+		for (String param : NetworkStats.sampledParams)
+			assertTrue(param, stats.isEstimate(param));
+		assertFalse(stats.isEstimate("nodeCount"));
+
+		// Path-based values are kept for the sampled sources only; the other values for all nodes
+		NodeResults results = analyzer.getNodeResults();
+		int sampled = countSet(results, "clc");
+		assertEquals(Math.round(fraction * 1500), sampled);
+		assertEquals(sampled, countSet(results, "apl"));
+		assertEquals(sampled, countSet(results, "spl"));
+		assertEquals(1500, countSet(results, "isn"));
+	}
+
+	private static void testExact(boolean directed) throws IOException
+	{
+		InMemoryNetwork network = createNetwork(directed, 300);
+		NetworkStats exact = createAnalyzer(network, directed, 0).getStats();
+		assertFalse(exact.contains("pathSampling"));
+		assertFalse(exact.contains("avSplError"));
+
+		// A budget that does not expire gives the exact results
+		NetworkStats stats = createAnalyzer(network, directed, 3600000).getStats();
+		assertEquals(1.0, ((Double) stats.get("pathSampling")).doubleValue(), 0);
+		assertFalse(stats.contains("avSplError"));
+		for (String param : NetworkStats.sampledParams)
+			assertFalse(param, exact.isEstimate(param) || stats.isEstimate(param));
+		for (String param : exact.getComputedSimple())
+			if (!param.equals("time"))
+				assertEquals(param, exact.get(param), stats.get(param));
+		assertArrayEquals(exact.getComputedComplex(), stats.getComputedComplex());
+		for (String param : exact.getComputedComplex())
+			assertSameParam(param, exact, stats);
+	}
+
+	@Test
+	public void testUndirectedSampled()
+	{
+		testSampled(false);
+	}
+
+	@Test
+	public void testDirectedSampled()
+	{
+		testSampled(true);
+	}
+
+	@Test
+	public void testUndirectedExact() throws IOException
+	{
+		testExact(false);
+	}
+
+	@Test
+	public void testDirectedExact() throws IOException
+	{
+		testExact(true);
+	}
+}